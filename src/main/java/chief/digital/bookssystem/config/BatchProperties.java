@@ -0,0 +1,11 @@
+package chief.digital.bookssystem.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "books-system.batch")
+public class BatchProperties {
+
+    private int size = 500;
+}
@@ -0,0 +1,26 @@
+package chief.digital.bookssystem.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "books-system.book-import")
+public class BookImportProperties {
+
+    /**
+     * Most staged rows merged into the books by one transaction, which is also the checkpoint interval.
+     */
+    private int chunkSize = 1000;
+
+    /**
+     * Pause between two chunks, leaving room to other writes to the books.
+     */
+    private Duration pause = Duration.ofMillis(10);
+
+    /**
+     * Most rejected rows listed in the response of an import.
+     */
+    private int errorsLimit = 100;
+}
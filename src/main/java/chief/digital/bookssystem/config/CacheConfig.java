@@ -0,0 +1,129 @@
+package chief.digital.bookssystem.config;
+
+import chief.digital.bookssystem.service.EntityLoader;
+import chief.digital.bookssystem.util.CacheFillGuard;
+import chief.digital.bookssystem.util.CacheInvalidationBus;
+import chief.digital.bookssystem.util.EntityCache;
+import chief.digital.bookssystem.util.GuardedCaffeineCache;
+import chief.digital.bookssystem.util.JitteredExpiry;
+import chief.digital.bookssystem.util.NotifyingCacheDecorator;
+import chief.digital.bookssystem.util.RefreshAheadLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.sql.DriverManager;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.function.Supplier;
+
+/**
+ * Bounded Caffeine (W-TinyLFU) caches for the entity lookups. Caching advice runs before the transaction
+ * advice, so a cache hit does not open a transaction, and evictions made inside a transaction are deferred
+ * until it commits, so that lookups after the commit read the written row. A lookup that read the row before the
+ * eviction does not cache it, and for {@code books-system.datasource.replica.max-lag} after the eviction the row
+ * is loaded from the primary rather than from a replica that may not have replayed the write
+ * ({@link CacheFillGuard}). Entries expire with jitter, and entries read shortly before they expire are
+ * refreshed ahead in the background.
+ * Unless {@code books-system.cache.invalidation.enabled} is off, evictions also reach the other instances.
+ */
+@Configuration
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+public class CacheConfig implements DisposableBean {
+
+    private static final String LISTENER_APPLICATION_NAME = "books-system-cache-invalidation";
+    private static final String REFRESH_THREAD_NAME_PREFIX = "cache-refresh-";
+
+    /**
+     * Not a bean: an {@link java.util.concurrent.Executor} bean would replace the application task executor.
+     */
+    private final ThreadPoolTaskExecutor refreshExecutor = new ThreadPoolTaskExecutor();
+
+    @Bean
+    public CacheManager cacheManager(EntityCacheProperties entityCacheProperties,
+                                     ReplicaProperties replicaProperties,
+                                     ObjectProvider<CacheInvalidationBus> cacheInvalidationBus,
+                                     ObjectProvider<EntityLoader> entityLoaders) {
+        EntityCacheProperties.Refresh refresh = entityCacheProperties.getRefresh();
+        refreshExecutor.setCorePoolSize(refresh.getThreads());
+        refreshExecutor.setMaxPoolSize(refresh.getThreads());
+        refreshExecutor.setQueueCapacity(refresh.getQueueCapacity());
+        refreshExecutor.setThreadNamePrefix(REFRESH_THREAD_NAME_PREFIX);
+        refreshExecutor.setDaemon(true);
+        refreshExecutor.initialize();
+
+        CacheInvalidationBus bus = cacheInvalidationBus.getIfAvailable();
+        Duration primaryWindow = replicaProperties.isEnabled() ? replicaProperties.getMaxLag() : Duration.ZERO;
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(EntityCache.NAMES.stream()
+                .map(name -> toCache(name, entityCacheProperties, new CacheFillGuard(primaryWindow), bus,
+                        () -> findEntityLoader(entityLoaders, name)))
+                .toList());
+        return cacheManager;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "books-system.cache.invalidation", name = "enabled", havingValue = "true",
+            matchIfMissing = true)
+    public CacheInvalidationBus cacheInvalidationBus(DataSourceProperties dataSourceProperties,
+                                                     JdbcTemplate jdbcTemplate,
+                                                     EntityCacheProperties entityCacheProperties) {
+        // a connection of its own: listening holds it for the lifetime of the application
+        Properties connectionProperties = new Properties();
+        connectionProperties.setProperty("user", dataSourceProperties.determineUsername());
+        connectionProperties.setProperty("password", dataSourceProperties.determinePassword());
+        connectionProperties.setProperty("ApplicationName", LISTENER_APPLICATION_NAME);
+        String url = dataSourceProperties.determineUrl();
+
+        EntityCacheProperties.Invalidation invalidation = entityCacheProperties.getInvalidation();
+        return new CacheInvalidationBus(() -> DriverManager.getConnection(url, connectionProperties), jdbcTemplate,
+                invalidation.getChannel(), invalidation.getPollTimeout(), invalidation.getReconnectInterval());
+    }
+
+    @Override
+    public void destroy() {
+        refreshExecutor.shutdown();
+    }
+
+    private EntityLoader findEntityLoader(ObjectProvider<EntityLoader> entityLoaders, String cacheName) {
+        return entityLoaders.stream()
+                .filter(entityLoader -> cacheName.equals(entityLoader.getCacheName()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No loader of cache " + cacheName));
+    }
+
+    private Cache toCache(String name, EntityCacheProperties entityCacheProperties, CacheFillGuard guard,
+                          CacheInvalidationBus bus, Supplier<EntityLoader> entityLoader) {
+        EntityCacheProperties.Limits limits = entityCacheProperties.getCaches()
+                .getOrDefault(name, new EntityCacheProperties.Limits());
+        Caffeine<Object, Object> caffeine = Caffeine.newBuilder()
+                .maximumWeight(limits.getMaximumWeight())
+                .weigher((Object id, Object value) -> EntityCache.weigh(value))
+                .expireAfter(new JitteredExpiry(limits.getExpireAfterWrite(), limits.getExpiryJitter()))
+                .recordStats();
+        CaffeineCache cache = new GuardedCaffeineCache(name, Objects.isNull(limits.getRefreshAfterWrite())
+                ? caffeine.build()
+                : caffeine.refreshAfterWrite(limits.getRefreshAfterWrite())
+                        .build(new RefreshAheadLoader(entityLoader, refreshExecutor, guard)), guard);
+
+        if (Objects.isNull(bus)) {
+            return new TransactionAwareCacheDecorator(cache);
+        }
+        bus.subscribe(cache);
+        return new NotifyingCacheDecorator(cache, bus);
+    }
+}
@@ -0,0 +1,87 @@
+package chief.digital.bookssystem.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "books-system.cache")
+public class EntityCacheProperties {
+
+    /**
+     * Limits of each entity cache by cache name ({@code books}, {@code libraries}, {@code users}).
+     */
+    private Map<String, Limits> caches = new LinkedHashMap<>();
+
+    private Refresh refresh = new Refresh();
+
+    private Invalidation invalidation = new Invalidation();
+
+    @Data
+    public static class Limits {
+
+        /**
+         * Maximum total weight of the entries: an entity weighs 1 plus the number of related IDs it lists.
+         */
+        private long maximumWeight = 10_000;
+
+        /**
+         * Entries are reloaded at the latest this long after they were cached.
+         */
+        private Duration expireAfterWrite = Duration.ofMinutes(10);
+
+        /**
+         * Each entry expires up to this fraction of {@code expireAfterWrite} earlier, chosen at random,
+         * so that entries cached together do not expire together.
+         */
+        private double expiryJitter = 0.1;
+
+        /**
+         * An entry read this long after it was cached is reloaded in the background while the current value
+         * is still returned. Should be shorter than the earliest expiry; no refresh if not set.
+         */
+        private Duration refreshAfterWrite;
+    }
+
+    @Data
+    public static class Refresh {
+
+        /**
+         * Threads reloading entries in the background.
+         */
+        private int threads = 2;
+
+        /**
+         * Refreshes waiting for a thread; when the queue is full an entry due for refresh is dropped instead
+         * and loaded by its next reader.
+         */
+        private int queueCapacity = 1000;
+    }
+
+    @Data
+    public static class Invalidation {
+
+        /**
+         * Whether evictions are sent to the other instances with PostgreSQL {@code NOTIFY}.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Channel the evictions are sent on and listened to.
+         */
+        private String channel = "entity_cache";
+
+        /**
+         * Longest wait for a notification before the listening connection is checked.
+         */
+        private Duration pollTimeout = Duration.ofSeconds(5);
+
+        /**
+         * Pause before the listening connection is opened again after it failed.
+         */
+        private Duration reconnectInterval = Duration.ofSeconds(5);
+    }
+}
@@ -0,0 +1,24 @@
+package chief.digital.bookssystem.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "books-system.error-logging")
+public class ErrorLoggingProperties {
+
+    /**
+     * Most client errors (404, 400) of one exception type logged per interval; the rest are counted and
+     * reported with the next logged one.
+     */
+    private int limit = 10;
+
+    private Duration interval = Duration.ofSeconds(10);
+
+    /**
+     * Share of client errors considered for logging at all.
+     */
+    private double sampleRate = 1.0;
+}
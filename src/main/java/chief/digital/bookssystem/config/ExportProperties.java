@@ -0,0 +1,22 @@
+package chief.digital.bookssystem.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+
+@Data
+@ConfigurationProperties(prefix = "books-system.export")
+public class ExportProperties {
+
+    /**
+     * Directory the files of export jobs are written to.
+     */
+    private Path directory = Path.of(System.getProperty("java.io.tmpdir"), "books-system-exports");
+
+    /**
+     * Name of this instance, recorded with the jobs it runs: unless the directory is shared, only the instance
+     * that wrote a file can send it.
+     */
+    private String instanceId = "localhost";
+}
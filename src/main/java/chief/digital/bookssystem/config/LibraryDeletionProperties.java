@@ -0,0 +1,32 @@
+package chief.digital.bookssystem.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "books-system.library-deletion")
+public class LibraryDeletionProperties {
+
+    /**
+     * Most books or memberships of a library deleted in the background by one transaction.
+     */
+    private int chunkSize = 1000;
+
+    /**
+     * Pause between two chunks, leaving room to other writes to the same tables.
+     */
+    private Duration pause = Duration.ofMillis(50);
+
+    /**
+     * Most attempts at a deletion that fails or finds new books or memberships of the library before it is left
+     * for the next start.
+     */
+    private int maxAttempts = 5;
+
+    /**
+     * Pause before the second attempt, doubled before each further one.
+     */
+    private Duration retryBackoff = Duration.ofSeconds(1);
+}
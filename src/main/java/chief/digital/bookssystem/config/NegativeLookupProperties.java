@@ -0,0 +1,39 @@
+package chief.digital.bookssystem.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+@Data
+@ConfigurationProperties(prefix = "books-system.negative-lookup")
+public class NegativeLookupProperties {
+
+    /**
+     * How long an ID found not to exist is answered with 404 without a query.
+     */
+    private Duration ttl = Duration.ofSeconds(30);
+
+    /**
+     * Most IDs remembered as not existing, per entity.
+     */
+    private long maximumSize = 100_000;
+
+    /**
+     * Entities ({@code books}, {@code libraries}, {@code users}) whose existing IDs are also kept
+     * in a Bloom filter.
+     */
+    private Set<String> bloomFilters = new LinkedHashSet<>();
+
+    /**
+     * Share of missing IDs a freshly built Bloom filter still lets through to the database.
+     */
+    private double falsePositiveRate = 0.01;
+
+    /**
+     * How often the Bloom filters are rebuilt from the tables, dropping deleted IDs.
+     */
+    private Duration rebuildInterval = Duration.ofMinutes(10);
+}
@@ -0,0 +1,21 @@
+package chief.digital.bookssystem.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "books-system.paging")
+public class PagingProperties {
+
+    /**
+     * How long a row count estimated from {@code pg_class.reltuples} is reused.
+     */
+    private Duration estimateTtl = Duration.ofSeconds(30);
+
+    /**
+     * How many values of each facet are counted next to a filtered page, the most frequent first.
+     */
+    private int facetSize = 20;
+}
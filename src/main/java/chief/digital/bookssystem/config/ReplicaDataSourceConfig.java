@@ -0,0 +1,70 @@
+package chief.digital.bookssystem.config;
+
+import chief.digital.bookssystem.util.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+/**
+ * Replaces the single auto-configured data source with one that routes read-only transactions to the replicas
+ * when {@code books-system.datasource.replica.enabled} is set.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "books-system.datasource.replica", name = "enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    private static final long MIN_CONNECTION_TIMEOUT_MILLIS = 250;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                             DataSourceProperties dataSourceProperties,
+                                                             ReplicaProperties replicaProperties) {
+        List<String> urls = replicaProperties.getUrls();
+        List<HikariDataSource> replicas = IntStream.range(0, urls.size())
+                .mapToObj(i -> toReplicaDataSource(i, urls.get(i), dataSourceProperties, replicaProperties))
+                .toList();
+
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas,
+                replicaProperties.getMaxLag(), replicaProperties.getCheckInterval());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    private HikariDataSource toReplicaDataSource(int index, String url, DataSourceProperties dataSourceProperties,
+                                                 ReplicaProperties replicaProperties) {
+        HikariDataSource replica = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(url)
+                .build();
+        if (Objects.nonNull(replicaProperties.getUsername())) {
+            replica.setUsername(replicaProperties.getUsername());
+            replica.setPassword(replicaProperties.getPassword());
+        }
+        replica.setPoolName("ReplicaPool-" + index);
+        // an unreachable replica must fail fast so that reads fall back to the primary
+        replica.setConnectionTimeout(Math.max(MIN_CONNECTION_TIMEOUT_MILLIS, replicaProperties.getCheckInterval().toMillis()));
+        return replica;
+    }
+}
@@ -0,0 +1,40 @@
+package chief.digital.bookssystem.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "books-system.datasource.replica")
+public class ReplicaProperties {
+
+    /**
+     * Whether read-only transactions are routed to the replicas.
+     */
+    private boolean enabled;
+
+    /**
+     * JDBC URLs of the replicas; reads are spread across the healthy ones.
+     */
+    private List<String> urls = new ArrayList<>();
+
+    /**
+     * Replica credentials; the primary's are used when not set.
+     */
+    private String username;
+
+    private String password;
+
+    /**
+     * A replica further behind the primary than this gets no reads until it catches up.
+     */
+    private Duration maxLag = Duration.ofSeconds(10);
+
+    /**
+     * How often replica availability and lag are checked.
+     */
+    private Duration checkInterval = Duration.ofSeconds(5);
+}
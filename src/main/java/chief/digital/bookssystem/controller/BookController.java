@@ -1,22 +1,36 @@
 package chief.digital.bookssystem.controller;
 
+import chief.digital.bookssystem.exception.InvalidRequestException;
 import chief.digital.bookssystem.model.dto.request.BookDtoRequest;
+import chief.digital.bookssystem.model.dto.request.BookFilterDtoRequest;
 import chief.digital.bookssystem.model.dto.response.APIResponse;
+import chief.digital.bookssystem.model.dto.response.BatchDtoResponse;
 import chief.digital.bookssystem.model.dto.response.BookDtoResponse;
+import chief.digital.bookssystem.model.dto.response.BookImportDtoResponse;
 import chief.digital.bookssystem.model.dto.response.PageResponse;
+import chief.digital.bookssystem.model.dto.response.UpsertBatchDtoResponse;
+import chief.digital.bookssystem.model.enums.TotalType;
+import chief.digital.bookssystem.model.enums.UpsertStatus;
+import chief.digital.bookssystem.model.projection.Upserted;
+import chief.digital.bookssystem.service.BookImportService;
 import chief.digital.bookssystem.service.BookService;
+import chief.digital.bookssystem.util.ETags;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -26,9 +40,14 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.util.Objects;
+
 import static chief.digital.bookssystem.controller.BookController.BOOK_API_PATH;
 
 @Validated
@@ -40,7 +59,10 @@ public class BookController {
 
     public static final String BOOK_API_PATH = "/api/v0/books";
 
+    private static final String TEXT_CSV = "text/csv";
+
     private final BookService bookService;
+    private final BookImportService bookImportService;
 
     @Operation(summary = "Save Book", tags = "BookController")
     @ApiResponses(value = {
@@ -60,13 +82,126 @@ public class BookController {
         );
     }
 
+    @Operation(summary = "Save Books batch", tags = "BookController")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Saved Books batch"),
+            @ApiResponse(responseCode = "404", description = "Entity not found", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = APIResponse.class))})
+    })
+    @io.swagger.v3.oas.annotations.parameters.RequestBody(content = {@Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = BookDtoRequest.class)))})
+    @PostMapping(value = "/batch/{libraryId}", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<APIResponse<BatchDtoResponse>> saveAllByLibraryId(
+            @PathVariable @NotNull @PositiveOrZero Long libraryId,
+            HttpServletRequest request) throws IOException {
+        BatchDtoResponse batch = bookService.saveAllByLibraryId(libraryId, request.getInputStream());
+
+        return APIResponse.of(
+                batch.getSaved() + " Books were created in the Library with ID " + libraryId +
+                        "; failed: " + batch.getFailed(),
+                BOOK_API_PATH + "/batch/" + libraryId,
+                HttpStatus.OK,
+                batch
+        );
+    }
+
+    @Operation(summary = "Save or update Book by title", tags = "BookController")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Saved Book"),
+            @ApiResponse(responseCode = "200", description = "Updated Book, or left it as it was"),
+            @ApiResponse(responseCode = "404", description = "Entity not found", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = APIResponse.class))})
+    })
+    @PutMapping("/upsert/{libraryId}")
+    public ResponseEntity<APIResponse<BookDtoResponse>> upsertByLibraryId(
+            @PathVariable @NotNull @PositiveOrZero Long libraryId,
+            @RequestBody @Valid BookDtoRequest bookDtoRequest) {
+        Upserted<BookDtoResponse> book = bookService.upsertByLibraryId(libraryId, bookDtoRequest);
+
+        return ETags.withETag(APIResponse.of(
+                "Book with ID " + book.getEntity().getId() + " was " + book.getStatus().getValue(),
+                BOOK_API_PATH + "/upsert/" + libraryId,
+                book.getStatus() == UpsertStatus.CREATED ? HttpStatus.CREATED : HttpStatus.OK,
+                book.getEntity()
+        ), book.getEntity().getVersion());
+    }
+
+    @Operation(summary = "Save or update Books batch by title", tags = "BookController")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Saved or updated Books batch"),
+            @ApiResponse(responseCode = "404", description = "Entity not found", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = APIResponse.class))})
+    })
+    @io.swagger.v3.oas.annotations.parameters.RequestBody(content = {@Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = BookDtoRequest.class)))})
+    @PutMapping(value = "/upsert/batch/{libraryId}", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<APIResponse<UpsertBatchDtoResponse>> upsertAllByLibraryId(
+            @PathVariable @NotNull @PositiveOrZero Long libraryId,
+            HttpServletRequest request) throws IOException {
+        UpsertBatchDtoResponse batch = bookService.upsertAllByLibraryId(libraryId, request.getInputStream());
+
+        return APIResponse.of(
+                "Books upserted in the Library with ID " + libraryId + ": created: " + batch.getCreated() +
+                        "; updated: " + batch.getUpdated() + "; unchanged: " + batch.getUnchanged() +
+                        "; failed: " + batch.getFailed(),
+                BOOK_API_PATH + "/upsert/batch/" + libraryId,
+                HttpStatus.OK,
+                batch
+        );
+    }
+
+    @Operation(summary = "Import Books from CSV", tags = "BookController")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Staged Books, validated and merged in the background"),
+            @ApiResponse(responseCode = "400", description = "Invalid CSV", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = APIResponse.class))})
+    })
+    @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "CSV with a header line and the columns title, description, author, genre, publicationYear, libraryId", content = {@Content(mediaType = TEXT_CSV)})
+    @PostMapping(value = "/imports", consumes = TEXT_CSV)
+    public ResponseEntity<APIResponse<BookImportDtoResponse>> importCsv(HttpServletRequest request) throws IOException {
+        BookImportDtoResponse bookImport = bookImportService.importCsv(request.getInputStream());
+
+        return APIResponse.of(
+                bookImport.getRowsTotal() + " Books were staged by the import with ID " + bookImport.getId(),
+                BOOK_API_PATH + "/imports/" + bookImport.getId(),
+                HttpStatus.ACCEPTED,
+                bookImport
+        );
+    }
+
+    @Operation(summary = "Find Book import by ID", tags = "BookController")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found Book import by ID"),
+            @ApiResponse(responseCode = "404", description = "Entity not found", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = APIResponse.class))})
+    })
+    @GetMapping("/imports/{id}")
+    public ResponseEntity<APIResponse<BookImportDtoResponse>> findImportById(@PathVariable @NotNull @PositiveOrZero Long id) {
+        BookImportDtoResponse bookImport = bookImportService.findById(id);
+
+        return APIResponse.of(
+                "Book import with ID " + id + " was found",
+                BOOK_API_PATH + "/imports/" + id,
+                HttpStatus.OK,
+                bookImport
+        );
+    }
+
     @Operation(summary = "Find all Books", tags = "BookController")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Found all Books")
+            @ApiResponse(responseCode = "200", description = "Found all Books"),
+            @ApiResponse(responseCode = "400", description = "Invalid filter, cursor or total mode, or filters, facets or total with a cursor", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = APIResponse.class))})
     })
     @GetMapping
-    public ResponseEntity<APIResponse<PageResponse<BookDtoResponse>>> findAll(Pageable pageable) {
-        PageResponse<BookDtoResponse> books = bookService.findAll(pageable);
+    public ResponseEntity<APIResponse<PageResponse<BookDtoResponse>>> findAll(
+            Pageable pageable,
+            @Valid BookFilterDtoRequest filter,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) String orderBy,
+            @RequestParam(defaultValue = "false") boolean withTotal,
+            @RequestParam(defaultValue = "exact") String totalMode,
+            @RequestParam(defaultValue = "false") boolean withFacets) {
+        boolean byCursor = Objects.nonNull(after) || Objects.nonNull(orderBy);
+        if (byCursor && (!filter.isEmpty() || withFacets || withTotal)) {
+            throw new InvalidRequestException("Filters, facets and totals are not supported with cursor pagination");
+        }
+
+        PageResponse<BookDtoResponse> books = byCursor
+                ? bookService.findAllAfter(after, orderBy, pageable.getPageSize())
+                : bookService.findAll(filter, pageable, withTotal ? TotalType.of(totalMode) : null, withFacets);
 
         return APIResponse.of(
                 "All Books: page_number: " + pageable.getPageNumber() +
@@ -77,59 +212,96 @@ public class BookController {
         );
     }
 
+    @Operation(summary = "Search Books", tags = "BookController")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found Books ordered by relevance"),
+            @ApiResponse(responseCode = "400", description = "Invalid query or cursor", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = APIResponse.class))})
+    })
+    @GetMapping("/search")
+    public ResponseEntity<APIResponse<PageResponse<BookDtoResponse>>> search(
+            @RequestParam String query,
+            @RequestParam(required = false) @PositiveOrZero Long libraryId,
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) String after,
+            Pageable pageable) {
+        PageResponse<BookDtoResponse> books = bookService.search(query, libraryId, city, after, pageable.getPageSize());
+
+        return APIResponse.of(
+                "Books found by query '" + query + "': page_size: " + pageable.getPageSize(),
+                BOOK_API_PATH + "/search",
+                HttpStatus.OK,
+                books
+        );
+    }
+
     @Operation(summary = "Find Book by ID", tags = "BookController")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Found Book by ID"),
+            @ApiResponse(responseCode = "304", description = "Not modified since the ETag in If-None-Match"),
             @ApiResponse(responseCode = "404", description = "Entity not found", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = APIResponse.class))})
     })
     @GetMapping("/{id}")
-    public ResponseEntity<APIResponse<BookDtoResponse>> findById(@PathVariable @NotNull @PositiveOrZero Long id) {
+    public ResponseEntity<APIResponse<BookDtoResponse>> findById(
+            @PathVariable @NotNull @PositiveOrZero Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (Objects.nonNull(ifNoneMatch)) {
+            Long version = bookService.findVersionById(id);
+            if (ETags.matches(ifNoneMatch, version)) {
+                return ETags.notModified(version);
+            }
+        }
         BookDtoResponse book = bookService.findById(id);
 
-        return APIResponse.of(
+        return ETags.withETag(APIResponse.of(
                 "Book with ID " + book.getId() + " was found",
                 BOOK_API_PATH + "/" + id,
                 HttpStatus.OK,
                 book
-        );
+        ), book.getVersion());
     }
 
     @Operation(summary = "Update Book by ID", tags = "BookController")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Updated Book by ID"),
-            @ApiResponse(responseCode = "404", description = "Entity not found", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = APIResponse.class))})
+            @ApiResponse(responseCode = "404", description = "Entity not found", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = APIResponse.class))}),
+            @ApiResponse(responseCode = "409", description = "Modified concurrently", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = APIResponse.class))}),
+            @ApiResponse(responseCode = "412", description = "Modified since the ETag in If-Match", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = APIResponse.class))})
     })
     @PutMapping("/{id}")
     public ResponseEntity<APIResponse<BookDtoResponse>> update(
             @PathVariable @NotNull @PositiveOrZero Long id,
-            @RequestBody @Valid BookDtoRequest bookDtoRequest) {
-        BookDtoResponse book = bookService.update(id, bookDtoRequest);
+            @RequestBody @Valid BookDtoRequest bookDtoRequest,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        BookDtoResponse book = bookService.update(id, bookDtoRequest, ETags.toExpectedVersion(ifMatch));
 
-        return APIResponse.of(
+        return ETags.withETag(APIResponse.of(
                 "Changes were applied to the Book with ID " + id,
                 BOOK_API_PATH + "/" + id,
                 HttpStatus.OK,
                 book
-        );
+        ), book.getVersion());
     }
 
     @Operation(summary = "Partial Update Book by ID", tags = "BookController")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Partial Updated Book by ID"),
-            @ApiResponse(responseCode = "404", description = "Entity not found", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = APIResponse.class))})
+            @ApiResponse(responseCode = "404", description = "Entity not found", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = APIResponse.class))}),
+            @ApiResponse(responseCode = "409", description = "Modified concurrently", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = APIResponse.class))}),
+            @ApiResponse(responseCode = "412", description = "Modified since the ETag in If-Match", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = APIResponse.class))})
     })
     @PatchMapping("/{id}")
     public ResponseEntity<APIResponse<BookDtoResponse>> updatePartially(
             @PathVariable @NotNull @PositiveOrZero Long id,
-            @RequestBody BookDtoRequest bookDtoRequest) {
-        BookDtoResponse book = bookService.update(id, bookDtoRequest);
+            @RequestBody BookDtoRequest bookDtoRequest,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        BookDtoResponse book = bookService.update(id, bookDtoRequest, ETags.toExpectedVersion(ifMatch));
 
-        return APIResponse.of(
+        return ETags.withETag(APIResponse.of(
                 "Partial changes were applied to the Book with ID " + id,
                 BOOK_API_PATH + "/" + id,
                 HttpStatus.OK,
                 book
-        );
+        ), book.getVersion());
     }
 
     @Operation(summary = "Delete Book by ID", tags = "BookController")
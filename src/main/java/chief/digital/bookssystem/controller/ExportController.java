@@ -0,0 +1,127 @@
+package chief.digital.bookssystem.controller;
+
+import chief.digital.bookssystem.model.dto.response.APIResponse;
+import chief.digital.bookssystem.model.dto.response.ExportJobDtoResponse;
+import chief.digital.bookssystem.model.enums.ExportFormat;
+import chief.digital.bookssystem.model.enums.ExportType;
+import chief.digital.bookssystem.service.ExportJobService;
+import chief.digital.bookssystem.service.ExportService;
+import chief.digital.bookssystem.util.FileRanges;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static chief.digital.bookssystem.controller.ExportController.EXPORT_API_PATH;
+
+@Validated
+@RestController
+@RequiredArgsConstructor
+@RequestMapping(value = EXPORT_API_PATH)
+@Tag(name = "ExportController", description = "Export API")
+public class ExportController {
+
+    public static final String EXPORT_API_PATH = "/api/v0/export";
+
+    private static final MediaType GZIP = MediaType.parseMediaType("application/gzip");
+
+    private final ExportService exportService;
+    private final ExportJobService exportJobService;
+
+    @Operation(summary = "Export all Books, Libraries, Users or memberships", tags = "ExportController")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Exported rows, streamed as NDJSON or CSV"),
+            @ApiResponse(responseCode = "400", description = "Unknown export or format", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = APIResponse.class))})
+    })
+    @GetMapping("/{type}")
+    public ResponseEntity<StreamingResponseBody> export(
+            @PathVariable String type,
+            @RequestParam(defaultValue = "ndjson") String format) {
+        ExportType exportType = ExportType.of(type);
+        ExportFormat exportFormat = ExportFormat.of(format);
+        ContentDisposition contentDisposition = ContentDisposition.attachment()
+                .filename(exportType.getValue() + "." + exportFormat.getValue())
+                .build();
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, contentDisposition.toString())
+                .body(outputStream -> exportService.export(exportType, exportFormat, outputStream));
+    }
+
+    @Operation(summary = "Start an export job of all Books, Libraries, Users or memberships", tags = "ExportController")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Started export job"),
+            @ApiResponse(responseCode = "400", description = "Unknown export or format", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = APIResponse.class))})
+    })
+    @PostMapping("/jobs")
+    public ResponseEntity<APIResponse<ExportJobDtoResponse>> submitJob(
+            @RequestParam String type,
+            @RequestParam(defaultValue = "ndjson") String format) {
+        ExportJobDtoResponse exportJob = exportJobService.submit(ExportType.of(type), ExportFormat.of(format));
+
+        return APIResponse.of(
+                "Export job with ID " + exportJob.getId() + " was started",
+                EXPORT_API_PATH + "/jobs/" + exportJob.getId(),
+                HttpStatus.ACCEPTED,
+                exportJob
+        );
+    }
+
+    @Operation(summary = "Find export job by ID", tags = "ExportController")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found export job by ID"),
+            @ApiResponse(responseCode = "404", description = "Entity not found", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = APIResponse.class))})
+    })
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<APIResponse<ExportJobDtoResponse>> findJobById(@PathVariable @NotNull @PositiveOrZero Long id) {
+        ExportJobDtoResponse exportJob = exportJobService.findById(id);
+
+        return APIResponse.of(
+                "Export job with ID " + id + " was found",
+                EXPORT_API_PATH + "/jobs/" + id,
+                HttpStatus.OK,
+                exportJob
+        );
+    }
+
+    @Operation(summary = "Download the file of a finished export job by ID", tags = "ExportController")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Gzip-compressed file of the export job"),
+            @ApiResponse(responseCode = "206", description = "Requested byte range of the file"),
+            @ApiResponse(responseCode = "400", description = "Export job not finished", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = APIResponse.class))}),
+            @ApiResponse(responseCode = "404", description = "Entity not found, or file kept by another instance", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = APIResponse.class))}),
+            @ApiResponse(responseCode = "410", description = "File of the export job was deleted", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = APIResponse.class))}),
+            @ApiResponse(responseCode = "416", description = "Requested byte range outside of the file")
+    })
+    @GetMapping("/jobs/{id}/file")
+    public void downloadJobFile(@PathVariable @NotNull @PositiveOrZero Long id,
+                                HttpServletRequest request,
+                                HttpServletResponse response) throws IOException {
+        Path file = exportJobService.findFileById(id);
+        FileRanges.send(file, GZIP, file.getFileName().toString(), request, response);
+    }
+}
@@ -1,10 +1,18 @@
 package chief.digital.bookssystem.controller;
 
+import chief.digital.bookssystem.exception.InvalidRequestException;
 import chief.digital.bookssystem.model.dto.request.LibraryDtoRequest;
+import chief.digital.bookssystem.model.dto.request.LibraryUsersDtoRequest;
 import chief.digital.bookssystem.model.dto.response.APIResponse;
+import chief.digital.bookssystem.model.dto.response.LibraryDeletionDtoResponse;
 import chief.digital.bookssystem.model.dto.response.LibraryDtoResponse;
+import chief.digital.bookssystem.model.dto.response.LibraryUsersDtoResponse;
 import chief.digital.bookssystem.model.dto.response.PageResponse;
+import chief.digital.bookssystem.model.dto.response.UserDtoResponse;
+import chief.digital.bookssystem.model.enums.TotalType;
 import chief.digital.bookssystem.service.LibraryService;
+import chief.digital.bookssystem.service.UserService;
+import chief.digital.bookssystem.util.ETags;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -16,6 +24,7 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -26,9 +35,13 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.Objects;
+
 import static chief.digital.bookssystem.controller.LibraryController.LIBRARY_API_PATH;
 
 @Validated
@@ -41,6 +54,7 @@ public class LibraryController {
     public static final String LIBRARY_API_PATH = "/api/v0/libraries";
 
     private final LibraryService libraryService;
+    private final UserService userService;
 
     @Operation(summary = "Save Library", tags = "LibraryController")
     @ApiResponses(value = {
@@ -60,11 +74,25 @@ public class LibraryController {
 
     @Operation(summary = "Find all Libraries", tags = "LibraryController")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Found all Libraries")
+            @ApiResponse(responseCode = "200", description = "Found all Libraries"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or total mode, or total with a cursor", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = APIResponse.class))})
     })
     @GetMapping
-    public ResponseEntity<APIResponse<PageResponse<LibraryDtoResponse>>> findAll(Pageable pageable) {
-        PageResponse<LibraryDtoResponse> libraries = libraryService.findAll(pageable);
+    public ResponseEntity<APIResponse<PageResponse<LibraryDtoResponse>>> findAll(
+            Pageable pageable,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) String orderBy,
+            @RequestParam(defaultValue = "false") boolean withTotal,
+            @RequestParam(defaultValue = "exact") String totalMode,
+            @RequestParam(defaultValue = "false") boolean withUsers) {
+        boolean byCursor = Objects.nonNull(after) || Objects.nonNull(orderBy);
+        if (byCursor && withTotal) {
+            throw new InvalidRequestException("Totals are not supported with cursor pagination");
+        }
+
+        PageResponse<LibraryDtoResponse> libraries = !byCursor
+                ? libraryService.findAll(pageable, withTotal ? TotalType.of(totalMode) : null, withUsers)
+                : libraryService.findAllAfter(after, orderBy, pageable.getPageSize(), withUsers);
 
         return APIResponse.of(
                 "All Libraries: page_number: " + pageable.getPageNumber() +
@@ -78,56 +106,95 @@ public class LibraryController {
     @Operation(summary = "Find Library by ID", tags = "LibraryController")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Found Library by ID"),
+            @ApiResponse(responseCode = "304", description = "Not modified since the ETag in If-None-Match"),
             @ApiResponse(responseCode = "404", description = "Entity not found", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = APIResponse.class))})
     })
     @GetMapping("/{id}")
-    public ResponseEntity<APIResponse<LibraryDtoResponse>> findById(@PathVariable @NotNull @PositiveOrZero Long id) {
-        LibraryDtoResponse library = libraryService.findById(id);
+    public ResponseEntity<APIResponse<LibraryDtoResponse>> findById(
+            @PathVariable @NotNull @PositiveOrZero Long id,
+            @RequestParam(defaultValue = "false") boolean withUsers,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // the version does not cover the member list, so only the library without it is tagged
+        if (!withUsers && Objects.nonNull(ifNoneMatch)) {
+            Long version = libraryService.findVersionById(id);
+            if (ETags.matches(ifNoneMatch, version)) {
+                return ETags.notModified(version);
+            }
+        }
+        LibraryDtoResponse library = libraryService.findById(id, withUsers);
 
-        return APIResponse.of(
+        ResponseEntity<APIResponse<LibraryDtoResponse>> response = APIResponse.of(
                 "Library with ID " + library.getId() + " was found",
                 LIBRARY_API_PATH + "/" + id,
                 HttpStatus.OK,
                 library
         );
+        return withUsers ? response : ETags.withETag(response, library.getVersion());
+    }
+
+    @Operation(summary = "Find Users of Library by Library ID", tags = "LibraryController")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found Users of Library by Library ID"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = APIResponse.class))}),
+            @ApiResponse(responseCode = "404", description = "Entity not found", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = APIResponse.class))})
+    })
+    @GetMapping("/{id}/users")
+    public ResponseEntity<APIResponse<PageResponse<UserDtoResponse>>> findUsersById(
+            @PathVariable @NotNull @PositiveOrZero Long id,
+            Pageable pageable,
+            @RequestParam(required = false) String after) {
+        PageResponse<UserDtoResponse> users = userService.findAllByLibraryId(id, after, pageable.getPageSize());
+
+        return APIResponse.of(
+                "Users of the Library with ID " + id + ": page_size: " + pageable.getPageSize(),
+                LIBRARY_API_PATH + "/" + id + "/users",
+                HttpStatus.OK,
+                users
+        );
     }
 
     @Operation(summary = "Update Library by ID", tags = "LibraryController")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Updated Library by ID"),
-            @ApiResponse(responseCode = "404", description = "Entity not found", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = APIResponse.class))})
+            @ApiResponse(responseCode = "404", description = "Entity not found", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = APIResponse.class))}),
+            @ApiResponse(responseCode = "409", description = "Modified concurrently", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = APIResponse.class))}),
+            @ApiResponse(responseCode = "412", description = "Modified since the ETag in If-Match", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = APIResponse.class))})
     })
     @PutMapping("/{id}")
     public ResponseEntity<APIResponse<LibraryDtoResponse>> update(
             @PathVariable @NotNull @PositiveOrZero Long id,
-            @RequestBody @Valid LibraryDtoRequest libraryDtoRequest) {
-        LibraryDtoResponse library = libraryService.update(id, libraryDtoRequest);
+            @RequestBody @Valid LibraryDtoRequest libraryDtoRequest,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        LibraryDtoResponse library = libraryService.update(id, libraryDtoRequest, ETags.toExpectedVersion(ifMatch));
 
-        return APIResponse.of(
+        return ETags.withETag(APIResponse.of(
                 "Changes were applied to the Library with ID " + id,
                 LIBRARY_API_PATH + "/" + id,
                 HttpStatus.OK,
                 library
-        );
+        ), library.getVersion());
     }
 
     @Operation(summary = "Partial Update Library by ID", tags = "LibraryController")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Partial Updated Library by ID"),
-            @ApiResponse(responseCode = "404", description = "Entity not found", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = APIResponse.class))})
+            @ApiResponse(responseCode = "404", description = "Entity not found", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = APIResponse.class))}),
+            @ApiResponse(responseCode = "409", description = "Modified concurrently", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = APIResponse.class))}),
+            @ApiResponse(responseCode = "412", description = "Modified since the ETag in If-Match", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = APIResponse.class))})
     })
     @PatchMapping("/{id}")
     public ResponseEntity<APIResponse<LibraryDtoResponse>> updatePartially(
             @PathVariable @NotNull @PositiveOrZero Long id,
-            @RequestBody LibraryDtoRequest libraryDtoRequest) {
-        LibraryDtoResponse library = libraryService.update(id, libraryDtoRequest);
+            @RequestBody LibraryDtoRequest libraryDtoRequest,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        LibraryDtoResponse library = libraryService.update(id, libraryDtoRequest, ETags.toExpectedVersion(ifMatch));
 
-        return APIResponse.of(
+        return ETags.withETag(APIResponse.of(
                 "Partial changes were applied to the Library with ID " + id,
                 LIBRARY_API_PATH + "/" + id,
                 HttpStatus.OK,
                 library
-        );
+        ), library.getVersion());
     }
 
     @Operation(summary = "Add User to Library by User ID", tags = "LibraryController")
@@ -168,13 +235,84 @@ public class LibraryController {
         );
     }
 
+    @Operation(summary = "Add Users to Library by Users IDs", tags = "LibraryController")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Added Users to Library by Users IDs"),
+            @ApiResponse(responseCode = "404", description = "Entity not found", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = APIResponse.class))})
+    })
+    @PatchMapping("/addUsers/{libraryId}")
+    public ResponseEntity<APIResponse<LibraryUsersDtoResponse>> addUsersByLibraryId(
+            @PathVariable @NotNull @PositiveOrZero Long libraryId,
+            @RequestBody @Valid LibraryUsersDtoRequest libraryUsersDtoRequest) {
+        LibraryUsersDtoResponse libraryUsers = libraryService.addUsersByLibraryId(libraryId, libraryUsersDtoRequest);
+
+        return APIResponse.of(
+                libraryUsers.getAdded() + " Users were added to the Library with ID " + libraryId,
+                LIBRARY_API_PATH + "/addUsers/" + libraryId,
+                HttpStatus.OK,
+                libraryUsers
+        );
+    }
+
+    @Operation(summary = "Delete Users from Library by Users IDs", tags = "LibraryController")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Deleted Users from Library by Users IDs"),
+            @ApiResponse(responseCode = "404", description = "Entity not found", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = APIResponse.class))})
+    })
+    @PatchMapping("/deleteUsers/{libraryId}")
+    public ResponseEntity<APIResponse<LibraryUsersDtoResponse>> deleteUsersByLibraryId(
+            @PathVariable @NotNull @PositiveOrZero Long libraryId,
+            @RequestBody @Valid LibraryUsersDtoRequest libraryUsersDtoRequest) {
+        LibraryUsersDtoResponse libraryUsers = libraryService.deleteUsersByLibraryId(libraryId, libraryUsersDtoRequest);
+
+        return APIResponse.of(
+                libraryUsers.getRemoved() + " Users were deleted from the Library with ID " + libraryId,
+                LIBRARY_API_PATH + "/deleteUsers/" + libraryId,
+                HttpStatus.OK,
+                libraryUsers
+        );
+    }
+
+    @Operation(summary = "Sync Users of Library to Users IDs", tags = "LibraryController")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Synced Users of Library to Users IDs"),
+            @ApiResponse(responseCode = "404", description = "Entity not found", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = APIResponse.class))})
+    })
+    @PutMapping("/syncUsers/{libraryId}")
+    public ResponseEntity<APIResponse<LibraryUsersDtoResponse>> syncUsersByLibraryId(
+            @PathVariable @NotNull @PositiveOrZero Long libraryId,
+            @RequestBody @Valid LibraryUsersDtoRequest libraryUsersDtoRequest) {
+        LibraryUsersDtoResponse libraryUsers = libraryService.syncUsersByLibraryId(libraryId, libraryUsersDtoRequest);
+
+        return APIResponse.of(
+                "Users of the Library with ID " + libraryId + " were synced: added: " + libraryUsers.getAdded() +
+                        "; deleted: " + libraryUsers.getRemoved(),
+                LIBRARY_API_PATH + "/syncUsers/" + libraryId,
+                HttpStatus.OK,
+                libraryUsers
+        );
+    }
+
     @Operation(summary = "Delete Library by ID", tags = "LibraryController")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Deleted Library by ID"),
+            @ApiResponse(responseCode = "202", description = "Started deletion of Library by ID in the background"),
+            @ApiResponse(responseCode = "204", description = "Deleted Library by ID"),
             @ApiResponse(responseCode = "404", description = "Entity not found", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = APIResponse.class))})
     })
     @DeleteMapping("/{id}")
-    public ResponseEntity<APIResponse<Void>> deleteById(@PathVariable @NotNull @PositiveOrZero Long id) {
+    public ResponseEntity<APIResponse<LibraryDeletionDtoResponse>> deleteById(
+            @PathVariable @NotNull @PositiveOrZero Long id,
+            @RequestParam(defaultValue = "false") boolean async) {
+        if (async) {
+            LibraryDeletionDtoResponse deletion = libraryService.deleteByIdAsync(id);
+
+            return APIResponse.of(
+                    "Deletion of the Library with ID " + id + " was started",
+                    LIBRARY_API_PATH + "/deletions/" + id,
+                    HttpStatus.ACCEPTED,
+                    deletion
+            );
+        }
         libraryService.deleteById(id);
 
         return APIResponse.of(
@@ -184,4 +322,24 @@ public class LibraryController {
                 null
         );
     }
+
+    @Operation(summary = "Find deletion of Library by Library ID", tags = "LibraryController")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found deletion of Library by Library ID"),
+            @ApiResponse(responseCode = "404", description = "Entity not found", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = APIResponse.class))})
+    })
+    @GetMapping("/deletions/{id}")
+    public ResponseEntity<APIResponse<LibraryDeletionDtoResponse>> findDeletionById(
+            @PathVariable @NotNull @PositiveOrZero Long id) {
+        LibraryDeletionDtoResponse deletion = libraryService.findDeletionById(id);
+
+        return APIResponse.of(
+                "Deletion of the Library with ID " + id + ": deleted books: " + deletion.getBooksDeleted() +
+                        " of " + deletion.getBooksTotal() + "; deleted memberships: " +
+                        deletion.getMembershipsDeleted() + " of " + deletion.getMembershipsTotal(),
+                LIBRARY_API_PATH + "/deletions/" + id,
+                HttpStatus.OK,
+                deletion
+        );
+    }
 }
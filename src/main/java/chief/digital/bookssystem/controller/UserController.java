@@ -1,22 +1,33 @@
 package chief.digital.bookssystem.controller;
 
+import chief.digital.bookssystem.exception.InvalidRequestException;
 import chief.digital.bookssystem.model.dto.request.UserDtoRequest;
 import chief.digital.bookssystem.model.dto.response.APIResponse;
+import chief.digital.bookssystem.model.dto.response.BatchDtoResponse;
 import chief.digital.bookssystem.model.dto.response.PageResponse;
+import chief.digital.bookssystem.model.dto.response.UpsertBatchDtoResponse;
+import chief.digital.bookssystem.model.enums.TotalType;
+import chief.digital.bookssystem.model.enums.UpsertStatus;
+import chief.digital.bookssystem.model.projection.Upserted;
 import chief.digital.bookssystem.model.dto.response.UserDtoResponse;
 import chief.digital.bookssystem.service.UserService;
+import chief.digital.bookssystem.util.ETags;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -26,9 +37,14 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.util.Objects;
+
 import static chief.digital.bookssystem.controller.UserController.USER_API_PATH;
 
 @Validated
@@ -44,7 +60,8 @@ public class UserController {
 
     @Operation(summary = "Save User", tags = "UserController")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "201", description = "Saved User")
+            @ApiResponse(responseCode = "201", description = "Saved User"),
+            @ApiResponse(responseCode = "409", description = "Username or email already taken", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = APIResponse.class))})
     })
     @PostMapping
     public ResponseEntity<APIResponse<UserDtoResponse>> save(@RequestBody @Valid UserDtoRequest userDtoRequest) {
@@ -58,13 +75,82 @@ public class UserController {
         );
     }
 
+    @Operation(summary = "Save Users batch", tags = "UserController")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Saved Users batch"),
+            @ApiResponse(responseCode = "400", description = "Not a JSON array", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = APIResponse.class))})
+    })
+    @io.swagger.v3.oas.annotations.parameters.RequestBody(content = {@Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = UserDtoRequest.class)))})
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<APIResponse<BatchDtoResponse>> saveAll(HttpServletRequest request) throws IOException {
+        BatchDtoResponse batch = userService.saveAll(request.getInputStream());
+
+        return APIResponse.of(
+                batch.getSaved() + " Users were created; failed: " + batch.getFailed(),
+                USER_API_PATH + "/batch",
+                HttpStatus.OK,
+                batch
+        );
+    }
+
+    @Operation(summary = "Save or update User by username", tags = "UserController")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Saved User"),
+            @ApiResponse(responseCode = "200", description = "Updated User, or left it as it was"),
+            @ApiResponse(responseCode = "409", description = "Email already taken by another User", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = APIResponse.class))})
+    })
+    @PutMapping("/upsert")
+    public ResponseEntity<APIResponse<UserDtoResponse>> upsert(@RequestBody @Valid UserDtoRequest userDtoRequest) {
+        Upserted<UserDtoResponse> user = userService.upsert(userDtoRequest);
+
+        return ETags.withETag(APIResponse.of(
+                "User with ID " + user.getEntity().getId() + " was " + user.getStatus().getValue(),
+                USER_API_PATH + "/upsert",
+                user.getStatus() == UpsertStatus.CREATED ? HttpStatus.CREATED : HttpStatus.OK,
+                user.getEntity()
+        ), user.getEntity().getVersion());
+    }
+
+    @Operation(summary = "Save or update Users batch by username", tags = "UserController")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Saved or updated Users batch"),
+            @ApiResponse(responseCode = "400", description = "Not a JSON array", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = APIResponse.class))}),
+            @ApiResponse(responseCode = "409", description = "Email taken by another User concurrently", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = APIResponse.class))})
+    })
+    @io.swagger.v3.oas.annotations.parameters.RequestBody(content = {@Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = UserDtoRequest.class)))})
+    @PutMapping(value = "/upsert/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<APIResponse<UpsertBatchDtoResponse>> upsertAll(HttpServletRequest request) throws IOException {
+        UpsertBatchDtoResponse batch = userService.upsertAll(request.getInputStream());
+
+        return APIResponse.of(
+                "Users upserted: created: " + batch.getCreated() + "; updated: " + batch.getUpdated() +
+                        "; unchanged: " + batch.getUnchanged() + "; failed: " + batch.getFailed(),
+                USER_API_PATH + "/upsert/batch",
+                HttpStatus.OK,
+                batch
+        );
+    }
+
     @Operation(summary = "Find all Users", tags = "UserController")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Found all Users")
+            @ApiResponse(responseCode = "200", description = "Found all Users"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or total mode, or total with a cursor", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = APIResponse.class))})
     })
     @GetMapping
-    public ResponseEntity<APIResponse<PageResponse<UserDtoResponse>>> findAll(Pageable pageable) {
-        PageResponse<UserDtoResponse> users = userService.findAll(pageable);
+    public ResponseEntity<APIResponse<PageResponse<UserDtoResponse>>> findAll(
+            Pageable pageable,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) String orderBy,
+            @RequestParam(defaultValue = "false") boolean withTotal,
+            @RequestParam(defaultValue = "exact") String totalMode) {
+        boolean byCursor = Objects.nonNull(after) || Objects.nonNull(orderBy);
+        if (byCursor && withTotal) {
+            throw new InvalidRequestException("Totals are not supported with cursor pagination");
+        }
+
+        PageResponse<UserDtoResponse> users = !byCursor
+                ? userService.findAll(pageable, withTotal ? TotalType.of(totalMode) : null)
+                : userService.findAllAfter(after, orderBy, pageable.getPageSize());
 
         return APIResponse.of(
                 "All Users: page_number: " + pageable.getPageNumber() +
@@ -78,56 +164,71 @@ public class UserController {
     @Operation(summary = "Find User by ID", tags = "UserController")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Found User by ID"),
+            @ApiResponse(responseCode = "304", description = "Not modified since the ETag in If-None-Match"),
             @ApiResponse(responseCode = "404", description = "Entity not found", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = APIResponse.class))})
     })
     @GetMapping("/{id}")
-    public ResponseEntity<APIResponse<UserDtoResponse>> findById(@PathVariable @NotNull @PositiveOrZero Long id) {
+    public ResponseEntity<APIResponse<UserDtoResponse>> findById(
+            @PathVariable @NotNull @PositiveOrZero Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (Objects.nonNull(ifNoneMatch)) {
+            Long version = userService.findVersionById(id);
+            if (ETags.matches(ifNoneMatch, version)) {
+                return ETags.notModified(version);
+            }
+        }
         UserDtoResponse user = userService.findById(id);
 
-        return APIResponse.of(
+        return ETags.withETag(APIResponse.of(
                 "User with ID " + user.getId() + " was found",
                 USER_API_PATH + "/" + id,
                 HttpStatus.OK,
                 user
-        );
+        ), user.getVersion());
     }
 
     @Operation(summary = "Update User by ID", tags = "UserController")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Updated User by ID"),
-            @ApiResponse(responseCode = "404", description = "Entity not found", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = APIResponse.class))})
+            @ApiResponse(responseCode = "404", description = "Entity not found", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = APIResponse.class))}),
+            @ApiResponse(responseCode = "409", description = "Modified concurrently", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = APIResponse.class))}),
+            @ApiResponse(responseCode = "412", description = "Modified since the ETag in If-Match", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = APIResponse.class))})
     })
     @PutMapping("/{id}")
     public ResponseEntity<APIResponse<UserDtoResponse>> update(
             @PathVariable @NotNull @PositiveOrZero Long id,
-            @RequestBody @Valid UserDtoRequest userDtoRequest) {
-        UserDtoResponse user = userService.update(id, userDtoRequest);
+            @RequestBody @Valid UserDtoRequest userDtoRequest,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        UserDtoResponse user = userService.update(id, userDtoRequest, ETags.toExpectedVersion(ifMatch));
 
-        return APIResponse.of(
+        return ETags.withETag(APIResponse.of(
                 "Changes were applied to the User with ID " + id,
                 USER_API_PATH + "/" + id,
                 HttpStatus.OK,
                 user
-        );
+        ), user.getVersion());
     }
 
     @Operation(summary = "Partial Update User by ID", tags = "UserController")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Partial Updated User by ID"),
-            @ApiResponse(responseCode = "404", description = "Entity not found", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = APIResponse.class))})
+            @ApiResponse(responseCode = "404", description = "Entity not found", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = APIResponse.class))}),
+            @ApiResponse(responseCode = "409", description = "Modified concurrently", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = APIResponse.class))}),
+            @ApiResponse(responseCode = "412", description = "Modified since the ETag in If-Match", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = APIResponse.class))})
     })
     @PatchMapping("/{id}")
     public ResponseEntity<APIResponse<UserDtoResponse>> updatePartially(
             @PathVariable @NotNull @PositiveOrZero Long id,
-            @RequestBody UserDtoRequest userDtoRequest) {
-        UserDtoResponse user = userService.update(id, userDtoRequest);
+            @RequestBody UserDtoRequest userDtoRequest,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        UserDtoResponse user = userService.update(id, userDtoRequest, ETags.toExpectedVersion(ifMatch));
 
-        return APIResponse.of(
+        return ETags.withETag(APIResponse.of(
                 "Partial changes were applied to the User with ID " + id,
                 USER_API_PATH + "/" + id,
                 HttpStatus.OK,
                 user
-        );
+        ), user.getVersion());
     }
 
     @Operation(summary = "Delete User by ID", tags = "UserController")
@@ -1,20 +1,23 @@
 package chief.digital.bookssystem.exception;
 
+/**
+ * Thrown for a request of an entity that does not exist. Clients can cause it at any rate and it is always
+ * handled as 404, so it carries no stack trace: filling one in would be most of its cost.
+ */
 public class EntityNotFoundException extends RuntimeException {
 
-    private static final String DEFAULT_MESSAGE = "%s was not found";
-    private static final String DEFAULT_MESSAGE_WITH_ID = "%s with ID %s was not found";
-    private static final String DEFAULT_MESSAGE_WITH_DATA = "%s was not found";
+    private static final String NOT_FOUND = " was not found";
+    private static final String WITH_ID = " with ID ";
 
     public EntityNotFoundException(String message) {
-        super(String.format(DEFAULT_MESSAGE_WITH_DATA, message));
+        super(message + NOT_FOUND, null, false, false);
     }
 
     public <T> EntityNotFoundException(Class<T> entity) {
-        super(String.format(DEFAULT_MESSAGE, entity.getSimpleName()));
+        super(entity.getSimpleName() + NOT_FOUND, null, false, false);
     }
 
     public <T> EntityNotFoundException(Class<T> entity, Long id) {
-        super(String.format(DEFAULT_MESSAGE_WITH_ID, entity.getSimpleName(), id));
+        super(entity.getSimpleName() + WITH_ID + id + NOT_FOUND, null, false, false);
     }
 }
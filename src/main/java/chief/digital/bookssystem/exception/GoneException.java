@@ -0,0 +1,12 @@
+package chief.digital.bookssystem.exception;
+
+/**
+ * Thrown for a request of something that existed but was removed since, handled as 410. Like
+ * {@link EntityNotFoundException}, it carries no stack trace.
+ */
+public class GoneException extends RuntimeException {
+
+    public GoneException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,16 @@
+package chief.digital.bookssystem.exception;
+
+/**
+ * Thrown for a request the client has to correct, handled as 400. Like {@link EntityNotFoundException}, it
+ * carries no stack trace; the cause, if any, keeps its own.
+ */
+public class InvalidRequestException extends RuntimeException {
+
+    public InvalidRequestException(String message) {
+        super(message, null, false, false);
+    }
+
+    public InvalidRequestException(String message, Throwable cause) {
+        super(message, cause, false, false);
+    }
+}
@@ -0,0 +1,13 @@
+package chief.digital.bookssystem.exception;
+
+/**
+ * Thrown for a conditional write whose {@code If-Match} no longer matches the entity, handled as 412. Like
+ * {@link EntityNotFoundException}, it carries no stack trace.
+ */
+public class PreconditionFailedException extends RuntimeException {
+
+    public <T> PreconditionFailedException(Class<T> entity, Long id, Long version, Long expectedVersion) {
+        super(entity.getSimpleName() + " with ID " + id + " was modified: its version is " + version
+                + ", not " + expectedVersion, null, false, false);
+    }
+}
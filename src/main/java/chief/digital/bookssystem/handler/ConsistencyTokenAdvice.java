@@ -0,0 +1,54 @@
+package chief.digital.bookssystem.handler;
+
+import chief.digital.bookssystem.util.ReadConsistency;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.Set;
+
+/**
+ * Returns the primary's WAL position after a successful write as a consistency token. The write has committed
+ * by the time the response body is written, so a replica that has replayed up to the token sees it.
+ */
+@ControllerAdvice
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "books-system.datasource.replica", name = "enabled", havingValue = "true")
+public class ConsistencyTokenAdvice implements ResponseBodyAdvice<Object> {
+
+    private static final String CURRENT_LSN_SQL = "SELECT CAST(pg_current_wal_lsn() AS text)";
+    private static final Set<HttpMethod> WRITE_METHODS =
+            Set.of(HttpMethod.POST, HttpMethod.PUT, HttpMethod.PATCH, HttpMethod.DELETE);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (WRITE_METHODS.contains(request.getMethod()) && isSuccessful(response)) {
+            response.getHeaders().set(ReadConsistency.CONSISTENCY_TOKEN_HEADER,
+                    jdbcTemplate.queryForObject(CURRENT_LSN_SQL, String.class));
+        }
+        return body;
+    }
+
+    private boolean isSuccessful(ServerHttpResponse response) {
+        return response instanceof ServletServerHttpResponse servletResponse
+                && servletResponse.getServletResponse().getStatus() < 400;
+    }
+}
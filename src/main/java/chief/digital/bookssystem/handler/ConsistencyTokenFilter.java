@@ -0,0 +1,38 @@
+package chief.digital.bookssystem.handler;
+
+import chief.digital.bookssystem.util.ReadConsistency;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Makes the reads of a request that presents a consistency token observe the write the token was issued for.
+ */
+@Component
+@ConditionalOnProperty(prefix = "books-system.datasource.replica", name = "enabled", havingValue = "true")
+public class ConsistencyTokenFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String token = request.getHeader(ReadConsistency.CONSISTENCY_TOKEN_HEADER);
+        if (!StringUtils.hasText(token)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        ReadConsistency.require(token.trim());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReadConsistency.clear();
+        }
+    }
+}
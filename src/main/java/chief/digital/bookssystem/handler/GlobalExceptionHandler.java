@@ -1,9 +1,16 @@
 package chief.digital.bookssystem.handler;
 
+import chief.digital.bookssystem.config.ErrorLoggingProperties;
 import chief.digital.bookssystem.exception.EntityNotFoundException;
+import chief.digital.bookssystem.exception.GoneException;
+import chief.digital.bookssystem.exception.InvalidRequestException;
+import chief.digital.bookssystem.exception.PreconditionFailedException;
 import chief.digital.bookssystem.model.dto.response.APIResponse;
+import chief.digital.bookssystem.util.RateLimitedLogger;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -11,12 +18,21 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
-import java.util.Optional;
-
+/**
+ * Client errors are expected and logged without stack traces, rate limited per exception type; server errors
+ * are logged in full.
+ */
 @Slf4j
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
+    private final RateLimitedLogger clientErrorLog;
+
+    public GlobalExceptionHandler(ErrorLoggingProperties errorLoggingProperties) {
+        this.clientErrorLog = new RateLimitedLogger(log, errorLoggingProperties.getLimit(),
+                errorLoggingProperties.getInterval(), errorLoggingProperties.getSampleRate());
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<APIResponse<Void>> handleValidationException(
             MethodArgumentNotValidException exception,
@@ -28,9 +44,9 @@ public class GlobalExceptionHandler {
                 .reduce((a, b) -> a + "; " + b)
                 .orElse("Undefined error message");
 
-        log.warn(exception.getMessage(), exception);
+        clientErrorLog.warn(MethodArgumentNotValidException.class.getSimpleName(), errorMessage);
 
-        return generateErrorResponse(exception, HttpStatus.BAD_REQUEST, request, errorMessage);
+        return generateErrorResponse(errorMessage, HttpStatus.BAD_REQUEST, request);
     }
 
     @ExceptionHandler(EntityNotFoundException.class)
@@ -38,44 +54,87 @@ public class GlobalExceptionHandler {
             RuntimeException exception,
             HttpServletRequest request
     ) {
-        log.warn(exception.getMessage(), exception);
+        clientErrorLog.warn(EntityNotFoundException.class.getSimpleName(), exception.getMessage());
 
-        return generateErrorResponse(exception, HttpStatus.NOT_FOUND, request);
+        return generateErrorResponse(exception.getMessage(), HttpStatus.NOT_FOUND, request);
     }
 
-    @ExceptionHandler(Exception.class)
-    public ResponseEntity<APIResponse<Void>> handleServerSideErrorException(
-            Exception exception,
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<APIResponse<Void>> handleInvalidRequestException(
+            RuntimeException exception,
             HttpServletRequest request
     ) {
-        log.error(exception.getMessage(), exception);
-        return generateErrorResponse(exception, HttpStatus.INTERNAL_SERVER_ERROR, request);
+        clientErrorLog.warn(InvalidRequestException.class.getSimpleName(), exception.getMessage());
+
+        return generateErrorResponse(exception.getMessage(), HttpStatus.BAD_REQUEST, request);
     }
 
-    private ResponseEntity<APIResponse<Void>> generateErrorResponse(
-            Exception exception,
-            HttpStatus httpStatus,
+    @ExceptionHandler(GoneException.class)
+    public ResponseEntity<APIResponse<Void>> handleGoneException(
+            RuntimeException exception,
             HttpServletRequest request
     ) {
-        final APIResponse<Void> errorResponse = APIResponse.<Void>builder()
-                .status(httpStatus.value())
-                .message(exception.getMessage())
-                .path(request.getServletPath())
-                .data(null)
-                .build();
+        clientErrorLog.warn(GoneException.class.getSimpleName(), exception.getMessage());
 
-        return new ResponseEntity<>(errorResponse, httpStatus);
+        return generateErrorResponse(exception.getMessage(), HttpStatus.GONE, request);
     }
 
-    private ResponseEntity<APIResponse<Void>> generateErrorResponse(
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<APIResponse<Void>> handlePreconditionFailedException(
+            RuntimeException exception,
+            HttpServletRequest request
+    ) {
+        clientErrorLog.warn(PreconditionFailedException.class.getSimpleName(), exception.getMessage());
+
+        return generateErrorResponse(exception.getMessage(), HttpStatus.PRECONDITION_FAILED, request);
+    }
+
+    /**
+     * A write raced another one to the same entity between reading and writing it.
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<APIResponse<Void>> handleOptimisticLockingFailureException(
+            OptimisticLockingFailureException exception,
+            HttpServletRequest request
+    ) {
+        clientErrorLog.warn(OptimisticLockingFailureException.class.getSimpleName(), exception.getMessage());
+
+        return generateErrorResponse("The entity was modified concurrently, read it again",
+                HttpStatus.CONFLICT, request);
+    }
+
+    /**
+     * A write broke a constraint, e.g. a username, email or title that is already taken. The message of the
+     * exception holds the SQL and is not returned.
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<APIResponse<Void>> handleDataIntegrityViolationException(
+            DataIntegrityViolationException exception,
+            HttpServletRequest request
+    ) {
+        clientErrorLog.warn(DataIntegrityViolationException.class.getSimpleName(),
+                exception.getMostSpecificCause().getMessage());
+
+        return generateErrorResponse("The entity conflicts with an existing one", HttpStatus.CONFLICT, request);
+    }
+
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<APIResponse<Void>> handleServerSideErrorException(
             Exception exception,
+            HttpServletRequest request
+    ) {
+        log.error(exception.getMessage(), exception);
+        return generateErrorResponse(exception.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR, request);
+    }
+
+    private ResponseEntity<APIResponse<Void>> generateErrorResponse(
+            String message,
             HttpStatus httpStatus,
-            HttpServletRequest request,
-            String customMessage
+            HttpServletRequest request
     ) {
         final APIResponse<Void> errorResponse = APIResponse.<Void>builder()
                 .status(httpStatus.value())
-                .message(Optional.ofNullable(customMessage).orElse(exception.getMessage()))
+                .message(message)
                 .path(request.getServletPath())
                 .data(null)
                 .build();
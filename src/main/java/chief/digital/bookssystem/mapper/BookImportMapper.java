@@ -0,0 +1,19 @@
+package chief.digital.bookssystem.mapper;
+
+import chief.digital.bookssystem.model.dto.response.BatchItemErrorDtoResponse;
+import chief.digital.bookssystem.model.dto.response.BookImportDtoResponse;
+import chief.digital.bookssystem.model.entity.BookImport;
+import chief.digital.bookssystem.model.projection.RecordError;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+import java.util.List;
+
+@Mapper
+public interface BookImportMapper {
+
+    BookImportDtoResponse toBookImportDtoResponse(BookImport bookImport, List<RecordError> errors);
+
+    @Mapping(target = "index", source = "record")
+    BatchItemErrorDtoResponse toBatchItemErrorDtoResponse(RecordError recordError);
+}
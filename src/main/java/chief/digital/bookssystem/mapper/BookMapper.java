@@ -10,10 +10,13 @@ import org.mapstruct.MappingTarget;
 import org.mapstruct.NullValueCheckStrategy;
 import org.mapstruct.NullValuePropertyMappingStrategy;
 
+import java.util.List;
+
 @Mapper
 public interface BookMapper {
 
     @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
     @Mapping(target = "library", ignore = true)
     Book toBook(BookDtoRequest bookDtoRequest);
 
@@ -22,11 +25,14 @@ public interface BookMapper {
             expression = "java(java.util.Objects.nonNull(book.getLibrary()) ? book.getLibrary().getId() : null)")
     BookDtoResponse toBookDtoResponse(Book book);
 
+    List<BookDtoResponse> toBookDtoResponses(List<Book> books);
+
     @BeanMapping(
             nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE,
             nullValueCheckStrategy = NullValueCheckStrategy.ALWAYS
     )
     @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
     @Mapping(target = "library", ignore = true)
     void updateBook(BookDtoRequest bookDtoRequest, @MappingTarget Book book);
 }
@@ -0,0 +1,11 @@
+package chief.digital.bookssystem.mapper;
+
+import chief.digital.bookssystem.model.dto.response.ExportJobDtoResponse;
+import chief.digital.bookssystem.model.entity.ExportJob;
+import org.mapstruct.Mapper;
+
+@Mapper
+public interface ExportJobMapper {
+
+    ExportJobDtoResponse toExportJobDtoResponse(ExportJob exportJob);
+}
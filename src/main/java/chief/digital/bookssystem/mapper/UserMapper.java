@@ -10,24 +10,25 @@ import org.mapstruct.MappingTarget;
 import org.mapstruct.NullValueCheckStrategy;
 import org.mapstruct.NullValuePropertyMappingStrategy;
 
+import java.util.List;
+
 @Mapper
 public interface UserMapper {
 
     @Mapping(target = "id", ignore = true)
-    @Mapping(target = "libraries", ignore = true)
+    @Mapping(target = "version", ignore = true)
     User toUser(UserDtoRequest userDtoRequest);
 
-    @Mapping(
-            target = "librariesIds",
-            expression = "java(java.util.Objects.nonNull(user.getLibraries()) ? " +
-                    "user.getLibraries().stream().map(library -> library.getId()).toList() : null)")
-    UserDtoResponse toUserDtoResponse(User user);
+    /**
+     * @param librariesIds IDs of the Libraries the User is a member of, fetched without loading the libraries
+     */
+    UserDtoResponse toUserDtoResponse(User user, List<Long> librariesIds);
 
     @BeanMapping(
             nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE,
             nullValueCheckStrategy = NullValueCheckStrategy.ALWAYS
     )
     @Mapping(target = "id", ignore = true)
-    @Mapping(target = "libraries", ignore = true)
+    @Mapping(target = "version", ignore = true)
     void updateUser(UserDtoRequest userDtoRequest, @MappingTarget User user);
 }
@@ -0,0 +1,39 @@
+package chief.digital.bookssystem.model.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.util.CollectionUtils;
+
+import java.util.List;
+import java.util.Objects;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Book Filter DTO Request")
+public class BookFilterDtoRequest {
+
+    private List<String> genre;
+
+    private List<String> author;
+
+    private Integer yearFrom;
+
+    private Integer yearTo;
+
+    @PositiveOrZero(message = "Library ID must be positive or zero")
+    private Long libraryId;
+
+    public boolean isEmpty() {
+        return CollectionUtils.isEmpty(genre)
+                && CollectionUtils.isEmpty(author)
+                && Objects.isNull(yearFrom)
+                && Objects.isNull(yearTo)
+                && Objects.isNull(libraryId);
+    }
+}
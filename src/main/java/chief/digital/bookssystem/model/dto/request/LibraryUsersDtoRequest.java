@@ -0,0 +1,26 @@
+package chief.digital.bookssystem.model.dto.request;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Library Users DTO Request")
+public class LibraryUsersDtoRequest {
+
+    @Size(max = 100_000, message = "Too many Users IDs")
+    @NotNull(message = "Users IDs cannot be null")
+    @JsonProperty(value = "usersIds")
+    private List<@NotNull(message = "User ID cannot be null") @PositiveOrZero Long> usersIds;
+}
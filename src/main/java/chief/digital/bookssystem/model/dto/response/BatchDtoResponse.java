@@ -0,0 +1,21 @@
+package chief.digital.bookssystem.model.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+@Schema(description = "Batch DTO Response")
+public class BatchDtoResponse {
+
+    private Integer received;
+
+    private Integer saved;
+
+    private Integer failed;
+
+    private List<BatchItemErrorDtoResponse> errors;
+}
@@ -0,0 +1,15 @@
+package chief.digital.bookssystem.model.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@Schema(description = "Batch Item Error DTO Response")
+public class BatchItemErrorDtoResponse {
+
+    private Integer index;
+
+    private String message;
+}
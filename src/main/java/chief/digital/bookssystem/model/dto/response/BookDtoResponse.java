@@ -11,6 +11,8 @@ public class BookDtoResponse {
 
     private Long id;
 
+    private Long version;
+
     private String title;
 
     private String description;
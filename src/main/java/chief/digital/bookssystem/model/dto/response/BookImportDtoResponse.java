@@ -0,0 +1,32 @@
+package chief.digital.bookssystem.model.dto.response;
+
+import chief.digital.bookssystem.model.enums.BookImportStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@Schema(description = "Book Import DTO Response")
+public class BookImportDtoResponse {
+
+    private Long id;
+
+    private BookImportStatus status;
+
+    private Long rowsTotal;
+
+    private Long rowsInvalid;
+
+    private Long rowsMerged;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime finishedAt;
+
+    @Schema(description = "First rejected rows; the index is the CSV record number, the header being record 1")
+    private List<BatchItemErrorDtoResponse> errors;
+}
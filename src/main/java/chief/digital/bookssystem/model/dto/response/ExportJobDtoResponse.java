@@ -0,0 +1,36 @@
+package chief.digital.bookssystem.model.dto.response;
+
+import chief.digital.bookssystem.model.enums.ExportFormat;
+import chief.digital.bookssystem.model.enums.ExportJobStatus;
+import chief.digital.bookssystem.model.enums.ExportType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@Schema(description = "Export Job DTO Response")
+public class ExportJobDtoResponse {
+
+    private Long id;
+
+    private ExportType type;
+
+    private ExportFormat format;
+
+    private ExportJobStatus status;
+
+    private Long rowsTotal;
+
+    private Long rowsExported;
+
+    private Long fileSize;
+
+    private String instanceId;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,15 @@
+package chief.digital.bookssystem.model.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@Schema(description = "Facet DTO Response")
+public class FacetDtoResponse {
+
+    private String value;
+
+    private Long count;
+}
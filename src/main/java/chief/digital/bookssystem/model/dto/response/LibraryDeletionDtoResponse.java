@@ -0,0 +1,27 @@
+package chief.digital.bookssystem.model.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@Schema(description = "Library Deletion DTO Response")
+public class LibraryDeletionDtoResponse {
+
+    private Long libraryId;
+
+    private Long booksTotal;
+
+    private Long booksDeleted;
+
+    private Long membershipsTotal;
+
+    private Long membershipsDeleted;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+}
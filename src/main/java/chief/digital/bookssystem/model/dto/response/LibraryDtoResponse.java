@@ -1,5 +1,6 @@
 package chief.digital.bookssystem.model.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Builder;
 import lombok.Data;
@@ -14,6 +15,8 @@ public class LibraryDtoResponse {
 
     private Long id;
 
+    private Long version;
+
     private String title;
 
     private String description;
@@ -26,5 +29,6 @@ public class LibraryDtoResponse {
 
     private List<Long> booksIds;
 
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private List<Long> usersIds;
 }
@@ -0,0 +1,17 @@
+package chief.digital.bookssystem.model.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@Schema(description = "Library Users DTO Response")
+public class LibraryUsersDtoResponse {
+
+    private Long libraryId;
+
+    private Integer added;
+
+    private Integer removed;
+}
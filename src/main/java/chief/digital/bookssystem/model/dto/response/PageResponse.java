@@ -1,14 +1,23 @@
 package chief.digital.bookssystem.model.dto.response;
 
+import chief.digital.bookssystem.model.enums.TotalType;
+import chief.digital.bookssystem.model.projection.Counted;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Builder;
 import lombok.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.io.Serializable;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
 
 @Value
-@Builder
+@Builder(toBuilder = true)
 public class PageResponse<T> implements Serializable {
 
     @JsonProperty("number")
@@ -20,6 +29,113 @@ public class PageResponse<T> implements Serializable {
     @JsonProperty("numberOfElements")
     Integer numberOfElements;
 
+    @JsonProperty("hasNext")
+    Boolean hasNext;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonProperty("totalElements")
+    Long totalElements;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonProperty("totalType")
+    TotalType totalType;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonProperty("nextCursor")
+    String nextCursor;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonProperty("facets")
+    Map<String, List<FacetDtoResponse>> facets;
+
     @JsonProperty("content")
     List<T> content;
+
+    public PageResponse<T> withTotal(long totalElements, TotalType totalType) {
+        return toBuilder()
+                .totalElements(totalElements)
+                .totalType(totalType)
+                .build();
+    }
+
+    public PageResponse<T> withFacets(Map<String, List<FacetDtoResponse>> facets) {
+        return toBuilder()
+                .facets(facets)
+                .build();
+    }
+
+    /**
+     * Builds a page from a {@link Slice}, which is fetched with a limit of {@code size + 1}
+     * and no count query. Like the other factories, it maps the whole page at once, so that related
+     * data can be fetched for all rows in one query.
+     */
+    public static <E, T> PageResponse<T> ofSlice(final Slice<E> slice, final Function<List<E>, List<T>> mapper) {
+        final List<T> content = mapper.apply(slice.getContent());
+
+        return PageResponse.<T>builder()
+                .content(content)
+                .number(slice.getNumber())
+                .size(slice.getSize())
+                .numberOfElements(content.size())
+                .hasNext(slice.hasNext())
+                .build();
+    }
+
+    /**
+     * Builds a page with an exact total from a {@link Page}, for queries that cannot carry
+     * {@code count(*) over()} and are counted separately.
+     */
+    public static <E, T> PageResponse<T> ofPage(final Page<E> page, final Function<List<E>, List<T>> mapper) {
+        return ofSlice(page, mapper).withTotal(page.getTotalElements(), TotalType.EXACT);
+    }
+
+    /**
+     * Builds a page with an exact total from rows carrying {@code count(*) over()}. A page past
+     * the last row carries no count, so it falls back to {@code counter}.
+     */
+    public static <E, T> PageResponse<T> ofCounted(
+            final List<Counted<E>> rows,
+            final Pageable pageable,
+            final Function<List<E>, List<T>> mapper,
+            final LongSupplier counter
+    ) {
+        final long total = rows.isEmpty()
+                ? (pageable.getOffset() == 0 ? 0 : counter.getAsLong())
+                : rows.get(0).getTotal();
+        final List<T> content = mapper.apply(rows.stream()
+                .map(Counted::getEntity)
+                .toList());
+
+        return PageResponse.<T>builder()
+                .content(content)
+                .number(pageable.getPageNumber())
+                .size(pageable.getPageSize())
+                .numberOfElements(content.size())
+                .hasNext(pageable.getOffset() + content.size() < total)
+                .totalElements(total)
+                .totalType(TotalType.EXACT)
+                .build();
+    }
+
+    /**
+     * Builds a keyset page from rows fetched with a limit of {@code size + 1}:
+     * the extra row only tells that a next page exists and is not returned.
+     */
+    public static <E, T> PageResponse<T> ofKeyset(
+            final List<E> rows,
+            final int size,
+            final Function<List<E>, List<T>> mapper,
+            final Function<E, String> cursorEncoder
+    ) {
+        final boolean hasNext = rows.size() > size;
+        final List<T> content = mapper.apply(rows.subList(0, Math.min(rows.size(), size)));
+
+        return PageResponse.<T>builder()
+                .content(content)
+                .size(size)
+                .numberOfElements(content.size())
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? cursorEncoder.apply(rows.get(size - 1)) : null)
+                .build();
+    }
 }
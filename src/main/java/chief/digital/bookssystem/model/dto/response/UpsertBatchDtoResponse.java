@@ -0,0 +1,27 @@
+package chief.digital.bookssystem.model.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+@Schema(description = "Upsert Batch DTO Response")
+public class UpsertBatchDtoResponse {
+
+    private Integer received;
+
+    private Integer created;
+
+    private Integer updated;
+
+    private Integer unchanged;
+
+    private Integer failed;
+
+    private List<UpsertItemDtoResponse> items;
+
+    private List<BatchItemErrorDtoResponse> errors;
+}
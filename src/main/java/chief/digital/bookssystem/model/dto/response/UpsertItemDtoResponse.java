@@ -0,0 +1,18 @@
+package chief.digital.bookssystem.model.dto.response;
+
+import chief.digital.bookssystem.model.enums.UpsertStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@Schema(description = "Upsert Item DTO Response")
+public class UpsertItemDtoResponse {
+
+    private Integer index;
+
+    private Long id;
+
+    private UpsertStatus status;
+}
@@ -13,6 +13,8 @@ public class UserDtoResponse {
 
     private Long id;
 
+    private Long version;
+
     private String username;
 
     private String firstName;
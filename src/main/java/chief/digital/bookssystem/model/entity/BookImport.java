@@ -0,0 +1,58 @@
+package chief.digital.bookssystem.model.entity;
+
+import chief.digital.bookssystem.model.enums.BookImportStatus;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * A CSV import of {@link Book}s: its rows are copied into the {@code book_import_rows} staging table, validated
+ * there, then merged into {@code books} chunk by chunk. {@code lastMergedRowId} is the checkpoint an interrupted
+ * import resumes from; the staging rows of an import are numbered from {@code firstRowId} in CSV order.
+ */
+@Entity
+@Table(name = "book_imports")
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@EqualsAndHashCode
+@ToString
+public class BookImport implements BaseEntity<Long> {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @EqualsAndHashCode.Exclude
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    private BookImportStatus status;
+
+    private Long rowsTotal;
+
+    private Long rowsInvalid;
+
+    private Long rowsMerged;
+
+    private Long firstRowId;
+
+    private Long lastMergedRowId;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime finishedAt;
+}
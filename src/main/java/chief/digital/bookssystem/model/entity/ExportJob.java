@@ -0,0 +1,67 @@
+package chief.digital.bookssystem.model.entity;
+
+import chief.digital.bookssystem.model.enums.ExportFormat;
+import chief.digital.bookssystem.model.enums.ExportJobStatus;
+import chief.digital.bookssystem.model.enums.ExportType;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * An export written in the background to a compressed file, which can be downloaded once the job is finished.
+ * {@code rowsTotal} is counted in the same snapshot the rows are exported from.
+ */
+@Entity
+@Table(name = "export_jobs")
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@EqualsAndHashCode
+@ToString
+public class ExportJob implements BaseEntity<Long> {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @EqualsAndHashCode.Exclude
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    private ExportType type;
+
+    @Enumerated(EnumType.STRING)
+    private ExportFormat format;
+
+    @Enumerated(EnumType.STRING)
+    private ExportJobStatus status;
+
+    private Long rowsTotal;
+
+    @Builder.Default
+    private Long rowsExported = 0L;
+
+    private Long fileSize;
+
+    /**
+     * The instance that runs or ran the job and keeps its file in its {@code books-system.export.directory}.
+     */
+    private String instanceId;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime finishedAt;
+}
@@ -2,15 +2,13 @@ package chief.digital.bookssystem.model.entity;
 
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Entity;
-import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
-import jakarta.persistence.JoinColumn;
-import jakarta.persistence.JoinTable;
-import jakarta.persistence.ManyToMany;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.EqualsAndHashCode;
@@ -18,13 +16,18 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.Where;
 
 import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * A library being deleted in the background ({@code deleting}) is hidden from every JPA query and lookup.
+ */
 @Entity
 @Table(name = "libraries")
+@Where(clause = "deleting = false")
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
@@ -35,10 +38,15 @@ import java.util.List;
 public class Library implements BaseEntity<Long> {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "libraries_id_seq")
+    @SequenceGenerator(name = "libraries_id_seq", sequenceName = "libraries_id_seq", allocationSize = 50)
     @EqualsAndHashCode.Exclude
     private Long id;
 
+    @Version
+    @EqualsAndHashCode.Exclude
+    private Long version;
+
     private String title;
 
     private String description;
@@ -58,13 +66,4 @@ public class Library implements BaseEntity<Long> {
     @EqualsAndHashCode.Exclude
     @OneToMany(mappedBy = "library", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Book> books = new ArrayList<>();
-
-    @Builder.Default
-    @ToString.Exclude
-    @EqualsAndHashCode.Exclude
-    @ManyToMany(fetch = FetchType.EAGER)
-    @JoinTable(name = "library_users",
-            joinColumns = {@JoinColumn(name = "library_id", referencedColumnName = "id")},
-            inverseJoinColumns = {@JoinColumn(name = "user_id", referencedColumnName = "id")})
-    private List<User> users = new ArrayList<>();
 }
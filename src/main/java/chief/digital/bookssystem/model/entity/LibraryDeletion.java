@@ -0,0 +1,50 @@
+package chief.digital.bookssystem.model.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a {@link Library} deleted in the background: its books and memberships are deleted chunk by chunk,
+ * then the library itself. Kept after the library is gone, with {@code finishedAt} set.
+ */
+@Entity
+@Table(name = "library_deletions")
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@EqualsAndHashCode
+@ToString
+public class LibraryDeletion implements BaseEntity<Long> {
+
+    @Id
+    private Long libraryId;
+
+    private Long booksTotal;
+
+    private Long booksDeleted;
+
+    private Long membershipsTotal;
+
+    private Long membershipsDeleted;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+
+    @Override
+    public Long getId() {
+        return libraryId;
+    }
+}
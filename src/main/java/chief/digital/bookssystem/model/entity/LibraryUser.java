@@ -0,0 +1,41 @@
+package chief.digital.bookssystem.model.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Membership of a {@link User} in a {@link Library}. Mapped by IDs only, so that memberships are
+ * queried and changed one row at a time instead of through a collection holding every member.
+ */
+@Entity
+@Table(name = "library_users")
+@IdClass(LibraryUserId.class)
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@EqualsAndHashCode
+@ToString
+public class LibraryUser implements BaseEntity<LibraryUserId> {
+
+    @Id
+    private Long libraryId;
+
+    @Id
+    private Long userId;
+
+    @Override
+    public LibraryUserId getId() {
+        return new LibraryUserId(libraryId, userId);
+    }
+}
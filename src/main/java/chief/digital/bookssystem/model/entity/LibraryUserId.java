@@ -0,0 +1,17 @@
+package chief.digital.bookssystem.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LibraryUserId implements Serializable {
+
+    private Long libraryId;
+
+    private Long userId;
+}
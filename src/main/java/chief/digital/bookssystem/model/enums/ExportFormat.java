@@ -0,0 +1,30 @@
+package chief.digital.bookssystem.model.enums;
+
+import chief.digital.bookssystem.exception.InvalidRequestException;
+import com.fasterxml.jackson.annotation.JsonValue;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Arrays;
+
+@Getter
+@RequiredArgsConstructor
+public enum ExportFormat {
+
+    NDJSON("application/x-ndjson"),
+    CSV("text/csv");
+
+    private final String contentType;
+
+    @JsonValue
+    public String getValue() {
+        return name().toLowerCase();
+    }
+
+    public static ExportFormat of(String value) {
+        return Arrays.stream(values())
+                .filter(exportFormat -> exportFormat.getValue().equalsIgnoreCase(value))
+                .findFirst()
+                .orElseThrow(() -> new InvalidRequestException("Unknown export format " + value));
+    }
+}
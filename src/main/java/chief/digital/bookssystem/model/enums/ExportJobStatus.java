@@ -0,0 +1,15 @@
+package chief.digital.bookssystem.model.enums;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+public enum ExportJobStatus {
+
+    RUNNING,
+    FINISHED,
+    FAILED;
+
+    @JsonValue
+    public String getValue() {
+        return name().toLowerCase();
+    }
+}
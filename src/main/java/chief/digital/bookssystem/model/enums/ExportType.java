@@ -0,0 +1,26 @@
+package chief.digital.bookssystem.model.enums;
+
+import chief.digital.bookssystem.exception.InvalidRequestException;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.Arrays;
+
+public enum ExportType {
+
+    BOOKS,
+    LIBRARIES,
+    USERS,
+    MEMBERSHIPS;
+
+    @JsonValue
+    public String getValue() {
+        return name().toLowerCase();
+    }
+
+    public static ExportType of(String value) {
+        return Arrays.stream(values())
+                .filter(exportType -> exportType.getValue().equalsIgnoreCase(value))
+                .findFirst()
+                .orElseThrow(() -> new InvalidRequestException("Unknown export " + value));
+    }
+}
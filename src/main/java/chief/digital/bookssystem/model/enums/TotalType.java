@@ -0,0 +1,24 @@
+package chief.digital.bookssystem.model.enums;
+
+import chief.digital.bookssystem.exception.InvalidRequestException;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.Arrays;
+
+public enum TotalType {
+
+    EXACT,
+    ESTIMATE;
+
+    @JsonValue
+    public String getValue() {
+        return name().toLowerCase();
+    }
+
+    public static TotalType of(String value) {
+        return Arrays.stream(values())
+                .filter(totalType -> totalType.getValue().equalsIgnoreCase(value))
+                .findFirst()
+                .orElseThrow(() -> new InvalidRequestException("Unknown total mode " + value));
+    }
+}
@@ -0,0 +1,15 @@
+package chief.digital.bookssystem.model.projection;
+
+import lombok.Value;
+
+/**
+ * A row of a page query together with the total number of rows matched by the query,
+ * computed in the same statement with {@code count(*) over()}.
+ */
+@Value
+public class Counted<T> {
+
+    T entity;
+
+    Long total;
+}
@@ -0,0 +1,16 @@
+package chief.digital.bookssystem.model.projection;
+
+import lombok.Value;
+
+/**
+ * Number of rows having one value of a facet, e.g. the books of one genre.
+ */
+@Value
+public class FacetCount {
+
+    String facet;
+
+    String value;
+
+    Long count;
+}
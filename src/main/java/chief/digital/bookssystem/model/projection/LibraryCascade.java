@@ -0,0 +1,16 @@
+package chief.digital.bookssystem.model.projection;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * IDs of the books deleted together with a library and of the users whose memberships were deleted with it.
+ */
+@Value
+public class LibraryCascade {
+
+    List<Long> booksIds;
+
+    List<Long> usersIds;
+}
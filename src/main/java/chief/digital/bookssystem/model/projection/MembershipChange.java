@@ -0,0 +1,16 @@
+package chief.digital.bookssystem.model.projection;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * IDs of the users whose membership in a library was added or removed by one statement.
+ */
+@Value
+public class MembershipChange {
+
+    List<Long> addedUsersIds;
+
+    List<Long> removedUsersIds;
+}
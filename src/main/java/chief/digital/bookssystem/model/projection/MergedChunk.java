@@ -0,0 +1,17 @@
+package chief.digital.bookssystem.model.projection;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * A chunk of staged rows merged into their target table: the number of rows it took, including rejected ones,
+ * and the IDs of the libraries that received books.
+ */
+@Value
+public class MergedChunk {
+
+    int rows;
+
+    List<Long> librariesIds;
+}
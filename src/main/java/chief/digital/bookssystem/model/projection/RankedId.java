@@ -0,0 +1,12 @@
+package chief.digital.bookssystem.model.projection;
+
+/**
+ * ID of a full-text search match and its relevance rank.
+ * Lets a search page be ranked and cut before the matching entities are loaded.
+ */
+public interface RankedId {
+
+    Long getId();
+
+    Float getRank();
+}
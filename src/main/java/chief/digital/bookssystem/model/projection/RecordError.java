@@ -0,0 +1,15 @@
+package chief.digital.bookssystem.model.projection;
+
+import lombok.Value;
+
+/**
+ * A rejected record of an uploaded CSV file with the reason. Records are numbered from the header, record 1; a
+ * record with a quoted value spanning lines is still one record, so its number can be below its line number.
+ */
+@Value
+public class RecordError {
+
+    Integer record;
+
+    String message;
+}
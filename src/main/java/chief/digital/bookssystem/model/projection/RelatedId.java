@@ -0,0 +1,18 @@
+package chief.digital.bookssystem.model.projection;
+
+/**
+ * ID of an entity related to an owner entity, e.g. a book or a member user of a library.
+ * Lets responses list related IDs without loading the related entities.
+ */
+public interface RelatedId {
+
+    String BOOK = "book";
+    String USER = "user";
+    String LIBRARY = "library";
+
+    Long getOwnerId();
+
+    String getRelation();
+
+    Long getRelatedId();
+}
@@ -0,0 +1,16 @@
+package chief.digital.bookssystem.model.projection;
+
+import chief.digital.bookssystem.model.enums.UpsertStatus;
+import lombok.Value;
+
+/**
+ * A row written by an upsert, or left as it was because it already held the upserted values,
+ * together with what the upsert did to it.
+ */
+@Value
+public class Upserted<T> {
+
+    T entity;
+
+    UpsertStatus status;
+}
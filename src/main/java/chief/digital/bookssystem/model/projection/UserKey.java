@@ -0,0 +1,14 @@
+package chief.digital.bookssystem.model.projection;
+
+import lombok.Value;
+
+/**
+ * Unique keys of a user, read to tell which usernames and emails of a batch are already taken.
+ */
+@Value
+public class UserKey {
+
+    String username;
+
+    String email;
+}
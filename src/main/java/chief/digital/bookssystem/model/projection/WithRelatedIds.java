@@ -0,0 +1,17 @@
+package chief.digital.bookssystem.model.projection;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * A row returned by a write together with the IDs of its related entities, read in the same statement,
+ * e.g. an updated library with the IDs of its books.
+ */
+@Value
+public class WithRelatedIds<T> {
+
+    T entity;
+
+    List<Long> relatedIds;
+}
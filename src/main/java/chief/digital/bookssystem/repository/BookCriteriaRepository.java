@@ -0,0 +1,14 @@
+package chief.digital.bookssystem.repository;
+
+import chief.digital.bookssystem.model.entity.Book;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+public interface BookCriteriaRepository {
+
+    /**
+     * Finds a page of the books matching the specification with a limit of {@code size + 1} and no count query.
+     */
+    Slice<Book> findSlice(Specification<Book> specification, Pageable pageable);
+}
@@ -0,0 +1,51 @@
+package chief.digital.bookssystem.repository;
+
+import chief.digital.bookssystem.model.projection.RecordError;
+import chief.digital.bookssystem.model.projection.MergedChunk;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.Optional;
+
+public interface BookImportJdbcRepository {
+
+    /**
+     * Records an import and copies the CSV rows into the staging table with {@code COPY ... FROM STDIN}, streaming
+     * them from the input. The CSV has a header line and the columns {@code title, description, author, genre,
+     * publicationYear, libraryId}. Loads run one at a time, so that the staging rows of an import are numbered
+     * consecutively.
+     *
+     * @return the ID of the import
+     * @throws chief.digital.bookssystem.exception.InvalidRequestException if the input is not such a CSV
+     */
+    Long load(InputStream csv);
+
+    /**
+     * Checks the staged rows not merged yet against the rules of a book request, the existing libraries and
+     * the titles already taken, all with one statement, and records the reason of each rejected row.
+     *
+     * @return {@code false}, without validating, if the import is no longer validating or another instance is
+     * validating it
+     */
+    boolean validate(Long importId);
+
+    /**
+     * Merges at most {@code chunkSize} valid rows after the checkpoint of the import into the books, with one
+     * statement that also bumps the versions of their libraries, rejects the rows whose title was taken or library
+     * deleted in the meantime and moves the checkpoint past the chunk. The import is locked until the chunk
+     * commits, so that instances resuming the same import never merge a chunk twice.
+     *
+     * @return the merged chunk, empty if the import is not merging or another instance is merging a chunk of it
+     */
+    Optional<MergedChunk> mergeChunk(Long importId, int chunkSize);
+
+    /**
+     * Marks the merging import finished and deletes its merged staging rows; the rejected ones are kept.
+     */
+    void finish(Long importId);
+
+    /**
+     * @return the first {@code limit} rejected rows of the import with their CSV record numbers
+     */
+    List<RecordError> findErrors(Long importId, int limit);
+}
@@ -0,0 +1,12 @@
+package chief.digital.bookssystem.repository;
+
+import chief.digital.bookssystem.model.entity.BookImport;
+import chief.digital.bookssystem.model.enums.BookImportStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface BookImportRepository extends JpaRepository<BookImport, Long>, BookImportJdbcRepository {
+
+    List<BookImport> findByStatusNot(BookImportStatus status);
+}
@@ -0,0 +1,62 @@
+package chief.digital.bookssystem.repository;
+
+import chief.digital.bookssystem.model.dto.request.BookDtoRequest;
+import chief.digital.bookssystem.model.dto.request.BookFilterDtoRequest;
+import chief.digital.bookssystem.model.entity.Book;
+import chief.digital.bookssystem.model.projection.FacetCount;
+import chief.digital.bookssystem.model.projection.Upserted;
+import org.springframework.jdbc.core.ResultSetExtractor;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface BookJdbcRepository {
+
+    /**
+     * Inserts the books into the library with one JDBC batch.
+     * A book whose title is already taken is skipped and gets a {@code 0} update count.
+     */
+    int[] insertAllByLibraryId(Long libraryId, List<Book> books);
+
+    /**
+     * Inserts the books into the library, or updates the books with their titles, with one
+     * {@code INSERT ... ON CONFLICT (title) DO UPDATE} statement, which also bumps the version of the library
+     * if a book was inserted. An existing book keeps its library and, if it already has the values, its version.
+     * The titles must be unique.
+     *
+     * @return the written or unchanged books with what was done to them, in no particular order
+     */
+    List<Upserted<Book>> upsertAllByLibraryId(Long libraryId, List<Book> books);
+
+    /**
+     * Counts the books matching the filter per genre, author, publication year and library in one grouped query.
+     * Returns at most {@code facetSize} values per facet, the most frequent first.
+     */
+    List<FacetCount> countFacets(BookFilterDtoRequest filter, int facetSize);
+
+    /**
+     * Sets the provided (non-null) fields of the book with one {@code UPDATE ... RETURNING} statement.
+     *
+     * @param expectedVersion version the book must have to be updated; {@code null} to update any version
+     * @return the updated book, or empty if there is no book with the ID or it has another version
+     */
+    Optional<Book> updateById(Long id, BookDtoRequest bookDtoRequest, Long expectedVersion);
+
+    /**
+     * Deletes the book with one {@code DELETE ... RETURNING} statement, which also bumps the version of its library.
+     *
+     * @return the ID of the library of the deleted book, or empty if there is no book with the ID
+     */
+    Optional<Long> removeByIdReturningLibraryId(Long id);
+
+    /**
+     * Reads all books ordered by ID through a server-side cursor and passes them to the extractor, without loading
+     * them as entities. Books of libraries being deleted in the background are skipped.
+     */
+    <T> T exportAll(ResultSetExtractor<T> resultSetExtractor);
+
+    /**
+     * Counts the books {@link #exportAll} reads, skipping those of libraries being deleted in the background.
+     */
+    long countExported();
+}
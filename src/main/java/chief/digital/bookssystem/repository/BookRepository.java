@@ -1,11 +1,56 @@
 package chief.digital.bookssystem.repository;
 
 import chief.digital.bookssystem.model.entity.Book;
+import chief.digital.bookssystem.model.projection.Counted;
+import chief.digital.bookssystem.model.projection.RankedId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.List;
 import java.util.Optional;
 
-public interface BookRepository extends JpaRepository<Book, Long> {
+public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book>,
+        BookJdbcRepository, BookCriteriaRepository {
 
     Optional<Book> findFirstByOrderByIdDesc();
+
+    @Query("select b.version from Book b where b.id = :id")
+    Optional<Long> findVersionById(Long id);
+
+    Slice<Book> findSliceBy(Pageable pageable);
+
+    @Query("select new chief.digital.bookssystem.model.projection.Counted(b, count(*) over()) from Book b")
+    List<Counted<Book>> findCountedBy(Pageable pageable);
+
+    List<Book> findAllBy(Pageable pageable);
+
+    List<Book> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @Query("select b from Book b where (b.title, b.id) > (:title, :id) order by b.title, b.id")
+    List<Book> findAfterTitle(String title, Long id, Pageable pageable);
+
+    @Query("select b from Book b where (b.publicationYear, b.id) > (:publicationYear, :id) " +
+            "order by b.publicationYear, b.id")
+    List<Book> findAfterPublicationYear(Integer publicationYear, Long id, Pageable pageable);
+
+    @Query(value = """
+            SELECT ranked.id AS "id", ranked.rank AS "rank"
+            FROM (
+                SELECT b.id, ts_rank(b.search_vector, q.query) AS rank
+                FROM books b
+                CROSS JOIN websearch_to_tsquery('english', :query) AS q(query)
+                WHERE b.search_vector @@ q.query
+                  AND (CAST(:libraryId AS bigint) IS NULL OR b.library_id = :libraryId)
+                  AND (CAST(:city AS varchar) IS NULL OR EXISTS (
+                      SELECT 1 FROM libraries l WHERE l.id = b.library_id AND l.city = :city))
+            ) ranked
+            WHERE CAST(:afterId AS bigint) IS NULL
+               OR ranked.rank < :afterRank
+               OR (ranked.rank = :afterRank AND ranked.id > :afterId)
+            ORDER BY ranked.rank DESC, ranked.id
+            """, nativeQuery = true)
+    List<RankedId> search(String query, Long libraryId, String city, Float afterRank, Long afterId, Pageable pageable);
 }
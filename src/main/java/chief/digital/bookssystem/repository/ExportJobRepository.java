@@ -0,0 +1,25 @@
+package chief.digital.bookssystem.repository;
+
+import chief.digital.bookssystem.model.entity.ExportJob;
+import chief.digital.bookssystem.model.enums.ExportJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface ExportJobRepository extends JpaRepository<ExportJob, Long> {
+
+    List<ExportJob> findByStatus(ExportJobStatus status);
+
+    /**
+     * Records the progress of a running job in a transaction of its own, so that it is seen while the snapshot
+     * transaction of the job is still reading.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query("update ExportJob j set j.rowsTotal = :rowsTotal, j.rowsExported = :rowsExported where j.id = :id")
+    void updateProgress(Long id, Long rowsTotal, Long rowsExported);
+}
@@ -0,0 +1,40 @@
+package chief.digital.bookssystem.repository;
+
+import chief.digital.bookssystem.model.entity.LibraryDeletion;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface LibraryDeletionJdbcRepository {
+
+    /**
+     * Hides the library and records the deletion with the number of books and memberships to delete,
+     * with one statement.
+     *
+     * @return the recorded deletion, or empty if there is no library with the ID or it is already being deleted
+     */
+    Optional<LibraryDeletion> start(Long libraryId);
+
+    /**
+     * Deletes at most {@code chunkSize} books of the library not locked by another transaction and adds them
+     * to the progress of its deletion, with one statement.
+     *
+     * @return IDs of the deleted books
+     */
+    List<Long> deleteBooksChunk(Long libraryId, int chunkSize);
+
+    /**
+     * Deletes at most {@code chunkSize} memberships of the library not locked by another transaction, bumps
+     * the versions of their users and adds them to the progress of its deletion, with one statement.
+     *
+     * @return IDs of the users whose memberships were deleted
+     */
+    List<Long> deleteMembershipsChunk(Long libraryId, int chunkSize);
+
+    /**
+     * Deletes the library once it has no books and memberships left and marks its deletion finished.
+     *
+     * @return whether the library was deleted
+     */
+    boolean finish(Long libraryId);
+}
@@ -0,0 +1,11 @@
+package chief.digital.bookssystem.repository;
+
+import chief.digital.bookssystem.model.entity.LibraryDeletion;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface LibraryDeletionRepository extends JpaRepository<LibraryDeletion, Long>, LibraryDeletionJdbcRepository {
+
+    List<LibraryDeletion> findByFinishedAtIsNull();
+}
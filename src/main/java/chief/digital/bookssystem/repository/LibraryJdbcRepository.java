@@ -0,0 +1,36 @@
+package chief.digital.bookssystem.repository;
+
+import chief.digital.bookssystem.model.dto.request.LibraryDtoRequest;
+import chief.digital.bookssystem.model.entity.Library;
+import chief.digital.bookssystem.model.projection.LibraryCascade;
+import chief.digital.bookssystem.model.projection.WithRelatedIds;
+import org.springframework.jdbc.core.ResultSetExtractor;
+
+import java.util.Optional;
+
+public interface LibraryJdbcRepository {
+
+    /**
+     * Sets the provided (non-null) fields of the library with one {@code UPDATE ... RETURNING} statement,
+     * which also returns the IDs of its books.
+     *
+     * @param expectedVersion version the library must have to be updated; {@code null} to update any version
+     * @return the updated library with the IDs of its books, or empty if there is no library with the ID
+     * or it has another version
+     */
+    Optional<WithRelatedIds<Library>> updateById(Long id, LibraryDtoRequest libraryDtoRequest, Long expectedVersion);
+
+    /**
+     * Deletes the library, its books and its memberships with one statement, which also bumps the versions
+     * of the users whose memberships were deleted. A library being deleted in the background is skipped.
+     *
+     * @return IDs of the deleted books and of the former members, or empty if there is no library with the ID
+     */
+    Optional<LibraryCascade> removeById(Long id);
+
+    /**
+     * Reads all libraries ordered by ID through a server-side cursor and passes them to the extractor, without
+     * loading them as entities. Libraries being deleted in the background are skipped.
+     */
+    <T> T exportAll(ResultSetExtractor<T> resultSetExtractor);
+}
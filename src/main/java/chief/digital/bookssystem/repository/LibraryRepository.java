@@ -1,13 +1,57 @@
 package chief.digital.bookssystem.repository;
 
 import chief.digital.bookssystem.model.entity.Library;
+import chief.digital.bookssystem.model.projection.Counted;
+import chief.digital.bookssystem.model.projection.RelatedId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-public interface LibraryRepository extends JpaRepository<Library, Long> {
+public interface LibraryRepository extends JpaRepository<Library, Long>, LibraryJdbcRepository {
 
     Optional<Library> findFirstByOrderByIdAsc();
 
     Optional<Library> findFirstByOrderByIdDesc();
+
+    @Query("select l.version from Library l where l.id = :id")
+    Optional<Long> findVersionById(Long id);
+
+    /**
+     * Bumps the versions of libraries whose books changed, which their responses list, so that their ETags change.
+     */
+    @Transactional
+    @Modifying
+    @Query("update Library l set l.version = l.version + 1 where l.id in :ids")
+    void incrementVersions(Collection<Long> ids);
+
+    Slice<Library> findSliceBy(Pageable pageable);
+
+    @Query("select new chief.digital.bookssystem.model.projection.Counted(l, count(*) over()) from Library l")
+    List<Counted<Library>> findCountedBy(Pageable pageable);
+
+    List<Library> findAllBy(Pageable pageable);
+
+    List<Library> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @Query("select l from Library l where (l.title, l.id) > (:title, :id) order by l.title, l.id")
+    List<Library> findAfterTitle(String title, Long id, Pageable pageable);
+
+    @Query(value = """
+            SELECT b.library_id AS "ownerId", 'book' AS "relation", b.id AS "relatedId"
+            FROM books b
+            WHERE b.library_id IN (:libraryIds)
+            UNION ALL
+            SELECT lu.library_id, 'user', lu.user_id
+            FROM library_users lu
+            WHERE :withUsers AND lu.library_id IN (:libraryIds)
+            ORDER BY 1, 2, 3
+            """, nativeQuery = true)
+    List<RelatedId> findRelatedIdsByLibraryIds(Collection<Long> libraryIds, boolean withUsers);
 }
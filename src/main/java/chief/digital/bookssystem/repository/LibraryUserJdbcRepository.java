@@ -0,0 +1,45 @@
+package chief.digital.bookssystem.repository;
+
+import chief.digital.bookssystem.model.projection.MembershipChange;
+import org.springframework.jdbc.core.ResultSetExtractor;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface LibraryUserJdbcRepository {
+
+    /**
+     * Adds the users to the library with one statement. Existing memberships and IDs of
+     * missing users are skipped.
+     *
+     * @return IDs of the users whose membership was added
+     */
+    List<Long> insertAllByLibraryId(Long libraryId, Collection<Long> userIds);
+
+    /**
+     * Removes the users from the library with one statement.
+     *
+     * @return IDs of the users whose membership was removed
+     */
+    List<Long> deleteAllByLibraryId(Long libraryId, Collection<Long> userIds);
+
+    /**
+     * Makes the users the only members of the library with one statement that adds and
+     * removes only the difference to the current members. IDs of missing users are skipped.
+     *
+     * @return IDs of the users whose membership was added and removed
+     */
+    MembershipChange syncAllByLibraryId(Long libraryId, Collection<Long> userIds);
+
+    /**
+     * Reads all memberships ordered by library and user ID through a server-side cursor and passes them to
+     * the extractor, without loading them as entities. Memberships of libraries being deleted in the background
+     * are skipped.
+     */
+    <T> T exportAll(ResultSetExtractor<T> resultSetExtractor);
+
+    /**
+     * Counts the memberships {@link #exportAll} reads, skipping those of libraries being deleted in the background.
+     */
+    long countExported();
+}
@@ -0,0 +1,8 @@
+package chief.digital.bookssystem.repository;
+
+import chief.digital.bookssystem.model.entity.LibraryUser;
+import chief.digital.bookssystem.model.entity.LibraryUserId;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface LibraryUserRepository extends JpaRepository<LibraryUser, LibraryUserId>, LibraryUserJdbcRepository {
+}
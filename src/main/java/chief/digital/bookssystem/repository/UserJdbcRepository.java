@@ -0,0 +1,59 @@
+package chief.digital.bookssystem.repository;
+
+import chief.digital.bookssystem.model.dto.request.UserDtoRequest;
+import chief.digital.bookssystem.model.entity.User;
+import chief.digital.bookssystem.model.projection.Upserted;
+import chief.digital.bookssystem.model.projection.UserKey;
+import chief.digital.bookssystem.model.projection.WithRelatedIds;
+import org.springframework.jdbc.core.ResultSetExtractor;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface UserJdbcRepository {
+
+    /**
+     * Inserts the users with one JDBC batch.
+     * A user whose username or email is already taken is skipped and gets a {@code 0} update count.
+     */
+    int[] insertAll(List<User> users);
+
+    /**
+     * Inserts the users, or updates the users with their usernames, with one
+     * {@code INSERT ... ON CONFLICT (username) DO UPDATE} statement. An existing user keeps its version if it
+     * already has the values. The usernames and the emails must be unique, and an email must not be taken
+     * by another user.
+     *
+     * @return the written or unchanged users with what was done to them, in no particular order
+     */
+    List<Upserted<User>> upsertAll(List<User> users);
+
+    /**
+     * Finds the users whose username or email is one of the given ones with one query.
+     */
+    List<UserKey> findKeysByUsernamesOrEmails(Collection<String> usernames, Collection<String> emails);
+
+    /**
+     * Sets the provided (non-null) fields of the user with one {@code UPDATE ... RETURNING} statement,
+     * which also returns the IDs of the libraries the user is a member of.
+     *
+     * @param expectedVersion version the user must have to be updated; {@code null} to update any version
+     * @return the updated user with the IDs of its libraries, or empty if there is no user with the ID
+     * or it has another version
+     */
+    Optional<WithRelatedIds<User>> updateById(Long id, UserDtoRequest userDtoRequest, Long expectedVersion);
+
+    /**
+     * Deletes the user with one {@code DELETE} statement; its memberships are deleted with it by the foreign key.
+     *
+     * @return whether there was a user with the ID
+     */
+    boolean removeById(Long id);
+
+    /**
+     * Reads all users ordered by ID through a server-side cursor and passes them to the extractor, without loading
+     * them as entities.
+     */
+    <T> T exportAll(ResultSetExtractor<T> resultSetExtractor);
+}
@@ -1,13 +1,47 @@
 package chief.digital.bookssystem.repository;
 
 import chief.digital.bookssystem.model.entity.User;
+import chief.digital.bookssystem.model.projection.Counted;
+import chief.digital.bookssystem.model.projection.RelatedId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserJdbcRepository {
 
     Optional<User> findFirstByOrderByIdAsc();
 
     Optional<User> findFirstByOrderByIdDesc();
+
+    @Query("select u.version from User u where u.id = :id")
+    Optional<Long> findVersionById(Long id);
+
+    Slice<User> findSliceBy(Pageable pageable);
+
+    @Query("select new chief.digital.bookssystem.model.projection.Counted(u, count(*) over()) from User u")
+    List<Counted<User>> findCountedBy(Pageable pageable);
+
+    List<User> findAllBy(Pageable pageable);
+
+    List<User> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @Query("select u from User u where (u.username, u.id) > (:username, :id) order by u.username, u.id")
+    List<User> findAfterUsername(String username, Long id, Pageable pageable);
+
+    @Query("select u from LibraryUser lu join User u on u.id = lu.userId " +
+            "where lu.libraryId = :libraryId and lu.userId > :id order by lu.userId")
+    List<User> findByLibraryIdAndIdGreaterThan(Long libraryId, Long id, Pageable pageable);
+
+    @Query(value = """
+            SELECT lu.user_id AS "ownerId", 'library' AS "relation", lu.library_id AS "relatedId"
+            FROM library_users lu
+            WHERE lu.user_id IN (:userIds)
+            ORDER BY 1, 3
+            """, nativeQuery = true)
+    List<RelatedId> findRelatedIdsByUserIds(Collection<Long> userIds);
 }
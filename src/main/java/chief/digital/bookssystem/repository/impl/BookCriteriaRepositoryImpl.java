@@ -0,0 +1,42 @@
+package chief.digital.bookssystem.repository.impl;
+
+import chief.digital.bookssystem.model.entity.Book;
+import chief.digital.bookssystem.repository.BookCriteriaRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+public class BookCriteriaRepositoryImpl implements BookCriteriaRepository {
+
+    private final EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Book> findSlice(Specification<Book> specification, Pageable pageable) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Book> query = criteriaBuilder.createQuery(Book.class);
+        Root<Book> root = query.from(Book.class);
+        query.select(root)
+                .where(specification.toPredicate(root, query, criteriaBuilder))
+                .orderBy(QueryUtils.toOrders(pageable.getSort(), root, criteriaBuilder));
+
+        List<Book> books = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+
+        boolean hasNext = books.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? books.subList(0, pageable.getPageSize()) : books, pageable, hasNext);
+    }
+}
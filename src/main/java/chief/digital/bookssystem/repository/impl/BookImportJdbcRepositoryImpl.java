@@ -0,0 +1,238 @@
+package chief.digital.bookssystem.repository.impl;
+
+import chief.digital.bookssystem.exception.InvalidRequestException;
+import chief.digital.bookssystem.model.projection.RecordError;
+import chief.digital.bookssystem.model.projection.MergedChunk;
+import chief.digital.bookssystem.repository.BookImportJdbcRepository;
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.sql.Array;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class BookImportJdbcRepositoryImpl implements BookImportJdbcRepository {
+
+    // serializes loads, so that the identity values of one import's staging rows are consecutive
+    private static final String LOCK_LOADS_SQL = "SELECT pg_advisory_xact_lock(hashtext('book_import_rows'))";
+
+    private static final String INSERT_IMPORT_SQL = """
+            INSERT INTO book_imports(status, created_at)
+            VALUES ('VALIDATING', localtimestamp)
+            RETURNING id
+            """;
+
+    // the staging rows take the import ID from this setting by default, as COPY cannot set a constant column
+    private static final String SET_IMPORT_ID_SQL = "SELECT set_config('books_system.import_id', ?, true)";
+
+    private static final String COPY_ROWS_SQL = """
+            COPY book_import_rows(title, description, author, genre, publication_year, library_id)
+            FROM STDIN WITH (FORMAT csv, HEADER true)
+            """;
+
+    private static final String UPDATE_LOADED_SQL = """
+            WITH loaded AS (
+                SELECT min(id) AS first_row_id FROM book_import_rows WHERE import_id = ?
+            )
+            UPDATE book_imports
+            SET rows_total = ?,
+                first_row_id = (SELECT first_row_id FROM loaded),
+                last_merged_row_id = COALESCE((SELECT first_row_id FROM loaded) - 1, 0)
+            WHERE id = ?
+            """;
+
+    // an import is worked on by one instance at a time: the others skip it while its row is locked
+    private static final String CLAIM_VALIDATING_SQL = """
+            SELECT id FROM book_imports WHERE id = ? AND status = 'VALIDATING' FOR UPDATE SKIP LOCKED
+            """;
+
+    // rows valid on their own compete for their title in CSV order, so that only the first one is rejected by none
+    private static final String VALIDATE_SQL = """
+            UPDATE book_import_rows r
+            SET error = v.error
+            FROM (
+                SELECT id,
+                       COALESCE(error, CASE
+                           WHEN row_number() OVER (PARTITION BY title, error IS NULL ORDER BY id) > 1
+                               THEN 'Title is repeated in the import'
+                       END) AS error
+                FROM (
+                    SELECT s.id, s.title,
+                           CASE
+                               WHEN btrim(COALESCE(s.title, '')) = '' THEN 'Title cannot be empty'
+                               WHEN char_length(s.title) > 255 THEN 'Title is too long'
+                               WHEN btrim(COALESCE(s.description, '')) = '' THEN 'Description cannot be empty'
+                               WHEN char_length(s.description) > 255 THEN 'Description is too long'
+                               WHEN btrim(COALESCE(s.author, '')) = '' THEN 'Author cannot be empty'
+                               WHEN char_length(s.author) > 255 THEN 'Author is too long'
+                               WHEN btrim(COALESCE(s.genre, '')) = '' THEN 'Genre cannot be empty'
+                               WHEN char_length(s.genre) > 255 THEN 'Genre is too long'
+                               WHEN s.publication_year IS NULL THEN 'Publication Year cannot be null'
+                               WHEN btrim(s.publication_year) !~ '^[+-]?[0-9]{1,9}$'
+                                   THEN 'Publication Year must be a number'
+                               WHEN CAST(btrim(s.publication_year) AS integer) <= 0
+                                   THEN 'Publication Year must be positive'
+                               WHEN btrim(COALESCE(s.library_id, '')) !~ '^[0-9]{1,18}$'
+                                   THEN 'Library ID must be a number'
+                               WHEN NOT EXISTS (
+                                   SELECT 1 FROM libraries l
+                                   WHERE l.id = CAST(btrim(s.library_id) AS bigint) AND NOT l.deleting
+                               ) THEN 'Library with ID ' || btrim(s.library_id) || ' was not found'
+                               WHEN EXISTS (SELECT 1 FROM books b WHERE b.title = s.title)
+                                   THEN 'Title is already taken'
+                           END AS error
+                    FROM book_import_rows s
+                    WHERE s.import_id = ?
+                      AND s.id > (SELECT last_merged_row_id FROM book_imports WHERE id = ?)
+                      AND s.error IS NULL
+                ) checked
+            ) v
+            WHERE r.import_id = ? AND r.id = v.id AND v.error IS NOT NULL
+            """;
+
+    private static final String UPDATE_VALIDATED_SQL = """
+            UPDATE book_imports
+            SET status = 'MERGING',
+                rows_invalid = (SELECT count(*) FROM book_import_rows WHERE import_id = ? AND error IS NOT NULL)
+            WHERE id = ?
+            """;
+
+    private static final String MERGE_CHUNK_SQL = """
+            WITH claimed AS (
+                SELECT last_merged_row_id FROM book_imports
+                WHERE id = ? AND status = 'MERGING'
+                FOR UPDATE SKIP LOCKED
+            ), chunk AS (
+                SELECT id, title, description, author, genre,
+                       CAST(btrim(publication_year) AS integer) AS publication_year,
+                       CAST(btrim(library_id) AS bigint) AS library_id
+                FROM book_import_rows
+                WHERE import_id = ?
+                  AND id > (SELECT last_merged_row_id FROM claimed)
+                  AND error IS NULL
+                ORDER BY id
+                LIMIT ?
+            ), inserted AS (
+                INSERT INTO books(title, description, author, genre, publication_year, library_id)
+                SELECT c.title, c.description, c.author, c.genre, c.publication_year, c.library_id
+                FROM chunk c
+                WHERE EXISTS (SELECT 1 FROM libraries l WHERE l.id = c.library_id AND NOT l.deleting)
+                ORDER BY c.id
+                ON CONFLICT (title) DO NOTHING
+                RETURNING title, library_id
+            ), rejected AS (
+                UPDATE book_import_rows r
+                SET error = CASE
+                                WHEN EXISTS (SELECT 1 FROM libraries l WHERE l.id = c.library_id AND NOT l.deleting)
+                                    THEN 'Title is already taken'
+                                ELSE 'Library with ID ' || c.library_id || ' was not found'
+                            END
+                FROM chunk c
+                WHERE r.import_id = ? AND r.id = c.id AND c.title NOT IN (SELECT title FROM inserted)
+                RETURNING r.id
+            ), versioned AS (
+                UPDATE libraries SET version = version + 1 WHERE id IN (SELECT library_id FROM inserted)
+            ), checkpoint AS (
+                UPDATE book_imports
+                SET last_merged_row_id = COALESCE((SELECT max(id) FROM chunk), last_merged_row_id),
+                    rows_merged = rows_merged + (SELECT count(*) FROM inserted),
+                    rows_invalid = rows_invalid + (SELECT count(*) FROM rejected)
+                WHERE id = ? AND EXISTS (SELECT 1 FROM claimed)
+            )
+            SELECT EXISTS (SELECT 1 FROM claimed) AS claimed,
+                   (SELECT count(*) FROM chunk) AS rows,
+                   ARRAY(SELECT DISTINCT library_id FROM inserted) AS libraries_ids
+            """;
+
+    private static final String FINISH_SQL = """
+            WITH deleted AS (
+                DELETE FROM book_import_rows WHERE import_id = ? AND error IS NULL
+            )
+            UPDATE book_imports SET status = 'FINISHED', finished_at = localtimestamp
+            WHERE id = ? AND status = 'MERGING'
+            """;
+
+    private static final String FIND_ERRORS_SQL = """
+            SELECT CAST(r.id - i.first_row_id + 2 AS integer) AS record, r.error
+            FROM book_import_rows r
+            JOIN book_imports i ON i.id = r.import_id
+            WHERE r.import_id = ? AND r.error IS NOT NULL
+            ORDER BY r.id
+            LIMIT ?
+            """;
+
+    private static final String INVALID_TEXT_REPRESENTATION = "22P02";
+    private static final String BAD_COPY_FILE_FORMAT = "22P04";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public Long load(InputStream csv) {
+        jdbcTemplate.execute(LOCK_LOADS_SQL);
+        Long importId = jdbcTemplate.queryForObject(INSERT_IMPORT_SQL, Long.class);
+        jdbcTemplate.queryForObject(SET_IMPORT_ID_SQL, String.class, String.valueOf(importId));
+
+        Long rows = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try {
+                return connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_ROWS_SQL, csv);
+            } catch (SQLException e) {
+                if (Objects.equals(e.getSQLState(), BAD_COPY_FILE_FORMAT)
+                        || Objects.equals(e.getSQLState(), INVALID_TEXT_REPRESENTATION)) {
+                    throw new InvalidRequestException("Invalid CSV: " + e.getMessage());
+                }
+                throw e;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        jdbcTemplate.update(UPDATE_LOADED_SQL, importId, rows, importId);
+        return importId;
+    }
+
+    @Override
+    @Transactional
+    public boolean validate(Long importId) {
+        if (jdbcTemplate.queryForList(CLAIM_VALIDATING_SQL, Long.class, importId).isEmpty()) {
+            return false;
+        }
+        jdbcTemplate.update(VALIDATE_SQL, importId, importId, importId);
+        jdbcTemplate.update(UPDATE_VALIDATED_SQL, importId, importId);
+        return true;
+    }
+
+    @Override
+    @Transactional
+    public Optional<MergedChunk> mergeChunk(Long importId, int chunkSize) {
+        return jdbcTemplate.queryForObject(MERGE_CHUNK_SQL, (rs, rowNum) -> rs.getBoolean("claimed")
+                ? Optional.of(new MergedChunk(rs.getInt("rows"), toIds(rs.getArray("libraries_ids"))))
+                : Optional.empty(), importId, importId, chunkSize, importId, importId);
+    }
+
+    @Override
+    @Transactional
+    public void finish(Long importId) {
+        jdbcTemplate.update(FINISH_SQL, importId, importId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<RecordError> findErrors(Long importId, int limit) {
+        return jdbcTemplate.query(FIND_ERRORS_SQL,
+                (rs, rowNum) -> new RecordError(rs.getInt("record"), rs.getString("error")), importId, limit);
+    }
+
+    private List<Long> toIds(Array array) throws SQLException {
+        return List.of((Long[]) array.getArray());
+    }
+}
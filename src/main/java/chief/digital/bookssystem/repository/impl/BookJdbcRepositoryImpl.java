@@ -0,0 +1,236 @@
+package chief.digital.bookssystem.repository.impl;
+
+import chief.digital.bookssystem.model.dto.request.BookDtoRequest;
+import chief.digital.bookssystem.model.dto.request.BookFilterDtoRequest;
+import chief.digital.bookssystem.model.entity.Book;
+import chief.digital.bookssystem.model.entity.Library;
+import chief.digital.bookssystem.model.enums.UpsertStatus;
+import chief.digital.bookssystem.model.projection.FacetCount;
+import chief.digital.bookssystem.model.projection.Upserted;
+import chief.digital.bookssystem.repository.BookJdbcRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.CollectionUtils;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class BookJdbcRepositoryImpl implements BookJdbcRepository {
+
+    private static final String INSERT_BOOK_SQL = """
+            INSERT INTO books(title, description, author, genre, publication_year, library_id)
+            VALUES (?, ?, ?, ?, ?, ?)
+            ON CONFLICT (title) DO NOTHING
+            """;
+
+    private static final String UPSERT_BOOKS_SQL = """
+            WITH input AS (
+                SELECT * FROM unnest(?::varchar[], ?::varchar[], ?::varchar[], ?::varchar[], ?::int[])
+                    AS t(title, description, author, genre, publication_year)
+            ), upserted AS (
+                INSERT INTO books AS b (title, description, author, genre, publication_year, library_id)
+                SELECT title, description, author, genre, publication_year, ? FROM input
+                ON CONFLICT (title) DO UPDATE
+                SET description = EXCLUDED.description, author = EXCLUDED.author, genre = EXCLUDED.genre,
+                    publication_year = EXCLUDED.publication_year, version = b.version + 1
+                WHERE b.library_id = EXCLUDED.library_id
+                    AND (b.description, b.author, b.genre, b.publication_year) IS DISTINCT FROM (EXCLUDED.description, EXCLUDED.author, EXCLUDED.genre, EXCLUDED.publication_year)
+                RETURNING b.id, b.version, b.title, b.description, b.author, b.genre, b.publication_year, b.library_id,
+                    CASE WHEN b.xmax = 0 THEN 'CREATED' ELSE 'UPDATED' END AS status
+            ), versioned AS (
+                UPDATE libraries SET version = version + 1
+                WHERE id = ? AND EXISTS (SELECT 1 FROM upserted WHERE status = 'CREATED')
+            )
+            SELECT * FROM upserted
+            UNION ALL
+            SELECT b.id, b.version, b.title, b.description, b.author, b.genre, b.publication_year, b.library_id,
+                'UNCHANGED'
+            FROM books b
+            JOIN input i ON i.title = b.title
+            WHERE NOT EXISTS (SELECT 1 FROM upserted u WHERE u.id = b.id)
+            """;
+
+    private static final String COUNT_FACETS_SQL = """
+            SELECT facet, value, count
+            FROM (
+                SELECT facet, value, count, row_number() OVER (PARTITION BY facet ORDER BY count DESC, value) AS position
+                FROM (
+                    SELECT CASE
+                               WHEN GROUPING(genre) = 0 THEN 'genre'
+                               WHEN GROUPING(author) = 0 THEN 'author'
+                               WHEN GROUPING(publication_year) = 0 THEN 'publicationYear'
+                               ELSE 'libraryId'
+                           END AS facet,
+                           COALESCE(genre, author, CAST(publication_year AS varchar), CAST(library_id AS varchar)) AS value,
+                           count(*) AS count
+                    FROM books
+                    WHERE %s
+                    GROUP BY GROUPING SETS ((genre), (author), (publication_year), (library_id))
+                ) facets
+            ) ranked
+            WHERE position <= ?
+            ORDER BY facet, position
+            """;
+
+    private static final String DELETE_BOOK_SQL = """
+            WITH deleted AS (
+                DELETE FROM books WHERE id = ? RETURNING library_id
+            ), versioned AS (
+                UPDATE libraries SET version = version + 1 WHERE id IN (SELECT library_id FROM deleted)
+            )
+            SELECT library_id FROM deleted
+            """;
+
+    private static final String BOOK_COLUMNS = "id, version, title, description, author, genre, publication_year, library_id";
+
+    private static final String EXPORT_BOOKS_SQL = """
+            SELECT b.id, b.version, b.title, b.description, b.author, b.genre,
+                   b.publication_year AS "publicationYear", b.library_id AS "libraryId"
+            FROM books b
+            WHERE NOT EXISTS (SELECT 1 FROM libraries l WHERE l.id = b.library_id AND l.deleting)
+            ORDER BY b.id
+            """;
+
+    private static final String COUNT_EXPORTED_BOOKS_SQL = """
+            SELECT count(*)
+            FROM books b
+            WHERE NOT EXISTS (SELECT 1 FROM libraries l WHERE l.id = b.library_id AND l.deleting)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public int[] insertAllByLibraryId(Long libraryId, List<Book> books) {
+        return jdbcTemplate.batchUpdate(INSERT_BOOK_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Book book = books.get(i);
+                ps.setString(1, book.getTitle());
+                ps.setString(2, book.getDescription());
+                ps.setString(3, book.getAuthor());
+                ps.setString(4, book.getGenre());
+                ps.setInt(5, book.getPublicationYear());
+                ps.setLong(6, libraryId);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return books.size();
+            }
+        });
+    }
+
+    @Override
+    @Transactional
+    public List<Upserted<Book>> upsertAllByLibraryId(Long libraryId, List<Book> books) {
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(UPSERT_BOOKS_SQL);
+            ps.setArray(1, toArray(connection, "varchar", books.stream().map(Book::getTitle).toList()));
+            ps.setArray(2, toArray(connection, "varchar", books.stream().map(Book::getDescription).toList()));
+            ps.setArray(3, toArray(connection, "varchar", books.stream().map(Book::getAuthor).toList()));
+            ps.setArray(4, toArray(connection, "varchar", books.stream().map(Book::getGenre).toList()));
+            ps.setArray(5, toArray(connection, "integer", books.stream().map(Book::getPublicationYear).toList()));
+            ps.setLong(6, libraryId);
+            ps.setLong(7, libraryId);
+            return ps;
+        }, (rs, rowNum) -> new Upserted<>(toBook(rs, rowNum), UpsertStatus.valueOf(rs.getString("status"))));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<FacetCount> countFacets(BookFilterDtoRequest filter, int facetSize) {
+        List<String> conditions = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        if (!CollectionUtils.isEmpty(filter.getGenre())) {
+            conditions.add("genre IN (" + placeholders(filter.getGenre().size()) + ")");
+            args.addAll(filter.getGenre());
+        }
+        if (!CollectionUtils.isEmpty(filter.getAuthor())) {
+            conditions.add("author IN (" + placeholders(filter.getAuthor().size()) + ")");
+            args.addAll(filter.getAuthor());
+        }
+        if (Objects.nonNull(filter.getYearFrom())) {
+            conditions.add("publication_year >= ?");
+            args.add(filter.getYearFrom());
+        }
+        if (Objects.nonNull(filter.getYearTo())) {
+            conditions.add("publication_year <= ?");
+            args.add(filter.getYearTo());
+        }
+        if (Objects.nonNull(filter.getLibraryId())) {
+            conditions.add("library_id = ?");
+            args.add(filter.getLibraryId());
+        }
+        args.add(facetSize);
+
+        String where = conditions.isEmpty() ? "TRUE" : String.join(" AND ", conditions);
+        return jdbcTemplate.query(COUNT_FACETS_SQL.formatted(where),
+                (rs, rowNum) -> new FacetCount(rs.getString("facet"), rs.getString("value"), rs.getLong("count")),
+                args.toArray());
+    }
+
+    @Override
+    @Transactional
+    public Optional<Book> updateById(Long id, BookDtoRequest bookDtoRequest, Long expectedVersion) {
+        return PartialUpdate.of("books")
+                .set("title", bookDtoRequest.getTitle())
+                .set("description", bookDtoRequest.getDescription())
+                .set("author", bookDtoRequest.getAuthor())
+                .set("genre", bookDtoRequest.getGenre())
+                .set("publication_year", bookDtoRequest.getPublicationYear())
+                .execute(jdbcTemplate, id, expectedVersion, BOOK_COLUMNS, this::toBook);
+    }
+
+    @Override
+    @Transactional
+    public Optional<Long> removeByIdReturningLibraryId(Long id) {
+        return jdbcTemplate.query(DELETE_BOOK_SQL, (rs, rowNum) -> rs.getLong("library_id"), id).stream()
+                .findFirst();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public <T> T exportAll(ResultSetExtractor<T> resultSetExtractor) {
+        return jdbcTemplate.query(CursorQuery.of(EXPORT_BOOKS_SQL), resultSetExtractor);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long countExported() {
+        return jdbcTemplate.queryForObject(COUNT_EXPORTED_BOOKS_SQL, Long.class);
+    }
+
+    private Book toBook(ResultSet rs, int rowNum) throws SQLException {
+        return Book.builder()
+                .id(rs.getLong("id"))
+                .version(rs.getLong("version"))
+                .title(rs.getString("title"))
+                .description(rs.getString("description"))
+                .author(rs.getString("author"))
+                .genre(rs.getString("genre"))
+                .publicationYear(rs.getInt("publication_year"))
+                .library(Library.builder().id(rs.getLong("library_id")).build())
+                .build();
+    }
+
+    private Array toArray(Connection connection, String type, List<?> values) throws SQLException {
+        return connection.createArrayOf(type, values.toArray());
+    }
+
+    private String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
@@ -0,0 +1,28 @@
+package chief.digital.bookssystem.repository.impl;
+
+import org.springframework.jdbc.core.PreparedStatementCreator;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+/**
+ * Creates statements that read their rows through a server-side cursor, {@link #FETCH_SIZE} rows at a time,
+ * instead of loading the whole result into memory. pgjdbc opens the cursor only outside of auto-commit,
+ * so the statement has to run in a transaction.
+ */
+final class CursorQuery {
+
+    static final int FETCH_SIZE = 1_000;
+
+    private CursorQuery() {
+    }
+
+    static PreparedStatementCreator of(String sql) {
+        return connection -> {
+            PreparedStatement statement =
+                    connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(FETCH_SIZE);
+            return statement;
+        };
+    }
+}
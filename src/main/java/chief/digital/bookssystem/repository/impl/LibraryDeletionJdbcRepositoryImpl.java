@@ -0,0 +1,117 @@
+package chief.digital.bookssystem.repository.impl;
+
+import chief.digital.bookssystem.model.entity.LibraryDeletion;
+import chief.digital.bookssystem.repository.LibraryDeletionJdbcRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class LibraryDeletionJdbcRepositoryImpl implements LibraryDeletionJdbcRepository {
+
+    private static final String START_DELETION_SQL = """
+            WITH hidden AS (
+                UPDATE libraries SET deleting = TRUE
+                WHERE id = ? AND NOT deleting
+                RETURNING id
+            )
+            INSERT INTO library_deletions(library_id, books_total, memberships_total, started_at)
+            SELECT h.id,
+                   (SELECT count(*) FROM books b WHERE b.library_id = h.id),
+                   (SELECT count(*) FROM library_users lu WHERE lu.library_id = h.id),
+                   localtimestamp
+            FROM hidden h
+            RETURNING library_id, books_total, books_deleted, memberships_total, memberships_deleted,
+                      started_at, finished_at
+            """;
+
+    private static final String DELETE_BOOKS_CHUNK_SQL = """
+            WITH chunk AS (
+                SELECT id FROM books WHERE library_id = ? LIMIT ? FOR UPDATE SKIP LOCKED
+            ), deleted AS (
+                DELETE FROM books WHERE id IN (SELECT id FROM chunk) RETURNING id
+            ), progress AS (
+                UPDATE library_deletions SET books_deleted = books_deleted + (SELECT count(*) FROM deleted)
+                WHERE library_id = ?
+            )
+            SELECT id FROM deleted
+            """;
+
+    // user responses list their libraries, so the versions of the users whose memberships are deleted are bumped
+    private static final String DELETE_MEMBERSHIPS_CHUNK_SQL = """
+            WITH chunk AS (
+                SELECT user_id FROM library_users WHERE library_id = ? LIMIT ? FOR UPDATE SKIP LOCKED
+            ), deleted AS (
+                DELETE FROM library_users
+                WHERE library_id = ? AND user_id IN (SELECT user_id FROM chunk)
+                RETURNING user_id
+            ), versioned AS (
+                UPDATE users SET version = version + 1 WHERE id IN (SELECT user_id FROM deleted)
+            ), progress AS (
+                UPDATE library_deletions
+                SET memberships_deleted = memberships_deleted + (SELECT count(*) FROM deleted)
+                WHERE library_id = ?
+            )
+            SELECT user_id FROM deleted
+            """;
+
+    // rows still locked by another worker are not seen as deleted yet, so only the last worker deletes the library
+    private static final String FINISH_DELETION_SQL = """
+            WITH deleted AS (
+                DELETE FROM libraries l
+                WHERE l.id = ? AND l.deleting
+                  AND NOT EXISTS (SELECT 1 FROM books b WHERE b.library_id = l.id)
+                  AND NOT EXISTS (SELECT 1 FROM library_users lu WHERE lu.library_id = l.id)
+                RETURNING l.id
+            )
+            UPDATE library_deletions SET finished_at = localtimestamp
+            WHERE library_id IN (SELECT id FROM deleted)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public Optional<LibraryDeletion> start(Long libraryId) {
+        return jdbcTemplate.query(START_DELETION_SQL, this::toLibraryDeletion, libraryId).stream()
+                .findFirst();
+    }
+
+    @Override
+    @Transactional
+    public List<Long> deleteBooksChunk(Long libraryId, int chunkSize) {
+        return jdbcTemplate.query(DELETE_BOOKS_CHUNK_SQL, (rs, rowNum) -> rs.getLong("id"),
+                libraryId, chunkSize, libraryId);
+    }
+
+    @Override
+    @Transactional
+    public List<Long> deleteMembershipsChunk(Long libraryId, int chunkSize) {
+        return jdbcTemplate.query(DELETE_MEMBERSHIPS_CHUNK_SQL, (rs, rowNum) -> rs.getLong("user_id"),
+                libraryId, chunkSize, libraryId, libraryId);
+    }
+
+    @Override
+    @Transactional
+    public boolean finish(Long libraryId) {
+        return jdbcTemplate.update(FINISH_DELETION_SQL, libraryId) > 0;
+    }
+
+    private LibraryDeletion toLibraryDeletion(ResultSet rs, int rowNum) throws SQLException {
+        return LibraryDeletion.builder()
+                .libraryId(rs.getLong("library_id"))
+                .booksTotal(rs.getLong("books_total"))
+                .booksDeleted(rs.getLong("books_deleted"))
+                .membershipsTotal(rs.getLong("memberships_total"))
+                .membershipsDeleted(rs.getLong("memberships_deleted"))
+                .startedAt(rs.getObject("started_at", LocalDateTime.class))
+                .finishedAt(rs.getObject("finished_at", LocalDateTime.class))
+                .build();
+    }
+}
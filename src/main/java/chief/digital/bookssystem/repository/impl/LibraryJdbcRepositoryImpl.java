@@ -0,0 +1,98 @@
+package chief.digital.bookssystem.repository.impl;
+
+import chief.digital.bookssystem.model.dto.request.LibraryDtoRequest;
+import chief.digital.bookssystem.model.entity.Library;
+import chief.digital.bookssystem.model.projection.LibraryCascade;
+import chief.digital.bookssystem.model.projection.WithRelatedIds;
+import chief.digital.bookssystem.repository.LibraryJdbcRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class LibraryJdbcRepositoryImpl implements LibraryJdbcRepository {
+
+    private static final String DELETE_LIBRARY_SQL = """
+            WITH library AS (
+                SELECT id FROM libraries WHERE id = ? AND NOT deleting FOR UPDATE
+            ), deleted_books AS (
+                DELETE FROM books WHERE library_id IN (SELECT id FROM library) RETURNING id
+            ), deleted_memberships AS (
+                DELETE FROM library_users WHERE library_id IN (SELECT id FROM library) RETURNING user_id
+            ), versioned AS (
+                UPDATE users SET version = version + 1 WHERE id IN (SELECT user_id FROM deleted_memberships)
+            ), deleted AS (
+                DELETE FROM libraries WHERE id IN (SELECT id FROM library) RETURNING id
+            )
+            SELECT ARRAY(SELECT id FROM deleted_books) AS books_ids,
+                   ARRAY(SELECT user_id FROM deleted_memberships) AS users_ids
+            FROM deleted
+            """;
+
+    private static final String LIBRARY_COLUMNS = """
+            id, version, title, description, city, opening_time, closing_time,
+            ARRAY(SELECT b.id FROM books b WHERE b.library_id = libraries.id ORDER BY b.id) AS books_ids""";
+
+    private static final String EXPORT_LIBRARIES_SQL = """
+            SELECT id, version, title, description, city,
+                   opening_time AS "openingTime", closing_time AS "closingTime"
+            FROM libraries
+            WHERE NOT deleting
+            ORDER BY id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public Optional<WithRelatedIds<Library>> updateById(Long id, LibraryDtoRequest libraryDtoRequest,
+                                                        Long expectedVersion) {
+        return PartialUpdate.of("libraries")
+                .where("NOT deleting")
+                .set("title", libraryDtoRequest.getTitle())
+                .set("description", libraryDtoRequest.getDescription())
+                .set("city", libraryDtoRequest.getCity())
+                .set("opening_time", libraryDtoRequest.getOpeningTime())
+                .set("closing_time", libraryDtoRequest.getClosingTime())
+                .execute(jdbcTemplate, id, expectedVersion, LIBRARY_COLUMNS, this::toLibrary);
+    }
+
+    @Override
+    @Transactional
+    public Optional<LibraryCascade> removeById(Long id) {
+        return jdbcTemplate.query(DELETE_LIBRARY_SQL, (rs, rowNum) -> new LibraryCascade(
+                        toIds(rs.getArray("books_ids")), toIds(rs.getArray("users_ids"))), id).stream()
+                .findFirst();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public <T> T exportAll(ResultSetExtractor<T> resultSetExtractor) {
+        return jdbcTemplate.query(CursorQuery.of(EXPORT_LIBRARIES_SQL), resultSetExtractor);
+    }
+
+    private WithRelatedIds<Library> toLibrary(ResultSet rs, int rowNum) throws SQLException {
+        Library library = Library.builder()
+                .id(rs.getLong("id"))
+                .version(rs.getLong("version"))
+                .title(rs.getString("title"))
+                .description(rs.getString("description"))
+                .city(rs.getString("city"))
+                .openingTime(rs.getObject("opening_time", LocalTime.class))
+                .closingTime(rs.getObject("closing_time", LocalTime.class))
+                .build();
+        return new WithRelatedIds<>(library, toIds(rs.getArray("books_ids")));
+    }
+
+    private List<Long> toIds(Array array) throws SQLException {
+        return List.of((Long[]) array.getArray());
+    }
+}
@@ -0,0 +1,134 @@
+package chief.digital.bookssystem.repository.impl;
+
+import chief.digital.bookssystem.model.projection.MembershipChange;
+import chief.digital.bookssystem.repository.LibraryUserJdbcRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class LibraryUserJdbcRepositoryImpl implements LibraryUserJdbcRepository {
+
+    // user responses list their libraries, so the versions of the users whose memberships changed are bumped
+    private static final String INSERT_LIBRARY_USERS_SQL = """
+            WITH inserted AS (
+                INSERT INTO library_users(library_id, user_id)
+                SELECT ?, u.id FROM users u WHERE u.id = ANY(?)
+                ON CONFLICT DO NOTHING
+                RETURNING user_id
+            ), versioned AS (
+                UPDATE users SET version = version + 1 WHERE id IN (SELECT user_id FROM inserted)
+            )
+            SELECT user_id FROM inserted
+            """;
+
+    private static final String DELETE_LIBRARY_USERS_SQL = """
+            WITH deleted AS (
+                DELETE FROM library_users
+                WHERE library_id = ? AND user_id = ANY(?)
+                RETURNING user_id
+            ), versioned AS (
+                UPDATE users SET version = version + 1 WHERE id IN (SELECT user_id FROM deleted)
+            )
+            SELECT user_id FROM deleted
+            """;
+
+    private static final String SYNC_LIBRARY_USERS_SQL = """
+            WITH deleted AS (
+                DELETE FROM library_users
+                WHERE library_id = ? AND user_id <> ALL(?)
+                RETURNING user_id
+            ), inserted AS (
+                INSERT INTO library_users(library_id, user_id)
+                SELECT ?, u.id FROM users u WHERE u.id = ANY(?)
+                ON CONFLICT DO NOTHING
+                RETURNING user_id
+            ), versioned AS (
+                UPDATE users SET version = version + 1
+                WHERE id IN (SELECT user_id FROM inserted UNION ALL SELECT user_id FROM deleted)
+            )
+            SELECT ARRAY(SELECT user_id FROM inserted) AS added, ARRAY(SELECT user_id FROM deleted) AS removed
+            """;
+
+    private static final String EXPORT_LIBRARY_USERS_SQL = """
+            SELECT lu.library_id AS "libraryId", lu.user_id AS "userId"
+            FROM library_users lu
+            WHERE NOT EXISTS (SELECT 1 FROM libraries l WHERE l.id = lu.library_id AND l.deleting)
+            ORDER BY lu.library_id, lu.user_id
+            """;
+
+    private static final String COUNT_EXPORTED_LIBRARY_USERS_SQL = """
+            SELECT count(*)
+            FROM library_users lu
+            WHERE NOT EXISTS (SELECT 1 FROM libraries l WHERE l.id = lu.library_id AND l.deleting)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public List<Long> insertAllByLibraryId(Long libraryId, Collection<Long> userIds) {
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(INSERT_LIBRARY_USERS_SQL);
+            ps.setLong(1, libraryId);
+            ps.setArray(2, toArray(connection, userIds));
+            return ps;
+        }, (rs, rowNum) -> rs.getLong("user_id"));
+    }
+
+    @Override
+    @Transactional
+    public List<Long> deleteAllByLibraryId(Long libraryId, Collection<Long> userIds) {
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(DELETE_LIBRARY_USERS_SQL);
+            ps.setLong(1, libraryId);
+            ps.setArray(2, toArray(connection, userIds));
+            return ps;
+        }, (rs, rowNum) -> rs.getLong("user_id"));
+    }
+
+    @Override
+    @Transactional
+    public MembershipChange syncAllByLibraryId(Long libraryId, Collection<Long> userIds) {
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(SYNC_LIBRARY_USERS_SQL);
+            Array array = toArray(connection, userIds);
+            ps.setLong(1, libraryId);
+            ps.setArray(2, array);
+            ps.setLong(3, libraryId);
+            ps.setArray(4, array);
+            return ps;
+        }, rs -> {
+            rs.next();
+            return new MembershipChange(toIds(rs.getArray("added")), toIds(rs.getArray("removed")));
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public <T> T exportAll(ResultSetExtractor<T> resultSetExtractor) {
+        return jdbcTemplate.query(CursorQuery.of(EXPORT_LIBRARY_USERS_SQL), resultSetExtractor);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long countExported() {
+        return jdbcTemplate.queryForObject(COUNT_EXPORTED_LIBRARY_USERS_SQL, Long.class);
+    }
+
+    private Array toArray(Connection connection, Collection<Long> ids) throws SQLException {
+        return connection.createArrayOf("bigint", ids.toArray());
+    }
+
+    private List<Long> toIds(Array array) throws SQLException {
+        return List.of((Long[]) array.getArray());
+    }
+}
@@ -0,0 +1,87 @@
+package chief.digital.bookssystem.repository.impl;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Builds one {@code UPDATE ... RETURNING} statement that sets only the provided (non-null) columns of a row, so
+ * that a partial update neither reads the row first nor writes the columns it leaves unchanged. Like a flush of
+ * a managed entity, the version is bumped only if a provided value differs from the stored one.
+ */
+final class PartialUpdate {
+
+    private static final String UPDATE_SQL = """
+            UPDATE %s
+            SET %s
+            WHERE id = ?%s
+            RETURNING %s
+            """;
+
+    private final String table;
+    private final List<String> columns = new ArrayList<>();
+    private final List<Object> values = new ArrayList<>();
+    private String condition = "";
+
+    private PartialUpdate(String table) {
+        this.table = table;
+    }
+
+    static PartialUpdate of(String table) {
+        return new PartialUpdate(table);
+    }
+
+    /**
+     * Adds a condition without parameters the row must also meet to be updated.
+     */
+    PartialUpdate where(String condition) {
+        this.condition += " AND " + condition;
+        return this;
+    }
+
+    PartialUpdate set(String column, Object value) {
+        if (Objects.nonNull(value)) {
+            columns.add(column);
+            values.add(value);
+        }
+        return this;
+    }
+
+    /**
+     * @param expectedVersion version the row must have to be updated; {@code null} to update any version
+     * @param returning       select list of the {@code RETURNING} clause, which may refer to the row by the table name
+     * @return the updated row, or empty if there is no row with the ID or it has another version
+     */
+    <T> Optional<T> execute(JdbcTemplate jdbcTemplate, Long id, Long expectedVersion, String returning,
+                            RowMapper<T> rowMapper) {
+        List<Object> args = new ArrayList<>(values);
+        args.addAll(values);
+        args.add(id);
+        if (Objects.nonNull(expectedVersion)) {
+            args.add(expectedVersion);
+        }
+
+        String sql = UPDATE_SQL.formatted(table, setClause(),
+                condition + (Objects.nonNull(expectedVersion) ? " AND version = ?" : ""), returning);
+        return jdbcTemplate.query(sql, rowMapper, args.toArray()).stream().findFirst();
+    }
+
+    private String setClause() {
+        if (columns.isEmpty()) {
+            return "version = version";
+        }
+
+        String assignments = columns.stream()
+                .map(column -> column + " = ?")
+                .collect(Collectors.joining(", "));
+        String changed = columns.stream()
+                .map(column -> column + " IS DISTINCT FROM ?")
+                .collect(Collectors.joining(" OR "));
+        return assignments + ", version = version + CASE WHEN " + changed + " THEN 1 ELSE 0 END";
+    }
+}
@@ -0,0 +1,163 @@
+package chief.digital.bookssystem.repository.impl;
+
+import chief.digital.bookssystem.model.dto.request.UserDtoRequest;
+import chief.digital.bookssystem.model.entity.User;
+import chief.digital.bookssystem.model.enums.UpsertStatus;
+import chief.digital.bookssystem.model.projection.Upserted;
+import chief.digital.bookssystem.model.projection.UserKey;
+import chief.digital.bookssystem.model.projection.WithRelatedIds;
+import chief.digital.bookssystem.repository.UserJdbcRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class UserJdbcRepositoryImpl implements UserJdbcRepository {
+
+    private static final String INSERT_USER_SQL = """
+            INSERT INTO users(username, first_name, last_name, email)
+            VALUES (?, ?, ?, ?)
+            ON CONFLICT DO NOTHING
+            """;
+
+    private static final String UPSERT_USERS_SQL = """
+            WITH input AS (
+                SELECT * FROM unnest(?::varchar[], ?::varchar[], ?::varchar[], ?::varchar[])
+                    AS t(username, first_name, last_name, email)
+            ), upserted AS (
+                INSERT INTO users AS u (username, first_name, last_name, email)
+                SELECT username, first_name, last_name, email FROM input
+                ON CONFLICT (username) DO UPDATE
+                SET first_name = EXCLUDED.first_name, last_name = EXCLUDED.last_name, email = EXCLUDED.email,
+                    version = u.version + 1
+                WHERE (u.first_name, u.last_name, u.email)
+                    IS DISTINCT FROM (EXCLUDED.first_name, EXCLUDED.last_name, EXCLUDED.email)
+                RETURNING u.id, u.version, u.username, u.first_name, u.last_name, u.email,
+                    CASE WHEN u.xmax = 0 THEN 'CREATED' ELSE 'UPDATED' END AS status
+            )
+            SELECT * FROM upserted
+            UNION ALL
+            SELECT u.id, u.version, u.username, u.first_name, u.last_name, u.email, 'UNCHANGED'
+            FROM users u
+            JOIN input i ON i.username = u.username
+            WHERE NOT EXISTS (SELECT 1 FROM upserted up WHERE up.id = u.id)
+            """;
+
+    private static final String FIND_KEYS_SQL = """
+            SELECT username, email
+            FROM users
+            WHERE username = ANY(?) OR email = ANY(?)
+            """;
+
+    private static final String DELETE_USER_SQL = "DELETE FROM users WHERE id = ?";
+
+    private static final String USER_COLUMNS = """
+            id, version, username, first_name, last_name, email,
+            ARRAY(SELECT lu.library_id FROM library_users lu WHERE lu.user_id = users.id ORDER BY lu.library_id)
+                AS libraries_ids""";
+
+    private static final String EXPORT_USERS_SQL = """
+            SELECT id, version, username, first_name AS "firstName", last_name AS "lastName", email
+            FROM users
+            ORDER BY id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public int[] insertAll(List<User> users) {
+        return jdbcTemplate.batchUpdate(INSERT_USER_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                User user = users.get(i);
+                ps.setString(1, user.getUsername());
+                ps.setString(2, user.getFirstName());
+                ps.setString(3, user.getLastName());
+                ps.setString(4, user.getEmail());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return users.size();
+            }
+        });
+    }
+
+    @Override
+    @Transactional
+    public List<Upserted<User>> upsertAll(List<User> users) {
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(UPSERT_USERS_SQL);
+            ps.setArray(1, toArray(connection, users.stream().map(User::getUsername).toList()));
+            ps.setArray(2, toArray(connection, users.stream().map(User::getFirstName).toList()));
+            ps.setArray(3, toArray(connection, users.stream().map(User::getLastName).toList()));
+            ps.setArray(4, toArray(connection, users.stream().map(User::getEmail).toList()));
+            return ps;
+        }, (rs, rowNum) -> new Upserted<>(toUserEntity(rs), UpsertStatus.valueOf(rs.getString("status"))));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<UserKey> findKeysByUsernamesOrEmails(Collection<String> usernames, Collection<String> emails) {
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(FIND_KEYS_SQL);
+            ps.setArray(1, toArray(connection, usernames));
+            ps.setArray(2, toArray(connection, emails));
+            return ps;
+        }, (rs, rowNum) -> new UserKey(rs.getString("username"), rs.getString("email")));
+    }
+
+    @Override
+    @Transactional
+    public Optional<WithRelatedIds<User>> updateById(Long id, UserDtoRequest userDtoRequest, Long expectedVersion) {
+        return PartialUpdate.of("users")
+                .set("username", userDtoRequest.getUsername())
+                .set("first_name", userDtoRequest.getFirstName())
+                .set("last_name", userDtoRequest.getLastName())
+                .set("email", userDtoRequest.getEmail())
+                .execute(jdbcTemplate, id, expectedVersion, USER_COLUMNS, this::toUser);
+    }
+
+    @Override
+    @Transactional
+    public boolean removeById(Long id) {
+        return jdbcTemplate.update(DELETE_USER_SQL, id) > 0;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public <T> T exportAll(ResultSetExtractor<T> resultSetExtractor) {
+        return jdbcTemplate.query(CursorQuery.of(EXPORT_USERS_SQL), resultSetExtractor);
+    }
+
+    private Array toArray(Connection connection, Collection<String> values) throws SQLException {
+        return connection.createArrayOf("varchar", values.toArray());
+    }
+
+    private WithRelatedIds<User> toUser(ResultSet rs, int rowNum) throws SQLException {
+        return new WithRelatedIds<>(toUserEntity(rs), List.of((Long[]) rs.getArray("libraries_ids").getArray()));
+    }
+
+    private User toUserEntity(ResultSet rs) throws SQLException {
+        return User.builder()
+                .id(rs.getLong("id"))
+                .version(rs.getLong("version"))
+                .username(rs.getString("username"))
+                .firstName(rs.getString("first_name"))
+                .lastName(rs.getString("last_name"))
+                .email(rs.getString("email"))
+                .build();
+    }
+}
@@ -0,0 +1,44 @@
+package chief.digital.bookssystem.repository.specification;
+
+import chief.digital.bookssystem.model.dto.request.BookFilterDtoRequest;
+import chief.digital.bookssystem.model.entity.Book;
+import jakarta.persistence.criteria.Predicate;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.util.CollectionUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Builds the {@link Specification} of a {@link BookFilterDtoRequest}. Every filter field that is set
+ * adds one condition; the conditions are combined with {@code and}, values of one field with {@code or}.
+ * The facet query of {@code BookJdbcRepositoryImpl} applies the same conditions.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class BookSpecification {
+
+    public static Specification<Book> of(BookFilterDtoRequest filter) {
+        return (root, query, criteriaBuilder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (!CollectionUtils.isEmpty(filter.getGenre())) {
+                predicates.add(root.get("genre").in(filter.getGenre()));
+            }
+            if (!CollectionUtils.isEmpty(filter.getAuthor())) {
+                predicates.add(root.get("author").in(filter.getAuthor()));
+            }
+            if (Objects.nonNull(filter.getYearFrom())) {
+                predicates.add(criteriaBuilder.greaterThanOrEqualTo(root.get("publicationYear"), filter.getYearFrom()));
+            }
+            if (Objects.nonNull(filter.getYearTo())) {
+                predicates.add(criteriaBuilder.lessThanOrEqualTo(root.get("publicationYear"), filter.getYearTo()));
+            }
+            if (Objects.nonNull(filter.getLibraryId())) {
+                predicates.add(criteriaBuilder.equal(root.get("library").get("id"), filter.getLibraryId()));
+            }
+            return criteriaBuilder.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+}
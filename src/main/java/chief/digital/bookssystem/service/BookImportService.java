@@ -0,0 +1,18 @@
+package chief.digital.bookssystem.service;
+
+import chief.digital.bookssystem.model.dto.response.BookImportDtoResponse;
+
+import java.io.InputStream;
+
+public interface BookImportService {
+
+    /**
+     * Stages the CSV rows and validates and merges them into the books in the background.
+     */
+    BookImportDtoResponse importCsv(InputStream csv);
+
+    /**
+     * @return the progress of the import with its first rejected rows
+     */
+    BookImportDtoResponse findById(Long id);
+}
@@ -1,19 +1,48 @@
 package chief.digital.bookssystem.service;
 
 import chief.digital.bookssystem.model.dto.request.BookDtoRequest;
+import chief.digital.bookssystem.model.dto.request.BookFilterDtoRequest;
+import chief.digital.bookssystem.model.dto.response.BatchDtoResponse;
 import chief.digital.bookssystem.model.dto.response.BookDtoResponse;
 import chief.digital.bookssystem.model.dto.response.PageResponse;
+import chief.digital.bookssystem.model.dto.response.UpsertBatchDtoResponse;
+import chief.digital.bookssystem.model.enums.TotalType;
+import chief.digital.bookssystem.model.projection.Upserted;
 import org.springframework.data.domain.Pageable;
 
+import java.io.InputStream;
+
 public interface BookService {
 
     BookDtoResponse saveByLibraryId(Long libraryId, BookDtoRequest bookDtoRequest);
 
-    PageResponse<BookDtoResponse> findAll(Pageable pageable);
+    BatchDtoResponse saveAllByLibraryId(Long libraryId, InputStream bookDtoRequests);
+
+    /**
+     * Saves the Book into the Library, or updates the Book with its title, which keeps its Library.
+     */
+    Upserted<BookDtoResponse> upsertByLibraryId(Long libraryId, BookDtoRequest bookDtoRequest);
+
+    UpsertBatchDtoResponse upsertAllByLibraryId(Long libraryId, InputStream bookDtoRequests);
+
+    PageResponse<BookDtoResponse> findAll(BookFilterDtoRequest filter, Pageable pageable, TotalType totalType,
+                                          boolean withFacets);
+
+    PageResponse<BookDtoResponse> findAllAfter(String after, String orderBy, Integer size);
+
+    PageResponse<BookDtoResponse> search(String query, Long libraryId, String city, String after, Integer size);
 
     BookDtoResponse findById(Long id);
 
-    BookDtoResponse update(Long id, BookDtoRequest bookDtoRequest);
+    /**
+     * @return the version of the Book, from the cache if it holds the Book
+     */
+    Long findVersionById(Long id);
+
+    /**
+     * @param expectedVersion the version the Book must still have, or null to update it whatever its version
+     */
+    BookDtoResponse update(Long id, BookDtoRequest bookDtoRequest, Long expectedVersion);
 
     void deleteById(Long id);
 }
@@ -0,0 +1,15 @@
+package chief.digital.bookssystem.service;
+
+/**
+ * Loads the response cached by a {@code findById} lookup without going through the cache, so that
+ * a hot entry can be refreshed in the background before it expires.
+ */
+public interface EntityLoader {
+
+    String getCacheName();
+
+    /**
+     * @return the response of the entity, or {@code null} if it no longer exists
+     */
+    Object loadById(Long id);
+}
@@ -0,0 +1,25 @@
+package chief.digital.bookssystem.service;
+
+import chief.digital.bookssystem.model.dto.response.ExportJobDtoResponse;
+import chief.digital.bookssystem.model.enums.ExportFormat;
+import chief.digital.bookssystem.model.enums.ExportType;
+
+import java.nio.file.Path;
+
+public interface ExportJobService {
+
+    /**
+     * Records the job and starts it in the background.
+     */
+    ExportJobDtoResponse submit(ExportType exportType, ExportFormat exportFormat);
+
+    ExportJobDtoResponse findById(Long id);
+
+    /**
+     * @return the compressed file written by the finished job
+     * @throws chief.digital.bookssystem.exception.EntityNotFoundException if the file was written by another
+     * instance and is not in the directory of this one
+     * @throws chief.digital.bookssystem.exception.GoneException if the file was deleted
+     */
+    Path findFileById(Long id);
+}
@@ -0,0 +1,30 @@
+package chief.digital.bookssystem.service;
+
+import chief.digital.bookssystem.model.enums.ExportFormat;
+import chief.digital.bookssystem.model.enums.ExportType;
+
+import java.io.OutputStream;
+import java.util.function.LongConsumer;
+
+public interface ExportService {
+
+    /**
+     * Writes all rows of the export to the stream as they are read from the database.
+     *
+     * @return the number of exported rows
+     */
+    long export(ExportType exportType, ExportFormat exportFormat, OutputStream outputStream);
+
+    /**
+     * Writes all rows of the export like {@link #export(ExportType, ExportFormat, OutputStream)} and reports
+     * the number of rows written so far to the listener from time to time.
+     */
+    long export(ExportType exportType, ExportFormat exportFormat, OutputStream outputStream,
+                LongConsumer progressListener);
+
+    /**
+     * @return the number of rows of the export, which skips books and memberships of libraries being deleted in
+     * the background
+     */
+    long count(ExportType exportType);
+}
@@ -1,23 +1,52 @@
 package chief.digital.bookssystem.service;
 
 import chief.digital.bookssystem.model.dto.request.LibraryDtoRequest;
+import chief.digital.bookssystem.model.dto.request.LibraryUsersDtoRequest;
+import chief.digital.bookssystem.model.dto.response.LibraryDeletionDtoResponse;
 import chief.digital.bookssystem.model.dto.response.LibraryDtoResponse;
+import chief.digital.bookssystem.model.dto.response.LibraryUsersDtoResponse;
 import chief.digital.bookssystem.model.dto.response.PageResponse;
+import chief.digital.bookssystem.model.enums.TotalType;
 import org.springframework.data.domain.Pageable;
 
 public interface LibraryService {
 
     LibraryDtoResponse save(LibraryDtoRequest libraryDtoRequest);
 
-    PageResponse<LibraryDtoResponse> findAll(Pageable pageable);
+    PageResponse<LibraryDtoResponse> findAll(Pageable pageable, TotalType totalType, boolean withUsers);
 
-    LibraryDtoResponse findById(Long id);
+    PageResponse<LibraryDtoResponse> findAllAfter(String after, String orderBy, Integer size, boolean withUsers);
 
-    LibraryDtoResponse update(Long id, LibraryDtoRequest libraryDtoRequest);
+    LibraryDtoResponse findById(Long id, boolean withUsers);
+
+    /**
+     * @return the version of the Library, from the cache if it holds the Library
+     */
+    Long findVersionById(Long id);
+
+    /**
+     * @param expectedVersion the version the Library must still have, or null to update it whatever its version
+     */
+    LibraryDtoResponse update(Long id, LibraryDtoRequest libraryDtoRequest, Long expectedVersion);
 
     LibraryDtoResponse addUserByUserId(Long libraryId, Long userId);
 
     LibraryDtoResponse deleteUserByUserId(Long libraryId, Long userId);
 
+    LibraryUsersDtoResponse addUsersByLibraryId(Long libraryId, LibraryUsersDtoRequest libraryUsersDtoRequest);
+
+    LibraryUsersDtoResponse deleteUsersByLibraryId(Long libraryId, LibraryUsersDtoRequest libraryUsersDtoRequest);
+
+    LibraryUsersDtoResponse syncUsersByLibraryId(Long libraryId, LibraryUsersDtoRequest libraryUsersDtoRequest);
+
     void deleteById(Long id);
+
+    /**
+     * Hides the Library at once and deletes it with its Books and memberships in the background.
+     *
+     * @return progress of the deletion
+     */
+    LibraryDeletionDtoResponse deleteByIdAsync(Long id);
+
+    LibraryDeletionDtoResponse findDeletionById(Long id);
 }
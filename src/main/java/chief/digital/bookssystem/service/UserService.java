@@ -1,19 +1,46 @@
 package chief.digital.bookssystem.service;
 
 import chief.digital.bookssystem.model.dto.request.UserDtoRequest;
+import chief.digital.bookssystem.model.dto.response.BatchDtoResponse;
 import chief.digital.bookssystem.model.dto.response.PageResponse;
+import chief.digital.bookssystem.model.dto.response.UpsertBatchDtoResponse;
+import chief.digital.bookssystem.model.enums.TotalType;
 import chief.digital.bookssystem.model.dto.response.UserDtoResponse;
+import chief.digital.bookssystem.model.projection.Upserted;
 import org.springframework.data.domain.Pageable;
 
+import java.io.InputStream;
+
 public interface UserService {
 
     UserDtoResponse save(UserDtoRequest userDtoRequest);
 
-    PageResponse<UserDtoResponse> findAll(Pageable pageable);
+    BatchDtoResponse saveAll(InputStream userDtoRequests);
+
+    /**
+     * Saves the User, or updates the User with its username.
+     */
+    Upserted<UserDtoResponse> upsert(UserDtoRequest userDtoRequest);
+
+    UpsertBatchDtoResponse upsertAll(InputStream userDtoRequests);
+
+    PageResponse<UserDtoResponse> findAll(Pageable pageable, TotalType totalType);
+
+    PageResponse<UserDtoResponse> findAllAfter(String after, String orderBy, Integer size);
+
+    PageResponse<UserDtoResponse> findAllByLibraryId(Long libraryId, String after, Integer size);
 
     UserDtoResponse findById(Long id);
 
-    UserDtoResponse update(Long id, UserDtoRequest userDtoRequest);
+    /**
+     * @return the version of the User, from the cache if it holds the User
+     */
+    Long findVersionById(Long id);
+
+    /**
+     * @param expectedVersion the version the User must still have, or null to update it whatever its version
+     */
+    UserDtoResponse update(Long id, UserDtoRequest userDtoRequest, Long expectedVersion);
 
     void deleteById(Long id);
 }
@@ -0,0 +1,39 @@
+package chief.digital.bookssystem.service.impl;
+
+import chief.digital.bookssystem.config.BookImportProperties;
+import chief.digital.bookssystem.exception.EntityNotFoundException;
+import chief.digital.bookssystem.mapper.BookImportMapper;
+import chief.digital.bookssystem.model.dto.response.BookImportDtoResponse;
+import chief.digital.bookssystem.model.entity.BookImport;
+import chief.digital.bookssystem.repository.BookImportRepository;
+import chief.digital.bookssystem.service.BookImportService;
+import chief.digital.bookssystem.util.BookImportWorker;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.io.InputStream;
+
+@Service
+@RequiredArgsConstructor
+public class BookImportServiceImpl implements BookImportService {
+
+    private final BookImportRepository bookImportRepository;
+    private final BookImportMapper bookImportMapper;
+    private final BookImportWorker bookImportWorker;
+    private final BookImportProperties properties;
+
+    @Override
+    public BookImportDtoResponse importCsv(InputStream csv) {
+        Long importId = bookImportRepository.load(csv);
+        bookImportWorker.submit(importId);
+        return findById(importId);
+    }
+
+    @Override
+    public BookImportDtoResponse findById(Long id) {
+        BookImport bookImport = bookImportRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException(BookImport.class, id));
+        return bookImportMapper.toBookImportDtoResponse(bookImport,
+                bookImportRepository.findErrors(id, properties.getErrorsLimit()));
+    }
+}
@@ -1,78 +1,556 @@
 package chief.digital.bookssystem.service.impl;
 
+import chief.digital.bookssystem.config.BatchProperties;
+import chief.digital.bookssystem.config.PagingProperties;
 import chief.digital.bookssystem.exception.EntityNotFoundException;
+import chief.digital.bookssystem.exception.InvalidRequestException;
+import chief.digital.bookssystem.exception.PreconditionFailedException;
 import chief.digital.bookssystem.mapper.BookMapper;
 import chief.digital.bookssystem.model.dto.request.BookDtoRequest;
+import chief.digital.bookssystem.model.dto.request.BookFilterDtoRequest;
+import chief.digital.bookssystem.model.dto.response.BatchDtoResponse;
+import chief.digital.bookssystem.model.dto.response.BatchItemErrorDtoResponse;
 import chief.digital.bookssystem.model.dto.response.BookDtoResponse;
+import chief.digital.bookssystem.model.dto.response.FacetDtoResponse;
 import chief.digital.bookssystem.model.dto.response.PageResponse;
+import chief.digital.bookssystem.model.dto.response.UpsertBatchDtoResponse;
 import chief.digital.bookssystem.model.entity.Book;
 import chief.digital.bookssystem.model.entity.Library;
+import chief.digital.bookssystem.model.enums.TotalType;
+import chief.digital.bookssystem.model.enums.UpsertStatus;
+import chief.digital.bookssystem.model.projection.FacetCount;
+import chief.digital.bookssystem.model.projection.RankedId;
+import chief.digital.bookssystem.model.projection.Upserted;
 import chief.digital.bookssystem.repository.BookRepository;
 import chief.digital.bookssystem.repository.LibraryRepository;
+import chief.digital.bookssystem.repository.specification.BookSpecification;
 import chief.digital.bookssystem.service.BookService;
+import chief.digital.bookssystem.service.EntityLoader;
+import chief.digital.bookssystem.util.EntityCache;
+import chief.digital.bookssystem.util.JsonArrayReader;
+import chief.digital.bookssystem.util.KeysetCursor;
+import chief.digital.bookssystem.util.NegativeLookup;
+import chief.digital.bookssystem.util.RowCountEstimator;
+import chief.digital.bookssystem.util.SingleFlight;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
+import java.io.InputStream;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
-public class BookServiceImpl implements BookService {
+public class BookServiceImpl implements BookService, EntityLoader {
+
+    private static final String BOOK_TABLE = "books";
+    private static final String TITLE = "title";
+    private static final String PUBLICATION_YEAR = "publicationYear";
+    private static final String RANK = "rank";
 
     private final BookRepository bookRepository;
     private final LibraryRepository libraryRepository;
     private final BookMapper bookMapper;
+    private final RowCountEstimator rowCountEstimator;
+    private final JsonArrayReader jsonArrayReader;
+    private final Validator validator;
+    private final BatchProperties batchProperties;
+    private final PagingProperties pagingProperties;
+    private final EntityCache entityCache;
+    private final NegativeLookup negativeLookup;
 
+    /**
+     * Saves the book and bumps the version of its library in one transaction, which evicts the library once
+     * it commits, so a lookup never caches the new books IDs with the previous version.
+     */
     @Override
+    @Transactional
     public BookDtoResponse saveByLibraryId(Long libraryId, BookDtoRequest bookDtoRequest) {
-        Library library = libraryRepository.findById(libraryId)
-                .orElseThrow(() -> new EntityNotFoundException(Library.class, libraryId));
+        if (!libraryRepository.existsById(libraryId)) {
+            throw new EntityNotFoundException(Library.class, libraryId);
+        }
 
         Book book = bookMapper.toBook(bookDtoRequest);
-        book.setLibrary(library);
+        book.setLibrary(libraryRepository.getReferenceById(libraryId));
 
         Book savedBook = bookRepository.save(book);
+        libraryRepository.incrementVersions(List.of(libraryId));
+        entityCache.evict(EntityCache.LIBRARIES, libraryId);
+        negativeLookup.added(EntityCache.BOOKS, savedBook.getId());
         return bookMapper.toBookDtoResponse(savedBook);
     }
 
     @Override
-    public PageResponse<BookDtoResponse> findAll(Pageable pageable) {
-        Page<Book> bookPage = bookRepository.findAll(pageable);
+    public BatchDtoResponse saveAllByLibraryId(Long libraryId, InputStream bookDtoRequests) {
+        if (!libraryRepository.existsById(libraryId)) {
+            throw new EntityNotFoundException(Library.class, libraryId);
+        }
 
-        List<BookDtoResponse> bookDtoResponses = bookPage.stream()
-                .map(bookMapper::toBookDtoResponse)
-                .toList();
+        BookBatch bookBatch = new BookBatch(libraryId);
+        try {
+            jsonArrayReader.read(bookDtoRequests, BookDtoRequest.class, bookBatch);
+        } catch (InvalidRequestException e) {
+            if (bookBatch.saved == 0) {
+                throw e;
+            }
+            // batches before the break are committed already, so the books read before it are saved as well
+            bookBatch.addError(bookBatch.received, e.getMessage());
+        }
+        bookBatch.flush();
+
+        return bookBatch.toBatchDtoResponse();
+    }
+
+    @Override
+    public Upserted<BookDtoResponse> upsertByLibraryId(Long libraryId, BookDtoRequest bookDtoRequest) {
+        if (!libraryRepository.existsById(libraryId)) {
+            throw new EntityNotFoundException(Library.class, libraryId);
+        }
+
+        List<Upserted<Book>> upsertedBooks = bookRepository.upsertAllByLibraryId(libraryId,
+                List.of(bookMapper.toBook(bookDtoRequest)));
+        Upserted<Book> upsertedBook = upsertedBooks.stream()
+                .findFirst()
+                .orElseThrow(() -> new OptimisticLockingFailureException(UpsertReport.CONCURRENT_MESSAGE));
+        if (isOfOtherLibrary(libraryId, upsertedBook)) {
+            throw new DataIntegrityViolationException(ofOtherLibraryMessage(upsertedBook));
+        }
+        evictUpserted(libraryId, upsertedBooks);
+        if (upsertedBook.getStatus() == UpsertStatus.CREATED) {
+            negativeLookup.added(EntityCache.BOOKS, upsertedBook.getEntity().getId());
+        }
+
+        return new Upserted<>(bookMapper.toBookDtoResponse(upsertedBook.getEntity()), upsertedBook.getStatus());
+    }
+
+    @Override
+    public UpsertBatchDtoResponse upsertAllByLibraryId(Long libraryId, InputStream bookDtoRequests) {
+        if (!libraryRepository.existsById(libraryId)) {
+            throw new EntityNotFoundException(Library.class, libraryId);
+        }
+
+        BookUpsertBatch bookUpsertBatch = new BookUpsertBatch(libraryId);
+        jsonArrayReader.read(bookDtoRequests, BookDtoRequest.class, bookUpsertBatch);
+        bookUpsertBatch.flush();
+        if (bookUpsertBatch.report.hasCreated()) {
+            negativeLookup.addedAll(EntityCache.BOOKS);
+        }
+
+        return bookUpsertBatch.report.toUpsertBatchDtoResponse();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @SingleFlight("books.findAll")
+    public PageResponse<BookDtoResponse> findAll(BookFilterDtoRequest filter, Pageable pageable, TotalType totalType,
+                                                 boolean withFacets) {
+        PageResponse<BookDtoResponse> books = filter.isEmpty()
+                ? findAll(pageable, totalType)
+                : findAllByFilter(filter, pageable, totalType);
 
-        return PageResponse.<BookDtoResponse>builder()
-                .content(bookDtoResponses)
-                .number(pageable.getPageNumber())
-                .size(pageable.getPageSize())
-                .numberOfElements(bookDtoResponses.size())
-                .build();
+        return withFacets
+                ? books.withFacets(toFacetDtoResponses(bookRepository.countFacets(filter, pagingProperties.getFacetSize())))
+                : books;
     }
 
     @Override
+    @Transactional(readOnly = true)
+    @SingleFlight("books.findAllAfter")
+    public PageResponse<BookDtoResponse> findAllAfter(String after, String orderBy, Integer size) {
+        KeysetCursor cursor = StringUtils.hasText(after) ? KeysetCursor.decode(after) : null;
+        String key = Objects.nonNull(cursor)
+                ? cursor.getOrderBy()
+                : Objects.requireNonNullElse(orderBy, KeysetCursor.ID);
+        PageRequest limit = PageRequest.ofSize(size + 1);
+
+        List<Book> books = switch (key) {
+            case KeysetCursor.ID -> Objects.isNull(cursor)
+                    ? bookRepository.findAllBy(limit.withSort(Sort.by(KeysetCursor.ID)))
+                    : bookRepository.findByIdGreaterThanOrderByIdAsc(cursor.getId(), limit);
+            case TITLE -> Objects.isNull(cursor)
+                    ? bookRepository.findAllBy(limit.withSort(Sort.by(TITLE, KeysetCursor.ID)))
+                    : bookRepository.findAfterTitle(cursor.getValue(), cursor.getId(), limit);
+            case PUBLICATION_YEAR -> Objects.isNull(cursor)
+                    ? bookRepository.findAllBy(limit.withSort(Sort.by(PUBLICATION_YEAR, KeysetCursor.ID)))
+                    : bookRepository.findAfterPublicationYear(cursor.getIntValue(), cursor.getId(), limit);
+            default -> throw new InvalidRequestException("Books cannot be ordered by " + key);
+        };
+
+        return PageResponse.ofKeyset(books, size, bookMapper::toBookDtoResponses,
+                book -> KeysetCursor.of(key, book.getId(), keysetValue(book, key)).encode());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PageResponse<BookDtoResponse> search(String query, Long libraryId, String city, String after, Integer size) {
+        if (!StringUtils.hasText(query)) {
+            throw new InvalidRequestException("Search query must not be blank");
+        }
+
+        KeysetCursor cursor = StringUtils.hasText(after) ? KeysetCursor.decode(after) : null;
+        if (Objects.nonNull(cursor) && !RANK.equals(cursor.getOrderBy())) {
+            throw new InvalidRequestException("Invalid search cursor: " + after);
+        }
+
+        List<RankedId> rankedIds = bookRepository.search(query, libraryId, city,
+                Objects.nonNull(cursor) ? cursor.getFloatValue() : null,
+                Objects.nonNull(cursor) ? cursor.getId() : null,
+                PageRequest.ofSize(size + 1));
+
+        return PageResponse.ofKeyset(rankedIds, size, this::toBookDtoResponsesByRank,
+                rankedId -> KeysetCursor.of(RANK, rankedId.getId(), rankedId.getRank()).encode());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = EntityCache.BOOKS, key = "#id", sync = true, condition = EntityCache.NO_CONSISTENCY_TOKEN)
+    @SingleFlight("books.findById")
     public BookDtoResponse findById(Long id) {
+        if (negativeLookup.isKnownMissing(EntityCache.BOOKS, id)) {
+            throw new EntityNotFoundException(Book.class, id);
+        }
+
+        BookDtoResponse book = loadById(id);
+        if (Objects.isNull(book)) {
+            negativeLookup.missing(EntityCache.BOOKS, id);
+            throw new EntityNotFoundException(Book.class, id);
+        }
+        return book;
+    }
+
+    @Override
+    public Long findVersionById(Long id) {
+        BookDtoResponse cachedBook = entityCache.getCached(EntityCache.BOOKS, id, BookDtoResponse.class);
+        if (Objects.nonNull(cachedBook)) {
+            return cachedBook.getVersion();
+        }
+        if (negativeLookup.isKnownMissing(EntityCache.BOOKS, id)) {
+            throw new EntityNotFoundException(Book.class, id);
+        }
+
+        return bookRepository.findVersionById(id)
+                .orElseThrow(() -> new EntityNotFoundException(Book.class, id));
+    }
+
+    @Override
+    public String getCacheName() {
+        return EntityCache.BOOKS;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BookDtoResponse loadById(Long id) {
         return bookRepository.findById(id)
                 .map(bookMapper::toBookDtoResponse)
-                .orElseThrow(() -> new EntityNotFoundException(Book.class, id));
+                .orElse(null);
     }
 
+    /**
+     * Updates the book with one statement that returns the updated row; the book is read only to tell
+     * a stale {@code expectedVersion} from a missing book.
+     */
     @Override
-    public BookDtoResponse update(Long id, BookDtoRequest bookDtoRequest) {
-        Book book = bookRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(Book.class, id));
-        bookMapper.updateBook(bookDtoRequest, book);
-        return bookMapper.toBookDtoResponse(bookRepository.save(book));
+    @CacheEvict(cacheNames = EntityCache.BOOKS, key = "#id")
+    public BookDtoResponse update(Long id, BookDtoRequest bookDtoRequest, Long expectedVersion) {
+        return bookRepository.updateById(id, bookDtoRequest, expectedVersion)
+                .map(bookMapper::toBookDtoResponse)
+                .orElseThrow(() -> notUpdated(id, expectedVersion));
     }
 
     @Override
     public void deleteById(Long id) {
-        if (!bookRepository.existsById(id)) {
-            throw new EntityNotFoundException(Book.class, id);
+        Long libraryId = bookRepository.removeByIdReturningLibraryId(id)
+                .orElseThrow(() -> new EntityNotFoundException(Book.class, id));
+
+        entityCache.evict(EntityCache.BOOKS, id);
+        entityCache.evict(EntityCache.LIBRARIES, libraryId);
+    }
+
+    /**
+     * Evicts the updated books, and the library if books were added to it.
+     */
+    private void evictUpserted(Long libraryId, List<Upserted<Book>> upsertedBooks) {
+        entityCache.evictAll(EntityCache.BOOKS, upsertedBooks.stream()
+                .filter(book -> book.getStatus() == UpsertStatus.UPDATED)
+                .map(book -> book.getEntity().getId())
+                .toList());
+        if (upsertedBooks.stream().anyMatch(book -> book.getStatus() == UpsertStatus.CREATED)) {
+            entityCache.evict(EntityCache.LIBRARIES, libraryId);
+        }
+    }
+
+    /**
+     * @return whether the title of the book is taken by a book of another library, which the upsert left as it is
+     */
+    private boolean isOfOtherLibrary(Long libraryId, Upserted<Book> upsertedBook) {
+        return !libraryId.equals(upsertedBook.getEntity().getLibrary().getId());
+    }
+
+    private String ofOtherLibraryMessage(Upserted<Book> upsertedBook) {
+        return "title: Book with title '" + upsertedBook.getEntity().getTitle() + "' belongs to another library";
+    }
+
+    private RuntimeException notUpdated(Long id, Long expectedVersion) {
+        Long version = Objects.nonNull(expectedVersion) ? bookRepository.findVersionById(id).orElse(null) : null;
+        return Objects.nonNull(version)
+                ? new PreconditionFailedException(Book.class, id, version, expectedVersion)
+                : new EntityNotFoundException(Book.class, id);
+    }
+
+    /**
+     * Loads the books of a ranked search page by ID and keeps them in rank order.
+     */
+    private List<BookDtoResponse> toBookDtoResponsesByRank(List<RankedId> rankedIds) {
+        Map<Long, Book> books = bookRepository.findAllById(rankedIds.stream().map(RankedId::getId).toList()).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+
+        return bookMapper.toBookDtoResponses(rankedIds.stream()
+                .map(rankedId -> books.get(rankedId.getId()))
+                .filter(Objects::nonNull)
+                .toList());
+    }
+
+    private PageResponse<BookDtoResponse> findAll(Pageable pageable, TotalType totalType) {
+        if (totalType == TotalType.EXACT) {
+            return PageResponse.ofCounted(bookRepository.findCountedBy(pageable), pageable,
+                    bookMapper::toBookDtoResponses, bookRepository::count);
+        }
+
+        PageResponse<BookDtoResponse> books = PageResponse.ofSlice(bookRepository.findSliceBy(pageable),
+                bookMapper::toBookDtoResponses);
+
+        return totalType == TotalType.ESTIMATE
+                ? books.withTotal(rowCountEstimator.estimate(BOOK_TABLE, bookRepository::count), TotalType.ESTIMATE)
+                : books;
+    }
+
+    /**
+     * Planner statistics cannot estimate how many rows a filter matches, so both total modes count exactly here.
+     */
+    private PageResponse<BookDtoResponse> findAllByFilter(BookFilterDtoRequest filter, Pageable pageable,
+                                                          TotalType totalType) {
+        Specification<Book> specification = BookSpecification.of(filter);
+
+        return Objects.nonNull(totalType)
+                ? PageResponse.ofPage(bookRepository.findAll(specification, pageable), bookMapper::toBookDtoResponses)
+                : PageResponse.ofSlice(bookRepository.findSlice(specification, pageable), bookMapper::toBookDtoResponses);
+    }
+
+    private Map<String, List<FacetDtoResponse>> toFacetDtoResponses(List<FacetCount> facetCounts) {
+        return facetCounts.stream()
+                .collect(Collectors.groupingBy(FacetCount::getFacet, LinkedHashMap::new, Collectors.mapping(
+                        facetCount -> FacetDtoResponse.builder()
+                                .value(facetCount.getValue())
+                                .count(facetCount.getCount())
+                                .build(),
+                        Collectors.toList())));
+    }
+
+    private Object keysetValue(Book book, String key) {
+        return switch (key) {
+            case TITLE -> book.getTitle();
+            case PUBLICATION_YEAR -> book.getPublicationYear();
+            default -> null;
+        };
+    }
+
+    /**
+     * Collects valid books of a streamed batch and writes them once {@link BatchProperties#getSize()} is reached.
+     * Each write commits on its own and bumps the version of the library, so a request that fails later leaves
+     * no written book hidden behind the version the library had before.
+     */
+    private class BookBatch implements JsonArrayReader.ItemHandler<BookDtoRequest> {
+
+        private final Long libraryId;
+        private List<Book> books = new ArrayList<>();
+        private List<Integer> indexes = new ArrayList<>();
+        private final List<BatchItemErrorDtoResponse> errors = new ArrayList<>();
+        private int received;
+        private int saved;
+
+        private BookBatch(Long libraryId) {
+            this.libraryId = libraryId;
+        }
+
+        @Override
+        public void onItem(int index, BookDtoRequest bookDtoRequest) {
+            received++;
+
+            Set<ConstraintViolation<BookDtoRequest>> violations = validator.validate(bookDtoRequest);
+            if (!violations.isEmpty()) {
+                addError(index, violations.stream()
+                        .sorted(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+                        .map(violation -> String.format("%s: %s", violation.getPropertyPath(), violation.getMessage()))
+                        .collect(Collectors.joining("; ")));
+                return;
+            }
+
+            books.add(bookMapper.toBook(bookDtoRequest));
+            indexes.add(index);
+
+            if (books.size() >= batchProperties.getSize()) {
+                flush();
+            }
+        }
+
+        @Override
+        public void onError(int index, String message) {
+            received++;
+            addError(index, message);
+        }
+
+        private void flush() {
+            if (books.isEmpty()) {
+                return;
+            }
+
+            int[] updateCounts = bookRepository.insertAllByLibraryId(libraryId, books);
+            int savedBefore = saved;
+            for (int i = 0; i < updateCounts.length; i++) {
+                if (updateCounts[i] > 0 || updateCounts[i] == Statement.SUCCESS_NO_INFO) {
+                    saved++;
+                } else {
+                    addError(indexes.get(i), "title: Book with title '" + books.get(i).getTitle() + "' already exists");
+                }
+            }
+            if (saved > savedBefore) {
+                libraryRepository.incrementVersions(List.of(libraryId));
+                entityCache.evict(EntityCache.LIBRARIES, libraryId);
+                negativeLookup.addedAll(EntityCache.BOOKS);
+            }
+
+            books = new ArrayList<>();
+            indexes = new ArrayList<>();
+        }
+
+        private void addError(int index, String message) {
+            errors.add(BatchItemErrorDtoResponse.builder()
+                    .index(index)
+                    .message(message)
+                    .build());
+        }
+
+        private BatchDtoResponse toBatchDtoResponse() {
+            errors.sort(Comparator.comparing(BatchItemErrorDtoResponse::getIndex));
+
+            return BatchDtoResponse.builder()
+                    .received(received)
+                    .saved(saved)
+                    .failed(errors.size())
+                    .errors(errors)
+                    .build();
+        }
+    }
+
+    /**
+     * Collects the books of a JSON array and upserts them by batch size, each batch validated in parallel and
+     * written with one statement. A title repeated in the array is upserted after the books before it were,
+     * so that its last occurrence wins.
+     */
+    private class BookUpsertBatch implements JsonArrayReader.ItemHandler<BookDtoRequest> {
+
+        private final Long libraryId;
+        private final UpsertReport report = new UpsertReport();
+        private List<BookDtoRequest> bookDtoRequests = new ArrayList<>();
+        private List<Integer> indexes = new ArrayList<>();
+        private Set<String> titles = new HashSet<>();
+
+        private BookUpsertBatch(Long libraryId) {
+            this.libraryId = libraryId;
+        }
+
+        @Override
+        public void onItem(int index, BookDtoRequest bookDtoRequest) {
+            report.received();
+            if (titles.contains(bookDtoRequest.getTitle())) {
+                flush();
+            }
+
+            titles.add(bookDtoRequest.getTitle());
+            bookDtoRequests.add(bookDtoRequest);
+            indexes.add(index);
+
+            if (bookDtoRequests.size() >= batchProperties.getSize()) {
+                flush();
+            }
+        }
+
+        @Override
+        public void onError(int index, String message) {
+            report.received();
+            report.addError(index, message);
+        }
+
+        private void flush() {
+            if (bookDtoRequests.isEmpty()) {
+                return;
+            }
+
+            List<String> violations = bookDtoRequests.parallelStream()
+                    .map(this::validate)
+                    .toList();
+
+            List<Book> books = new ArrayList<>();
+            Map<String, Integer> indexesByTitle = new HashMap<>();
+            for (int i = 0; i < bookDtoRequests.size(); i++) {
+                if (Objects.nonNull(violations.get(i))) {
+                    report.addError(indexes.get(i), violations.get(i));
+                } else {
+                    books.add(bookMapper.toBook(bookDtoRequests.get(i)));
+                    indexesByTitle.put(bookDtoRequests.get(i).getTitle(), indexes.get(i));
+                }
+            }
+
+            if (!books.isEmpty()) {
+                List<Upserted<Book>> upsertedBooks = bookRepository.upsertAllByLibraryId(libraryId, books);
+                upsertedBooks.forEach(book -> {
+                    int index = indexesByTitle.remove(book.getEntity().getTitle());
+                    if (isOfOtherLibrary(libraryId, book)) {
+                        report.addError(index, ofOtherLibraryMessage(book));
+                    } else {
+                        report.addItem(index, book.getEntity().getId(), book.getStatus());
+                    }
+                });
+                indexesByTitle.values().forEach(index -> report.addError(index, UpsertReport.CONCURRENT_MESSAGE));
+                evictUpserted(libraryId, upsertedBooks);
+            }
+
+            bookDtoRequests = new ArrayList<>();
+            indexes = new ArrayList<>();
+            titles = new HashSet<>();
+        }
+
+        /**
+         * @return the violations of the book joined into one message, or null if it is valid
+         */
+        private String validate(BookDtoRequest bookDtoRequest) {
+            return validator.validate(bookDtoRequest).stream()
+                    .sorted(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+                    .map(violation -> String.format("%s: %s", violation.getPropertyPath(), violation.getMessage()))
+                    .reduce((a, b) -> a + "; " + b)
+                    .orElse(null);
         }
-        bookRepository.deleteById(id);
     }
 }
@@ -0,0 +1,71 @@
+package chief.digital.bookssystem.service.impl;
+
+import chief.digital.bookssystem.config.ExportProperties;
+import chief.digital.bookssystem.exception.EntityNotFoundException;
+import chief.digital.bookssystem.exception.GoneException;
+import chief.digital.bookssystem.exception.InvalidRequestException;
+import chief.digital.bookssystem.mapper.ExportJobMapper;
+import chief.digital.bookssystem.model.dto.response.ExportJobDtoResponse;
+import chief.digital.bookssystem.model.entity.ExportJob;
+import chief.digital.bookssystem.model.enums.ExportFormat;
+import chief.digital.bookssystem.model.enums.ExportJobStatus;
+import chief.digital.bookssystem.model.enums.ExportType;
+import chief.digital.bookssystem.repository.ExportJobRepository;
+import chief.digital.bookssystem.service.ExportJobService;
+import chief.digital.bookssystem.util.ExportJobWorker;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+@Service
+@RequiredArgsConstructor
+public class ExportJobServiceImpl implements ExportJobService {
+
+    private final ExportJobRepository exportJobRepository;
+    private final ExportJobMapper exportJobMapper;
+    private final ExportJobWorker exportJobWorker;
+    private final ExportProperties exportProperties;
+
+    @Override
+    public ExportJobDtoResponse submit(ExportType exportType, ExportFormat exportFormat) {
+        ExportJob exportJob = exportJobRepository.save(ExportJob.builder()
+                .type(exportType)
+                .format(exportFormat)
+                .status(ExportJobStatus.RUNNING)
+                .instanceId(exportProperties.getInstanceId())
+                .createdAt(LocalDateTime.now())
+                .build());
+        exportJobWorker.submit(exportJob.getId());
+        return exportJobMapper.toExportJobDtoResponse(exportJob);
+    }
+
+    @Override
+    public ExportJobDtoResponse findById(Long id) {
+        return exportJobRepository.findById(id)
+                .map(exportJobMapper::toExportJobDtoResponse)
+                .orElseThrow(() -> new EntityNotFoundException(ExportJob.class, id));
+    }
+
+    @Override
+    public Path findFileById(Long id) {
+        ExportJob exportJob = exportJobRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException(ExportJob.class, id));
+        if (exportJob.getStatus() != ExportJobStatus.FINISHED) {
+            throw new InvalidRequestException("Export job with ID " + id + " is " + exportJob.getStatus().getValue());
+        }
+
+        Path file = exportJobWorker.fileOf(exportJob);
+        if (Files.isReadable(file)) {
+            return file;
+        }
+        if (!Objects.equals(exportJob.getInstanceId(), exportProperties.getInstanceId())) {
+            throw new EntityNotFoundException("File of Export job with ID " + id + " written by instance "
+                    + exportJob.getInstanceId() + ", which keeps it in a directory of its own,");
+        }
+        throw new GoneException("File of Export job with ID " + id + " was deleted");
+    }
+}
@@ -0,0 +1,57 @@
+package chief.digital.bookssystem.service.impl;
+
+import chief.digital.bookssystem.model.enums.ExportFormat;
+import chief.digital.bookssystem.model.enums.ExportType;
+import chief.digital.bookssystem.repository.BookRepository;
+import chief.digital.bookssystem.repository.LibraryRepository;
+import chief.digital.bookssystem.repository.LibraryUserRepository;
+import chief.digital.bookssystem.repository.UserRepository;
+import chief.digital.bookssystem.service.ExportService;
+import chief.digital.bookssystem.util.RowExporter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Service;
+
+import java.io.OutputStream;
+import java.util.function.LongConsumer;
+
+@Service
+@RequiredArgsConstructor
+public class ExportServiceImpl implements ExportService {
+
+    private final BookRepository bookRepository;
+    private final LibraryRepository libraryRepository;
+    private final UserRepository userRepository;
+    private final LibraryUserRepository libraryUserRepository;
+    private final RowExporter rowExporter;
+
+    @Override
+    public long export(ExportType exportType, ExportFormat exportFormat, OutputStream outputStream) {
+        return exportAll(exportType, rowExporter.writerOf(exportFormat, outputStream));
+    }
+
+    @Override
+    public long export(ExportType exportType, ExportFormat exportFormat, OutputStream outputStream,
+                       LongConsumer progressListener) {
+        return exportAll(exportType, rowExporter.writerOf(exportFormat, outputStream, progressListener));
+    }
+
+    @Override
+    public long count(ExportType exportType) {
+        return switch (exportType) {
+            case BOOKS -> bookRepository.countExported();
+            case LIBRARIES -> libraryRepository.count();
+            case USERS -> userRepository.count();
+            case MEMBERSHIPS -> libraryUserRepository.countExported();
+        };
+    }
+
+    private long exportAll(ExportType exportType, ResultSetExtractor<Long> writer) {
+        return switch (exportType) {
+            case BOOKS -> bookRepository.exportAll(writer);
+            case LIBRARIES -> libraryRepository.exportAll(writer);
+            case USERS -> userRepository.exportAll(writer);
+            case MEMBERSHIPS -> libraryUserRepository.exportAll(writer);
+        };
+    }
+}
@@ -1,97 +1,319 @@
 package chief.digital.bookssystem.service.impl;
 
 import chief.digital.bookssystem.exception.EntityNotFoundException;
+import chief.digital.bookssystem.exception.InvalidRequestException;
+import chief.digital.bookssystem.exception.PreconditionFailedException;
 import chief.digital.bookssystem.mapper.LibraryMapper;
 import chief.digital.bookssystem.model.dto.request.LibraryDtoRequest;
+import chief.digital.bookssystem.model.dto.request.LibraryUsersDtoRequest;
+import chief.digital.bookssystem.model.dto.response.LibraryDeletionDtoResponse;
 import chief.digital.bookssystem.model.dto.response.LibraryDtoResponse;
+import chief.digital.bookssystem.model.dto.response.LibraryUsersDtoResponse;
 import chief.digital.bookssystem.model.dto.response.PageResponse;
 import chief.digital.bookssystem.model.entity.Library;
+import chief.digital.bookssystem.model.entity.LibraryDeletion;
 import chief.digital.bookssystem.model.entity.User;
+import chief.digital.bookssystem.model.enums.TotalType;
+import chief.digital.bookssystem.model.projection.LibraryCascade;
+import chief.digital.bookssystem.model.projection.MembershipChange;
+import chief.digital.bookssystem.model.projection.RelatedId;
+import chief.digital.bookssystem.repository.LibraryDeletionRepository;
 import chief.digital.bookssystem.repository.LibraryRepository;
+import chief.digital.bookssystem.repository.LibraryUserRepository;
 import chief.digital.bookssystem.repository.UserRepository;
+import chief.digital.bookssystem.service.EntityLoader;
 import chief.digital.bookssystem.service.LibraryService;
+import chief.digital.bookssystem.util.EntityCache;
+import chief.digital.bookssystem.util.KeysetCursor;
+import chief.digital.bookssystem.util.LibraryDeletionWorker;
+import chief.digital.bookssystem.util.NegativeLookup;
+import chief.digital.bookssystem.util.RowCountEstimator;
+import chief.digital.bookssystem.util.SingleFlight;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
-public class LibraryServiceImpl implements LibraryService {
+public class LibraryServiceImpl implements LibraryService, EntityLoader {
+
+    private static final String LIBRARY_TABLE = "libraries";
+    private static final String TITLE = "title";
 
     private final LibraryRepository libraryRepository;
     private final UserRepository userRepository;
+    private final LibraryUserRepository libraryUserRepository;
+    private final LibraryDeletionRepository libraryDeletionRepository;
     private final LibraryMapper libraryMapper;
+    private final RowCountEstimator rowCountEstimator;
+    private final EntityCache entityCache;
+    private final NegativeLookup negativeLookup;
+    private final LibraryDeletionWorker libraryDeletionWorker;
 
     @Override
     public LibraryDtoResponse save(LibraryDtoRequest libraryDtoRequest) {
         Library library = libraryMapper.toLibrary(libraryDtoRequest);
         Library savedLibrary = libraryRepository.save(library);
-        return libraryMapper.toLibraryDtoResponse(savedLibrary);
+        negativeLookup.added(EntityCache.LIBRARIES, savedLibrary.getId());
+        return toLibraryDtoResponse(savedLibrary);
     }
 
     @Override
-    public PageResponse<LibraryDtoResponse> findAll(Pageable pageable) {
-        Page<Library> libraryPage = libraryRepository.findAll(pageable);
+    @Transactional(readOnly = true)
+    @SingleFlight("libraries.findAll")
+    public PageResponse<LibraryDtoResponse> findAll(Pageable pageable, TotalType totalType, boolean withUsers) {
+        Function<List<Library>, List<LibraryDtoResponse>> mapper = page -> toLibraryDtoResponses(page, withUsers);
 
-        List<LibraryDtoResponse> libraryDtoResponses = libraryPage.stream()
-                .map(libraryMapper::toLibraryDtoResponse)
-                .toList();
+        if (totalType == TotalType.EXACT) {
+            return PageResponse.ofCounted(libraryRepository.findCountedBy(pageable), pageable,
+                    mapper, libraryRepository::count);
+        }
 
-        return PageResponse.<LibraryDtoResponse>builder()
-                .content(libraryDtoResponses)
-                .number(pageable.getPageNumber())
-                .size(pageable.getPageSize())
-                .numberOfElements(libraryDtoResponses.size())
-                .build();
+        PageResponse<LibraryDtoResponse> libraries = PageResponse.ofSlice(libraryRepository.findSliceBy(pageable), mapper);
+
+        return totalType == TotalType.ESTIMATE
+                ? libraries.withTotal(rowCountEstimator.estimate(LIBRARY_TABLE, libraryRepository::count), TotalType.ESTIMATE)
+                : libraries;
     }
 
     @Override
-    public LibraryDtoResponse findById(Long id) {
+    @Transactional(readOnly = true)
+    @SingleFlight("libraries.findAllAfter")
+    public PageResponse<LibraryDtoResponse> findAllAfter(String after, String orderBy, Integer size, boolean withUsers) {
+        KeysetCursor cursor = StringUtils.hasText(after) ? KeysetCursor.decode(after) : null;
+        String key = Objects.nonNull(cursor)
+                ? cursor.getOrderBy()
+                : Objects.requireNonNullElse(orderBy, KeysetCursor.ID);
+        PageRequest limit = PageRequest.ofSize(size + 1);
+
+        List<Library> libraries = switch (key) {
+            case KeysetCursor.ID -> Objects.isNull(cursor)
+                    ? libraryRepository.findAllBy(limit.withSort(Sort.by(KeysetCursor.ID)))
+                    : libraryRepository.findByIdGreaterThanOrderByIdAsc(cursor.getId(), limit);
+            case TITLE -> Objects.isNull(cursor)
+                    ? libraryRepository.findAllBy(limit.withSort(Sort.by(TITLE, KeysetCursor.ID)))
+                    : libraryRepository.findAfterTitle(cursor.getValue(), cursor.getId(), limit);
+            default -> throw new InvalidRequestException("Libraries cannot be ordered by " + key);
+        };
+
+        return PageResponse.ofKeyset(libraries, size, page -> toLibraryDtoResponses(page, withUsers),
+                library -> KeysetCursor.of(key, library.getId(), keysetValue(library, key)).encode());
+    }
+
+    /**
+     * Only libraries without their member IDs are cached: member lists may be large and change with every
+     * membership update.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = EntityCache.LIBRARIES, key = "#id", sync = true,
+            condition = "!#withUsers and " + EntityCache.NO_CONSISTENCY_TOKEN)
+    @SingleFlight("libraries.findById")
+    public LibraryDtoResponse findById(Long id, boolean withUsers) {
+        if (negativeLookup.isKnownMissing(EntityCache.LIBRARIES, id)) {
+            throw new EntityNotFoundException(Library.class, id);
+        }
+
         return libraryRepository.findById(id)
-                .map(libraryMapper::toLibraryDtoResponse)
-                .orElseThrow(() -> new EntityNotFoundException(Library.class, id));
+                .map(library -> toLibraryDtoResponses(List.of(library), withUsers).get(0))
+                .orElseThrow(() -> {
+                    negativeLookup.missing(EntityCache.LIBRARIES, id);
+                    return new EntityNotFoundException(Library.class, id);
+                });
     }
 
     @Override
-    public LibraryDtoResponse update(Long id, LibraryDtoRequest libraryDtoRequest) {
-        Library library = libraryRepository.findById(id)
+    public Long findVersionById(Long id) {
+        LibraryDtoResponse cachedLibrary = entityCache.getCached(EntityCache.LIBRARIES, id, LibraryDtoResponse.class);
+        if (Objects.nonNull(cachedLibrary)) {
+            return cachedLibrary.getVersion();
+        }
+        if (negativeLookup.isKnownMissing(EntityCache.LIBRARIES, id)) {
+            throw new EntityNotFoundException(Library.class, id);
+        }
+
+        return libraryRepository.findVersionById(id)
                 .orElseThrow(() -> new EntityNotFoundException(Library.class, id));
-        libraryMapper.updateLibrary(libraryDtoRequest, library);
-        return libraryMapper.toLibraryDtoResponse(libraryRepository.save(library));
+    }
+
+    @Override
+    public String getCacheName() {
+        return EntityCache.LIBRARIES;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public LibraryDtoResponse loadById(Long id) {
+        return libraryRepository.findById(id)
+                .map(this::toLibraryDtoResponse)
+                .orElse(null);
+    }
+
+    /**
+     * Updates the library with one statement that returns the updated row and the IDs of its books; the library
+     * is read only to tell a stale {@code expectedVersion} from a missing library.
+     */
+    @Override
+    @CacheEvict(cacheNames = EntityCache.LIBRARIES, key = "#id")
+    public LibraryDtoResponse update(Long id, LibraryDtoRequest libraryDtoRequest, Long expectedVersion) {
+        return libraryRepository.updateById(id, libraryDtoRequest, expectedVersion)
+                .map(library -> libraryMapper.toLibraryDtoResponse(library.getEntity(), library.getRelatedIds(), null))
+                .orElseThrow(() -> notUpdated(id, expectedVersion));
     }
 
     @Override
     public LibraryDtoResponse addUserByUserId(Long libraryId, Long userId) {
         Library library = libraryRepository.findById(libraryId)
                 .orElseThrow(() -> new EntityNotFoundException(Library.class, libraryId));
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new EntityNotFoundException(User.class, userId));
+        if (!userRepository.existsById(userId)) {
+            throw new EntityNotFoundException(User.class, userId);
+        }
 
-        library.getUsers().add(user);
+        List<Long> changedUsersIds = libraryUserRepository.insertAllByLibraryId(libraryId, List.of(userId));
+        entityCache.evictAll(EntityCache.USERS, changedUsersIds);
 
-        return libraryMapper.toLibraryDtoResponse(libraryRepository.save(library));
+        return toLibraryDtoResponse(library);
     }
 
     @Override
     public LibraryDtoResponse deleteUserByUserId(Long libraryId, Long userId) {
         Library library = libraryRepository.findById(libraryId)
                 .orElseThrow(() -> new EntityNotFoundException(Library.class, libraryId));
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new EntityNotFoundException(User.class, userId));
+        if (!userRepository.existsById(userId)) {
+            throw new EntityNotFoundException(User.class, userId);
+        }
 
-        library.getUsers().remove(user);
+        List<Long> changedUsersIds = libraryUserRepository.deleteAllByLibraryId(libraryId, List.of(userId));
+        entityCache.evictAll(EntityCache.USERS, changedUsersIds);
 
-        return libraryMapper.toLibraryDtoResponse(libraryRepository.save(library));
+        return toLibraryDtoResponse(library);
     }
 
+    @Override
+    public LibraryUsersDtoResponse addUsersByLibraryId(Long libraryId, LibraryUsersDtoRequest libraryUsersDtoRequest) {
+        checkLibraryExists(libraryId);
+        List<Long> addedUsersIds = libraryUserRepository.insertAllByLibraryId(libraryId,
+                libraryUsersDtoRequest.getUsersIds());
+        entityCache.evictAll(EntityCache.USERS, addedUsersIds);
+        return toLibraryUsersDtoResponse(libraryId, addedUsersIds.size(), 0);
+    }
+
+    @Override
+    public LibraryUsersDtoResponse deleteUsersByLibraryId(Long libraryId, LibraryUsersDtoRequest libraryUsersDtoRequest) {
+        checkLibraryExists(libraryId);
+        List<Long> removedUsersIds = libraryUserRepository.deleteAllByLibraryId(libraryId,
+                libraryUsersDtoRequest.getUsersIds());
+        entityCache.evictAll(EntityCache.USERS, removedUsersIds);
+        return toLibraryUsersDtoResponse(libraryId, 0, removedUsersIds.size());
+    }
+
+    @Override
+    public LibraryUsersDtoResponse syncUsersByLibraryId(Long libraryId, LibraryUsersDtoRequest libraryUsersDtoRequest) {
+        checkLibraryExists(libraryId);
+        MembershipChange change = libraryUserRepository.syncAllByLibraryId(libraryId,
+                libraryUsersDtoRequest.getUsersIds());
+        entityCache.evictAll(EntityCache.USERS, change.getAddedUsersIds());
+        entityCache.evictAll(EntityCache.USERS, change.getRemovedUsersIds());
+        return toLibraryUsersDtoResponse(libraryId, change.getAddedUsersIds().size(),
+                change.getRemovedUsersIds().size());
+    }
+
+    /**
+     * Deletes the library, its books and memberships with one statement; Hibernate would load and delete
+     * the books one by one.
+     */
     @Override
     public void deleteById(Long id) {
-        if (!libraryRepository.existsById(id)) {
-            throw new EntityNotFoundException(Library.class, id);
+        LibraryCascade cascade = libraryRepository.removeById(id)
+                .orElseThrow(() -> new EntityNotFoundException(Library.class, id));
+
+        entityCache.evict(EntityCache.LIBRARIES, id);
+        entityCache.evictAll(EntityCache.BOOKS, cascade.getBooksIds());
+        entityCache.evictAll(EntityCache.USERS, cascade.getUsersIds());
+    }
+
+    @Override
+    public LibraryDeletionDtoResponse deleteByIdAsync(Long id) {
+        LibraryDeletion deletion = libraryDeletionRepository.start(id)
+                .orElseThrow(() -> new EntityNotFoundException(Library.class, id));
+
+        entityCache.evict(EntityCache.LIBRARIES, id);
+        libraryDeletionWorker.submit(id);
+        return libraryMapper.toLibraryDeletionDtoResponse(deletion);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public LibraryDeletionDtoResponse findDeletionById(Long id) {
+        return libraryDeletionRepository.findById(id)
+                .map(libraryMapper::toLibraryDeletionDtoResponse)
+                .orElseThrow(() -> new EntityNotFoundException(LibraryDeletion.class, id));
+    }
+
+    private RuntimeException notUpdated(Long id, Long expectedVersion) {
+        Long version = Objects.nonNull(expectedVersion) ? libraryRepository.findVersionById(id).orElse(null) : null;
+        return Objects.nonNull(version)
+                ? new PreconditionFailedException(Library.class, id, version, expectedVersion)
+                : new EntityNotFoundException(Library.class, id);
+    }
+
+    private void checkLibraryExists(Long libraryId) {
+        if (!libraryRepository.existsById(libraryId)) {
+            throw new EntityNotFoundException(Library.class, libraryId);
+        }
+    }
+
+    private LibraryUsersDtoResponse toLibraryUsersDtoResponse(Long libraryId, int added, int removed) {
+        return LibraryUsersDtoResponse.builder()
+                .libraryId(libraryId)
+                .added(added)
+                .removed(removed)
+                .build();
+    }
+
+    private LibraryDtoResponse toLibraryDtoResponse(Library library) {
+        return toLibraryDtoResponses(List.of(library), false).get(0);
+    }
+
+    /**
+     * Maps libraries with the IDs of their books and, if requested, members, fetched for all of them in one query.
+     */
+    private List<LibraryDtoResponse> toLibraryDtoResponses(List<Library> libraries, boolean withUsers) {
+        if (libraries.isEmpty()) {
+            return List.of();
         }
-        libraryRepository.deleteById(id);
+
+        Map<Long, Map<String, List<Long>>> relatedIds = libraryRepository
+                .findRelatedIdsByLibraryIds(libraries.stream().map(Library::getId).toList(), withUsers).stream()
+                .collect(Collectors.groupingBy(RelatedId::getOwnerId, Collectors.groupingBy(RelatedId::getRelation,
+                        Collectors.mapping(RelatedId::getRelatedId, Collectors.toList()))));
+
+        return libraries.stream()
+                .map(library -> {
+                    Map<String, List<Long>> libraryRelatedIds = relatedIds.getOrDefault(library.getId(), Map.of());
+                    return libraryMapper.toLibraryDtoResponse(library,
+                            libraryRelatedIds.getOrDefault(RelatedId.BOOK, List.of()),
+                            withUsers ? libraryRelatedIds.getOrDefault(RelatedId.USER, List.of()) : null);
+                })
+                .toList();
+    }
+
+    private Object keysetValue(Library library, String key) {
+        return switch (key) {
+            case TITLE -> library.getTitle();
+            default -> null;
+        };
     }
 }
@@ -0,0 +1,64 @@
+package chief.digital.bookssystem.service.impl;
+
+import chief.digital.bookssystem.model.dto.response.BatchItemErrorDtoResponse;
+import chief.digital.bookssystem.model.dto.response.UpsertBatchDtoResponse;
+import chief.digital.bookssystem.model.dto.response.UpsertItemDtoResponse;
+import chief.digital.bookssystem.model.enums.UpsertStatus;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What an upsert batch did to each item of a JSON array, reported by the index of the item.
+ */
+class UpsertReport {
+
+    static final String CONCURRENT_MESSAGE = "The entity was modified concurrently, upsert it again";
+
+    private final List<UpsertItemDtoResponse> items = new ArrayList<>();
+    private final List<BatchItemErrorDtoResponse> errors = new ArrayList<>();
+    private final Map<UpsertStatus, Integer> counts = new EnumMap<>(UpsertStatus.class);
+    private int received;
+
+    void received() {
+        received++;
+    }
+
+    void addItem(int index, Long id, UpsertStatus status) {
+        counts.merge(status, 1, Integer::sum);
+        items.add(UpsertItemDtoResponse.builder()
+                .index(index)
+                .id(id)
+                .status(status)
+                .build());
+    }
+
+    void addError(int index, String message) {
+        errors.add(BatchItemErrorDtoResponse.builder()
+                .index(index)
+                .message(message)
+                .build());
+    }
+
+    boolean hasCreated() {
+        return counts.containsKey(UpsertStatus.CREATED);
+    }
+
+    UpsertBatchDtoResponse toUpsertBatchDtoResponse() {
+        items.sort(Comparator.comparing(UpsertItemDtoResponse::getIndex));
+        errors.sort(Comparator.comparing(BatchItemErrorDtoResponse::getIndex));
+
+        return UpsertBatchDtoResponse.builder()
+                .received(received)
+                .created(counts.getOrDefault(UpsertStatus.CREATED, 0))
+                .updated(counts.getOrDefault(UpsertStatus.UPDATED, 0))
+                .unchanged(counts.getOrDefault(UpsertStatus.UNCHANGED, 0))
+                .failed(errors.size())
+                .items(items)
+                .errors(errors)
+                .build();
+    }
+}
@@ -1,69 +1,529 @@
 package chief.digital.bookssystem.service.impl;
 
+import chief.digital.bookssystem.config.BatchProperties;
 import chief.digital.bookssystem.exception.EntityNotFoundException;
+import chief.digital.bookssystem.exception.InvalidRequestException;
+import chief.digital.bookssystem.exception.PreconditionFailedException;
 import chief.digital.bookssystem.mapper.UserMapper;
 import chief.digital.bookssystem.model.dto.request.UserDtoRequest;
+import chief.digital.bookssystem.model.dto.response.BatchDtoResponse;
+import chief.digital.bookssystem.model.dto.response.BatchItemErrorDtoResponse;
 import chief.digital.bookssystem.model.dto.response.PageResponse;
+import chief.digital.bookssystem.model.dto.response.UpsertBatchDtoResponse;
 import chief.digital.bookssystem.model.dto.response.UserDtoResponse;
+import chief.digital.bookssystem.model.entity.Library;
 import chief.digital.bookssystem.model.entity.User;
+import chief.digital.bookssystem.model.enums.TotalType;
+import chief.digital.bookssystem.model.enums.UpsertStatus;
+import chief.digital.bookssystem.model.projection.RelatedId;
+import chief.digital.bookssystem.model.projection.Upserted;
+import chief.digital.bookssystem.model.projection.UserKey;
+import chief.digital.bookssystem.repository.LibraryRepository;
 import chief.digital.bookssystem.repository.UserRepository;
+import chief.digital.bookssystem.service.EntityLoader;
 import chief.digital.bookssystem.service.UserService;
+import chief.digital.bookssystem.util.EntityCache;
+import chief.digital.bookssystem.util.JsonArrayReader;
+import chief.digital.bookssystem.util.KeysetCursor;
+import chief.digital.bookssystem.util.NegativeLookup;
+import chief.digital.bookssystem.util.RowCountEstimator;
+import chief.digital.bookssystem.util.SingleFlight;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
+import java.io.InputStream;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
-public class UserServiceImpl implements UserService {
+public class UserServiceImpl implements UserService, EntityLoader {
+
+    private static final String USER_TABLE = "users";
+    private static final String USERNAME = "username";
 
     private final UserRepository userRepository;
+    private final LibraryRepository libraryRepository;
     private final UserMapper userMapper;
+    private final RowCountEstimator rowCountEstimator;
+    private final JsonArrayReader jsonArrayReader;
+    private final Validator validator;
+    private final BatchProperties batchProperties;
+    private final EntityCache entityCache;
+    private final NegativeLookup negativeLookup;
 
     @Override
     public UserDtoResponse save(UserDtoRequest userDtoRequest) {
         User savedUser = userRepository.save(userMapper.toUser(userDtoRequest));
-        return userMapper.toUserDtoResponse(savedUser);
+        negativeLookup.added(EntityCache.USERS, savedUser.getId());
+        return toUserDtoResponse(savedUser);
     }
 
     @Override
-    public PageResponse<UserDtoResponse> findAll(Pageable pageable) {
-        Page<User> userPage = userRepository.findAll(pageable);
+    public BatchDtoResponse saveAll(InputStream userDtoRequests) {
+        UserBatch userBatch = new UserBatch();
+        jsonArrayReader.read(userDtoRequests, UserDtoRequest.class, userBatch);
+        userBatch.flush();
+        negativeLookup.addedAll(EntityCache.USERS);
 
-        List<UserDtoResponse> userDtoResponses = userPage.stream()
-                .map(userMapper::toUserDtoResponse)
-                .toList();
+        return userBatch.toBatchDtoResponse();
+    }
+
+    /**
+     * An email taken by another user fails the statement, which is answered with a conflict.
+     */
+    @Override
+    public Upserted<UserDtoResponse> upsert(UserDtoRequest userDtoRequest) {
+        List<Upserted<User>> upsertedUsers = userRepository.upsertAll(List.of(userMapper.toUser(userDtoRequest)));
+        Upserted<User> upsertedUser = upsertedUsers.stream()
+                .findFirst()
+                .orElseThrow(() -> new OptimisticLockingFailureException(UpsertReport.CONCURRENT_MESSAGE));
+        evictUpserted(upsertedUsers);
+        if (upsertedUser.getStatus() == UpsertStatus.CREATED) {
+            negativeLookup.added(EntityCache.USERS, upsertedUser.getEntity().getId());
+        }
+
+        return new Upserted<>(toUserDtoResponse(upsertedUser.getEntity()), upsertedUser.getStatus());
+    }
+
+    /**
+     * Emails taken by other users are reported per user, found with one query per batch. An email taken
+     * concurrently between the query and the write fails the batch, which is answered with a conflict;
+     * the batches before it stay written.
+     */
+    @Override
+    public UpsertBatchDtoResponse upsertAll(InputStream userDtoRequests) {
+        UserUpsertBatch userUpsertBatch = new UserUpsertBatch();
+        jsonArrayReader.read(userDtoRequests, UserDtoRequest.class, userUpsertBatch);
+        userUpsertBatch.flush();
+        if (userUpsertBatch.report.hasCreated()) {
+            negativeLookup.addedAll(EntityCache.USERS);
+        }
+
+        return userUpsertBatch.report.toUpsertBatchDtoResponse();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @SingleFlight("users.findAll")
+    public PageResponse<UserDtoResponse> findAll(Pageable pageable, TotalType totalType) {
+        if (totalType == TotalType.EXACT) {
+            return PageResponse.ofCounted(userRepository.findCountedBy(pageable), pageable,
+                    this::toUserDtoResponses, userRepository::count);
+        }
+
+        PageResponse<UserDtoResponse> users = PageResponse.ofSlice(userRepository.findSliceBy(pageable),
+                this::toUserDtoResponses);
+
+        return totalType == TotalType.ESTIMATE
+                ? users.withTotal(rowCountEstimator.estimate(USER_TABLE, userRepository::count), TotalType.ESTIMATE)
+                : users;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @SingleFlight("users.findAllAfter")
+    public PageResponse<UserDtoResponse> findAllAfter(String after, String orderBy, Integer size) {
+        KeysetCursor cursor = StringUtils.hasText(after) ? KeysetCursor.decode(after) : null;
+        String key = Objects.nonNull(cursor)
+                ? cursor.getOrderBy()
+                : Objects.requireNonNullElse(orderBy, KeysetCursor.ID);
+        PageRequest limit = PageRequest.ofSize(size + 1);
+
+        List<User> users = switch (key) {
+            case KeysetCursor.ID -> Objects.isNull(cursor)
+                    ? userRepository.findAllBy(limit.withSort(Sort.by(KeysetCursor.ID)))
+                    : userRepository.findByIdGreaterThanOrderByIdAsc(cursor.getId(), limit);
+            case USERNAME -> Objects.isNull(cursor)
+                    ? userRepository.findAllBy(limit.withSort(Sort.by(USERNAME, KeysetCursor.ID)))
+                    : userRepository.findAfterUsername(cursor.getValue(), cursor.getId(), limit);
+            default -> throw new InvalidRequestException("Users cannot be ordered by " + key);
+        };
+
+        return PageResponse.ofKeyset(users, size, this::toUserDtoResponses,
+                user -> KeysetCursor.of(key, user.getId(), keysetValue(user, key)).encode());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PageResponse<UserDtoResponse> findAllByLibraryId(Long libraryId, String after, Integer size) {
+        if (!libraryRepository.existsById(libraryId)) {
+            throw new EntityNotFoundException(Library.class, libraryId);
+        }
 
-        return PageResponse.<UserDtoResponse>builder()
-                .content(userDtoResponses)
-                .number(pageable.getPageNumber())
-                .size(pageable.getPageSize())
-                .numberOfElements(userDtoResponses.size())
-                .build();
+        KeysetCursor cursor = StringUtils.hasText(after) ? KeysetCursor.decode(after) : null;
+        if (Objects.nonNull(cursor) && !KeysetCursor.ID.equals(cursor.getOrderBy())) {
+            throw new InvalidRequestException("Library users cannot be ordered by " + cursor.getOrderBy());
+        }
+
+        List<User> users = userRepository.findByLibraryIdAndIdGreaterThan(libraryId,
+                Objects.nonNull(cursor) ? cursor.getId() : 0L, PageRequest.ofSize(size + 1));
+
+        return PageResponse.ofKeyset(users, size, this::toUserDtoResponses,
+                user -> KeysetCursor.of(KeysetCursor.ID, user.getId(), null).encode());
     }
 
     @Override
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = EntityCache.USERS, key = "#id", sync = true, condition = EntityCache.NO_CONSISTENCY_TOKEN)
+    @SingleFlight("users.findById")
     public UserDtoResponse findById(Long id) {
-        return userRepository.findById(id)
-                .map(userMapper::toUserDtoResponse)
-                .orElseThrow(() -> new EntityNotFoundException(User.class, id));
+        if (negativeLookup.isKnownMissing(EntityCache.USERS, id)) {
+            throw new EntityNotFoundException(User.class, id);
+        }
+
+        UserDtoResponse user = loadById(id);
+        if (Objects.isNull(user)) {
+            negativeLookup.missing(EntityCache.USERS, id);
+            throw new EntityNotFoundException(User.class, id);
+        }
+        return user;
     }
 
     @Override
-    public UserDtoResponse update(Long id, UserDtoRequest userDtoRequest) {
-        User user = userRepository.findById(id)
+    public Long findVersionById(Long id) {
+        UserDtoResponse cachedUser = entityCache.getCached(EntityCache.USERS, id, UserDtoResponse.class);
+        if (Objects.nonNull(cachedUser)) {
+            return cachedUser.getVersion();
+        }
+        if (negativeLookup.isKnownMissing(EntityCache.USERS, id)) {
+            throw new EntityNotFoundException(User.class, id);
+        }
+
+        return userRepository.findVersionById(id)
                 .orElseThrow(() -> new EntityNotFoundException(User.class, id));
-        userMapper.updateUser(userDtoRequest, user);
-        return userMapper.toUserDtoResponse(userRepository.save(user));
     }
 
     @Override
+    public String getCacheName() {
+        return EntityCache.USERS;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public UserDtoResponse loadById(Long id) {
+        return userRepository.findById(id)
+                .map(this::toUserDtoResponse)
+                .orElse(null);
+    }
+
+    /**
+     * Updates the user with one statement that returns the updated row and the IDs of its libraries; the user
+     * is read only to tell a stale {@code expectedVersion} from a missing user.
+     */
+    @Override
+    @CacheEvict(cacheNames = EntityCache.USERS, key = "#id")
+    public UserDtoResponse update(Long id, UserDtoRequest userDtoRequest, Long expectedVersion) {
+        return userRepository.updateById(id, userDtoRequest, expectedVersion)
+                .map(user -> userMapper.toUserDtoResponse(user.getEntity(), user.getRelatedIds()))
+                .orElseThrow(() -> notUpdated(id, expectedVersion));
+    }
+
+    @Override
+    @CacheEvict(cacheNames = EntityCache.USERS, key = "#id")
     public void deleteById(Long id) {
-        if (!userRepository.existsById(id)) {
+        if (!userRepository.removeById(id)) {
             throw new EntityNotFoundException(User.class, id);
         }
-        userRepository.deleteById(id);
+    }
+
+    private void evictUpserted(List<Upserted<User>> upsertedUsers) {
+        entityCache.evictAll(EntityCache.USERS, upsertedUsers.stream()
+                .filter(user -> user.getStatus() == UpsertStatus.UPDATED)
+                .map(user -> user.getEntity().getId())
+                .toList());
+    }
+
+    private RuntimeException notUpdated(Long id, Long expectedVersion) {
+        Long version = Objects.nonNull(expectedVersion) ? userRepository.findVersionById(id).orElse(null) : null;
+        return Objects.nonNull(version)
+                ? new PreconditionFailedException(User.class, id, version, expectedVersion)
+                : new EntityNotFoundException(User.class, id);
+    }
+
+    private UserDtoResponse toUserDtoResponse(User user) {
+        return toUserDtoResponses(List.of(user)).get(0);
+    }
+
+    /**
+     * Maps users with the IDs of their libraries, fetched for all of them in one query.
+     */
+    private List<UserDtoResponse> toUserDtoResponses(List<User> users) {
+        if (users.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, List<Long>> librariesIds = userRepository
+                .findRelatedIdsByUserIds(users.stream().map(User::getId).toList()).stream()
+                .collect(Collectors.groupingBy(RelatedId::getOwnerId,
+                        Collectors.mapping(RelatedId::getRelatedId, Collectors.toList())));
+
+        return users.stream()
+                .map(user -> userMapper.toUserDtoResponse(user, librariesIds.getOrDefault(user.getId(), List.of())))
+                .toList();
+    }
+
+    private Object keysetValue(User user, String key) {
+        return switch (key) {
+            case USERNAME -> user.getUsername();
+            default -> null;
+        };
+    }
+
+    /**
+     * Collects the users of a JSON array and writes them by batch size. Each batch is validated in parallel,
+     * then its usernames and emails are checked against those already seen in the array and against the table
+     * with one query, so that only users that can be inserted are written.
+     */
+    private class UserBatch implements JsonArrayReader.ItemHandler<UserDtoRequest> {
+
+        private List<UserDtoRequest> userDtoRequests = new ArrayList<>();
+        private List<Integer> indexes = new ArrayList<>();
+        private final Set<String> usernames = new HashSet<>();
+        private final Set<String> emails = new HashSet<>();
+        private final List<BatchItemErrorDtoResponse> errors = new ArrayList<>();
+        private int received;
+        private int saved;
+
+        @Override
+        public void onItem(int index, UserDtoRequest userDtoRequest) {
+            received++;
+            userDtoRequests.add(userDtoRequest);
+            indexes.add(index);
+
+            if (userDtoRequests.size() >= batchProperties.getSize()) {
+                flush();
+            }
+        }
+
+        @Override
+        public void onError(int index, String message) {
+            received++;
+            addError(index, message);
+        }
+
+        private void flush() {
+            if (userDtoRequests.isEmpty()) {
+                return;
+            }
+
+            List<String> violations = userDtoRequests.parallelStream()
+                    .map(this::validate)
+                    .toList();
+            List<UserDtoRequest> validUsers = new ArrayList<>();
+            for (int i = 0; i < userDtoRequests.size(); i++) {
+                if (Objects.isNull(violations.get(i))) {
+                    validUsers.add(userDtoRequests.get(i));
+                }
+            }
+
+            List<UserKey> takenKeys = validUsers.isEmpty() ? List.of() : userRepository.findKeysByUsernamesOrEmails(
+                    validUsers.stream().map(UserDtoRequest::getUsername).collect(Collectors.toSet()),
+                    validUsers.stream().map(UserDtoRequest::getEmail).collect(Collectors.toSet()));
+            Set<String> takenUsernames = takenKeys.stream().map(UserKey::getUsername).collect(Collectors.toSet());
+            Set<String> takenEmails = takenKeys.stream().map(UserKey::getEmail).collect(Collectors.toSet());
+
+            List<User> users = new ArrayList<>();
+            List<Integer> usersIndexes = new ArrayList<>();
+            for (int i = 0; i < userDtoRequests.size(); i++) {
+                String error = Objects.nonNull(violations.get(i))
+                        ? violations.get(i)
+                        : conflictOf(userDtoRequests.get(i), takenUsernames, takenEmails);
+                if (Objects.nonNull(error)) {
+                    addError(indexes.get(i), error);
+                } else {
+                    usernames.add(userDtoRequests.get(i).getUsername());
+                    emails.add(userDtoRequests.get(i).getEmail());
+                    users.add(userMapper.toUser(userDtoRequests.get(i)));
+                    usersIndexes.add(indexes.get(i));
+                }
+            }
+            insert(users, usersIndexes);
+
+            userDtoRequests = new ArrayList<>();
+            indexes = new ArrayList<>();
+        }
+
+        /**
+         * @return why the user cannot be inserted, or null if its username and email are neither repeated
+         * in the batch nor taken
+         */
+        private String conflictOf(UserDtoRequest userDtoRequest, Set<String> takenUsernames, Set<String> takenEmails) {
+            String username = userDtoRequest.getUsername();
+            String email = userDtoRequest.getEmail();
+            if (usernames.contains(username)) {
+                return "username: User with username '" + username + "' is repeated in the batch";
+            }
+            if (emails.contains(email)) {
+                return "email: User with email '" + email + "' is repeated in the batch";
+            }
+            if (takenUsernames.contains(username)) {
+                return "username: User with username '" + username + "' already exists";
+            }
+            if (takenEmails.contains(email)) {
+                return "email: User with email '" + email + "' already exists";
+            }
+            return null;
+        }
+
+        private void insert(List<User> users, List<Integer> usersIndexes) {
+            if (users.isEmpty()) {
+                return;
+            }
+
+            // a user inserted concurrently since the query is skipped by the insert
+            int[] updateCounts = userRepository.insertAll(users);
+            for (int i = 0; i < updateCounts.length; i++) {
+                if (updateCounts[i] > 0 || updateCounts[i] == Statement.SUCCESS_NO_INFO) {
+                    saved++;
+                } else {
+                    addError(usersIndexes.get(i), "username: User with username '" + users.get(i).getUsername() +
+                            "' or email '" + users.get(i).getEmail() + "' already exists");
+                }
+            }
+        }
+
+        /**
+         * @return the violations of the user joined into one message, or null if it is valid
+         */
+        private String validate(UserDtoRequest userDtoRequest) {
+            return validator.validate(userDtoRequest).stream()
+                    .sorted(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+                    .map(violation -> String.format("%s: %s", violation.getPropertyPath(), violation.getMessage()))
+                    .reduce((a, b) -> a + "; " + b)
+                    .orElse(null);
+        }
+
+        private void addError(int index, String message) {
+            errors.add(BatchItemErrorDtoResponse.builder()
+                    .index(index)
+                    .message(message)
+                    .build());
+        }
+
+        private BatchDtoResponse toBatchDtoResponse() {
+            errors.sort(Comparator.comparing(BatchItemErrorDtoResponse::getIndex));
+
+            return BatchDtoResponse.builder()
+                    .received(received)
+                    .saved(saved)
+                    .failed(errors.size())
+                    .errors(errors)
+                    .build();
+        }
+    }
+
+    /**
+     * Collects the users of a JSON array and upserts them by batch size, each batch validated in parallel and
+     * written with one statement. A username or email repeated in the array is upserted after the users before
+     * it were, so that its last occurrence wins.
+     */
+    private class UserUpsertBatch implements JsonArrayReader.ItemHandler<UserDtoRequest> {
+
+        private final UpsertReport report = new UpsertReport();
+        private List<UserDtoRequest> userDtoRequests = new ArrayList<>();
+        private List<Integer> indexes = new ArrayList<>();
+        private Set<String> usernames = new HashSet<>();
+        private Set<String> emails = new HashSet<>();
+
+        @Override
+        public void onItem(int index, UserDtoRequest userDtoRequest) {
+            report.received();
+            if (usernames.contains(userDtoRequest.getUsername()) || emails.contains(userDtoRequest.getEmail())) {
+                flush();
+            }
+
+            usernames.add(userDtoRequest.getUsername());
+            emails.add(userDtoRequest.getEmail());
+            userDtoRequests.add(userDtoRequest);
+            indexes.add(index);
+
+            if (userDtoRequests.size() >= batchProperties.getSize()) {
+                flush();
+            }
+        }
+
+        @Override
+        public void onError(int index, String message) {
+            report.received();
+            report.addError(index, message);
+        }
+
+        private void flush() {
+            if (userDtoRequests.isEmpty()) {
+                return;
+            }
+
+            List<String> violations = userDtoRequests.parallelStream()
+                    .map(this::validate)
+                    .toList();
+            List<String> validEmails = new ArrayList<>();
+            for (int i = 0; i < userDtoRequests.size(); i++) {
+                if (Objects.isNull(violations.get(i))) {
+                    validEmails.add(userDtoRequests.get(i).getEmail());
+                }
+            }
+            Map<String, String> usernamesByEmail = validEmails.isEmpty()
+                    ? Map.of()
+                    : userRepository.findKeysByUsernamesOrEmails(List.of(), validEmails).stream()
+                    .collect(Collectors.toMap(UserKey::getEmail, UserKey::getUsername));
+
+            List<User> users = new ArrayList<>();
+            Map<String, Integer> indexesByUsername = new HashMap<>();
+            for (int i = 0; i < userDtoRequests.size(); i++) {
+                UserDtoRequest userDtoRequest = userDtoRequests.get(i);
+                String owner = usernamesByEmail.get(userDtoRequest.getEmail());
+                if (Objects.nonNull(violations.get(i))) {
+                    report.addError(indexes.get(i), violations.get(i));
+                } else if (Objects.nonNull(owner) && !owner.equals(userDtoRequest.getUsername())) {
+                    report.addError(indexes.get(i), "email: User with email '" + userDtoRequest.getEmail() +
+                            "' already exists");
+                } else {
+                    users.add(userMapper.toUser(userDtoRequest));
+                    indexesByUsername.put(userDtoRequest.getUsername(), indexes.get(i));
+                }
+            }
+
+            if (!users.isEmpty()) {
+                List<Upserted<User>> upsertedUsers = userRepository.upsertAll(users);
+                upsertedUsers.forEach(user -> report.addItem(indexesByUsername.remove(user.getEntity().getUsername()),
+                        user.getEntity().getId(), user.getStatus()));
+                indexesByUsername.values().forEach(index -> report.addError(index, UpsertReport.CONCURRENT_MESSAGE));
+                evictUpserted(upsertedUsers);
+            }
+
+            userDtoRequests = new ArrayList<>();
+            indexes = new ArrayList<>();
+            usernames = new HashSet<>();
+            emails = new HashSet<>();
+        }
+
+        /**
+         * @return the violations of the user joined into one message, or null if it is valid
+         */
+        private String validate(UserDtoRequest userDtoRequest) {
+            return validator.validate(userDtoRequest).stream()
+                    .sorted(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+                    .map(violation -> String.format("%s: %s", violation.getPropertyPath(), violation.getMessage()))
+                    .reduce((a, b) -> a + "; " + b)
+                    .orElse(null);
+        }
     }
 }
@@ -0,0 +1,92 @@
+package chief.digital.bookssystem.util;
+
+import chief.digital.bookssystem.config.BookImportProperties;
+import chief.digital.bookssystem.model.entity.BookImport;
+import chief.digital.bookssystem.model.enums.BookImportStatus;
+import chief.digital.bookssystem.model.projection.MergedChunk;
+import chief.digital.bookssystem.repository.BookImportRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.Closeable;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Validates the staged rows of book imports and merges them into the books in chunks of
+ * {@code books-system.book-import.chunk-size}, each in a short transaction that also moves the checkpoint of
+ * the import. Runs on one background thread; imports left unfinished by a stopped instance resume from their
+ * checkpoint when the application starts. Every instance resumes them, but each step claims the import first and
+ * an instance stops as soon as it finds the import claimed by another one.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookImportWorker implements Closeable {
+
+    private final BookImportRepository bookImportRepository;
+    private final BookImportProperties properties;
+    private final EntityCache entityCache;
+    private final NegativeLookup negativeLookup;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "book-import");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinished() {
+        bookImportRepository.findByStatusNot(BookImportStatus.FINISHED)
+                .forEach(bookImport -> submit(bookImport.getId()));
+    }
+
+    /**
+     * Validates and merges the import in the background. Its rows must already be staged by
+     * {@link BookImportRepository#load(java.io.InputStream)}.
+     */
+    public void submit(Long importId) {
+        executor.execute(() -> run(importId));
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private void run(Long importId) {
+        try {
+            BookImport bookImport = bookImportRepository.findById(importId).orElse(null);
+            if (Objects.isNull(bookImport)) {
+                return;
+            }
+            if (bookImport.getStatus() == BookImportStatus.VALIDATING && !bookImportRepository.validate(importId)) {
+                log.info("Book import with ID {} is run by another instance", importId);
+                return;
+            }
+
+            Optional<MergedChunk> chunk = bookImportRepository.mergeChunk(importId, properties.getChunkSize());
+            while (chunk.isPresent() && chunk.get().getRows() > 0) {
+                entityCache.evictAll(EntityCache.LIBRARIES, chunk.get().getLibrariesIds());
+                negativeLookup.addedAll(EntityCache.BOOKS);
+                Thread.sleep(properties.getPause().toMillis());
+                chunk = bookImportRepository.mergeChunk(importId, properties.getChunkSize());
+            }
+            if (chunk.isEmpty()) {
+                log.info("Book import with ID {} is run by another instance", importId);
+                return;
+            }
+
+            bookImportRepository.finish(importId);
+            log.info("Book import with ID {} was finished", importId);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.error("Book import with ID " + importId + " failed, it is resumed on the next start", e);
+        }
+    }
+}
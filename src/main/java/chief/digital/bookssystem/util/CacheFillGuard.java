@@ -0,0 +1,76 @@
+package chief.digital.bookssystem.util;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Remembers when the keys of one cache were last evicted, so that the cache is not filled with a value read
+ * before the write the eviction was for:
+ * <ul>
+ *     <li>a value whose load started before the last eviction of its key is returned but not cached;</li>
+ *     <li>a key evicted less than {@code primaryWindow} ago, the most a usable replica lags behind, is loaded
+ *     from the primary, as a replica may not have replayed the write yet.</li>
+ * </ul>
+ * Evictions are recorded per stripe of keys rather than per key, so the memory used is fixed; a key sharing a
+ * stripe with an evicted one is at worst not cached or loaded from the primary once more.
+ */
+public class CacheFillGuard {
+
+    private static final int STRIPES = 1024;
+
+    private final long primaryWindowNanos;
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLongArray evictedGenerations = new AtomicLongArray(STRIPES);
+    private final AtomicLongArray evictedAtNanos = new AtomicLongArray(STRIPES);
+    private volatile long clearedGeneration;
+    private volatile long clearedAtNanos;
+
+    /**
+     * @param primaryWindow how long after its eviction a key is loaded from the primary; zero without replicas
+     */
+    public CacheFillGuard(Duration primaryWindow) {
+        this.primaryWindowNanos = primaryWindow.toNanos();
+        this.clearedAtNanos = System.nanoTime() - primaryWindowNanos;
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            evictedAtNanos.set(stripe, clearedAtNanos);
+        }
+    }
+
+    /**
+     * @return the generation to pass to {@link #isEvictedSince} once the load started now has finished
+     */
+    public long startLoad() {
+        return generation.get();
+    }
+
+    public boolean isEvictedSince(Object key, long loadGeneration) {
+        return clearedGeneration > loadGeneration || evictedGenerations.get(stripeOf(key)) > loadGeneration;
+    }
+
+    /**
+     * Loads the value of the key from the primary if the key was evicted within the primary window.
+     */
+    public <T> T load(Object key, Callable<T> loader) throws Exception {
+        long now = System.nanoTime();
+        boolean recentlyEvicted = now - clearedAtNanos < primaryWindowNanos
+                || now - evictedAtNanos.get(stripeOf(key)) < primaryWindowNanos;
+        return recentlyEvicted ? ReadConsistency.onPrimary(loader) : loader.call();
+    }
+
+    public void evicted(Object key) {
+        int stripe = stripeOf(key);
+        evictedAtNanos.set(stripe, System.nanoTime());
+        evictedGenerations.set(stripe, generation.incrementAndGet());
+    }
+
+    public void cleared() {
+        clearedAtNanos = System.nanoTime();
+        clearedGeneration = generation.incrementAndGet();
+    }
+
+    private static int stripeOf(Object key) {
+        return Math.floorMod(key.hashCode(), STRIPES);
+    }
+}
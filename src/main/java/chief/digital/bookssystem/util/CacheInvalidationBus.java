@@ -0,0 +1,191 @@
+package chief.digital.bookssystem.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.cache.Cache;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the in-process caches of all instances coherent through PostgreSQL {@code LISTEN}/{@code NOTIFY}.
+ * <p>
+ * An eviction is sent with {@code pg_notify}, which joins the current transaction, so the other instances
+ * receive it only once the write has committed, and not at all if it rolls back. Each instance listens on
+ * its own connection and evicts the notified keys from its local caches. While that connection is down
+ * notifications are lost, so once it is listening again every local cache is cleared. A notification that
+ * cannot be applied is logged and skipped, and the listener goes on with the next one.
+ */
+@Slf4j
+public class CacheInvalidationBus implements InitializingBean, Closeable {
+
+    /**
+     * A payload is at most 8000 bytes: the cache name and up to this many IDs of up to 20 characters each.
+     */
+    private static final int MAX_KEYS_PER_NOTIFICATION = 300;
+    private static final String NOTIFY_SQL = "SELECT pg_notify(?, ?)";
+    private static final String CACHE_SEPARATOR = ":";
+    private static final String KEY_SEPARATOR = ",";
+    private static final String ALL_KEYS = "*";
+    private static final int FAILURE_LOG_LIMIT = 10;
+    private static final Duration FAILURE_LOG_INTERVAL = Duration.ofMinutes(1);
+
+    private final ConnectionSource connectionSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final String channel;
+    private final Duration pollTimeout;
+    private final Duration reconnectInterval;
+    private final Map<String, Cache> localCaches = new ConcurrentHashMap<>();
+    private final ExecutorService listener = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cache-invalidation-listener");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final RateLimitedLogger failureLog =
+            new RateLimitedLogger(log, FAILURE_LOG_LIMIT, FAILURE_LOG_INTERVAL, 1.0);
+    private volatile Connection listeningConnection;
+
+    public CacheInvalidationBus(ConnectionSource connectionSource, JdbcTemplate jdbcTemplate, String channel,
+                                Duration pollTimeout, Duration reconnectInterval) {
+        this.connectionSource = connectionSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.channel = channel;
+        this.pollTimeout = pollTimeout;
+        this.reconnectInterval = reconnectInterval;
+    }
+
+    /**
+     * Registers the local cache that notified keys of {@code cache.getName()} are evicted from.
+     */
+    public void subscribe(Cache cache) {
+        localCaches.put(cache.getName(), cache);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        listener.execute(this::listen);
+    }
+
+    public void publishEviction(String cacheName, Collection<?> keys) {
+        List<?> keyList = List.copyOf(keys);
+        for (int from = 0; from < keyList.size(); from += MAX_KEYS_PER_NOTIFICATION) {
+            String payload = keyList.subList(from, Math.min(from + MAX_KEYS_PER_NOTIFICATION, keyList.size()))
+                    .stream()
+                    .map(String::valueOf)
+                    .collect(Collectors.joining(KEY_SEPARATOR));
+            notify(cacheName, payload);
+        }
+    }
+
+    public void publishClear(String cacheName) {
+        notify(cacheName, ALL_KEYS);
+    }
+
+    @Override
+    public void close() {
+        listener.shutdownNow();
+        Connection connection = listeningConnection;
+        if (Objects.nonNull(connection)) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                log.debug("Failed to close the cache invalidation connection", e);
+            }
+        }
+    }
+
+    private void notify(String cacheName, String keys) {
+        jdbcTemplate.queryForRowSet(NOTIFY_SQL, channel, cacheName + CACHE_SEPARATOR + keys);
+    }
+
+    private void listen() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try (Connection connection = connectionSource.get()) {
+                listeningConnection = connection;
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN \"" + channel.replace("\"", "\"\"") + "\"");
+                }
+                localCaches.values().forEach(Cache::clear);
+                log.info("Listening for cache invalidations on channel {}", channel);
+
+                receive(connection);
+            } catch (SQLException | RuntimeException e) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                log.warn("Cache invalidation listener failed, reconnecting in {}: {}", reconnectInterval, e.getMessage());
+                pause();
+            }
+        }
+    }
+
+    private void receive(Connection connection) throws SQLException {
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        int timeoutMillis = (int) pollTimeout.toMillis();
+
+        while (!Thread.currentThread().isInterrupted()) {
+            PGNotification[] notifications = pgConnection.getNotifications(timeoutMillis);
+            if (Objects.isNull(notifications) || notifications.length == 0) {
+                // nothing arrives over a connection that died silently either
+                if (!connection.isValid(timeoutMillis / 1000 + 1)) {
+                    throw new SQLException("The listening connection is no longer valid");
+                }
+                continue;
+            }
+            Arrays.stream(notifications).map(PGNotification::getParameter).forEach(this::tryEvict);
+        }
+    }
+
+    private void tryEvict(String payload) {
+        try {
+            evict(payload);
+        } catch (RuntimeException e) {
+            failureLog.warn(channel, "Failed to apply cache invalidation " + payload + ": " + e);
+        }
+    }
+
+    private void evict(String payload) {
+        int separator = payload.indexOf(CACHE_SEPARATOR);
+        Cache cache = separator < 0 ? null : localCaches.get(payload.substring(0, separator));
+        if (Objects.isNull(cache)) {
+            failureLog.warn(channel, "Ignoring cache invalidation " + payload);
+            return;
+        }
+
+        String keys = payload.substring(separator + 1);
+        if (ALL_KEYS.equals(keys)) {
+            cache.clear();
+            return;
+        }
+        Arrays.stream(keys.split(KEY_SEPARATOR)).map(Long::valueOf).forEach(cache::evict);
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(reconnectInterval.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @FunctionalInterface
+    public interface ConnectionSource {
+
+        Connection get() throws SQLException;
+    }
+}
@@ -0,0 +1,79 @@
+package chief.digital.bookssystem.util;
+
+import chief.digital.bookssystem.exception.InvalidRequestException;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Objects;
+
+/**
+ * Strong entity tags made of the entity version, which a write of the entity or of the related rows its
+ * response lists increments.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class ETags {
+
+    private static final String ANY = "*";
+    private static final String WEAK_PREFIX = "W/";
+
+    public static String of(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * @return the response with the ETag of the version
+     */
+    public static <T> ResponseEntity<T> withETag(ResponseEntity<T> response, Long version) {
+        return ResponseEntity.status(response.getStatusCode())
+                .eTag(of(version))
+                .body(response.getBody());
+    }
+
+    /**
+     * @return 304 with the ETag of the version
+     */
+    public static <T> ResponseEntity<T> notModified(Long version) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(of(version))
+                .build();
+    }
+
+    /**
+     * Compares an {@code If-None-Match} header with the version weakly, as GET requires.
+     */
+    public static boolean matches(String ifNoneMatch, Long version) {
+        if (Objects.isNull(ifNoneMatch)) {
+            return false;
+        }
+
+        String eTag = of(version);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals(ANY) || tag.equals(eTag) || tag.equals(WEAK_PREFIX + eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the version an {@code If-Match} header requires, or null if it is absent or any version will do
+     */
+    public static Long toExpectedVersion(String ifMatch) {
+        if (Objects.isNull(ifMatch) || ifMatch.trim().equals(ANY)) {
+            return null;
+        }
+
+        String tag = ifMatch.trim();
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Long.parseLong(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException e) {
+                // not one of ours, handled below
+            }
+        }
+        throw new InvalidRequestException("If-Match must be * or a single strong ETag of this API");
+    }
+}
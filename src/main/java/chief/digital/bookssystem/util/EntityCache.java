@@ -0,0 +1,80 @@
+package chief.digital.bookssystem.util;
+
+import chief.digital.bookssystem.model.dto.response.LibraryDtoResponse;
+import chief.digital.bookssystem.model.dto.response.UserDtoResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Names of the entity caches in front of the {@code findById} lookups, and eviction of their entries
+ * that a write made stale but that cannot be named by an {@code @CacheEvict} key.
+ */
+@Component
+@RequiredArgsConstructor
+public class EntityCache {
+
+    public static final String BOOKS = "books";
+    public static final String LIBRARIES = "libraries";
+    public static final String USERS = "users";
+    public static final List<String> NAMES = List.of(BOOKS, LIBRARIES, USERS);
+
+    /**
+     * Condition of the cached lookups. A read that requires a consistency token bypasses the cache,
+     * which may still hold an entry read from a replica before the token's write was replayed there.
+     */
+    public static final String NO_CONSISTENCY_TOKEN =
+            "T(chief.digital.bookssystem.util.ReadConsistency).getMinLsn() == null";
+
+    private final CacheManager cacheManager;
+
+    /**
+     * @return the cached response, or null if there is none or the read requires a consistency token
+     */
+    public <T> T getCached(String cacheName, Long id, Class<T> type) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (Objects.isNull(cache) || Objects.nonNull(ReadConsistency.getMinLsn())) {
+            return null;
+        }
+        return cache.get(id, type);
+    }
+
+    public void evict(String cacheName, Long id) {
+        evictAll(cacheName, List.of(id));
+    }
+
+    public void evictAll(String cacheName, Collection<Long> ids) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (ids.isEmpty() || Objects.isNull(cache)) {
+            return;
+        }
+        if (cache instanceof NotifyingCacheDecorator notifyingCache) {
+            notifyingCache.evictAll(ids);
+        } else {
+            ids.forEach(cache::evict);
+        }
+    }
+
+    /**
+     * Weight of a cached response: 1 plus the number of related IDs it lists, so that a library with
+     * thousands of books takes the room of thousands of small entries.
+     */
+    public static int weigh(Object value) {
+        if (value instanceof LibraryDtoResponse library) {
+            return 1 + sizeOf(library.getBooksIds()) + sizeOf(library.getUsersIds());
+        }
+        if (value instanceof UserDtoResponse user) {
+            return 1 + sizeOf(user.getLibrariesIds());
+        }
+        return 1;
+    }
+
+    private static int sizeOf(Collection<?> ids) {
+        return Objects.isNull(ids) ? 0 : ids.size();
+    }
+}
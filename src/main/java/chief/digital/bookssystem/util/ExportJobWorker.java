@@ -0,0 +1,179 @@
+package chief.digital.bookssystem.util;
+
+import chief.digital.bookssystem.config.ExportProperties;
+import chief.digital.bookssystem.model.entity.ExportJob;
+import chief.digital.bookssystem.model.enums.ExportJobStatus;
+import chief.digital.bookssystem.repository.ExportJobRepository;
+import chief.digital.bookssystem.service.ExportService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Runs export jobs on one background thread. A job reads its rows from one {@code REPEATABLE READ} snapshot and
+ * writes them gzip-compressed to a file under {@code books-system.export.directory}, which is renamed into place
+ * only when complete. Jobs left running by a stopped instance are run again when the application starts, by
+ * whichever instance claims them first: a job is run under an advisory lock held by a connection of its own, and
+ * an instance that finds it locked, or no longer running once locked, leaves it alone.
+ */
+@Slf4j
+@Component
+public class ExportJobWorker implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // IDs 2^31 apart share a key, which only makes the later job wait for the next start
+    private static final String TRY_LOCK_SQL =
+            "SELECT pg_try_advisory_lock(hashtext('export_jobs'), CAST(? % 2147483648 AS integer))";
+    private static final String UNLOCK_SQL =
+            "SELECT pg_advisory_unlock(hashtext('export_jobs'), CAST(? % 2147483648 AS integer))";
+
+    private final ExportJobRepository exportJobRepository;
+    private final ExportService exportService;
+    private final ExportProperties properties;
+    private final TransactionTemplate snapshotTransaction;
+    private final DataSource dataSource;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "export-job");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ExportJobWorker(ExportJobRepository exportJobRepository, ExportService exportService,
+                           ExportProperties properties, PlatformTransactionManager transactionManager,
+                           DataSource dataSource) {
+        this.exportJobRepository = exportJobRepository;
+        this.exportService = exportService;
+        this.properties = properties;
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTransaction.setReadOnly(true);
+        this.dataSource = dataSource;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinished() {
+        exportJobRepository.findByStatus(ExportJobStatus.RUNNING).stream()
+                .map(ExportJob::getId)
+                .forEach(this::submit);
+    }
+
+    public void submit(Long jobId) {
+        executor.execute(() -> run(jobId));
+    }
+
+    /**
+     * @return the file of the job, which exists only once the job is finished
+     */
+    public Path fileOf(ExportJob job) {
+        return properties.getDirectory()
+                .resolve(job.getId() + "-" + job.getType().getValue() + "." + job.getFormat().getValue() + ".gz");
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private void run(Long jobId) {
+        try (Connection lockConnection = dataSource.getConnection()) {
+            if (!execute(lockConnection, TRY_LOCK_SQL, jobId)) {
+                log.info("Export job with ID {} is run by another instance", jobId);
+                return;
+            }
+            try {
+                runClaimed(jobId);
+            } finally {
+                execute(lockConnection, UNLOCK_SQL, jobId);
+            }
+        } catch (SQLException e) {
+            log.error("Export job with ID " + jobId + " could not be claimed, it is run again on the next start", e);
+        }
+    }
+
+    private void runClaimed(Long jobId) {
+        ExportJob job = exportJobRepository.findById(jobId).orElse(null);
+        if (Objects.isNull(job) || job.getStatus() != ExportJobStatus.RUNNING) {
+            return;
+        }
+        job.setInstanceId(properties.getInstanceId());
+        exportJobRepository.save(job);
+
+        Path file = fileOf(job);
+        Path partFile = file.resolveSibling(file.getFileName() + ".part");
+        try {
+            Files.createDirectories(properties.getDirectory());
+            long rows;
+            try (OutputStream outputStream = new GZIPOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(partFile), BUFFER_SIZE), BUFFER_SIZE)) {
+                rows = Objects.requireNonNull(snapshotTransaction.execute(status -> export(job, outputStream)));
+            }
+            Files.move(partFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            finish(job, ExportJobStatus.FINISHED, rows, Files.size(file));
+            log.info("Export job with ID {} wrote {} rows to {}", jobId, rows, file);
+        } catch (IOException | RuntimeException e) {
+            log.error("Export job with ID " + jobId + " failed", e);
+            deleteQuietly(partFile);
+            finish(job, ExportJobStatus.FAILED, job.getRowsExported(), null);
+        }
+    }
+
+    private long export(ExportJob job, OutputStream outputStream) {
+        long rowsTotal = exportService.count(job.getType());
+        job.setRowsTotal(rowsTotal);
+        exportJobRepository.updateProgress(job.getId(), rowsTotal, 0L);
+
+        return exportService.export(job.getType(), job.getFormat(), outputStream, rows -> {
+            job.setRowsExported(rows);
+            exportJobRepository.updateProgress(job.getId(), rowsTotal, rows);
+        });
+    }
+
+    private void finish(ExportJob job, ExportJobStatus status, Long rowsExported, Long fileSize) {
+        job.setStatus(status);
+        job.setRowsExported(rowsExported);
+        job.setFileSize(fileSize);
+        job.setFinishedAt(LocalDateTime.now());
+        exportJobRepository.save(job);
+    }
+
+    private static boolean execute(Connection connection, String sql, Long jobId) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, jobId);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() && resultSet.getBoolean(1);
+            }
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete {}: {}", path, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package chief.digital.bookssystem.util;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Sends a file, or the one byte range a {@code Range} header asks for, without reading it into the heap: Tomcat
+ * is handed the file to send with {@code sendfile}, and other servlet containers get it through
+ * {@link FileChannel#transferTo}. A header with several ranges or an invalid one gets the whole file.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class FileRanges {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    public static void send(Path file, MediaType contentType, String filename,
+                            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long length = Files.size(file);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        HttpRange range = singleRangeOf(request.getHeader(HttpHeaders.RANGE));
+        long start = 0;
+        long end = length - 1;
+        if (Objects.nonNull(range)) {
+            start = range.getRangeStart(length);
+            end = range.getRangeEnd(length);
+            if (start >= length || start > end) {
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                return;
+            }
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+
+        response.setContentType(contentType.toString());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(filename).build().toString());
+        response.setContentLengthLong(end - start + 1);
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        transfer(file, start, end - start + 1, Channels.newChannel(response.getOutputStream()));
+    }
+
+    private static void transfer(Path file, long position, long count, WritableByteChannel target)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long transferred = 0;
+            while (transferred < count) {
+                long sent = channel.transferTo(position + transferred, count - transferred, target);
+                if (sent <= 0) {
+                    throw new EOFException("File " + file + " ended before the requested range");
+                }
+                transferred += sent;
+            }
+        }
+    }
+
+    private static HttpRange singleRangeOf(String header) {
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(header);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package chief.digital.bookssystem.util;
+
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Objects;
+import java.util.concurrent.Callable;
+
+/**
+ * Caffeine cache filled only through {@link #get(Object, Callable)}, i.e. by lookups cached with
+ * {@code sync = true}, whose loads go through the {@link CacheFillGuard} of the cache. Evictions, local or
+ * notified by other instances, are recorded in the guard. Like a transaction-aware cache, a value loaded inside a
+ * transaction is cached only once the transaction commits. A {@link LoadingCache} only refreshes entries ahead:
+ * it is read with {@code getIfPresent}, as the lookup loads misses itself.
+ */
+public class GuardedCaffeineCache extends CaffeineCache {
+
+    private final CacheFillGuard guard;
+
+    public GuardedCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache,
+                                CacheFillGuard guard) {
+        super(name, cache);
+        this.guard = guard;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = get(key);
+        if (Objects.nonNull(cached)) {
+            return (T) cached.get();
+        }
+
+        long loadGeneration = guard.startLoad();
+        T value;
+        try {
+            value = guard.load(key, valueLoader);
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    fill(key, value, loadGeneration);
+                }
+            });
+        } else {
+            fill(key, value, loadGeneration);
+        }
+        return value;
+    }
+
+    /**
+     * Caches the value unless its key was evicted since the load started. The value is put before the check and
+     * removed if it fails, so an eviction racing the fill either is seen by the check or removes the value itself.
+     */
+    private void fill(Object key, Object value, long loadGeneration) {
+        if (guard.isEvictedSince(key, loadGeneration)) {
+            return;
+        }
+        put(key, value);
+        if (guard.isEvictedSince(key, loadGeneration)) {
+            getNativeCache().asMap().remove(key, toStoreValue(value));
+        }
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        return getNativeCache().getIfPresent(key);
+    }
+
+    @Override
+    public void evict(Object key) {
+        guard.evicted(key);
+        super.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        guard.evicted(key);
+        return super.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        guard.cleared();
+        super.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        guard.cleared();
+        return super.invalidate();
+    }
+}
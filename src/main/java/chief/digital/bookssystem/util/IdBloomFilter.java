@@ -0,0 +1,75 @@
+package chief.digital.bookssystem.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter of entity IDs, safe for concurrent use. {@link #mightContain} is never wrong for an added ID;
+ * for any other ID it answers {@code true} with about the false positive rate the filter was sized for.
+ */
+public class IdBloomFilter {
+
+    private static final double LN2 = Math.log(2);
+
+    private final AtomicLongArray words;
+    private final long bitSize;
+    private final int hashCount;
+
+    public IdBloomFilter(long expectedIds, double falsePositiveRate) {
+        long ids = Math.max(expectedIds, 1);
+        long bits = (long) Math.ceil(-ids * Math.log(falsePositiveRate) / (LN2 * LN2));
+        this.words = new AtomicLongArray((int) Math.max((bits + 63) / 64, 1));
+        this.bitSize = words.length() * 64L;
+        this.hashCount = Math.max((int) Math.round((double) bitSize / ids * LN2), 1);
+    }
+
+    public void put(long id) {
+        long hash1 = mix(id);
+        long hash2 = mix(hash1) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitSize);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            words.getAndAccumulate(word, mask, (current, set) -> current | set);
+        }
+    }
+
+    public boolean mightContain(long id) {
+        long hash1 = mix(id);
+        long hash2 = mix(hash1) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitSize);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The false positive rate expected from the share of bits set so far.
+     */
+    public double expectedFalsePositiveRate() {
+        long setBits = 0;
+        for (int i = 0; i < words.length(); i++) {
+            setBits += Long.bitCount(words.get(i));
+        }
+        return Math.pow((double) setBits / bitSize, hashCount);
+    }
+
+    public long sizeInBytes() {
+        return bitSize / 8;
+    }
+
+    /**
+     * The finalizer of MurmurHash3: spreads consecutive IDs over the whole range.
+     */
+    private static long mix(long value) {
+        long hash = value;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,37 @@
+package chief.digital.bookssystem.util;
+
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Expires each cache entry a random part of {@code jitter} before {@code expireAfterWrite} after it was
+ * written, so that a batch of entries loaded together is reloaded spread out rather than all at once.
+ * Reading an entry does not extend its lifetime.
+ */
+public class JitteredExpiry implements Expiry<Object, Object> {
+
+    private final long expireAfterWriteNanos;
+    private final long maxJitterNanos;
+
+    public JitteredExpiry(Duration expireAfterWrite, double jitter) {
+        this.expireAfterWriteNanos = expireAfterWrite.toNanos();
+        this.maxJitterNanos = (long) (expireAfterWriteNanos * jitter);
+    }
+
+    @Override
+    public long expireAfterCreate(Object key, Object value, long currentTime) {
+        return expireAfterWriteNanos - ThreadLocalRandom.current().nextLong(maxJitterNanos + 1);
+    }
+
+    @Override
+    public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+        return expireAfterCreate(key, value, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+        return currentDuration;
+    }
+}
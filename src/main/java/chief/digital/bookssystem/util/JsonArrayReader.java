@@ -0,0 +1,62 @@
+package chief.digital.bookssystem.util;
+
+import chief.digital.bookssystem.exception.InvalidRequestException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.TreeNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Reads a JSON array element by element, so that only one element is held in memory at a time.
+ * An element that cannot be converted to the target type is reported to the handler instead of
+ * failing the whole array.
+ */
+@Component
+@RequiredArgsConstructor
+public class JsonArrayReader {
+
+    private final ObjectMapper objectMapper;
+
+    public <T> void read(InputStream inputStream, Class<T> type, ItemHandler<T> itemHandler) {
+        try (JsonParser parser = objectMapper.getFactory().createParser(inputStream)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new InvalidRequestException("Request body must be a JSON array");
+            }
+
+            int index = 0;
+            for (JsonToken token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+                if (token == null) {
+                    throw new InvalidRequestException("Unexpected end of JSON array");
+                }
+
+                TreeNode node = parser.readValueAsTree();
+                T item;
+                try {
+                    item = objectMapper.treeToValue(node, type);
+                } catch (JsonProcessingException | IllegalArgumentException e) {
+                    itemHandler.onError(index++, "Malformed item: " + e.getMessage());
+                    continue;
+                }
+                itemHandler.onItem(index++, item);
+            }
+        } catch (JsonProcessingException e) {
+            throw new InvalidRequestException("Malformed JSON array: " + e.getOriginalMessage(), e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public interface ItemHandler<T> {
+
+        void onItem(int index, T item);
+
+        void onError(int index, String message);
+    }
+}
@@ -0,0 +1,67 @@
+package chief.digital.bookssystem.util;
+
+import chief.digital.bookssystem.exception.InvalidRequestException;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Opaque position of a keyset page: the sort key, its value and the ID of the last row returned.
+ * The ID breaks ties, so the pair {@code (value, id)} is unique and pages never skip or repeat rows.
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class KeysetCursor {
+
+    public static final String ID = "id";
+
+    private static final String SEPARATOR = ":";
+
+    String orderBy;
+
+    Long id;
+
+    String value;
+
+    public static KeysetCursor of(String orderBy, Long id, Object value) {
+        return new KeysetCursor(orderBy, id, Objects.isNull(value) ? "" : String.valueOf(value));
+    }
+
+    public static KeysetCursor decode(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = decoded.split(SEPARATOR, 3);
+            if (parts.length != 3) {
+                throw new InvalidRequestException("Invalid cursor: " + cursor);
+            }
+            return new KeysetCursor(parts[0], Long.valueOf(parts[1]), parts[2]);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    public String encode() {
+        String raw = orderBy + SEPARATOR + id + SEPARATOR + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Integer getIntValue() {
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new InvalidRequestException("Invalid cursor value: " + value, e);
+        }
+    }
+
+    public Float getFloatValue() {
+        try {
+            return Float.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new InvalidRequestException("Invalid cursor value: " + value, e);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package chief.digital.bookssystem.util;
+
+import chief.digital.bookssystem.config.LibraryDeletionProperties;
+import chief.digital.bookssystem.model.entity.LibraryDeletion;
+import chief.digital.bookssystem.repository.LibraryDeletionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiFunction;
+
+/**
+ * Deletes the books and memberships of libraries hidden for deletion in chunks of
+ * {@code books-system.library-deletion.chunk-size}, each in a short transaction of its own, then the libraries
+ * themselves. Runs on one background thread; deletions left unfinished by a stopped instance are resumed when
+ * the application starts. A deletion that fails, or finds books or memberships added to the library meanwhile,
+ * starts over from the chunks after a growing pause, up to {@code books-system.library-deletion.max-attempts}
+ * times.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LibraryDeletionWorker implements Closeable {
+
+    private final LibraryDeletionRepository libraryDeletionRepository;
+    private final LibraryDeletionProperties properties;
+    private final EntityCache entityCache;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "library-deletion");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinished() {
+        libraryDeletionRepository.findByFinishedAtIsNull().stream()
+                .map(LibraryDeletion::getLibraryId)
+                .forEach(this::submit);
+    }
+
+    /**
+     * Deletes the library in the background. The library must already be hidden by
+     * {@link LibraryDeletionRepository#start(Long)}.
+     */
+    public void submit(Long libraryId) {
+        executor.execute(() -> delete(libraryId));
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private void delete(Long libraryId) {
+        Duration backoff = properties.getRetryBackoff();
+        try {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    if (deleteOnce(libraryId)) {
+                        return;
+                    }
+                    if (attempt >= properties.getMaxAttempts()) {
+                        log.error("Library with ID {} still had books or memberships after {} attempts, "
+                                + "its deletion is resumed on the next start", libraryId, attempt);
+                        return;
+                    }
+                    log.warn("Library with ID {} still has books or memberships, deleting them again in {}",
+                            libraryId, backoff);
+                } catch (RuntimeException e) {
+                    if (attempt >= properties.getMaxAttempts()) {
+                        log.error("Deletion of the Library with ID " + libraryId + " failed " + attempt
+                                + " times, it is resumed on the next start", e);
+                        return;
+                    }
+                    log.warn("Deletion of the Library with ID {} failed, retrying in {}: {}",
+                            libraryId, backoff, e.getMessage());
+                }
+                Thread.sleep(backoff.toMillis());
+                backoff = backoff.multipliedBy(2);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return whether the deletion is finished, by this instance or by another one
+     */
+    private boolean deleteOnce(Long libraryId) throws InterruptedException {
+        deleteInChunks(libraryId, libraryDeletionRepository::deleteBooksChunk, EntityCache.BOOKS);
+        deleteInChunks(libraryId, libraryDeletionRepository::deleteMembershipsChunk, EntityCache.USERS);
+        if (libraryDeletionRepository.finish(libraryId)) {
+            entityCache.evict(EntityCache.LIBRARIES, libraryId);
+            log.info("Library with ID {} was deleted in the background", libraryId);
+            return true;
+        }
+        return libraryDeletionRepository.findById(libraryId)
+                .map(deletion -> Objects.nonNull(deletion.getFinishedAt()))
+                .orElse(true);
+    }
+
+    private void deleteInChunks(Long libraryId, BiFunction<Long, Integer, List<Long>> deleteChunk, String cacheName)
+            throws InterruptedException {
+        List<Long> deletedIds = deleteChunk.apply(libraryId, properties.getChunkSize());
+        while (!deletedIds.isEmpty()) {
+            entityCache.evictAll(cacheName, deletedIds);
+            Thread.sleep(properties.getPause().toMillis());
+            deletedIds = deleteChunk.apply(libraryId, properties.getChunkSize());
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package chief.digital.bookssystem.util;
+
+import chief.digital.bookssystem.config.NegativeLookupProperties;
+import chief.digital.bookssystem.config.ReplicaProperties;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Answers lookups of IDs that do not exist without a query. An ID found missing is remembered for a short time
+ * in a negative cache, which inserts evict on every instance. For the entities configured in
+ * {@code books-system.negative-lookup.bloom-filters}, a Bloom filter of the existing IDs also rejects IDs it has
+ * never seen.
+ * <p>
+ * The filter is rebuilt from the table periodically and only trusted up to the highest ID of the build before.
+ * IDs are not committed in order, though: a pooled sequence hands each instance a block of IDs, and a long
+ * transaction commits late. So every inserted ID reported with {@link #added} is also put into the filters of
+ * all instances, through the same invalidation notification that evicts it from their negative caches, and
+ * inserts whose IDs are not known ({@link #addedAll}) stop the filters from rejecting anything until they
+ * are rebuilt. Both take effect once the insert commits, including on a build that is running meanwhile.
+ * Another instance may still reject an inserted ID until the notification reaches it. Reads that require
+ * a consistency token are never rejected. An ID a replica found missing is only remembered once the primary
+ * confirms it, as the replica may not have replayed its insert yet.
+ */
+@Slf4j
+@Component
+public class NegativeLookup implements InitializingBean, Closeable {
+
+    private static final String MISSING_CACHE_SUFFIX = "-missing";
+    private static final String REJECTED_METRIC = "negative.lookup.rejected";
+    private static final String FALSE_POSITIVES_METRIC = "negative.lookup.bloom.false.positives";
+    private static final int ID_FETCH_SIZE = 10_000;
+    private static final double GROWTH_HEADROOM = 1.5;
+
+    /**
+     * Entity tables by cache name.
+     */
+    private static final Map<String, String> TABLES = Map.of(
+            EntityCache.BOOKS, "books",
+            EntityCache.LIBRARIES, "libraries",
+            EntityCache.USERS, "users"
+    );
+
+    private final NegativeLookupProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate primaryTransaction;
+    private final boolean replicasEnabled;
+    private final Map<String, TransactionAwareCacheDecorator> missingCaches;
+    private final Map<String, BloomFilterSnapshot> bloomFilters = new ConcurrentHashMap<>();
+    private final Object bloomFilterLock = new Object();
+    /**
+     * Builds running, by name; guarded by {@link #bloomFilterLock}.
+     */
+    private final Map<String, RunningBuild> runningBuilds = new HashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "negative-lookup-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public NegativeLookup(NegativeLookupProperties properties, ReplicaProperties replicaProperties,
+                          MeterRegistry meterRegistry, ObjectProvider<CacheInvalidationBus> cacheInvalidationBus,
+                          DataSource dataSource, PlatformTransactionManager transactionManager) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.cacheInvalidationBus = cacheInvalidationBus.getIfAvailable();
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(ID_FETCH_SIZE);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        // read-write, so routed to the primary
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+        this.primaryTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.replicasEnabled = replicaProperties.isEnabled();
+        this.missingCaches = EntityCache.NAMES.stream()
+                .collect(Collectors.toMap(Function.identity(), this::toMissingCache));
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        properties.getBloomFilters().forEach(name -> {
+            Gauge.builder("negative.lookup.bloom.fpp", this, lookup -> lookup.expectedFalsePositiveRate(name))
+                    .description("False positive rate expected from the bits set in the Bloom filter")
+                    .tag("name", name)
+                    .register(meterRegistry);
+            Gauge.builder("negative.lookup.bloom.size", this, lookup -> lookup.sizeInBytes(name))
+                    .baseUnit("bytes")
+                    .tag("name", name)
+                    .register(meterRegistry);
+        });
+        if (!properties.getBloomFilters().isEmpty()) {
+            long intervalMillis = properties.getRebuildInterval().toMillis();
+            scheduler.scheduleWithFixedDelay(this::rebuildBloomFilters, 0, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * @return whether the entity with the ID is known not to exist
+     */
+    public boolean isKnownMissing(String name, Long id) {
+        if (Objects.nonNull(ReadConsistency.getMinLsn())) {
+            return false;
+        }
+        if (Objects.nonNull(missingCaches.get(name).get(id))) {
+            meterRegistry.counter(REJECTED_METRIC, "name", name, "by", "negative_cache").increment();
+            return true;
+        }
+
+        BloomFilterSnapshot snapshot = bloomFilters.get(name);
+        if (Objects.nonNull(snapshot) && id <= snapshot.trustedMaxId() && !snapshot.filter().mightContain(id)) {
+            meterRegistry.counter(REJECTED_METRIC, "name", name, "by", "bloom_filter").increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Remembers that a lookup found no entity with the ID.
+     */
+    public void missing(String name, Long id) {
+        // a transaction that writes may have deleted the entity itself and still roll back
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return;
+        }
+        if (isOnReplica() && existsOnPrimary(name, id)) {
+            return;
+        }
+        // right away: the lookup ends with a not found exception, which rolls its transaction back
+        missingCaches.get(name).getTargetCache().put(id, Boolean.TRUE);
+
+        BloomFilterSnapshot snapshot = bloomFilters.get(name);
+        if (Objects.nonNull(snapshot) && id <= snapshot.trustedMaxId()) {
+            meterRegistry.counter(FALSE_POSITIVES_METRIC, "name", name).increment();
+        }
+    }
+
+    /**
+     * Forgets the ID as missing and adds it to the Bloom filter, on every instance once the current
+     * transaction commits.
+     */
+    public void added(String name, Long id) {
+        missingCaches.get(name).evict(id);
+    }
+
+    /**
+     * Forgets all IDs remembered as missing after entities were inserted whose IDs are not known, e.g. in a batch,
+     * and stops trusting the Bloom filter until it is rebuilt, on every instance once the current transaction
+     * commits.
+     */
+    public void addedAll(String name) {
+        missingCaches.get(name).clear();
+    }
+
+    /**
+     * Rebuilds the Bloom filters from the tables, each in a read-only transaction.
+     */
+    public synchronized void rebuildBloomFilters() {
+        for (String name : properties.getBloomFilters()) {
+            RunningBuild build = new RunningBuild();
+            synchronized (bloomFilterLock) {
+                runningBuilds.put(name, build);
+            }
+            try {
+                BloomFilterSnapshot previous = bloomFilters.get(name);
+                BloomFilterSnapshot snapshot = readOnlyTransaction.execute(status -> buildBloomFilter(name, previous));
+                synchronized (bloomFilterLock) {
+                    // inserts that committed after the build read the table
+                    build.addedIds.forEach(snapshot.filter()::put);
+                    bloomFilters.put(name, build.untrusted ? snapshot.untrusted() : snapshot);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Failed to rebuild the Bloom filter of {}: {}", name, e.getMessage());
+            } finally {
+                synchronized (bloomFilterLock) {
+                    runningBuilds.remove(name);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * @return whether the current transaction may read from a replica
+     */
+    private boolean isOnReplica() {
+        return replicasEnabled && TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && !ReadConsistency.isPrimaryRequired();
+    }
+
+    private boolean existsOnPrimary(String name, Long id) {
+        String sql = "SELECT EXISTS (SELECT 1 FROM " + TABLES.get(name) + " WHERE id = ?)";
+        return Boolean.TRUE.equals(primaryTransaction.execute(status ->
+                jdbcTemplate.queryForObject(sql, Boolean.class, id)));
+    }
+
+    private BloomFilterSnapshot buildBloomFilter(String name, BloomFilterSnapshot previous) {
+        String table = TABLES.get(name);
+        Map<String, Object> stats = jdbcTemplate.queryForMap("SELECT count(*) AS ids, max(id) AS max_id FROM " + table);
+        long ids = ((Number) stats.get("ids")).longValue();
+
+        IdBloomFilter filter = new IdBloomFilter((long) (ids * GROWTH_HEADROOM), properties.getFalsePositiveRate());
+        long[] maxId = {0};
+        jdbcTemplate.query("SELECT id FROM " + table, resultSet -> {
+            long id = resultSet.getLong(1);
+            filter.put(id);
+            maxId[0] = Math.max(maxId[0], id);
+        });
+
+        long trustedMaxId = Objects.isNull(previous) ? 0 : previous.maxId();
+        return new BloomFilterSnapshot(filter, maxId[0], trustedMaxId);
+    }
+
+    private void onAdded(String name, Object id) {
+        synchronized (bloomFilterLock) {
+            BloomFilterSnapshot snapshot = bloomFilters.get(name);
+            if (Objects.nonNull(snapshot)) {
+                snapshot.filter().put((Long) id);
+            }
+            RunningBuild build = runningBuilds.get(name);
+            if (Objects.nonNull(build)) {
+                build.addedIds.add((Long) id);
+            }
+        }
+    }
+
+    private void onAddedAll(String name) {
+        synchronized (bloomFilterLock) {
+            BloomFilterSnapshot snapshot = bloomFilters.get(name);
+            if (Objects.nonNull(snapshot)) {
+                bloomFilters.put(name, snapshot.untrusted());
+            }
+            RunningBuild build = runningBuilds.get(name);
+            if (Objects.nonNull(build)) {
+                build.untrusted = true;
+            }
+        }
+    }
+
+    private double expectedFalsePositiveRate(String name) {
+        BloomFilterSnapshot snapshot = bloomFilters.get(name);
+        return Objects.isNull(snapshot) ? Double.NaN : snapshot.filter().expectedFalsePositiveRate();
+    }
+
+    private double sizeInBytes(String name) {
+        BloomFilterSnapshot snapshot = bloomFilters.get(name);
+        return Objects.isNull(snapshot) ? 0 : snapshot.filter().sizeInBytes();
+    }
+
+    /**
+     * The negative cache, whose evictions and clears, local or notified by another instance, also reach
+     * the Bloom filter. Like the entity caches, it applies them once the current transaction commits.
+     */
+    private TransactionAwareCacheDecorator toMissingCache(String name) {
+        Cache cache = new CaffeineCache(name + MISSING_CACHE_SUFFIX, Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl())
+                .build()) {
+            @Override
+            public void evict(Object key) {
+                super.evict(key);
+                onAdded(name, key);
+            }
+
+            @Override
+            public void clear() {
+                super.clear();
+                onAddedAll(name);
+            }
+        };
+        if (Objects.isNull(cacheInvalidationBus)) {
+            return new TransactionAwareCacheDecorator(cache);
+        }
+        cacheInvalidationBus.subscribe(cache);
+        return new NotifyingCacheDecorator(cache, cacheInvalidationBus);
+    }
+
+    /**
+     * @param maxId        the highest ID the filter was built from
+     * @param trustedMaxId the highest ID the filter may reject
+     */
+    private record BloomFilterSnapshot(IdBloomFilter filter, long maxId, long trustedMaxId) {
+
+        BloomFilterSnapshot untrusted() {
+            return new BloomFilterSnapshot(filter, maxId, 0);
+        }
+    }
+
+    /**
+     * What was inserted while a build reads the table, which its snapshot may not see.
+     */
+    private static class RunningBuild {
+
+        private final Set<Long> addedIds = new HashSet<>();
+        private boolean untrusted;
+    }
+}
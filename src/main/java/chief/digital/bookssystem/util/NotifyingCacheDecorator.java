@@ -0,0 +1,54 @@
+package chief.digital.bookssystem.util;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Transaction-aware cache whose evictions are also sent to the other instances through the
+ * {@link CacheInvalidationBus}. The notification is sent right away but, like the local eviction, takes effect
+ * only after the current transaction commits.
+ */
+public class NotifyingCacheDecorator extends TransactionAwareCacheDecorator {
+
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    public NotifyingCacheDecorator(Cache targetCache, CacheInvalidationBus cacheInvalidationBus) {
+        super(targetCache);
+        this.cacheInvalidationBus = cacheInvalidationBus;
+    }
+
+    @Override
+    public void evict(Object key) {
+        cacheInvalidationBus.publishEviction(getName(), List.of(key));
+        super.evict(key);
+    }
+
+    /**
+     * Evicts the keys locally one by one but sends them to the other instances in as few notifications as fit.
+     */
+    public void evictAll(Collection<?> keys) {
+        cacheInvalidationBus.publishEviction(getName(), keys);
+        keys.forEach(super::evict);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        cacheInvalidationBus.publishEviction(getName(), List.of(key));
+        return super.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        cacheInvalidationBus.publishClear(getName());
+        super.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        cacheInvalidationBus.publishClear(getName());
+        return super.invalidate();
+    }
+}
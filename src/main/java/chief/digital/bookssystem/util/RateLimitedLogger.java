@@ -0,0 +1,71 @@
+package chief.digital.bookssystem.util;
+
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logs at most {@code limit} messages of each key per interval, of those sampled at {@code sampleRate}.
+ * Dropped messages are counted, and the next message logged for the key tells how many were suppressed.
+ * Meant for expected errors a client can cause at any rate, so that they cannot flood the log.
+ */
+public class RateLimitedLogger {
+
+    private final Logger logger;
+    private final int limit;
+    private final long intervalNanos;
+    private final double sampleRate;
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    public RateLimitedLogger(Logger logger, int limit, Duration interval, double sampleRate) {
+        this.logger = logger;
+        this.limit = limit;
+        this.intervalNanos = interval.toNanos();
+        this.sampleRate = sampleRate;
+    }
+
+    public void warn(String key, String message) {
+        if (!logger.isWarnEnabled()) {
+            return;
+        }
+
+        long suppressed = windows.computeIfAbsent(key, k -> new Window()).acquire();
+        if (suppressed == 0) {
+            logger.warn(message);
+        } else if (suppressed > 0) {
+            logger.warn("{} ({} similar messages suppressed)", message, suppressed);
+        }
+    }
+
+    private final class Window {
+
+        private final AtomicLong start = new AtomicLong(System.nanoTime());
+        private final AtomicInteger permits = new AtomicInteger(limit);
+        private final LongAdder suppressed = new LongAdder();
+
+        /**
+         * @return the number of messages suppressed since the last one logged, or -1 if this one is suppressed
+         */
+        long acquire() {
+            long now = System.nanoTime();
+            long windowStart = start.get();
+            if (now - windowStart >= intervalNanos && start.compareAndSet(windowStart, now)) {
+                permits.set(limit);
+            }
+
+            boolean sampled = sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+            // reading before decrementing keeps the counter uncontended once the window is used up
+            if (!sampled || permits.get() <= 0 || permits.getAndDecrement() <= 0) {
+                suppressed.increment();
+                return -1;
+            }
+            return suppressed.sumThenReset();
+        }
+    }
+}
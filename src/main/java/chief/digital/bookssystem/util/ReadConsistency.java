@@ -0,0 +1,82 @@
+package chief.digital.bookssystem.util;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.regex.Pattern;
+
+/**
+ * The WAL position a read of the current request must observe, taken from the consistency token
+ * that write responses return. {@link ReplicaRoutingDataSource} only routes such a read to a replica
+ * that has replayed up to that position.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class ReadConsistency {
+
+    public static final String CONSISTENCY_TOKEN_HEADER = "X-Consistency-Token";
+
+    /**
+     * The highest LSN; no replica replays up to it.
+     */
+    private static final long MAX_LSN = -1L;
+
+    private static final Pattern LSN_PATTERN = Pattern.compile("[0-9A-Fa-f]{1,8}/[0-9A-Fa-f]{1,8}");
+    private static final ThreadLocal<Long> MIN_LSN = new ThreadLocal<>();
+
+    /**
+     * A token that is not an LSN cannot be checked against the replicas, so it sends the read to the primary.
+     */
+    public static void require(String token) {
+        MIN_LSN.set(LSN_PATTERN.matcher(token).matches() ? parseLsn(token) : MAX_LSN);
+    }
+
+    public static Long getMinLsn() {
+        return MIN_LSN.get();
+    }
+
+    /**
+     * @return whether the reads of the current request can only be sent to the primary
+     */
+    public static boolean isPrimaryRequired() {
+        return Objects.equals(MIN_LSN.get(), MAX_LSN);
+    }
+
+    /**
+     * Runs the call with its reads sent to the primary, then restores the requirement of the current request.
+     */
+    public static <T> T onPrimary(Callable<T> call) throws Exception {
+        Long minLsn = MIN_LSN.get();
+        MIN_LSN.set(MAX_LSN);
+        try {
+            return call.call();
+        } finally {
+            if (Objects.isNull(minLsn)) {
+                MIN_LSN.remove();
+            } else {
+                MIN_LSN.set(minLsn);
+            }
+        }
+    }
+
+    public static void clear() {
+        MIN_LSN.remove();
+    }
+
+    /**
+     * Converts an LSN in the {@code pg_lsn} text form {@code XXXXXXXX/XXXXXXXX} to its 64-bit value.
+     * LSNs are unsigned, so they are compared with {@link #isReplayed(long, long)}.
+     */
+    public static long parseLsn(String lsn) {
+        if (Objects.isNull(lsn)) {
+            return 0;
+        }
+        int separator = lsn.indexOf('/');
+        return Long.parseLong(lsn.substring(0, separator), 16) << 32 | Long.parseLong(lsn.substring(separator + 1), 16);
+    }
+
+    public static boolean isReplayed(long lsn, long replayedLsn) {
+        return Long.compareUnsigned(replayedLsn, lsn) >= 0;
+    }
+}
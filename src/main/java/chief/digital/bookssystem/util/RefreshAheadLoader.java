@@ -0,0 +1,65 @@
+package chief.digital.bookssystem.util;
+
+import chief.digital.bookssystem.service.EntityLoader;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Reloads cache entries due for refresh on a bounded executor through the {@link EntityLoader} of the cache,
+ * from the primary if the {@link CacheFillGuard} of the cache saw the key evicted recently.
+ * Missing entries are never loaded here: the cache is only read with {@code getIfPresent} and filled by the
+ * cached lookup itself. A refresh that the executor
+ * rejects drops the entry, so that it is loaded by its next reader instead of being served past its refresh.
+ */
+public class RefreshAheadLoader implements CacheLoader<Object, Object> {
+
+    private final Supplier<EntityLoader> entityLoaderSupplier;
+    private final Executor executor;
+    private final CacheFillGuard guard;
+    private volatile EntityLoader entityLoader;
+
+    public RefreshAheadLoader(Supplier<EntityLoader> entityLoaderSupplier, Executor executor, CacheFillGuard guard) {
+        this.entityLoaderSupplier = entityLoaderSupplier;
+        this.executor = executor;
+        this.guard = guard;
+    }
+
+    @Override
+    public Object load(Object key) {
+        return null;
+    }
+
+    @Override
+    public CompletableFuture<Object> asyncReload(Object key, Object oldValue, Executor ignored) {
+        try {
+            return CompletableFuture.supplyAsync(() -> reload((Long) key), executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    private Object reload(Long key) {
+        try {
+            return guard.load(key, () -> getEntityLoader().loadById(key));
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Resolved on first use: the loaders are the services, which themselves depend on the caches.
+     */
+    private EntityLoader getEntityLoader() {
+        if (Objects.isNull(entityLoader)) {
+            entityLoader = entityLoaderSupplier.get();
+        }
+        return entityLoader;
+    }
+}
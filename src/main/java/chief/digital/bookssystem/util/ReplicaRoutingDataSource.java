@@ -0,0 +1,197 @@
+package chief.digital.bookssystem.util;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends connections of read-only transactions to the replicas in turn and everything else to the primary.
+ * Replicas are checked in the background; one that is down or lags more than {@code maxLag} behind the primary
+ * gets no reads until a later check passes, and while no replica is usable reads go to the primary.
+ * A read that requires a WAL position ({@link ReadConsistency}) only goes to a replica that has replayed it.
+ * <p>
+ * The transaction is known to be read-only only after the connection has been requested, so the routing
+ * data source has to be wrapped into a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements InitializingBean, Closeable {
+
+    /**
+     * A server that is not in recovery, e.g. a stand-in replica in tests, has all of its own WAL.
+     */
+    private static final String REPLAYED_LSN =
+            "CASE WHEN pg_is_in_recovery() THEN pg_last_wal_replay_lsn() ELSE pg_current_wal_lsn() END";
+
+    private static final String CHECK_REPLICA_SQL = """
+            SELECT CASE
+                       WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                       ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+                   END AS lag_millis,
+                   CAST(%s AS text) AS replayed_lsn
+            """.formatted(REPLAYED_LSN);
+
+    private static final String REPLAYED_LSN_SQL = "SELECT CAST(" + REPLAYED_LSN + " AS text)";
+
+    private final HikariDataSource primary;
+    private final List<Replica> replicas;
+    private final Duration maxLag;
+    private final Duration checkInterval;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "replica-health-check");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas,
+                                    Duration maxLag, Duration checkInterval) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.maxLag = maxLag;
+        this.checkInterval = checkInterval;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!replicas.isEmpty()) {
+            scheduler.scheduleWithFixedDelay(this::checkReplicas, 0, checkInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return getConnection(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return getConnection(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    /**
+     * Marks each replica healthy if it answers and its replay lag is within {@code maxLag}, unhealthy otherwise.
+     */
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(CHECK_REPLICA_SQL)) {
+                resultSet.next();
+                long lagMillis = resultSet.getLong("lag_millis");
+                replica.replayed(ReadConsistency.parseLsn(resultSet.getString("replayed_lsn")));
+                if (lagMillis > maxLag.toMillis()) {
+                    replica.markUnhealthy("replication lag is " + lagMillis + " ms");
+                } else {
+                    replica.markHealthy();
+                }
+            } catch (SQLException e) {
+                replica.markUnhealthy(e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        replicas.forEach(replica -> replica.dataSource.close());
+    }
+
+    private Connection getConnection(ConnectionSource source) throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || ReadConsistency.isPrimaryRequired()) {
+            return source.get(primary);
+        }
+
+        List<Replica> healthy = replicas.stream().filter(replica -> replica.healthy).toList();
+        Long minLsn = ReadConsistency.getMinLsn();
+        int first = healthy.isEmpty() ? 0 : Math.floorMod(next.getAndIncrement(), healthy.size());
+        for (int i = 0; i < healthy.size(); i++) {
+            Replica replica = healthy.get((first + i) % healthy.size());
+            try {
+                Connection connection = source.get(replica.dataSource);
+                try {
+                    if (Objects.isNull(minLsn) || replica.hasReplayed(minLsn, connection)) {
+                        return connection;
+                    }
+                } catch (SQLException | RuntimeException e) {
+                    // the connection goes back to the pool on every path but the one returning it
+                    connection.close();
+                    throw e;
+                }
+                connection.close();
+            } catch (SQLException e) {
+                replica.markUnhealthy(e.getMessage());
+            }
+        }
+
+        return source.get(primary);
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+
+        Connection get(DataSource dataSource) throws SQLException;
+    }
+
+    private static class Replica {
+
+        private final HikariDataSource dataSource;
+        private volatile boolean healthy;
+        private final AtomicLong replayedLsn = new AtomicLong();
+
+        private Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        /**
+         * Replay only moves forward, so a position known to be replayed needs no query.
+         */
+        private boolean hasReplayed(long lsn, Connection connection) throws SQLException {
+            if (ReadConsistency.isReplayed(lsn, replayedLsn.get())) {
+                return true;
+            }
+
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(REPLAYED_LSN_SQL)) {
+                resultSet.next();
+                replayed(ReadConsistency.parseLsn(resultSet.getString(1)));
+            }
+            return ReadConsistency.isReplayed(lsn, replayedLsn.get());
+        }
+
+        private void replayed(long lsn) {
+            replayedLsn.accumulateAndGet(lsn,
+                    (current, replayed) -> ReadConsistency.isReplayed(replayed, current) ? current : replayed);
+        }
+
+        private void markHealthy() {
+            if (!healthy) {
+                log.info("Replica {} is available for reads", dataSource.getJdbcUrl());
+            }
+            healthy = true;
+        }
+
+        private void markUnhealthy(String reason) {
+            if (healthy) {
+                log.warn("Replica {} is excluded from reads: {}", dataSource.getJdbcUrl(), reason);
+            }
+            healthy = false;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package chief.digital.bookssystem.util;
+
+import chief.digital.bookssystem.config.PagingProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Estimates table sizes from the planner statistics in {@code pg_class.reltuples} instead of
+ * scanning the table, and keeps each estimate for {@link PagingProperties#getEstimateTtl()}.
+ */
+@Component
+@RequiredArgsConstructor
+public class RowCountEstimator {
+
+    private static final String ESTIMATE_SQL = "SELECT reltuples::bigint FROM pg_class WHERE oid = to_regclass(?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PagingProperties pagingProperties;
+    private final Clock clock = Clock.systemUTC();
+    private final Map<String, Estimate> estimates = new ConcurrentHashMap<>();
+
+    /**
+     * @param table         name of the table to estimate
+     * @param exactFallback used while the table has never been analyzed and has no statistics yet
+     */
+    public long estimate(String table, LongSupplier exactFallback) {
+        Instant now = clock.instant();
+        Estimate estimate = estimates.get(table);
+        if (Objects.nonNull(estimate) && now.isBefore(estimate.expiresAt())) {
+            return estimate.rows();
+        }
+
+        Long reltuples = jdbcTemplate.queryForObject(ESTIMATE_SQL, Long.class, table);
+        long rows = Objects.nonNull(reltuples) && reltuples >= 0 ? reltuples : exactFallback.getAsLong();
+
+        estimates.put(table, new Estimate(rows, now.plus(pagingProperties.getEstimateTtl())));
+        return rows;
+    }
+
+    private record Estimate(long rows, Instant expiresAt) {
+    }
+}
@@ -0,0 +1,147 @@
+package chief.digital.bookssystem.util;
+
+import chief.digital.bookssystem.model.enums.ExportFormat;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.LongConsumer;
+
+/**
+ * Writes the rows of a result set to a stream as they are read, one NDJSON object or CSV line per row,
+ * so that only one row is held in memory at a time. Column labels become the field names and the CSV header.
+ */
+@Component
+@RequiredArgsConstructor
+public class RowExporter {
+
+    private static final String CSV_SPECIAL_CHARACTERS = ",\"\r\n";
+    private static final int PROGRESS_INTERVAL = 10_000;
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * @return an extractor that writes the rows and returns their number
+     */
+    public ResultSetExtractor<Long> writerOf(ExportFormat format, OutputStream outputStream) {
+        return writerOf(format, outputStream, rows -> {
+        });
+    }
+
+    /**
+     * @param progressListener told the number of rows written so far every {@value #PROGRESS_INTERVAL} rows
+     * @return an extractor that writes the rows and returns their number
+     */
+    public ResultSetExtractor<Long> writerOf(ExportFormat format, OutputStream outputStream,
+                                             LongConsumer progressListener) {
+        return resultSet -> {
+            try {
+                return switch (format) {
+                    case NDJSON -> writeNdjson(resultSet, outputStream, progressListener);
+                    case CSV -> writeCsv(resultSet, outputStream, progressListener);
+                };
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    private long writeNdjson(ResultSet resultSet, OutputStream outputStream, LongConsumer progressListener)
+            throws SQLException, IOException {
+        List<String> labels = labelsOf(resultSet);
+        long rows = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            while (resultSet.next()) {
+                generator.writeStartObject();
+                for (int i = 0; i < labels.size(); i++) {
+                    generator.writeFieldName(labels.get(i));
+                    generator.writeObject(valueOf(resultSet, i + 1));
+                }
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+                reportProgress(++rows, progressListener);
+            }
+        }
+        return rows;
+    }
+
+    private long writeCsv(ResultSet resultSet, OutputStream outputStream, LongConsumer progressListener)
+            throws SQLException, IOException {
+        List<String> labels = labelsOf(resultSet);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        writeCsvLine(writer, labels);
+
+        long rows = 0;
+        List<Object> values = new ArrayList<>(labels.size());
+        while (resultSet.next()) {
+            values.clear();
+            for (int i = 1; i <= labels.size(); i++) {
+                values.add(valueOf(resultSet, i));
+            }
+            writeCsvLine(writer, values);
+            reportProgress(++rows, progressListener);
+        }
+        writer.flush();
+        return rows;
+    }
+
+    private static void reportProgress(long rows, LongConsumer progressListener) {
+        if (rows % PROGRESS_INTERVAL == 0) {
+            progressListener.accept(rows);
+        }
+    }
+
+    private static void writeCsvLine(Writer writer, List<?> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(toCsvField(values.get(i)));
+        }
+        writer.write('\n');
+    }
+
+    private static String toCsvField(Object value) {
+        if (Objects.isNull(value)) {
+            return "";
+        }
+        String field = value.toString();
+        boolean quoted = field.chars().anyMatch(c -> CSV_SPECIAL_CHARACTERS.indexOf(c) >= 0);
+        return quoted ? '"' + field.replace("\"", "\"\"") + '"' : field;
+    }
+
+    private static List<String> labelsOf(ResultSet resultSet) throws SQLException {
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        List<String> labels = new ArrayList<>(metaData.getColumnCount());
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            labels.add(metaData.getColumnLabel(i));
+        }
+        return labels;
+    }
+
+    /**
+     * Times are written like the responses of the API write them.
+     */
+    private static Object valueOf(ResultSet resultSet, int column) throws SQLException {
+        Object value = resultSet.getObject(column);
+        return value instanceof Time time ? time.toLocalTime() : value;
+    }
+}
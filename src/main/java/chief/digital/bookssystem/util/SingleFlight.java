@@ -0,0 +1,25 @@
+package chief.digital.bookssystem.util;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Coalesces concurrent calls of the annotated method with equal arguments: only the first one runs, the others
+ * wait for it and share its result or exception. Runs inside the caching advice, so only cache misses are
+ * coalesced, and outside the transaction advice, so the waiting calls hold no connection.
+ *
+ * @see SingleFlightAspect
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SingleFlight {
+
+    /**
+     * Name of the calls in the {@code single.flight.calls} metric.
+     */
+    String value();
+}
@@ -0,0 +1,79 @@
+package chief.digital.bookssystem.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Runs {@link SingleFlight} methods once per set of concurrent calls with equal arguments and counts the calls
+ * that ran ({@code result=executed}) and the ones that shared another call's result ({@code result=coalesced}).
+ * A read that requires a consistency token always runs on its own, since the running call may read from a
+ * replica that has not replayed the token's write.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@RequiredArgsConstructor
+public class SingleFlightAspect {
+
+    private static final String CALLS_METRIC = "single.flight.calls";
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<Flight, CompletableFuture<Object>> flights = new ConcurrentHashMap<>();
+
+    @Around("@annotation(singleFlight)")
+    public Object coalesce(ProceedingJoinPoint joinPoint, SingleFlight singleFlight) throws Throwable {
+        if (Objects.nonNull(ReadConsistency.getMinLsn())) {
+            return joinPoint.proceed();
+        }
+
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Flight flight = new Flight(method, Arrays.asList(joinPoint.getArgs()));
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        CompletableFuture<Object> running = flights.putIfAbsent(flight, result);
+
+        if (Objects.nonNull(running)) {
+            counter(singleFlight, "coalesced").increment();
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw e.getCause();
+            }
+        }
+
+        counter(singleFlight, "executed").increment();
+        try {
+            Object value = joinPoint.proceed();
+            result.complete(value);
+            return value;
+        } catch (Throwable e) {
+            result.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(flight, result);
+        }
+    }
+
+    private Counter counter(SingleFlight singleFlight, String result) {
+        return meterRegistry.counter(CALLS_METRIC, "name", singleFlight.value(), "result", result);
+    }
+
+    private record Flight(Method method, List<Object> args) {
+    }
+}
@@ -0,0 +1,115 @@
+package chief.digital.bookssystem.benchmark;
+
+import chief.digital.bookssystem.integration.BaseIntegrationTest;
+import chief.digital.bookssystem.model.entity.Book;
+import chief.digital.bookssystem.model.entity.Library;
+import chief.digital.bookssystem.repository.BookRepository;
+import chief.digital.bookssystem.repository.LibraryRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares book insert throughput of the former {@code IDENTITY} ID strategy, which costs one
+ * {@code INSERT ... RETURNING id} round trip per row, with the pooled-lo sequence strategy,
+ * which lets Hibernate send JDBC batches.
+ * <p>
+ * Run with {@code ./gradlew benchmark}.
+ */
+@Slf4j
+@Tag("benchmark")
+@TestPropertySource(properties = "spring.jpa.show-sql=false")
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+class InsertThroughputBenchmark extends BaseIntegrationTest {
+
+    private static final int WARM_UP_ROWS = 1_000;
+    private static final int MEASURED_ROWS = 10_000;
+    private static final int BATCH_SIZE = 50;
+
+    private static final String INSERT_BOOK_RETURNING_ID_SQL = """
+            INSERT INTO books(title, description, author, genre, publication_year, library_id)
+            VALUES (?, ?, ?, ?, ?, ?)
+            RETURNING id
+            """;
+
+    private final BookRepository bookRepository;
+    private final LibraryRepository libraryRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+
+    @Test
+    @DisplayName("Insert throughput: IDENTITY round trips vs pooled sequence batches")
+    void compareInsertThroughput() {
+        Library library = libraryRepository.findFirstByOrderByIdAsc().get();
+        long booksCount = bookRepository.count();
+
+        measure("identity-warm-up", WARM_UP_ROWS, rows -> insertOneByOne(library, "identity-warm-up", rows));
+        measure("sequence-warm-up", WARM_UP_ROWS, rows -> insertBatched(library, "sequence-warm-up", rows));
+
+        double identityRowsPerSecond = measure("identity", MEASURED_ROWS,
+                rows -> insertOneByOne(library, "identity", rows));
+        double sequenceRowsPerSecond = measure("sequence", MEASURED_ROWS,
+                rows -> insertBatched(library, "sequence", rows));
+
+        log.info("Insert throughput: IDENTITY {} rows/s, pooled sequence {} rows/s ({}x)",
+                Math.round(identityRowsPerSecond),
+                Math.round(sequenceRowsPerSecond),
+                String.format("%.1f", sequenceRowsPerSecond / identityRowsPerSecond));
+
+        assertThat(bookRepository.count()).isEqualTo(booksCount + 2L * (WARM_UP_ROWS + MEASURED_ROWS));
+    }
+
+    private double measure(String name, int rows, IntConsumer insert) {
+        long start = System.nanoTime();
+        insert.accept(rows);
+        entityManager.flush();
+        entityManager.clear();
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        log.info("{}: {} rows in {} ms", name, rows, Math.round(seconds * 1000));
+        return rows / seconds;
+    }
+
+    private void insertOneByOne(Library library, String prefix, int rows) {
+        for (int i = 0; i < rows; i++) {
+            jdbcTemplate.queryForObject(INSERT_BOOK_RETURNING_ID_SQL, Long.class,
+                    prefix + "-" + i, "description", "author", "genre", 2000, library.getId());
+        }
+    }
+
+    private void insertBatched(Library library, String prefix, int rows) {
+        Library libraryReference = libraryRepository.getReferenceById(library.getId());
+        List<Book> books = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < rows; i++) {
+            books.add(Book.builder()
+                    .title(prefix + "-" + i)
+                    .description("description")
+                    .author("author")
+                    .genre("genre")
+                    .publicationYear(2000)
+                    .library(libraryReference)
+                    .build());
+
+            if (books.size() == BATCH_SIZE) {
+                bookRepository.saveAll(books);
+                entityManager.flush();
+                entityManager.clear();
+                libraryReference = libraryRepository.getReferenceById(library.getId());
+                books.clear();
+            }
+        }
+        bookRepository.saveAll(books);
+    }
+}
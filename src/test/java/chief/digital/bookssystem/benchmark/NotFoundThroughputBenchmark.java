@@ -0,0 +1,107 @@
+package chief.digital.bookssystem.benchmark;
+
+import chief.digital.bookssystem.config.ErrorLoggingProperties;
+import chief.digital.bookssystem.exception.EntityNotFoundException;
+import chief.digital.bookssystem.handler.GlobalExceptionHandler;
+import chief.digital.bookssystem.integration.BaseIntegrationTest;
+import chief.digital.bookssystem.model.entity.Book;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.function.IntConsumer;
+
+import static chief.digital.bookssystem.controller.BookController.BOOK_API_PATH;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Compares the cost of answering 404 the former way, with an exception that fills in its stack trace and
+ * a warning logged with it every time, with the stackless exception and rate-limited logging, and measures
+ * the throughput of 404 responses end to end.
+ * <p>
+ * Run with {@code ./gradlew benchmark}.
+ */
+@Slf4j
+@Tag("benchmark")
+@AutoConfigureMockMvc
+@TestPropertySource(properties = "spring.jpa.show-sql=false")
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+class NotFoundThroughputBenchmark extends BaseIntegrationTest {
+
+    private static final int WARM_UP_ERRORS = 1_000;
+    private static final int MEASURED_ERRORS = 5_000;
+    private static final long MISSING_ID = 987_654_321L;
+    private static final Logger HANDLER_LOG = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+
+    private final MockMvc mockMvc;
+
+    @Test
+    @DisplayName("404 throughput: stack traces logged every time vs stackless and rate limited")
+    void compareNotFoundThroughput() {
+        GlobalExceptionHandler handler = new GlobalExceptionHandler(new ErrorLoggingProperties());
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", BOOK_API_PATH + "/" + MISSING_ID);
+
+        measure("logged-warm-up", WARM_UP_ERRORS, errors -> handleLogged(handler, request, errors));
+        measure("stackless-warm-up", WARM_UP_ERRORS, errors -> handleStackless(handler, request, errors));
+
+        double loggedErrorsPerSecond = measure("logged", MEASURED_ERRORS,
+                errors -> handleLogged(handler, request, errors));
+        double stacklessErrorsPerSecond = measure("stackless", MEASURED_ERRORS,
+                errors -> handleStackless(handler, request, errors));
+
+        measure("requests-warm-up", WARM_UP_ERRORS, this::requestMissingBook);
+        double requestsPerSecond = measure("requests", MEASURED_ERRORS, this::requestMissingBook);
+
+        log.info("404 handling: stack trace logged {} errors/s, stackless rate limited {} errors/s ({}x); "
+                        + "end to end {} requests/s",
+                Math.round(loggedErrorsPerSecond),
+                Math.round(stacklessErrorsPerSecond),
+                String.format("%.1f", stacklessErrorsPerSecond / loggedErrorsPerSecond),
+                Math.round(requestsPerSecond));
+    }
+
+    private double measure(String name, int errors, IntConsumer handle) {
+        long start = System.nanoTime();
+        handle.accept(errors);
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        log.info("{}: {} errors in {} ms", name, errors, Math.round(seconds * 1000));
+        return errors / seconds;
+    }
+
+    private void handleLogged(GlobalExceptionHandler handler, MockHttpServletRequest request, int errors) {
+        for (int i = 0; i < errors; i++) {
+            RuntimeException exception = new RuntimeException(
+                    String.format("%s with ID %s was not found", Book.class.getSimpleName(), MISSING_ID));
+            HANDLER_LOG.warn(exception.getMessage(), exception);
+            handler.handleEntityNotFoundException(exception, request);
+        }
+    }
+
+    private void handleStackless(GlobalExceptionHandler handler, MockHttpServletRequest request, int errors) {
+        for (int i = 0; i < errors; i++) {
+            handler.handleEntityNotFoundException(new EntityNotFoundException(Book.class, MISSING_ID), request);
+        }
+    }
+
+    private void requestMissingBook(int requests) {
+        for (int i = 0; i < requests; i++) {
+            try {
+                mockMvc.perform(get(BOOK_API_PATH + "/" + MISSING_ID))
+                        .andExpect(status().isNotFound());
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
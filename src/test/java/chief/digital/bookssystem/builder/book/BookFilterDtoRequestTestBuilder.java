@@ -0,0 +1,36 @@
+package chief.digital.bookssystem.builder.book;
+
+import chief.digital.bookssystem.builder.TestBuilder;
+import chief.digital.bookssystem.model.dto.request.BookFilterDtoRequest;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.With;
+
+import java.util.List;
+
+@With
+@AllArgsConstructor
+@NoArgsConstructor(staticName = "aBookFilterDtoRequest")
+public class BookFilterDtoRequestTestBuilder implements TestBuilder<BookFilterDtoRequest> {
+
+    private List<String> genre = null;
+
+    private List<String> author = null;
+
+    private Integer yearFrom = null;
+
+    private Integer yearTo = null;
+
+    private Long libraryId = null;
+
+    @Override
+    public BookFilterDtoRequest build() {
+        return BookFilterDtoRequest.builder()
+                .genre(genre)
+                .author(author)
+                .yearFrom(yearFrom)
+                .yearTo(yearTo)
+                .libraryId(libraryId)
+                .build();
+    }
+}
@@ -3,7 +3,6 @@ package chief.digital.bookssystem.builder.library;
 import chief.digital.bookssystem.builder.TestBuilder;
 import chief.digital.bookssystem.model.entity.Book;
 import chief.digital.bookssystem.model.entity.Library;
-import chief.digital.bookssystem.model.entity.User;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 import lombok.With;
@@ -35,8 +34,6 @@ public class LibraryTestBuilder implements TestBuilder<Library> {
 
     private List<Book> books = new ArrayList<>();
 
-    private List<User> users = new ArrayList<>();
-
     @Override
     public Library build() {
         return Library.builder()
@@ -47,7 +44,6 @@ public class LibraryTestBuilder implements TestBuilder<Library> {
                 .openingTime(openingTime)
                 .closingTime(closingTime)
                 .books(books)
-                .users(users)
                 .build();
     }
 }
@@ -0,0 +1,26 @@
+package chief.digital.bookssystem.builder.library;
+
+import chief.digital.bookssystem.builder.TestBuilder;
+import chief.digital.bookssystem.model.dto.request.LibraryUsersDtoRequest;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.With;
+
+import java.util.List;
+
+import static chief.digital.bookssystem.util.TestConstants.TEST_ID;
+
+@With
+@AllArgsConstructor
+@NoArgsConstructor(staticName = "aLibraryUsersDtoRequest")
+public class LibraryUsersDtoRequestTestBuilder implements TestBuilder<LibraryUsersDtoRequest> {
+
+    private List<Long> usersIds = List.of(TEST_ID);
+
+    @Override
+    public LibraryUsersDtoRequest build() {
+        return LibraryUsersDtoRequest.builder()
+                .usersIds(usersIds)
+                .build();
+    }
+}
@@ -0,0 +1,31 @@
+package chief.digital.bookssystem.builder.library;
+
+import chief.digital.bookssystem.builder.TestBuilder;
+import chief.digital.bookssystem.model.dto.response.LibraryUsersDtoResponse;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.With;
+
+import static chief.digital.bookssystem.util.TestConstants.TEST_ID;
+import static chief.digital.bookssystem.util.TestConstants.TEST_INT;
+
+@With
+@AllArgsConstructor
+@NoArgsConstructor(staticName = "aLibraryUsersDtoResponse")
+public class LibraryUsersDtoResponseTestBuilder implements TestBuilder<LibraryUsersDtoResponse> {
+
+    private Long libraryId = TEST_ID;
+
+    private Integer added = TEST_INT;
+
+    private Integer removed = TEST_INT;
+
+    @Override
+    public LibraryUsersDtoResponse build() {
+        return LibraryUsersDtoResponse.builder()
+                .libraryId(libraryId)
+                .added(added)
+                .removed(removed)
+                .build();
+    }
+}
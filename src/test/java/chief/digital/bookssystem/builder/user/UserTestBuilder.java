@@ -1,15 +1,11 @@
 package chief.digital.bookssystem.builder.user;
 
 import chief.digital.bookssystem.builder.TestBuilder;
-import chief.digital.bookssystem.model.entity.Library;
 import chief.digital.bookssystem.model.entity.User;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 import lombok.With;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import static chief.digital.bookssystem.util.TestConstants.TEST_EMAIL;
 import static chief.digital.bookssystem.util.TestConstants.TEST_ID;
 import static chief.digital.bookssystem.util.TestConstants.TEST_STRING;
@@ -29,8 +25,6 @@ public class UserTestBuilder implements TestBuilder<User> {
 
     private String email = TEST_EMAIL;
 
-    private List<Library> libraries = new ArrayList<>();
-
     @Override
     public User build() {
         return User.builder()
@@ -39,7 +33,6 @@ public class UserTestBuilder implements TestBuilder<User> {
                 .firstName(firstName)
                 .lastName(lastName)
                 .email(email)
-                .libraries(libraries)
                 .build();
     }
 }
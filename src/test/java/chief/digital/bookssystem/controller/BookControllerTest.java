@@ -2,10 +2,16 @@ package chief.digital.bookssystem.controller;
 
 import chief.digital.bookssystem.builder.book.BookDtoRequestTestBuilder;
 import chief.digital.bookssystem.builder.book.BookDtoResponseTestBuilder;
+import chief.digital.bookssystem.builder.book.BookFilterDtoRequestTestBuilder;
 import chief.digital.bookssystem.exception.EntityNotFoundException;
+import chief.digital.bookssystem.exception.InvalidRequestException;
 import chief.digital.bookssystem.model.dto.request.BookDtoRequest;
+import chief.digital.bookssystem.model.dto.request.BookFilterDtoRequest;
 import chief.digital.bookssystem.model.dto.response.BookDtoResponse;
+import chief.digital.bookssystem.model.dto.response.BookImportDtoResponse;
 import chief.digital.bookssystem.model.dto.response.PageResponse;
+import chief.digital.bookssystem.model.enums.BookImportStatus;
+import chief.digital.bookssystem.service.BookImportService;
 import chief.digital.bookssystem.service.BookService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -33,11 +39,13 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 
 @ExtendWith(MockitoExtension.class)
 class BookControllerTest {
@@ -48,16 +56,20 @@ class BookControllerTest {
     @Mock
     private BookService bookService;
 
+    @Mock
+    private BookImportService bookImportService;
+
     @Captor
     ArgumentCaptor<BookDtoRequest> bookDtoRequestCaptor;
 
     private final BookDtoRequest bookDtoRequest = BookDtoRequestTestBuilder.aBookDtoRequest().build();
+    private final BookFilterDtoRequest emptyFilter = BookFilterDtoRequestTestBuilder.aBookFilterDtoRequest().build();
     private final BookDtoResponse expectedBookDtoResponse = BookDtoResponseTestBuilder.aBookDtoResponse().build();
     private final Pageable pageable = PageRequest.of(TEST_PAGE, TEST_PAGE_SIZE);
 
     @BeforeEach
     void setUp() {
-        bookController = new BookController(bookService);
+        bookController = new BookController(bookService, bookImportService);
     }
 
     @Nested
@@ -101,11 +113,11 @@ class BookControllerTest {
                 .numberOfElements(1)
                 .build();
 
-        doReturn(pageResponse).when(bookService).findAll(pageable);
+        doReturn(pageResponse).when(bookService).findAll(emptyFilter, pageable, null, false);
 
-        var actualBooks = bookController.findAll(pageable);
+        var actualBooks = bookController.findAll(pageable, emptyFilter, null, null, false, "exact", false);
 
-        verify(bookService).findAll(any());
+        verify(bookService).findAll(any(), any(), any(), anyBoolean());
 
         assertAll(
                 () -> assertThat(actualBooks.getStatusCode()).isEqualTo(HttpStatus.OK),
@@ -115,6 +127,15 @@ class BookControllerTest {
         );
     }
 
+    @Test
+    @DisplayName("Find all Books by cursor with total; invalid request")
+    void checkFindAllAfterWithTotalShouldThrowInvalidRequestException() {
+        assertThrows(InvalidRequestException.class,
+                () -> bookController.findAll(pageable, emptyFilter, null, "id", true, "exact", false));
+
+        verifyNoInteractions(bookService);
+    }
+
     @Nested
     public class FindByIdTest {
         @DisplayName("Find Book by ID")
@@ -123,7 +144,7 @@ class BookControllerTest {
         void checkFindByIdShouldReturnBookDtoResponse(Long id) {
             doReturn(expectedBookDtoResponse).when(bookService).findById(id);
 
-            var actualBook = bookController.findById(id);
+            var actualBook = bookController.findById(id, null);
 
             verify(bookService).findById(anyLong());
 
@@ -139,7 +160,7 @@ class BookControllerTest {
         void checkFindByIdShouldThrowBookNotFoundException() {
             doThrow(EntityNotFoundException.class).when(bookService).findById(anyLong());
 
-            assertThrows(EntityNotFoundException.class, () -> bookController.findById(TEST_ID));
+            assertThrows(EntityNotFoundException.class, () -> bookController.findById(TEST_ID, null));
 
             verify(bookService).findById(anyLong());
         }
@@ -151,11 +172,11 @@ class BookControllerTest {
         @ParameterizedTest
         @ValueSource(longs = {1L, 2L, 3L})
         void checkUpdateShouldReturnBookDtoResponse(Long id) {
-            doReturn(expectedBookDtoResponse).when(bookService).update(id, bookDtoRequest);
+            doReturn(expectedBookDtoResponse).when(bookService).update(id, bookDtoRequest, null);
 
-            var actualBook = bookController.update(id, bookDtoRequest);
+            var actualBook = bookController.update(id, bookDtoRequest, null);
 
-            verify(bookService).update(anyLong(), any());
+            verify(bookService).update(anyLong(), any(), any());
 
             assertAll(
                     () -> assertThat(actualBook.getStatusCode()).isEqualTo(HttpStatus.OK),
@@ -168,11 +189,11 @@ class BookControllerTest {
         @ParameterizedTest
         @ValueSource(longs = {1L, 2L, 3L})
         void checkUpdateWithArgumentCaptorShouldReturnBookDtoResponse(Long id) {
-            doReturn(expectedBookDtoResponse).when(bookService).update(id, bookDtoRequest);
+            doReturn(expectedBookDtoResponse).when(bookService).update(id, bookDtoRequest, null);
 
-            bookController.update(id, bookDtoRequest);
+            bookController.update(id, bookDtoRequest, null);
 
-            verify(bookService).update(anyLong(), bookDtoRequestCaptor.capture());
+            verify(bookService).update(anyLong(), bookDtoRequestCaptor.capture(), any());
 
             assertThat(bookDtoRequestCaptor.getValue()).isEqualTo(bookDtoRequest);
         }
@@ -180,13 +201,13 @@ class BookControllerTest {
         @Test
         @DisplayName("Update Book by ID; not found")
         void checkUpdateShouldThrowBookNotFoundException() {
-            doThrow(EntityNotFoundException.class).when(bookService).update(anyLong(), any());
+            doThrow(EntityNotFoundException.class).when(bookService).update(anyLong(), any(), any());
 
             assertThrows(EntityNotFoundException.class,
-                    () -> bookController.update(TEST_ID, bookDtoRequest)
+                    () -> bookController.update(TEST_ID, bookDtoRequest, null)
             );
 
-            verify(bookService).update(anyLong(), any());
+            verify(bookService).update(anyLong(), any(), any());
         }
     }
 
@@ -215,4 +236,27 @@ class BookControllerTest {
             verify(bookService).deleteById(anyLong());
         }
     }
+
+    @Nested
+    public class FindImportByIdTest {
+        @Test
+        @DisplayName("Find Book import by ID")
+        void checkFindImportByIdShouldReturnBookImportDtoResponse() {
+            BookImportDtoResponse expectedBookImport = BookImportDtoResponse.builder()
+                    .id(TEST_ID)
+                    .status(BookImportStatus.MERGING)
+                    .build();
+            doReturn(expectedBookImport).when(bookImportService).findById(TEST_ID);
+
+            var actualBookImport = bookController.findImportById(TEST_ID);
+
+            verify(bookImportService).findById(anyLong());
+
+            assertAll(
+                    () -> assertThat(actualBookImport.getStatusCode()).isEqualTo(HttpStatus.OK),
+                    () -> assertThat(Objects.requireNonNull(actualBookImport.getBody()).getData())
+                            .isEqualTo(expectedBookImport)
+            );
+        }
+    }
 }
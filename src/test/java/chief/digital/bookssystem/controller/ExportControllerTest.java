@@ -0,0 +1,94 @@
+package chief.digital.bookssystem.controller;
+
+import chief.digital.bookssystem.exception.InvalidRequestException;
+import chief.digital.bookssystem.model.dto.response.ExportJobDtoResponse;
+import chief.digital.bookssystem.model.enums.ExportFormat;
+import chief.digital.bookssystem.model.enums.ExportJobStatus;
+import chief.digital.bookssystem.model.enums.ExportType;
+import chief.digital.bookssystem.service.ExportJobService;
+import chief.digital.bookssystem.service.ExportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Objects;
+
+import static chief.digital.bookssystem.util.TestConstants.TEST_ID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class ExportControllerTest {
+
+    @InjectMocks
+    private ExportController exportController;
+
+    @Mock
+    private ExportService exportService;
+
+    @Mock
+    private ExportJobService exportJobService;
+
+    @BeforeEach
+    void setUp() {
+        exportController = new ExportController(exportService, exportJobService);
+    }
+
+    @Test
+    @DisplayName("Export Books as CSV")
+    void checkExportShouldStreamRows() throws Exception {
+        var actualExport = exportController.export("books", "csv");
+        Objects.requireNonNull(actualExport.getBody()).writeTo(new ByteArrayOutputStream());
+
+        verify(exportService).export(any(), any(), any());
+
+        assertAll(
+                () -> assertThat(actualExport.getStatusCode()).isEqualTo(HttpStatus.OK),
+                () -> assertThat(actualExport.getHeaders().getContentType())
+                        .isEqualTo(MediaType.parseMediaType(ExportFormat.CSV.getContentType())),
+                () -> assertThat(actualExport.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION))
+                        .contains("books.csv")
+        );
+    }
+
+    @Test
+    @DisplayName("Export Books in an unknown format; bad request")
+    void checkExportWithUnknownFormatShouldThrowInvalidRequestException() {
+        assertThrows(InvalidRequestException.class, () -> exportController.export(ExportType.BOOKS.getValue(), "xml"));
+
+        verifyNoInteractions(exportService);
+    }
+
+    @Test
+    @DisplayName("Start an export job of Users")
+    void checkSubmitJobShouldReturnExportJobDtoResponse() {
+        ExportJobDtoResponse expectedExportJob = ExportJobDtoResponse.builder()
+                .id(TEST_ID)
+                .type(ExportType.USERS)
+                .format(ExportFormat.NDJSON)
+                .status(ExportJobStatus.RUNNING)
+                .build();
+        doReturn(expectedExportJob).when(exportJobService).submit(ExportType.USERS, ExportFormat.NDJSON);
+
+        var actualExportJob = exportController.submitJob("users", "ndjson");
+
+        assertAll(
+                () -> assertThat(actualExportJob.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED),
+                () -> assertThat(Objects.requireNonNull(actualExportJob.getBody()).getData())
+                        .isEqualTo(expectedExportJob)
+        );
+    }
+}
@@ -2,11 +2,18 @@ package chief.digital.bookssystem.controller;
 
 import chief.digital.bookssystem.builder.library.LibraryDtoRequestTestBuilder;
 import chief.digital.bookssystem.builder.library.LibraryDtoResponseTestBuilder;
+import chief.digital.bookssystem.builder.library.LibraryUsersDtoRequestTestBuilder;
+import chief.digital.bookssystem.builder.library.LibraryUsersDtoResponseTestBuilder;
 import chief.digital.bookssystem.exception.EntityNotFoundException;
+import chief.digital.bookssystem.exception.InvalidRequestException;
 import chief.digital.bookssystem.model.dto.request.LibraryDtoRequest;
+import chief.digital.bookssystem.model.dto.request.LibraryUsersDtoRequest;
+import chief.digital.bookssystem.model.dto.response.LibraryDeletionDtoResponse;
 import chief.digital.bookssystem.model.dto.response.LibraryDtoResponse;
+import chief.digital.bookssystem.model.dto.response.LibraryUsersDtoResponse;
 import chief.digital.bookssystem.model.dto.response.PageResponse;
 import chief.digital.bookssystem.service.LibraryService;
+import chief.digital.bookssystem.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -33,11 +40,14 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 
 @ExtendWith(MockitoExtension.class)
 public class LibraryControllerTest {
@@ -48,6 +58,9 @@ public class LibraryControllerTest {
     @Mock
     private LibraryService libraryService;
 
+    @Mock
+    private UserService userService;
+
     @Captor
     ArgumentCaptor<LibraryDtoRequest> libraryDtoRequestCaptor;
 
@@ -57,7 +70,7 @@ public class LibraryControllerTest {
 
     @BeforeEach
     void setUp() {
-        libraryController = new LibraryController(libraryService);
+        libraryController = new LibraryController(libraryService, userService);
     }
 
     @Nested
@@ -101,11 +114,11 @@ public class LibraryControllerTest {
                 .numberOfElements(1)
                 .build();
 
-        doReturn(pageResponse).when(libraryService).findAll(pageable);
+        doReturn(pageResponse).when(libraryService).findAll(pageable, null, false);
 
-        var actualLibrary = libraryController.findAll(pageable);
+        var actualLibrary = libraryController.findAll(pageable, null, null, false, "exact", false);
 
-        verify(libraryService).findAll(any());
+        verify(libraryService).findAll(any(), any(), anyBoolean());
 
         assertAll(
                 () -> assertThat(actualLibrary.getStatusCode()).isEqualTo(HttpStatus.OK),
@@ -115,17 +128,26 @@ public class LibraryControllerTest {
         );
     }
 
+    @Test
+    @DisplayName("Find all Libraries by cursor with total; invalid request")
+    void checkFindAllAfterWithTotalShouldThrowInvalidRequestException() {
+        assertThrows(InvalidRequestException.class,
+                () -> libraryController.findAll(pageable, null, "id", true, "exact", false));
+
+        verifyNoInteractions(libraryService);
+    }
+
     @Nested
     public class FindByIdTest {
         @DisplayName("Find Library by ID")
         @ParameterizedTest
         @ValueSource(longs = {1L, 2L, 3L})
         void checkFindByIdShouldReturnLibraryDtoResponse(Long id) {
-            doReturn(expectedLibraryDtoResponse).when(libraryService).findById(id);
+            doReturn(expectedLibraryDtoResponse).when(libraryService).findById(id, false);
 
-            var actualLibrary = libraryController.findById(id);
+            var actualLibrary = libraryController.findById(id, false, null);
 
-            verify(libraryService).findById(anyLong());
+            verify(libraryService).findById(anyLong(), anyBoolean());
 
             assertAll(
                     () -> assertThat(actualLibrary.getStatusCode()).isEqualTo(HttpStatus.OK),
@@ -137,11 +159,11 @@ public class LibraryControllerTest {
         @Test
         @DisplayName("Find by ID; not found")
         void checkFindByIdShouldThrowLibraryNotFoundException() {
-            doThrow(EntityNotFoundException.class).when(libraryService).findById(anyLong());
+            doThrow(EntityNotFoundException.class).when(libraryService).findById(anyLong(), anyBoolean());
 
-            assertThrows(EntityNotFoundException.class, () -> libraryController.findById(TEST_ID));
+            assertThrows(EntityNotFoundException.class, () -> libraryController.findById(TEST_ID, false, null));
 
-            verify(libraryService).findById(anyLong());
+            verify(libraryService).findById(anyLong(), anyBoolean());
         }
     }
 
@@ -151,11 +173,11 @@ public class LibraryControllerTest {
         @ParameterizedTest
         @ValueSource(longs = {1L, 2L, 3L})
         void checkUpdateShouldReturnLibraryDtoResponse(Long id) {
-            doReturn(expectedLibraryDtoResponse).when(libraryService).update(id, libraryDtoRequest);
+            doReturn(expectedLibraryDtoResponse).when(libraryService).update(id, libraryDtoRequest, null);
 
-            var actualLibrary = libraryController.update(id, libraryDtoRequest);
+            var actualLibrary = libraryController.update(id, libraryDtoRequest, null);
 
-            verify(libraryService).update(anyLong(), any());
+            verify(libraryService).update(anyLong(), any(), any());
 
             assertAll(
                     () -> assertThat(actualLibrary.getStatusCode()).isEqualTo(HttpStatus.OK),
@@ -168,11 +190,11 @@ public class LibraryControllerTest {
         @ParameterizedTest
         @ValueSource(longs = {1L, 2L, 3L})
         void checkUpdateWithArgumentCaptorShouldReturnLibraryDtoResponse(Long id) {
-            doReturn(expectedLibraryDtoResponse).when(libraryService).update(id, libraryDtoRequest);
+            doReturn(expectedLibraryDtoResponse).when(libraryService).update(id, libraryDtoRequest, null);
 
-            libraryController.update(id, libraryDtoRequest);
+            libraryController.update(id, libraryDtoRequest, null);
 
-            verify(libraryService).update(anyLong(), libraryDtoRequestCaptor.capture());
+            verify(libraryService).update(anyLong(), libraryDtoRequestCaptor.capture(), any());
 
             assertThat(libraryDtoRequestCaptor.getValue()).isEqualTo(libraryDtoRequest);
         }
@@ -180,13 +202,13 @@ public class LibraryControllerTest {
         @Test
         @DisplayName("Update Library by ID; not found")
         void checkUpdateShouldThrowLibraryNotFoundException() {
-            doThrow(EntityNotFoundException.class).when(libraryService).update(anyLong(), any());
+            doThrow(EntityNotFoundException.class).when(libraryService).update(anyLong(), any(), any());
 
             assertThrows(EntityNotFoundException.class,
-                    () -> libraryController.update(TEST_ID, libraryDtoRequest)
+                    () -> libraryController.update(TEST_ID, libraryDtoRequest, null)
             );
 
-            verify(libraryService).update(anyLong(), any());
+            verify(libraryService).update(anyLong(), any(), any());
         }
     }
 
@@ -222,6 +244,63 @@ public class LibraryControllerTest {
         );
     }
 
+    @Test
+    @DisplayName("Add Users to Library by Users IDs")
+    void checkAddUsersByLibraryIdShouldReturnLibraryUsersDtoResponse() {
+        LibraryUsersDtoRequest libraryUsersDtoRequest = LibraryUsersDtoRequestTestBuilder.aLibraryUsersDtoRequest().build();
+        LibraryUsersDtoResponse expectedLibraryUsersDtoResponse = LibraryUsersDtoResponseTestBuilder.aLibraryUsersDtoResponse().build();
+
+        doReturn(expectedLibraryUsersDtoResponse).when(libraryService).addUsersByLibraryId(TEST_ID, libraryUsersDtoRequest);
+
+        var actualLibraryUsers = libraryController.addUsersByLibraryId(TEST_ID, libraryUsersDtoRequest);
+
+        verify(libraryService).addUsersByLibraryId(anyLong(), any());
+
+        assertAll(
+                () -> assertThat(actualLibraryUsers.getStatusCode()).isEqualTo(HttpStatus.OK),
+                () -> assertThat(Objects.requireNonNull(actualLibraryUsers.getBody()).getData())
+                        .isEqualTo(expectedLibraryUsersDtoResponse)
+        );
+    }
+
+    @Test
+    @DisplayName("Delete Users from Library by Users IDs")
+    void checkDeleteUsersByLibraryIdShouldReturnLibraryUsersDtoResponse() {
+        LibraryUsersDtoRequest libraryUsersDtoRequest = LibraryUsersDtoRequestTestBuilder.aLibraryUsersDtoRequest().build();
+        LibraryUsersDtoResponse expectedLibraryUsersDtoResponse = LibraryUsersDtoResponseTestBuilder.aLibraryUsersDtoResponse().build();
+
+        doReturn(expectedLibraryUsersDtoResponse).when(libraryService).deleteUsersByLibraryId(TEST_ID, libraryUsersDtoRequest);
+
+        var actualLibraryUsers = libraryController.deleteUsersByLibraryId(TEST_ID, libraryUsersDtoRequest);
+
+        verify(libraryService).deleteUsersByLibraryId(anyLong(), any());
+
+        assertAll(
+                () -> assertThat(actualLibraryUsers.getStatusCode()).isEqualTo(HttpStatus.OK),
+                () -> assertThat(Objects.requireNonNull(actualLibraryUsers.getBody()).getData())
+                        .isEqualTo(expectedLibraryUsersDtoResponse)
+        );
+    }
+
+    @Test
+    @DisplayName("Sync Users of Library to Users IDs")
+    void checkSyncUsersByLibraryIdShouldReturnLibraryUsersDtoResponse() {
+        LibraryUsersDtoRequest libraryUsersDtoRequest = LibraryUsersDtoRequestTestBuilder.aLibraryUsersDtoRequest().build();
+        LibraryUsersDtoResponse expectedLibraryUsersDtoResponse = LibraryUsersDtoResponseTestBuilder.aLibraryUsersDtoResponse().build();
+
+        doReturn(expectedLibraryUsersDtoResponse).when(libraryService).syncUsersByLibraryId(TEST_ID, libraryUsersDtoRequest);
+
+        var actualLibraryUsers = libraryController.syncUsersByLibraryId(TEST_ID, libraryUsersDtoRequest);
+
+        verify(libraryService).syncUsersByLibraryId(anyLong(), any());
+
+        assertAll(
+                () -> assertThat(actualLibraryUsers.getStatusCode()).isEqualTo(HttpStatus.OK),
+                () -> assertThat(Objects.requireNonNull(actualLibraryUsers.getBody()).getData())
+                        .isEqualTo(expectedLibraryUsersDtoResponse)
+        );
+    }
+
     @Nested
     public class DeleteByIdTest {
         @DisplayName("Delete Library by ID")
@@ -230,7 +309,7 @@ public class LibraryControllerTest {
         void checkDeleteByIdShouldReturnVoid(Long id) {
             doNothing().when(libraryService).deleteById(id);
 
-            var voidResponse = libraryController.deleteById(id);
+            var voidResponse = libraryController.deleteById(id, false);
 
             verify(libraryService).deleteById(anyLong());
 
@@ -242,9 +321,25 @@ public class LibraryControllerTest {
         void checkDeleteByIdShouldThrowLibraryNotFoundException() {
             doThrow(EntityNotFoundException.class).when(libraryService).deleteById(anyLong());
 
-            assertThrows(EntityNotFoundException.class, () -> libraryController.deleteById(TEST_ID));
+            assertThrows(EntityNotFoundException.class, () -> libraryController.deleteById(TEST_ID, false));
 
             verify(libraryService).deleteById(anyLong());
         }
+
+        @Test
+        @DisplayName("Delete Library by ID in the background")
+        void checkDeleteByIdAsyncShouldReturnLibraryDeletionDtoResponse() {
+            LibraryDeletionDtoResponse expectedDeletion = LibraryDeletionDtoResponse.builder().libraryId(TEST_ID).build();
+            doReturn(expectedDeletion).when(libraryService).deleteByIdAsync(TEST_ID);
+
+            var deletion = libraryController.deleteById(TEST_ID, true);
+
+            verify(libraryService, never()).deleteById(anyLong());
+
+            assertAll(
+                    () -> assertThat(deletion.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED),
+                    () -> assertThat(Objects.requireNonNull(deletion.getBody()).getData()).isEqualTo(expectedDeletion)
+            );
+        }
     }
 }
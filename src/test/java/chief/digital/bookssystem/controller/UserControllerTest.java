@@ -3,9 +3,12 @@ package chief.digital.bookssystem.controller;
 import chief.digital.bookssystem.builder.user.UserDtoRequestTestBuilder;
 import chief.digital.bookssystem.builder.user.UserDtoResponseTestBuilder;
 import chief.digital.bookssystem.exception.EntityNotFoundException;
+import chief.digital.bookssystem.exception.InvalidRequestException;
 import chief.digital.bookssystem.model.dto.request.UserDtoRequest;
 import chief.digital.bookssystem.model.dto.response.PageResponse;
 import chief.digital.bookssystem.model.dto.response.UserDtoResponse;
+import chief.digital.bookssystem.model.enums.UpsertStatus;
+import chief.digital.bookssystem.model.projection.Upserted;
 import chief.digital.bookssystem.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -38,6 +41,7 @@ import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 
 @ExtendWith(MockitoExtension.class)
 class UserControllerTest {
@@ -91,6 +95,33 @@ class UserControllerTest {
         }
     }
 
+    @Nested
+    public class UpsertTest {
+        @Test
+        @DisplayName("Upsert User; created")
+        void checkUpsertShouldReturnCreated() {
+            doReturn(new Upserted<>(expectedUserDtoResponse, UpsertStatus.CREATED)).when(userService).upsert(userDtoRequest);
+
+            var actualUser = userController.upsert(userDtoRequest);
+
+            assertAll(
+                    () -> assertThat(actualUser.getStatusCode()).isEqualTo(HttpStatus.CREATED),
+                    () -> assertThat(Objects.requireNonNull(actualUser.getBody()).getData())
+                            .isEqualTo(expectedUserDtoResponse)
+            );
+        }
+
+        @Test
+        @DisplayName("Upsert User; unchanged")
+        void checkUpsertShouldReturnOk() {
+            doReturn(new Upserted<>(expectedUserDtoResponse, UpsertStatus.UNCHANGED)).when(userService).upsert(userDtoRequest);
+
+            var actualUser = userController.upsert(userDtoRequest);
+
+            assertThat(actualUser.getStatusCode()).isEqualTo(HttpStatus.OK);
+        }
+    }
+
     @Test
     @DisplayName("Find all Users")
     void checkFindAllShouldReturnUserPage() {
@@ -101,11 +132,11 @@ class UserControllerTest {
                 .numberOfElements(1)
                 .build();
 
-        doReturn(pageResponse).when(userService).findAll(pageable);
+        doReturn(pageResponse).when(userService).findAll(pageable, null);
 
-        var actualUsers = userController.findAll(pageable);
+        var actualUsers = userController.findAll(pageable, null, null, false, "exact");
 
-        verify(userService).findAll(any());
+        verify(userService).findAll(any(), any());
 
         assertAll(
                 () -> assertThat(actualUsers.getStatusCode()).isEqualTo(HttpStatus.OK),
@@ -115,6 +146,15 @@ class UserControllerTest {
         );
     }
 
+    @Test
+    @DisplayName("Find all Users by cursor with total; invalid request")
+    void checkFindAllAfterWithTotalShouldThrowInvalidRequestException() {
+        assertThrows(InvalidRequestException.class,
+                () -> userController.findAll(pageable, null, "id", true, "exact"));
+
+        verifyNoInteractions(userService);
+    }
+
     @Nested
     public class FindByIdTest {
         @DisplayName("Find User by ID")
@@ -123,7 +163,7 @@ class UserControllerTest {
         void checkFindByIdShouldReturnUserDtoResponse(Long id) {
             doReturn(expectedUserDtoResponse).when(userService).findById(id);
 
-            var actualUser = userController.findById(id);
+            var actualUser = userController.findById(id, null);
 
             verify(userService).findById(anyLong());
 
@@ -139,7 +179,7 @@ class UserControllerTest {
         void checkFindByIdShouldThrowUserNotFoundException() {
             doThrow(EntityNotFoundException.class).when(userService).findById(anyLong());
 
-            assertThrows(EntityNotFoundException.class, () -> userController.findById(TEST_ID));
+            assertThrows(EntityNotFoundException.class, () -> userController.findById(TEST_ID, null));
 
             verify(userService).findById(anyLong());
         }
@@ -151,11 +191,11 @@ class UserControllerTest {
         @ParameterizedTest
         @ValueSource(longs = {1L, 2L, 3L})
         void checkUpdateShouldReturnUserDtoResponse(Long id) {
-            doReturn(expectedUserDtoResponse).when(userService).update(id, userDtoRequest);
+            doReturn(expectedUserDtoResponse).when(userService).update(id, userDtoRequest, null);
 
-            var actualUser = userController.update(id, userDtoRequest);
+            var actualUser = userController.update(id, userDtoRequest, null);
 
-            verify(userService).update(anyLong(), any());
+            verify(userService).update(anyLong(), any(), any());
 
             assertAll(
                     () -> assertThat(actualUser.getStatusCode()).isEqualTo(HttpStatus.OK),
@@ -168,11 +208,11 @@ class UserControllerTest {
         @ParameterizedTest
         @ValueSource(longs = {1L, 2L, 3L})
         void checkUpdateWithArgumentCaptorShouldReturnUserDtoResponse(Long id) {
-            doReturn(expectedUserDtoResponse).when(userService).update(id, userDtoRequest);
+            doReturn(expectedUserDtoResponse).when(userService).update(id, userDtoRequest, null);
 
-            userController.update(id, userDtoRequest);
+            userController.update(id, userDtoRequest, null);
 
-            verify(userService).update(anyLong(), userDtoRequestCaptor.capture());
+            verify(userService).update(anyLong(), userDtoRequestCaptor.capture(), any());
 
             assertThat(userDtoRequestCaptor.getValue()).isEqualTo(userDtoRequest);
         }
@@ -180,13 +220,13 @@ class UserControllerTest {
         @Test
         @DisplayName("Update User by ID; not found")
         void checkUpdateShouldThrowUserNotFoundException() {
-            doThrow(EntityNotFoundException.class).when(userService).update(anyLong(), any());
+            doThrow(EntityNotFoundException.class).when(userService).update(anyLong(), any(), any());
 
             assertThrows(EntityNotFoundException.class,
-                    () -> userController.update(TEST_ID, userDtoRequest)
+                    () -> userController.update(TEST_ID, userDtoRequest, null)
             );
 
-            verify(userService).update(anyLong(), any());
+            verify(userService).update(anyLong(), any(), any());
         }
     }
 
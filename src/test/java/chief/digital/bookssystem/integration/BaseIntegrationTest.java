@@ -16,10 +16,13 @@ public abstract class BaseIntegrationTest {
     private static final String DOCKER_IMAGE_NAME = "postgres:15";
     private static final String USERNAME = "postgres";
     private static final String PASSWORD = "postgres";
+    private static final String INIT_SCRIPT = "create-replica-database.sql";
+    private static final String REPLICA_DATABASE_SUFFIX = "_replica";
 
     private static final PostgreSQLContainer<?> container = new PostgreSQLContainer<>(DOCKER_IMAGE_NAME)
             .withUsername(USERNAME)
-            .withPassword(PASSWORD);
+            .withPassword(PASSWORD)
+            .withInitScript(INIT_SCRIPT);
 
     @BeforeAll
     static void init() {
@@ -32,4 +35,12 @@ public abstract class BaseIntegrationTest {
         registry.add("spring.datasource.username", container::getUsername);
         registry.add("spring.datasource.password", container::getPassword);
     }
+
+    /**
+     * A second database of the same server that stands in for a read replica.
+     */
+    protected static String getReplicaJdbcUrl() {
+        return "jdbc:postgresql://" + container.getHost() + ":" + container.getFirstMappedPort() + "/" +
+                container.getDatabaseName() + REPLICA_DATABASE_SUFFIX;
+    }
 }
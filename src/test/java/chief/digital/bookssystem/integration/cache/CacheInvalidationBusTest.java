@@ -0,0 +1,128 @@
+package chief.digital.bookssystem.integration.cache;
+
+import chief.digital.bookssystem.integration.BaseIntegrationTest;
+import chief.digital.bookssystem.model.dto.request.BookDtoRequest;
+import chief.digital.bookssystem.service.BookService;
+import chief.digital.bookssystem.util.EntityCache;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "books-system.cache.invalidation.poll-timeout=200ms",
+        "books-system.cache.invalidation.reconnect-interval=100ms"
+})
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+class CacheInvalidationBusTest extends BaseIntegrationTest {
+
+    private static final Long BOOK_ID = 1L;
+    private static final String CHANNEL = "entity_cache";
+    private static final String NOTIFY_SQL = "SELECT pg_notify(?, ?)";
+    private static final String TERMINATE_LISTENER_SQL = """
+            SELECT pg_terminate_backend(pid)
+            FROM pg_stat_activity
+            WHERE application_name = 'books-system-cache-invalidation'
+            """;
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private final BookService bookService;
+    private final CacheManager cacheManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+
+    @BeforeEach
+    void clearCaches() {
+        EntityCache.NAMES.forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    @DisplayName("Evict cached Book notified by another instance")
+    void checkNotificationShouldEvictCachedBook() {
+        cacheBook();
+
+        jdbcTemplate.queryForList(NOTIFY_SQL, CHANNEL, EntityCache.BOOKS + ":" + BOOK_ID);
+
+        await().atMost(TIMEOUT).until(() -> booksCache().get(BOOK_ID) == null);
+    }
+
+    @Test
+    @DisplayName("Keep listening after a notification that cannot be applied")
+    void checkBadNotificationShouldBeSkipped() {
+        cacheBook();
+
+        jdbcTemplate.queryForList(NOTIFY_SQL, CHANNEL, EntityCache.BOOKS + ":not-an-id");
+        jdbcTemplate.queryForList(NOTIFY_SQL, CHANNEL, EntityCache.BOOKS + ":" + BOOK_ID);
+
+        await().atMost(TIMEOUT).until(() -> booksCache().get(BOOK_ID) == null);
+    }
+
+    @Test
+    @DisplayName("Notify other instances of Book update")
+    void checkUpdateShouldNotifyOtherInstances() throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("LISTEN " + CHANNEL);
+            }
+
+            // every field is null, so the update leaves the book unchanged
+            bookService.update(BOOK_ID, BookDtoRequest.builder().build(), null);
+
+            PGNotification[] notifications = connection.unwrap(PGConnection.class)
+                    .getNotifications((int) TIMEOUT.toMillis());
+            assertThat(Arrays.stream(notifications).map(PGNotification::getParameter))
+                    .contains(EntityCache.BOOKS + ":" + BOOK_ID);
+        }
+    }
+
+    @Test
+    @DisplayName("Clear caches after the listening connection was lost")
+    void checkReconnectShouldClearCaches() {
+        cacheBook();
+
+        jdbcTemplate.queryForList(TERMINATE_LISTENER_SQL);
+
+        await().atMost(TIMEOUT).until(() -> booksCache().get(BOOK_ID) == null);
+
+        // listening again
+        await().atMost(TIMEOUT).untilAsserted(() -> {
+            cacheBook();
+            jdbcTemplate.queryForList(NOTIFY_SQL, CHANNEL, EntityCache.BOOKS + ":" + BOOK_ID);
+            await().atMost(Duration.ofSeconds(1)).until(() -> booksCache().get(BOOK_ID) == null);
+        });
+    }
+
+    /**
+     * The clear of {@link #clearCaches} also reaches this instance through the bus, and a lookup it overlaps
+     * does not cache the book.
+     */
+    private void cacheBook() {
+        await().atMost(TIMEOUT).untilAsserted(() -> {
+            bookService.findById(BOOK_ID);
+            assertThat(booksCache().get(BOOK_ID)).isNotNull();
+        });
+    }
+
+    private Cache booksCache() {
+        return cacheManager.getCache(EntityCache.BOOKS);
+    }
+}
@@ -0,0 +1,111 @@
+package chief.digital.bookssystem.integration.cache;
+
+import chief.digital.bookssystem.integration.BaseIntegrationTest;
+import chief.digital.bookssystem.model.dto.request.BookDtoRequest;
+import chief.digital.bookssystem.model.dto.response.BookDtoResponse;
+import chief.digital.bookssystem.service.BookService;
+import chief.digital.bookssystem.service.LibraryService;
+import chief.digital.bookssystem.util.EntityCache;
+import chief.digital.bookssystem.util.ReadConsistency;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Objects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+class EntityCacheTest extends BaseIntegrationTest {
+
+    private static final Long BOOK_ID = 1L;
+    private static final Long LIBRARY_ID = 1L;
+
+    private final BookService bookService;
+    private final LibraryService libraryService;
+    private final CacheManager cacheManager;
+
+    /**
+     * Clears the caches without notifying, as the notification reaching this instance back would keep
+     * a lookup of the test it overlaps from caching.
+     */
+    @BeforeEach
+    void clearCaches() {
+        EntityCache.NAMES.forEach(name ->
+                ((com.github.benmanes.caffeine.cache.Cache<?, ?>) cacheManager.getCache(name).getNativeCache())
+                        .invalidateAll());
+    }
+
+    @AfterEach
+    void clearReadConsistency() {
+        ReadConsistency.clear();
+    }
+
+    @Test
+    @DisplayName("Cache Book found by ID")
+    void checkFindByIdShouldCacheBook() {
+        BookDtoResponse expectedBook = bookService.findById(BOOK_ID);
+
+        assertThat(bookService.findById(BOOK_ID)).isEqualTo(expectedBook);
+        assertThat(cachedValue(EntityCache.BOOKS, BOOK_ID)).isEqualTo(expectedBook);
+    }
+
+    @Test
+    @DisplayName("Evict cached Book on update")
+    void checkUpdateShouldEvictCachedBook() {
+        bookService.findById(BOOK_ID);
+
+        // every field is null, so the update leaves the book unchanged
+        bookService.update(BOOK_ID, BookDtoRequest.builder().build(), null);
+
+        assertThat(cachedValue(EntityCache.BOOKS, BOOK_ID)).isNull();
+    }
+
+    @Test
+    @DisplayName("Bypass cache for reads requiring a consistency token")
+    void checkFindByIdWithConsistencyTokenShouldBypassCache() {
+        ReadConsistency.require("0/0");
+
+        bookService.findById(BOOK_ID);
+
+        assertThat(cachedValue(EntityCache.BOOKS, BOOK_ID)).isNull();
+    }
+
+    @Test
+    @DisplayName("Cache Library only without Users IDs")
+    void checkFindByIdWithUsersShouldNotCacheLibrary() {
+        libraryService.findById(LIBRARY_ID, true);
+        assertThat(cachedValue(EntityCache.LIBRARIES, LIBRARY_ID)).isNull();
+
+        libraryService.findById(LIBRARY_ID, false);
+        assertThat(cachedValue(EntityCache.LIBRARIES, LIBRARY_ID)).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Do not cache Book loaded before its eviction")
+    void checkFindByIdEvictedWhileLoadingShouldNotCacheBook() {
+        Cache cache = cacheManager.getCache(EntityCache.BOOKS);
+
+        BookDtoResponse loadedBook = cache.get(BOOK_ID, () -> {
+            BookDtoResponse book = bookService.findById(BOOK_ID);
+            cache.evict(BOOK_ID);
+            return book;
+        });
+
+        assertThat(loadedBook).isNotNull();
+        assertThat(cachedValue(EntityCache.BOOKS, BOOK_ID)).isNull();
+    }
+
+    private Object cachedValue(String cacheName, Long id) {
+        Cache.ValueWrapper value = cacheManager.getCache(cacheName).get(id);
+        return Objects.isNull(value) ? null : value.get();
+    }
+}
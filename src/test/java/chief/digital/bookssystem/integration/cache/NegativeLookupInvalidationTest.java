@@ -0,0 +1,124 @@
+package chief.digital.bookssystem.integration.cache;
+
+import chief.digital.bookssystem.config.NegativeLookupProperties;
+import chief.digital.bookssystem.config.ReplicaProperties;
+import chief.digital.bookssystem.integration.BaseIntegrationTest;
+import chief.digital.bookssystem.util.CacheInvalidationBus;
+import chief.digital.bookssystem.util.EntityCache;
+import chief.digital.bookssystem.util.NegativeLookup;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Runs a second {@link NegativeLookup} with a bus of its own next to the one of the application, as another
+ * instance would.
+ */
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "books-system.cache.invalidation.poll-timeout=200ms",
+        "books-system.cache.invalidation.reconnect-interval=100ms"
+})
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+class NegativeLookupInvalidationTest extends BaseIntegrationTest {
+
+    private static final Long LIBRARY_ID = 1L;
+    private static final String CHANNEL = "entity_cache";
+    private static final String INSERT_BOOK_SQL = """
+            INSERT INTO books(title, description, author, genre, publication_year, library_id)
+            VALUES ('Bloom ' || gen_random_uuid(), 'Bloom', 'Bloom', 'Bloom', 2000, ?)
+            RETURNING id
+            """;
+    private static final String INSERT_BOOK_WITH_ID_SQL = """
+            INSERT INTO books(id, title, description, author, genre, publication_year, library_id)
+            VALUES (?, 'Bloom ' || gen_random_uuid(), 'Bloom', 'Bloom', 'Bloom', 2000, ?)
+            """;
+    private static final String DELETE_BOOK_SQL = "DELETE FROM books WHERE id = ?";
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private final NegativeLookup negativeLookup;
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+    private final PlatformTransactionManager transactionManager;
+
+    private CacheInvalidationBus otherBus;
+    private NegativeLookup otherNegativeLookup;
+    private Long lateId;
+    private Long laterId;
+
+    /**
+     * Leaves a gap below the highest ID, where the other instance trusts its Bloom filter, as an ID of a pooled
+     * block or of a long transaction that commits after the build.
+     */
+    @BeforeEach
+    void startOtherInstance() {
+        lateId = jdbcTemplate.queryForObject(INSERT_BOOK_SQL, Long.class, LIBRARY_ID);
+        laterId = jdbcTemplate.queryForObject(INSERT_BOOK_SQL, Long.class, LIBRARY_ID);
+        jdbcTemplate.update(DELETE_BOOK_SQL, lateId);
+
+        NegativeLookupProperties properties = new NegativeLookupProperties();
+        properties.setBloomFilters(Set.of(EntityCache.BOOKS));
+        properties.setRebuildInterval(Duration.ofHours(1));
+        otherBus = new CacheInvalidationBus(dataSource::getConnection, jdbcTemplate, CHANNEL,
+                Duration.ofMillis(200), Duration.ofMillis(100));
+        otherBus.afterPropertiesSet();
+        otherNegativeLookup = new NegativeLookup(properties, new ReplicaProperties(), new SimpleMeterRegistry(),
+                new StaticListableBeanFactory(Map.of("cacheInvalidationBus", otherBus))
+                        .getBeanProvider(CacheInvalidationBus.class),
+                dataSource, transactionManager);
+
+        // once listening the other bus clears its caches, which distrusts a filter built before
+        await().atMost(TIMEOUT).until(() -> {
+            otherNegativeLookup.rebuildBloomFilters();
+            otherNegativeLookup.rebuildBloomFilters();
+            return otherNegativeLookup.isKnownMissing(EntityCache.BOOKS, lateId);
+        });
+    }
+
+    @AfterEach
+    void stopOtherInstance() {
+        otherNegativeLookup.close();
+        otherBus.close();
+        jdbcTemplate.update(DELETE_BOOK_SQL, lateId);
+        jdbcTemplate.update(DELETE_BOOK_SQL, laterId);
+    }
+
+    @Test
+    @DisplayName("Add a Book ID inserted on another instance to the Bloom filter")
+    void checkAddedOnOtherInstanceShouldReachBloomFilter() {
+        jdbcTemplate.update(INSERT_BOOK_WITH_ID_SQL, lateId, LIBRARY_ID);
+
+        negativeLookup.added(EntityCache.BOOKS, lateId);
+
+        await().atMost(TIMEOUT)
+                .until(() -> !otherNegativeLookup.isKnownMissing(EntityCache.BOOKS, lateId));
+    }
+
+    @Test
+    @DisplayName("Stop trusting the Bloom filter after a batch inserted on another instance")
+    void checkAddedAllOnOtherInstanceShouldDistrustBloomFilter() {
+        jdbcTemplate.update(INSERT_BOOK_WITH_ID_SQL, lateId, LIBRARY_ID);
+
+        negativeLookup.addedAll(EntityCache.BOOKS);
+
+        await().atMost(TIMEOUT)
+                .until(() -> !otherNegativeLookup.isKnownMissing(EntityCache.BOOKS, lateId));
+    }
+}
@@ -0,0 +1,84 @@
+package chief.digital.bookssystem.integration.cache;
+
+import chief.digital.bookssystem.exception.EntityNotFoundException;
+import chief.digital.bookssystem.integration.BaseIntegrationTest;
+import chief.digital.bookssystem.service.BookService;
+import chief.digital.bookssystem.util.EntityCache;
+import chief.digital.bookssystem.util.NegativeLookup;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "books-system.negative-lookup.bloom-filters=books",
+        "books-system.cache.invalidation.enabled=false"
+})
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+class NegativeLookupTest extends BaseIntegrationTest {
+
+    private static final Long LIBRARY_ID = 1L;
+    private static final Long MISSING_ID = 987_654_321L;
+    private static final String INSERT_BOOK_SQL = """
+            INSERT INTO books(title, description, author, genre, publication_year, library_id)
+            VALUES ('Deleted', 'Deleted', 'Deleted', 'Deleted', 2000, ?)
+            RETURNING id
+            """;
+    private static final String DELETE_BOOK_SQL = "DELETE FROM books WHERE id = ?";
+
+    private final BookService bookService;
+    private final NegativeLookup negativeLookup;
+    private final MeterRegistry meterRegistry;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Reject lookup of Book found missing before without a query")
+    void checkFindByIdOfMissingBookShouldBeRejectedByNegativeCache() {
+        assertThrows(EntityNotFoundException.class, () -> bookService.findById(MISSING_ID));
+        double rejected = rejectedCount("negative_cache");
+
+        assertThrows(EntityNotFoundException.class, () -> bookService.findById(MISSING_ID));
+
+        assertThat(rejectedCount("negative_cache") - rejected).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Forget missing Book ID once a Book with it is inserted")
+    void checkAddedShouldForgetMissingId() {
+        negativeLookup.missing(EntityCache.BOOKS, MISSING_ID + 1);
+        assertThat(negativeLookup.isKnownMissing(EntityCache.BOOKS, MISSING_ID + 1)).isTrue();
+
+        negativeLookup.added(EntityCache.BOOKS, MISSING_ID + 1);
+
+        assertThat(negativeLookup.isKnownMissing(EntityCache.BOOKS, MISSING_ID + 1)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Reject lookup of deleted Book by the Bloom filter")
+    void checkFindByIdOfDeletedBookShouldBeRejectedByBloomFilter() {
+        Long bookId = jdbcTemplate.queryForObject(INSERT_BOOK_SQL, Long.class, LIBRARY_ID);
+        negativeLookup.rebuildBloomFilters();
+        assertThat(negativeLookup.isKnownMissing(EntityCache.BOOKS, bookId)).isFalse();
+
+        jdbcTemplate.update(DELETE_BOOK_SQL, bookId);
+        negativeLookup.rebuildBloomFilters();
+        double rejected = rejectedCount("bloom_filter");
+
+        assertThrows(EntityNotFoundException.class, () -> bookService.findById(bookId));
+
+        assertThat(rejectedCount("bloom_filter") - rejected).isEqualTo(1);
+    }
+
+    private double rejectedCount(String by) {
+        return meterRegistry.counter("negative.lookup.rejected", "name", EntityCache.BOOKS, "by", by).count();
+    }
+}
@@ -0,0 +1,66 @@
+package chief.digital.bookssystem.integration.cache;
+
+import chief.digital.bookssystem.integration.BaseIntegrationTest;
+import chief.digital.bookssystem.model.dto.response.BookDtoResponse;
+import chief.digital.bookssystem.service.BookService;
+import chief.digital.bookssystem.util.EntityCache;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "books-system.cache.caches.books.expire-after-write=1m",
+        "books-system.cache.caches.books.refresh-after-write=200ms",
+        "books-system.cache.invalidation.enabled=false"
+})
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+class RefreshAheadTest extends BaseIntegrationTest {
+
+    private static final Long BOOK_ID = 1L;
+    private static final String UPDATE_TITLE_SQL = "UPDATE books SET title = ? WHERE id = ?";
+    private static final String REFRESHED_TITLE = "Refreshed title";
+
+    private final BookService bookService;
+    private final CacheManager cacheManager;
+    private final JdbcTemplate jdbcTemplate;
+
+    private BookDtoResponse cachedBook;
+
+    @BeforeEach
+    void cacheBook() {
+        cacheManager.getCache(EntityCache.BOOKS).clear();
+        cachedBook = bookService.findById(BOOK_ID);
+    }
+
+    @AfterEach
+    void restoreTitle() {
+        jdbcTemplate.update(UPDATE_TITLE_SQL, cachedBook.getTitle(), BOOK_ID);
+        cacheManager.getCache(EntityCache.BOOKS).clear();
+    }
+
+    @Test
+    @DisplayName("Refresh Book read after refresh period in the background")
+    void checkFindByIdAfterRefreshPeriodShouldRefreshInBackground() throws Exception {
+        // changed behind the cache's back, so only a refresh can pick it up
+        jdbcTemplate.update(UPDATE_TITLE_SQL, REFRESHED_TITLE, BOOK_ID);
+        Thread.sleep(300);
+
+        assertThat(bookService.findById(BOOK_ID).getTitle()).isEqualTo(cachedBook.getTitle());
+        await().atMost(Duration.ofSeconds(10))
+                .until(() -> bookService.findById(BOOK_ID).getTitle().equals(REFRESHED_TITLE));
+    }
+}
@@ -0,0 +1,139 @@
+package chief.digital.bookssystem.integration.cache;
+
+import chief.digital.bookssystem.exception.InvalidRequestException;
+import chief.digital.bookssystem.integration.BaseIntegrationTest;
+import chief.digital.bookssystem.util.SingleFlight;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Import(SingleFlightAspectTest.Config.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+class SingleFlightAspectTest extends BaseIntegrationTest {
+
+    private static final String NAME = "test.load";
+    private static final int CALLS = 5;
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private final SlowLoader slowLoader;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService executor = Executors.newFixedThreadPool(CALLS);
+
+    @AfterEach
+    void tearDown() {
+        slowLoader.release();
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Run concurrent calls with equal arguments once")
+    void checkConcurrentEqualCallsShouldRunOnce() throws Exception {
+        double coalesced = coalescedCount();
+        slowLoader.reset();
+
+        List<Future<String>> results = IntStream.range(0, CALLS)
+                .mapToObj(i -> executor.submit(() -> slowLoader.load("key")))
+                .toList();
+        await().atMost(TIMEOUT).until(() -> coalescedCount() - coalesced == CALLS - 1);
+        slowLoader.release();
+
+        for (Future<String> result : results) {
+            assertThat(result.get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)).isEqualTo("key-1");
+        }
+        assertThat(slowLoader.calls()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Run calls with different arguments separately")
+    void checkCallsWithDifferentArgumentsShouldRunSeparately() throws Exception {
+        slowLoader.reset();
+        slowLoader.release();
+
+        assertThat(slowLoader.load("first")).isEqualTo("first-1");
+        assertThat(slowLoader.load("second")).isEqualTo("second-2");
+    }
+
+    @Test
+    @DisplayName("Share the exception of the running call")
+    void checkConcurrentCallsShouldShareException() throws Exception {
+        double coalesced = coalescedCount();
+        slowLoader.reset();
+
+        Future<?> first = executor.submit(() -> slowLoader.load(null));
+        Future<?> second = executor.submit(() -> slowLoader.load(null));
+        await().atMost(TIMEOUT).until(() -> coalescedCount() - coalesced == 1);
+        slowLoader.release();
+
+        for (Future<?> result : List.of(first, second)) {
+            Exception exception = assertThrows(Exception.class,
+                    () -> result.get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS));
+            assertThat(exception).hasCauseInstanceOf(InvalidRequestException.class);
+        }
+        assertThat(slowLoader.calls()).isEqualTo(1);
+    }
+
+    private double coalescedCount() {
+        return meterRegistry.counter("single.flight.calls", "name", NAME, "result", "coalesced").count();
+    }
+
+    @TestConfiguration
+    static class Config {
+
+        @Bean
+        SlowLoader slowLoader() {
+            return new SlowLoader();
+        }
+    }
+
+    static class SlowLoader {
+
+        private final AtomicInteger calls = new AtomicInteger();
+        private volatile CountDownLatch latch = new CountDownLatch(1);
+
+        @SingleFlight(NAME)
+        public String load(String key) throws InterruptedException {
+            int call = calls.incrementAndGet();
+            latch.await(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            if (key == null) {
+                throw new InvalidRequestException("No key");
+            }
+            return key + "-" + call;
+        }
+
+        void reset() {
+            calls.set(0);
+            latch = new CountDownLatch(1);
+        }
+
+        void release() {
+            latch.countDown();
+        }
+
+        int calls() {
+            return calls.get();
+        }
+    }
+}
@@ -3,8 +3,11 @@ package chief.digital.bookssystem.integration.controller;
 import chief.digital.bookssystem.builder.book.BookDtoRequestTestBuilder;
 import chief.digital.bookssystem.integration.BaseIntegrationTest;
 import chief.digital.bookssystem.model.dto.request.BookDtoRequest;
+import chief.digital.bookssystem.model.entity.Book;
+import chief.digital.bookssystem.model.entity.Library;
 import chief.digital.bookssystem.repository.BookRepository;
 import chief.digital.bookssystem.repository.LibraryRepository;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.DisplayName;
@@ -17,11 +20,19 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 
 import static chief.digital.bookssystem.controller.BookController.BOOK_API_PATH;
 import static chief.digital.bookssystem.util.TestConstants.TEST_PAGE;
 import static chief.digital.bookssystem.util.TestConstants.TEST_PAGE_SIZE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.everyItem;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
@@ -36,6 +47,17 @@ class BookControllerTest extends BaseIntegrationTest {
 
     private static final String PAGE_PARAM = "page";
     private static final String SIZE_PARAM = "size";
+    private static final String AFTER_PARAM = "after";
+    private static final String ORDER_BY_PARAM = "orderBy";
+    private static final String WITH_TOTAL_PARAM = "withTotal";
+    private static final String TOTAL_MODE_PARAM = "totalMode";
+    private static final String QUERY_PARAM = "query";
+    private static final String LIBRARY_ID_PARAM = "libraryId";
+    private static final String CITY_PARAM = "city";
+    private static final String GENRE_PARAM = "genre";
+    private static final String YEAR_FROM_PARAM = "yearFrom";
+    private static final String YEAR_TO_PARAM = "yearTo";
+    private static final String WITH_FACETS_PARAM = "withFacets";
 
     private final MockMvc mockMvc;
     private final ObjectMapper objectMapper;
@@ -58,6 +80,155 @@ class BookControllerTest extends BaseIntegrationTest {
                 .andExpect(jsonPath("$.data.libraryId").value(expectedLibraryId));
     }
 
+    @Nested
+    public class SaveAllByLibraryIdTest {
+        @Test
+        @DisplayName("Save Books batch")
+        void checkSaveAllByLibraryIdShouldReturnBatchDtoResponse() throws Exception {
+            Long expectedLibraryId = libraryRepository.findFirstByOrderByIdAsc().get().getId();
+            List<BookDtoRequest> bookDtoRequests = List.of(
+                    bookDtoRequest,
+                    BookDtoRequestTestBuilder.aBookDtoRequest().withTitle(null).build(),
+                    bookDtoRequest,
+                    BookDtoRequestTestBuilder.aBookDtoRequest().withTitle("batch_title").build()
+            );
+
+            mockMvc.perform(post(BOOK_API_PATH + "/batch/{libraryId}", expectedLibraryId)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(bookDtoRequests)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.received").value(4))
+                    .andExpect(jsonPath("$.data.saved").value(2))
+                    .andExpect(jsonPath("$.data.failed").value(2))
+                    .andExpect(jsonPath("$.data.errors[0].index").value(1))
+                    .andExpect(jsonPath("$.data.errors[1].index").value(2));
+        }
+
+        @Test
+        @DisplayName("Save Books batch; not a JSON array")
+        void checkSaveAllByLibraryIdShouldReturnBadRequest() throws Exception {
+            Long expectedLibraryId = libraryRepository.findFirstByOrderByIdAsc().get().getId();
+            mockMvc.perform(post(BOOK_API_PATH + "/batch/{libraryId}", expectedLibraryId)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(bookDtoRequest)))
+                    .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        @DisplayName("Save Books batch; library not found")
+        void checkSaveAllByLibraryIdShouldReturnNotFound() throws Exception {
+            long doesntExistLibraryId = new Random()
+                    .nextLong(libraryRepository.findFirstByOrderByIdDesc().get().getId() + 1, Long.MAX_VALUE);
+            mockMvc.perform(post(BOOK_API_PATH + "/batch/{libraryId}", doesntExistLibraryId)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(List.of(bookDtoRequest))))
+                    .andExpect(status().isNotFound());
+        }
+    }
+
+    @Nested
+    public class UpsertTest {
+        @Test
+        @DisplayName("Upsert Book by title: created, updated, unchanged")
+        void checkUpsertByLibraryIdShouldReturnStatus() throws Exception {
+            Long expectedLibraryId = libraryRepository.findFirstByOrderByIdAsc().get().getId();
+            BookDtoRequest updatedBookDtoRequest = BookDtoRequestTestBuilder.aBookDtoRequest()
+                    .withDescription("upserted_description")
+                    .build();
+
+            mockMvc.perform(put(BOOK_API_PATH + "/upsert/{libraryId}", expectedLibraryId)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(bookDtoRequest)))
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.data.version").value(0))
+                    .andExpect(jsonPath("$.data.libraryId").value(expectedLibraryId));
+            mockMvc.perform(put(BOOK_API_PATH + "/upsert/{libraryId}", expectedLibraryId)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(updatedBookDtoRequest)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.version").value(1))
+                    .andExpect(jsonPath("$.data.description").value("upserted_description"));
+            mockMvc.perform(put(BOOK_API_PATH + "/upsert/{libraryId}", expectedLibraryId)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(updatedBookDtoRequest)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.message").value(endsWith("unchanged")))
+                    .andExpect(jsonPath("$.data.version").value(1));
+        }
+
+        @Test
+        @DisplayName("Upsert Books batch by title")
+        void checkUpsertAllByLibraryIdShouldReturnUpsertBatchDtoResponse() throws Exception {
+            Long expectedLibraryId = libraryRepository.findFirstByOrderByIdAsc().get().getId();
+            List<BookDtoRequest> bookDtoRequests = List.of(
+                    bookDtoRequest,
+                    BookDtoRequestTestBuilder.aBookDtoRequest().withTitle(null).build(),
+                    BookDtoRequestTestBuilder.aBookDtoRequest().withTitle("Book 1").withDescription("Upserted").build(),
+                    BookDtoRequestTestBuilder.aBookDtoRequest().withTitle("Book 2").withDescription("Description 2")
+                            .withAuthor("Author 2").withGenre("Genre 2").withPublicationYear(1937).build(),
+                    BookDtoRequestTestBuilder.aBookDtoRequest().withAuthor("upserted_author").build()
+            );
+
+            mockMvc.perform(put(BOOK_API_PATH + "/upsert/batch/{libraryId}", expectedLibraryId)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(bookDtoRequests)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.received").value(5))
+                    .andExpect(jsonPath("$.data.created").value(1))
+                    .andExpect(jsonPath("$.data.updated").value(2))
+                    .andExpect(jsonPath("$.data.unchanged").value(1))
+                    .andExpect(jsonPath("$.data.failed").value(1))
+                    .andExpect(jsonPath("$.data.items[*].status")
+                            .value(contains("created", "updated", "unchanged", "updated")))
+                    .andExpect(jsonPath("$.data.errors[0].index").value(1));
+
+            assertThat(bookRepository.findAll())
+                    .filteredOn(book -> book.getTitle().equals(bookDtoRequest.getTitle()))
+                    .singleElement()
+                    .extracting(Book::getAuthor)
+                    .isEqualTo("upserted_author");
+        }
+
+        @Test
+        @DisplayName("Upsert Book by title of a Book of another Library; conflict")
+        void checkUpsertByLibraryIdWithTitleOfOtherLibraryShouldReturnConflict() throws Exception {
+            Long expectedLibraryId = libraryRepository.findFirstByOrderByIdAsc().get().getId();
+            BookDtoRequest otherLibraryBookDtoRequest = BookDtoRequestTestBuilder.aBookDtoRequest()
+                    .withTitle("Book 3")
+                    .build();
+
+            mockMvc.perform(put(BOOK_API_PATH + "/upsert/{libraryId}", expectedLibraryId)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(otherLibraryBookDtoRequest)))
+                    .andExpect(status().isConflict());
+            mockMvc.perform(put(BOOK_API_PATH + "/upsert/batch/{libraryId}", expectedLibraryId)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(List.of(otherLibraryBookDtoRequest))))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.unchanged").value(0))
+                    .andExpect(jsonPath("$.data.failed").value(1))
+                    .andExpect(jsonPath("$.data.errors[0].message").value(endsWith("belongs to another library")));
+
+            assertThat(bookRepository.findAll())
+                    .filteredOn(book -> book.getTitle().equals("Book 3"))
+                    .singleElement()
+                    .satisfies(book -> assertThat(book.getLibrary().getId()).isNotEqualTo(expectedLibraryId))
+                    .extracting(Book::getDescription)
+                    .isEqualTo("Description 3");
+        }
+
+        @Test
+        @DisplayName("Upsert Books batch; library not found")
+        void checkUpsertAllByLibraryIdShouldReturnNotFound() throws Exception {
+            long doesntExistLibraryId = new Random()
+                    .nextLong(libraryRepository.findFirstByOrderByIdDesc().get().getId() + 1, Long.MAX_VALUE);
+            mockMvc.perform(put(BOOK_API_PATH + "/upsert/batch/{libraryId}", doesntExistLibraryId)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(List.of(bookDtoRequest))))
+                    .andExpect(status().isNotFound());
+        }
+    }
+
     @Test
     @DisplayName("Find all Books")
     void checkFindAllShouldReturnBookDtoResponsePage() throws Exception {
@@ -71,6 +242,191 @@ class BookControllerTest extends BaseIntegrationTest {
                 .andExpect(jsonPath("$.data.content.size()").value(expectedBooksSize));
     }
 
+    @Test
+    @DisplayName("Find all Books with exact total")
+    void checkFindAllWithExactTotalShouldReturnTotalElements() throws Exception {
+        long expectedBooksCount = bookRepository.count();
+        mockMvc.perform(get(BOOK_API_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .param(PAGE_PARAM, String.valueOf(TEST_PAGE))
+                        .param(SIZE_PARAM, String.valueOf(1))
+                        .param(WITH_TOTAL_PARAM, String.valueOf(true)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.content.size()").value(1))
+                .andExpect(jsonPath("$.data.hasNext").value(expectedBooksCount > 1))
+                .andExpect(jsonPath("$.data.totalElements").value(expectedBooksCount))
+                .andExpect(jsonPath("$.data.totalType").value("exact"));
+    }
+
+    @Test
+    @DisplayName("Find all Books with estimated total")
+    void checkFindAllWithEstimatedTotalShouldReturnTotalElements() throws Exception {
+        mockMvc.perform(get(BOOK_API_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .param(WITH_TOTAL_PARAM, String.valueOf(true))
+                        .param(TOTAL_MODE_PARAM, "estimate"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.totalElements").isNumber())
+                .andExpect(jsonPath("$.data.totalType").value("estimate"));
+    }
+
+    @Test
+    @DisplayName("Find all Books; unknown total mode")
+    void checkFindAllWithUnknownTotalModeShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get(BOOK_API_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .param(WITH_TOTAL_PARAM, String.valueOf(true))
+                        .param(TOTAL_MODE_PARAM, "unknown"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Find all Books without total")
+    void checkFindAllWithoutTotalShouldOmitTotalElements() throws Exception {
+        mockMvc.perform(get(BOOK_API_PATH)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.hasNext").isBoolean())
+                .andExpect(jsonPath("$.data.totalElements").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("Find all Books by filter with facets")
+    void checkFindAllByFilterShouldReturnMatchingBooksAndFacets() throws Exception {
+        mockMvc.perform(get(BOOK_API_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .param(GENRE_PARAM, "Genre 1", "Genre 2", "Genre 3")
+                        .param(YEAR_FROM_PARAM, String.valueOf(1800))
+                        .param(YEAR_TO_PARAM, String.valueOf(2000))
+                        .param(WITH_TOTAL_PARAM, String.valueOf(true))
+                        .param(WITH_FACETS_PARAM, String.valueOf(true)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.totalElements").value(2))
+                .andExpect(jsonPath("$.data.content[*].genre").value(containsInAnyOrder("Genre 1", "Genre 2")))
+                .andExpect(jsonPath("$.data.facets.genre[*].value").value(containsInAnyOrder("Genre 1", "Genre 2")))
+                .andExpect(jsonPath("$.data.facets.publicationYear[*].count").value(everyItem(equalTo(1))));
+    }
+
+    @Test
+    @DisplayName("Find all Books by filter; invalid filter")
+    void checkFindAllByInvalidFilterShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get(BOOK_API_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .param(YEAR_FROM_PARAM, "unknown"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Find all Books by filter and cursor")
+    void checkFindAllAfterByFilterShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get(BOOK_API_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .param(GENRE_PARAM, "Genre 1")
+                        .param(ORDER_BY_PARAM, "title"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Find all Books by cursor")
+    void checkFindAllAfterShouldReturnEveryBookOnce() throws Exception {
+        List<Long> actualBookIds = new ArrayList<>();
+        String after = "";
+        do {
+            String response = mockMvc.perform(get(BOOK_API_PATH)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .param(AFTER_PARAM, after)
+                            .param(ORDER_BY_PARAM, "title")
+                            .param(SIZE_PARAM, String.valueOf(1)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.content.size()").value(1))
+                    .andReturn().getResponse().getContentAsString();
+
+            JsonNode data = objectMapper.readTree(response).get("data");
+            actualBookIds.add(data.at("/content/0/id").asLong());
+            after = data.hasNonNull("nextCursor") ? data.get("nextCursor").asText() : null;
+        } while (after != null);
+
+        assertThat(actualBookIds)
+                .hasSize((int) bookRepository.count())
+                .doesNotHaveDuplicates();
+    }
+
+    @Test
+    @DisplayName("Find all Books by cursor; invalid cursor")
+    void checkFindAllAfterShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get(BOOK_API_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .param(AFTER_PARAM, "%%%"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Nested
+    public class SearchTest {
+        @Test
+        @DisplayName("Search Books by cursor")
+        void checkSearchShouldReturnEveryMatchOnce() throws Exception {
+            List<Long> actualBookIds = new ArrayList<>();
+            String after = "";
+            do {
+                String response = mockMvc.perform(get(BOOK_API_PATH + "/search")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .param(QUERY_PARAM, "book")
+                                .param(AFTER_PARAM, after)
+                                .param(SIZE_PARAM, String.valueOf(1)))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.data.content.size()").value(1))
+                        .andReturn().getResponse().getContentAsString();
+
+                JsonNode data = objectMapper.readTree(response).get("data");
+                actualBookIds.add(data.at("/content/0/id").asLong());
+                after = data.hasNonNull("nextCursor") ? data.get("nextCursor").asText() : null;
+            } while (after != null);
+
+            assertThat(actualBookIds)
+                    .containsExactlyInAnyOrderElementsOf(bookRepository.findAll().stream()
+                            .filter(book -> book.getTitle().startsWith("Book "))
+                            .map(Book::getId)
+                            .toList());
+        }
+
+        @Test
+        @DisplayName("Search Books by Library ID")
+        void checkSearchByLibraryIdShouldReturnLibraryBooks() throws Exception {
+            Long expectedLibraryId = libraryRepository.findFirstByOrderByIdAsc().get().getId();
+            mockMvc.perform(get(BOOK_API_PATH + "/search")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .param(QUERY_PARAM, "book")
+                            .param(LIBRARY_ID_PARAM, String.valueOf(expectedLibraryId))
+                            .param(SIZE_PARAM, String.valueOf(TEST_PAGE_SIZE)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.content").isNotEmpty())
+                    .andExpect(jsonPath("$.data.content[*].libraryId").value(everyItem(equalTo(expectedLibraryId.intValue()))));
+        }
+
+        @Test
+        @DisplayName("Search Books by city")
+        void checkSearchByCityShouldReturnCityBooks() throws Exception {
+            Library expectedLibrary = libraryRepository.findFirstByOrderByIdDesc().get();
+            mockMvc.perform(get(BOOK_API_PATH + "/search")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .param(QUERY_PARAM, "book")
+                            .param(CITY_PARAM, expectedLibrary.getCity())
+                            .param(SIZE_PARAM, String.valueOf(TEST_PAGE_SIZE)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.content").isNotEmpty())
+                    .andExpect(jsonPath("$.data.content[*].libraryId").value(everyItem(equalTo(expectedLibrary.getId().intValue()))));
+        }
+
+        @Test
+        @DisplayName("Search Books; blank query")
+        void checkSearchWithBlankQueryShouldReturnBadRequest() throws Exception {
+            mockMvc.perform(get(BOOK_API_PATH + "/search")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .param(QUERY_PARAM, " "))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
     @Nested
     public class FindByIdTest {
         @DisplayName("Find Book by ID")
@@ -0,0 +1,167 @@
+package chief.digital.bookssystem.integration.controller;
+
+import chief.digital.bookssystem.builder.book.BookDtoRequestTestBuilder;
+import chief.digital.bookssystem.builder.user.UserDtoRequestTestBuilder;
+import chief.digital.bookssystem.integration.BaseIntegrationTest;
+import chief.digital.bookssystem.util.EntityCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static chief.digital.bookssystem.controller.BookController.BOOK_API_PATH;
+import static chief.digital.bookssystem.controller.LibraryController.LIBRARY_API_PATH;
+import static chief.digital.bookssystem.controller.UserController.USER_API_PATH;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@AutoConfigureMockMvc
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+class ConditionalRequestTest extends BaseIntegrationTest {
+
+    private static final Long BOOK_ID = 1L;
+    private static final Long LIBRARY_ID = 1L;
+
+    private final MockMvc mockMvc;
+    private final ObjectMapper objectMapper;
+    private final CacheManager cacheManager;
+    private final EntityManager entityManager;
+
+    @BeforeEach
+    void invalidateCaches() {
+        // rows change inside the test transaction, which never commits and so never evicts
+        EntityCache.NAMES.forEach(name -> cacheManager.getCache(name).invalidate());
+    }
+
+    @Test
+    @DisplayName("Find Book by ID with its ETag; not modified")
+    void checkFindByIdWithMatchingETagShouldReturnNotModified() throws Exception {
+        String eTag = eTagOf(BOOK_API_PATH + "/" + BOOK_ID);
+
+        mockMvc.perform(get(BOOK_API_PATH + "/{id}", BOOK_ID)
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @DisplayName("Find Book by ID with another ETag")
+    void checkFindByIdWithOtherETagShouldReturnBook() throws Exception {
+        String eTag = eTagOf(BOOK_API_PATH + "/" + BOOK_ID);
+
+        mockMvc.perform(get(BOOK_API_PATH + "/{id}", BOOK_ID)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"-1\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag));
+    }
+
+    @Test
+    @DisplayName("Update Book by ID with its ETag")
+    void checkUpdateWithMatchingETagShouldUpdateBook() throws Exception {
+        String eTag = eTagOf(BOOK_API_PATH + "/" + BOOK_ID);
+
+        mockMvc.perform(patch(BOOK_API_PATH + "/{id}", BOOK_ID)
+                        .header(HttpHeaders.IF_MATCH, eTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("Update Book by ID with a stale ETag; precondition failed")
+    void checkUpdateWithStaleETagShouldReturnPreconditionFailed() throws Exception {
+        mockMvc.perform(put(BOOK_API_PATH + "/{id}", BOOK_ID)
+                        .header(HttpHeaders.IF_MATCH, "\"-1\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(BookDtoRequestTestBuilder.aBookDtoRequest().build())))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    @DisplayName("Update Book by ID with a weak ETag; bad request")
+    void checkUpdateWithWeakETagShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(patch(BOOK_API_PATH + "/{id}", BOOK_ID)
+                        .header(HttpHeaders.IF_MATCH, "W/\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Change Library ETag when a Book is added to it")
+    void checkSaveBookShouldChangeLibraryETag() throws Exception {
+        String eTag = eTagOf(LIBRARY_API_PATH + "/" + LIBRARY_ID);
+
+        mockMvc.perform(post(BOOK_API_PATH + "/{libraryId}", LIBRARY_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(BookDtoRequestTestBuilder.aBookDtoRequest().build())))
+                .andExpect(status().isCreated());
+        endRequest();
+
+        mockMvc.perform(get(LIBRARY_API_PATH + "/{id}", LIBRARY_ID)
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, Matchers.not(eTag)));
+    }
+
+    @Test
+    @DisplayName("Change User ETag when the User joins a Library")
+    void checkAddUserShouldChangeUserETag() throws Exception {
+        String response = mockMvc.perform(post(USER_API_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(UserDtoRequestTestBuilder.aUserDtoRequest().build())))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long userId = objectMapper.readTree(response).at("/data/id").asLong();
+        String eTag = eTagOf(USER_API_PATH + "/" + userId);
+
+        mockMvc.perform(patch(LIBRARY_API_PATH + "/addUser/{libraryId}/{userId}", LIBRARY_ID, userId))
+                .andExpect(status().isOk());
+        endRequest();
+
+        mockMvc.perform(get(USER_API_PATH + "/{id}", userId)
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("Find Library by ID with Users without an ETag")
+    void checkFindByIdWithUsersShouldNotReturnETag() throws Exception {
+        mockMvc.perform(get(LIBRARY_API_PATH + "/{id}", LIBRARY_ID)
+                        .param("withUsers", "true"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+    }
+
+    /**
+     * Versions bumped by SQL are not seen by entities already loaded, which requests of the test share.
+     */
+    private void endRequest() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private String eTagOf(String path) throws Exception {
+        String eTag = mockMvc.perform(get(path))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).isNotNull();
+        return eTag;
+    }
+}
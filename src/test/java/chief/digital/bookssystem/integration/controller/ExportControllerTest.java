@@ -0,0 +1,109 @@
+package chief.digital.bookssystem.integration.controller;
+
+import chief.digital.bookssystem.integration.BaseIntegrationTest;
+import chief.digital.bookssystem.model.enums.ExportType;
+import chief.digital.bookssystem.service.ExportService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+
+import static chief.digital.bookssystem.controller.ExportController.EXPORT_API_PATH;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@AutoConfigureMockMvc
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+class ExportControllerTest extends BaseIntegrationTest {
+
+    private static final String FORMAT_PARAM = "format";
+    private static final String COUNT_BOOKS_SQL = "SELECT count(*) FROM books";
+    private static final String COUNT_LIBRARY_USERS_SQL = "SELECT count(*) FROM library_users";
+    private static final String MARK_LIBRARY_DELETING_SQL = "UPDATE libraries SET deleting = true WHERE id = 2";
+    private static final String COUNT_OTHER_BOOKS_SQL = "SELECT count(*) FROM books WHERE library_id <> 2";
+    private static final String COUNT_OTHER_LIBRARY_USERS_SQL = "SELECT count(*) FROM library_users WHERE library_id <> 2";
+
+    private final MockMvc mockMvc;
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final ExportService exportService;
+
+    @Test
+    @DisplayName("Export all Books as NDJSON")
+    void checkExportBooksAsNdjsonShouldReturnOneObjectPerBook() throws Exception {
+        List<String> lines = export("books", "ndjson", "application/x-ndjson");
+        JsonNode firstBook = objectMapper.readTree(lines.get(0));
+
+        assertAll(
+                () -> assertThat(lines).hasSize(jdbcTemplate.queryForObject(COUNT_BOOKS_SQL, Integer.class)),
+                () -> assertThat(firstBook.get("id").asLong()).isEqualTo(1L),
+                () -> assertThat(firstBook.has("publicationYear")).isTrue(),
+                () -> assertThat(firstBook.has("libraryId")).isTrue()
+        );
+    }
+
+    @Test
+    @DisplayName("Export all memberships as CSV")
+    void checkExportMembershipsAsCsvShouldReturnHeaderAndOneLinePerMembership() throws Exception {
+        List<String> lines = export("memberships", "csv", "text/csv");
+
+        assertAll(
+                () -> assertThat(lines.get(0)).isEqualTo("libraryId,userId"),
+                () -> assertThat(lines).hasSize(jdbcTemplate.queryForObject(COUNT_LIBRARY_USERS_SQL, Integer.class) + 1)
+        );
+    }
+
+    @Test
+    @DisplayName("Count exported rows without those of a Library being deleted")
+    void checkCountShouldSkipRowsOfDeletingLibrary() {
+        jdbcTemplate.update(MARK_LIBRARY_DELETING_SQL);
+
+        assertAll(
+                () -> assertThat(exportService.count(ExportType.BOOKS))
+                        .isEqualTo(jdbcTemplate.queryForObject(COUNT_OTHER_BOOKS_SQL, Long.class)),
+                () -> assertThat(exportService.count(ExportType.MEMBERSHIPS))
+                        .isEqualTo(jdbcTemplate.queryForObject(COUNT_OTHER_LIBRARY_USERS_SQL, Long.class))
+        );
+    }
+
+    @Test
+    @DisplayName("Export all Libraries in an unknown format; bad request")
+    void checkExportWithUnknownFormatShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get(EXPORT_API_PATH + "/{type}", "libraries")
+                        .param(FORMAT_PARAM, "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Export an unknown entity; bad request")
+    void checkExportWithUnknownTypeShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get(EXPORT_API_PATH + "/{type}", "authors"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private List<String> export(String type, String format, String contentType) throws Exception {
+        MvcResult result = mockMvc.perform(get(EXPORT_API_PATH + "/{type}", type)
+                        .param(FORMAT_PARAM, format))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String content = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", contentType))
+                .andReturn().getResponse().getContentAsString();
+        return content.lines().toList();
+    }
+}
@@ -0,0 +1,198 @@
+package chief.digital.bookssystem.integration.controller;
+
+import chief.digital.bookssystem.integration.BaseIntegrationTest;
+import com.fasterxml.jackson.databind.JsonNode;
+import chief.digital.bookssystem.service.ExportJobService;
+import chief.digital.bookssystem.util.ExportJobWorker;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+import static chief.digital.bookssystem.controller.ExportController.EXPORT_API_PATH;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@AutoConfigureMockMvc
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+class ExportJobTest extends BaseIntegrationTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    private static final String COUNT_BOOKS_SQL = "SELECT count(*) FROM books";
+    private static final String UPDATE_INSTANCE_SQL = "UPDATE export_jobs SET instance_id = ? WHERE id = ?";
+    private static final String INSERT_RUNNING_JOB_SQL = """
+            INSERT INTO export_jobs(type, format, status, created_at)
+            VALUES ('BOOKS', 'CSV', 'RUNNING', localtimestamp)
+            RETURNING id
+            """;
+    private static final String LOCK_JOB_SQL = "SELECT pg_advisory_lock(hashtext('export_jobs'), CAST(? AS integer))";
+
+    private final MockMvc mockMvc;
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+    private final ExportJobService exportJobService;
+    private final ExportJobWorker exportJobWorker;
+
+    private long jobId;
+    private JsonNode finishedJob;
+
+    @BeforeEach
+    void runJob() throws Exception {
+        String response = mockMvc.perform(post(EXPORT_API_PATH + "/jobs")
+                        .param("type", "books")
+                        .param("format", "csv"))
+                .andExpect(status().isAccepted())
+                .andReturn().getResponse().getContentAsString();
+        jobId = objectMapper.readTree(response).at("/data/id").asLong();
+        finishedJob = awaitFinished(jobId);
+    }
+
+    @Test
+    @DisplayName("Export all Books to a compressed file in the background")
+    void checkSubmitJobShouldWriteFile() throws Exception {
+        byte[] file = mockMvc.perform(get(EXPORT_API_PATH + "/jobs/{id}/file", jobId))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andReturn().getResponse().getContentAsByteArray();
+        long books = jdbcTemplate.queryForObject(COUNT_BOOKS_SQL, Long.class);
+
+        assertAll(
+                () -> assertThat(finishedJob.get("rowsExported").asLong()).isEqualTo(books),
+                () -> assertThat(finishedJob.get("rowsTotal").asLong()).isEqualTo(books),
+                () -> assertThat(file).hasSize(finishedJob.get("fileSize").asInt()),
+                () -> assertThat(gunzip(file).lines()).hasSize((int) books + 1)
+        );
+    }
+
+    @Test
+    @DisplayName("Download a byte range of the file of an export job")
+    void checkDownloadJobFileWithRangeShouldReturnPartialContent() throws Exception {
+        long fileSize = finishedJob.get("fileSize").asLong();
+        byte[] file = mockMvc.perform(get(EXPORT_API_PATH + "/jobs/{id}/file", jobId))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        byte[] range = mockMvc.perform(get(EXPORT_API_PATH + "/jobs/{id}/file", jobId)
+                        .header(HttpHeaders.RANGE, "bytes=10-"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 10-" + (fileSize - 1) + "/" + fileSize))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertThat(range).isEqualTo(Arrays.copyOfRange(file, 10, file.length));
+    }
+
+    @Test
+    @DisplayName("Download a byte range after the end of the file of an export job; range not satisfiable")
+    void checkDownloadJobFileWithRangeAfterEndShouldReturnRangeNotSatisfiable() throws Exception {
+        long fileSize = finishedJob.get("fileSize").asLong();
+
+        mockMvc.perform(get(EXPORT_API_PATH + "/jobs/{id}/file", jobId)
+                        .header(HttpHeaders.RANGE, "bytes=" + fileSize + "-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */" + fileSize));
+    }
+
+    @Test
+    @DisplayName("Download the deleted file of an export job; gone")
+    void checkDownloadDeletedJobFileShouldReturnGone() throws Exception {
+        Files.delete(exportJobService.findFileById(jobId));
+
+        mockMvc.perform(get(EXPORT_API_PATH + "/jobs/{id}/file", jobId))
+                .andExpect(status().isGone());
+    }
+
+    @Test
+    @DisplayName("Download the file of an export job written by another instance; not found")
+    void checkDownloadJobFileOfOtherInstanceShouldReturnNotFound() throws Exception {
+        Path file = exportJobService.findFileById(jobId);
+        jdbcTemplate.update(UPDATE_INSTANCE_SQL, "other-instance", jobId);
+        Files.delete(file);
+
+        mockMvc.perform(get(EXPORT_API_PATH + "/jobs/{id}/file", jobId))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message", containsString("other-instance")));
+    }
+
+    @Test
+    @DisplayName("Leave an export job claimed by another instance to it")
+    void checkClaimedJobShouldNotBeRun() throws Exception {
+        long runningJobId = jdbcTemplate.queryForObject(INSERT_RUNNING_JOB_SQL, Long.class);
+
+        try (Connection otherInstance = dataSource.getConnection()) {
+            try (PreparedStatement statement = otherInstance.prepareStatement(LOCK_JOB_SQL)) {
+                statement.setLong(1, runningJobId);
+                statement.executeQuery().close();
+            }
+
+            exportJobWorker.submit(runningJobId);
+            // the worker runs one job at a time, so once this one is finished the claimed one was skipped
+            String response = mockMvc.perform(post(EXPORT_API_PATH + "/jobs")
+                            .param("type", "books")
+                            .param("format", "csv"))
+                    .andReturn().getResponse().getContentAsString();
+            awaitFinished(objectMapper.readTree(response).at("/data/id").asLong());
+
+            assertThat(findJob(runningJobId).get("status").asText()).isEqualTo("running");
+            // closing a pooled connection keeps its session, so the lock is released explicitly
+            try (Statement statement = otherInstance.createStatement()) {
+                statement.execute("SELECT pg_advisory_unlock_all()");
+            }
+        }
+
+        exportJobWorker.submit(runningJobId);
+
+        assertThat(awaitFinished(runningJobId).get("instanceId")).isEqualTo(finishedJob.get("instanceId"));
+    }
+
+    private JsonNode awaitFinished(long jobId) throws Exception {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        JsonNode job = findJob(jobId);
+        while ("running".equals(job.get("status").asText()) && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+            job = findJob(jobId);
+        }
+        assertThat(job.get("status").asText()).isEqualTo("finished");
+        return job;
+    }
+
+    private JsonNode findJob(long jobId) throws Exception {
+        String response = mockMvc.perform(get(EXPORT_API_PATH + "/jobs/{id}", jobId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("data");
+    }
+
+    private static String gunzip(byte[] file) throws IOException {
+        try (GZIPInputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(file))) {
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
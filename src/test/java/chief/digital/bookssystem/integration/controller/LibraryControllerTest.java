@@ -1,10 +1,15 @@
 package chief.digital.bookssystem.integration.controller;
 
 import chief.digital.bookssystem.builder.library.LibraryDtoRequestTestBuilder;
+import chief.digital.bookssystem.builder.library.LibraryUsersDtoRequestTestBuilder;
 import chief.digital.bookssystem.integration.BaseIntegrationTest;
 import chief.digital.bookssystem.model.dto.request.LibraryDtoRequest;
+import chief.digital.bookssystem.model.entity.LibraryUser;
+import chief.digital.bookssystem.model.entity.User;
 import chief.digital.bookssystem.repository.LibraryRepository;
+import chief.digital.bookssystem.repository.LibraryUserRepository;
 import chief.digital.bookssystem.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.DisplayName;
@@ -16,12 +21,17 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 
 import static chief.digital.bookssystem.controller.LibraryController.LIBRARY_API_PATH;
 import static chief.digital.bookssystem.util.TestConstants.TEST_PAGE;
 import static chief.digital.bookssystem.util.TestConstants.TEST_PAGE_SIZE;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
@@ -36,11 +46,17 @@ class LibraryControllerTest extends BaseIntegrationTest {
 
     private static final String PAGE_PARAM = "page";
     private static final String SIZE_PARAM = "size";
+    private static final String AFTER_PARAM = "after";
+    private static final String ORDER_BY_PARAM = "orderBy";
+    private static final String WITH_TOTAL_PARAM = "withTotal";
+    private static final String TOTAL_MODE_PARAM = "totalMode";
+    private static final String WITH_USERS_PARAM = "withUsers";
 
     private final MockMvc mockMvc;
     private final ObjectMapper objectMapper;
     private final LibraryRepository libraryRepository;
     private final UserRepository userRepository;
+    private final LibraryUserRepository libraryUserRepository;
 
     private final LibraryDtoRequest libraryDtoRequest = LibraryDtoRequestTestBuilder
             .aLibraryDtoRequest()
@@ -70,6 +86,88 @@ class LibraryControllerTest extends BaseIntegrationTest {
                 .andExpect(jsonPath("$.data.content.size()").value(expectedLibrarySize));
     }
 
+    @Test
+    @DisplayName("Find all Libraries with exact total")
+    void checkFindAllWithExactTotalShouldReturnTotalElements() throws Exception {
+        long expectedLibrariesCount = libraryRepository.count();
+        mockMvc.perform(get(LIBRARY_API_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .param(PAGE_PARAM, String.valueOf(TEST_PAGE))
+                        .param(SIZE_PARAM, String.valueOf(1))
+                        .param(WITH_TOTAL_PARAM, String.valueOf(true)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.content.size()").value(1))
+                .andExpect(jsonPath("$.data.hasNext").value(expectedLibrariesCount > 1))
+                .andExpect(jsonPath("$.data.totalElements").value(expectedLibrariesCount))
+                .andExpect(jsonPath("$.data.totalType").value("exact"));
+    }
+
+    @Test
+    @DisplayName("Find all Libraries with estimated total")
+    void checkFindAllWithEstimatedTotalShouldReturnTotalElements() throws Exception {
+        mockMvc.perform(get(LIBRARY_API_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .param(WITH_TOTAL_PARAM, String.valueOf(true))
+                        .param(TOTAL_MODE_PARAM, "estimate"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.totalElements").isNumber())
+                .andExpect(jsonPath("$.data.totalType").value("estimate"));
+    }
+
+    @Test
+    @DisplayName("Find all Libraries; unknown total mode")
+    void checkFindAllWithUnknownTotalModeShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get(LIBRARY_API_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .param(WITH_TOTAL_PARAM, String.valueOf(true))
+                        .param(TOTAL_MODE_PARAM, "unknown"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Find all Libraries without total")
+    void checkFindAllWithoutTotalShouldOmitTotalElements() throws Exception {
+        mockMvc.perform(get(LIBRARY_API_PATH)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.hasNext").isBoolean())
+                .andExpect(jsonPath("$.data.totalElements").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("Find all Libraries by cursor")
+    void checkFindAllAfterShouldReturnEveryLibraryOnce() throws Exception {
+        List<Long> actualLibraryIds = new ArrayList<>();
+        String after = "";
+        do {
+            String response = mockMvc.perform(get(LIBRARY_API_PATH)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .param(AFTER_PARAM, after)
+                            .param(ORDER_BY_PARAM, "title")
+                            .param(SIZE_PARAM, String.valueOf(1)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.content.size()").value(1))
+                    .andReturn().getResponse().getContentAsString();
+
+            JsonNode data = objectMapper.readTree(response).get("data");
+            actualLibraryIds.add(data.at("/content/0/id").asLong());
+            after = data.hasNonNull("nextCursor") ? data.get("nextCursor").asText() : null;
+        } while (after != null);
+
+        assertThat(actualLibraryIds)
+                .hasSize((int) libraryRepository.count())
+                .doesNotHaveDuplicates();
+    }
+
+    @Test
+    @DisplayName("Find all Libraries by cursor; invalid cursor")
+    void checkFindAllAfterShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get(LIBRARY_API_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .param(AFTER_PARAM, "%%%"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Nested
     public class FindByIdTest {
         @DisplayName("Find Library by ID")
@@ -147,6 +245,66 @@ class LibraryControllerTest extends BaseIntegrationTest {
         }
     }
 
+    @Nested
+    public class FindUsersByIdTest {
+        @Test
+        @DisplayName("Find Library by ID with Users")
+        void checkFindByIdWithUsersShouldReturnUsersIds() throws Exception {
+            Long existsLibraryId = libraryRepository.findFirstByOrderByIdAsc().get().getId();
+            mockMvc.perform(get(LIBRARY_API_PATH + "/{id}", existsLibraryId)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .param(WITH_USERS_PARAM, String.valueOf(true)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.usersIds").isArray());
+        }
+
+        @Test
+        @DisplayName("Find Library by ID without Users")
+        void checkFindByIdShouldOmitUsersIds() throws Exception {
+            Long existsLibraryId = libraryRepository.findFirstByOrderByIdAsc().get().getId();
+            mockMvc.perform(get(LIBRARY_API_PATH + "/{id}", existsLibraryId)
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.usersIds").doesNotExist());
+        }
+
+        @Test
+        @DisplayName("Find Users of Library by Library ID")
+        void checkFindUsersByIdShouldReturnEveryUserOnce() throws Exception {
+            Long existsLibraryId = libraryRepository.findFirstByOrderByIdAsc().get().getId();
+            List<Long> expectedUserIds = libraryUserRepository.findAll().stream()
+                    .filter(libraryUser -> libraryUser.getLibraryId().equals(existsLibraryId))
+                    .map(LibraryUser::getUserId)
+                    .toList();
+
+            List<Long> actualUserIds = new ArrayList<>();
+            String after = "";
+            do {
+                String response = mockMvc.perform(get(LIBRARY_API_PATH + "/{id}/users", existsLibraryId)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .param(AFTER_PARAM, after)
+                                .param(SIZE_PARAM, String.valueOf(1)))
+                        .andExpect(status().isOk())
+                        .andReturn().getResponse().getContentAsString();
+
+                JsonNode data = objectMapper.readTree(response).get("data");
+                data.get("content").forEach(user -> actualUserIds.add(user.get("id").asLong()));
+                after = data.hasNonNull("nextCursor") ? data.get("nextCursor").asText() : null;
+            } while (after != null);
+
+            assertThat(actualUserIds).containsExactlyElementsOf(expectedUserIds.stream().sorted().toList());
+        }
+
+        @Test
+        @DisplayName("Find Users of Library by Library ID; not found")
+        void checkFindUsersByIdShouldReturnNotFound() throws Exception {
+            Long doesntExistLibraryId = libraryRepository.findFirstByOrderByIdDesc().get().getId() + 1;
+            mockMvc.perform(get(LIBRARY_API_PATH + "/{id}/users", doesntExistLibraryId)
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isNotFound());
+        }
+    }
+
     @Test
     @DisplayName("Add User to Library by User ID")
     void checkAddUserByUserIdShouldReturnLibraryDtoResponse() throws Exception {
@@ -169,6 +327,89 @@ class LibraryControllerTest extends BaseIntegrationTest {
                 .andExpect(status().isOk());
     }
 
+    @Nested
+    public class LibraryUsersTest {
+        @Test
+        @DisplayName("Add Users to Library by Users IDs; repeated request adds nothing")
+        void checkAddUsersByLibraryIdShouldBeIdempotent() throws Exception {
+            Long existsLibraryId = libraryRepository.findFirstByOrderByIdAsc().get().getId();
+            List<Long> usersIds = userRepository.findAll().stream().map(User::getId).toList();
+            long expectedAdded = usersIds.size() - memberIdsOf(existsLibraryId).size();
+
+            performLibraryUsers(patch(LIBRARY_API_PATH + "/addUsers/{libraryId}", existsLibraryId), usersIds)
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.added").value(expectedAdded));
+            performLibraryUsers(patch(LIBRARY_API_PATH + "/addUsers/{libraryId}", existsLibraryId), usersIds)
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.added").value(0));
+
+            assertThat(memberIdsOf(existsLibraryId)).containsExactlyInAnyOrderElementsOf(usersIds);
+        }
+
+        @Test
+        @DisplayName("Delete Users from Library by Users IDs")
+        void checkDeleteUsersByLibraryIdShouldReturnRemoved() throws Exception {
+            Long existsLibraryId = libraryRepository.findFirstByOrderByIdAsc().get().getId();
+            List<Long> memberIds = memberIdsOf(existsLibraryId);
+
+            performLibraryUsers(patch(LIBRARY_API_PATH + "/deleteUsers/{libraryId}", existsLibraryId), memberIds)
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.removed").value(memberIds.size()));
+
+            assertThat(memberIdsOf(existsLibraryId)).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Sync Users of Library to Users IDs")
+        void checkSyncUsersByLibraryIdShouldApplyOnlyDiff() throws Exception {
+            Long existsLibraryId = libraryRepository.findFirstByOrderByIdAsc().get().getId();
+            Long lastUserId = userRepository.findFirstByOrderByIdDesc().get().getId();
+            List<Long> memberIds = memberIdsOf(existsLibraryId);
+            boolean isMember = memberIds.contains(lastUserId);
+
+            performLibraryUsers(put(LIBRARY_API_PATH + "/syncUsers/{libraryId}", existsLibraryId),
+                    List.of(lastUserId, lastUserId + 1))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.added").value(isMember ? 0 : 1))
+                    .andExpect(jsonPath("$.data.removed").value(memberIds.size() - (isMember ? 1 : 0)));
+
+            assertThat(memberIdsOf(existsLibraryId)).containsExactly(lastUserId);
+        }
+
+        @Test
+        @DisplayName("Sync Users of Library to Users IDs; not found")
+        void checkSyncUsersByLibraryIdShouldReturnNotFound() throws Exception {
+            Long doesntExistLibraryId = libraryRepository.findFirstByOrderByIdDesc().get().getId() + 1;
+            performLibraryUsers(put(LIBRARY_API_PATH + "/syncUsers/{libraryId}", doesntExistLibraryId), List.of())
+                    .andExpect(status().isNotFound());
+        }
+
+        @Test
+        @DisplayName("Add Users to Library by Users IDs; invalid request")
+        void checkAddUsersByLibraryIdShouldReturnBadRequest() throws Exception {
+            Long existsLibraryId = libraryRepository.findFirstByOrderByIdAsc().get().getId();
+            performLibraryUsers(patch(LIBRARY_API_PATH + "/addUsers/{libraryId}", existsLibraryId), null)
+                    .andExpect(status().isBadRequest());
+        }
+
+        private ResultActions performLibraryUsers(MockHttpServletRequestBuilder request, List<Long> usersIds)
+                throws Exception {
+            return mockMvc.perform(request
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(LibraryUsersDtoRequestTestBuilder
+                            .aLibraryUsersDtoRequest()
+                            .withUsersIds(usersIds)
+                            .build())));
+        }
+
+        private List<Long> memberIdsOf(Long libraryId) {
+            return libraryUserRepository.findAll().stream()
+                    .filter(libraryUser -> libraryUser.getLibraryId().equals(libraryId))
+                    .map(LibraryUser::getUserId)
+                    .toList();
+        }
+    }
+
     @Nested
     public class DeleteByIdTest {
         @DisplayName("Delete Library by ID")
@@ -3,7 +3,9 @@ package chief.digital.bookssystem.integration.controller;
 import chief.digital.bookssystem.builder.user.UserDtoRequestTestBuilder;
 import chief.digital.bookssystem.integration.BaseIntegrationTest;
 import chief.digital.bookssystem.model.dto.request.UserDtoRequest;
+import chief.digital.bookssystem.model.entity.User;
 import chief.digital.bookssystem.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.DisplayName;
@@ -15,12 +17,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 
 import static chief.digital.bookssystem.controller.UserController.USER_API_PATH;
 import static chief.digital.bookssystem.util.TestConstants.TEST_PAGE;
 import static chief.digital.bookssystem.util.TestConstants.TEST_PAGE_SIZE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
@@ -35,6 +43,10 @@ class UserControllerTest extends BaseIntegrationTest {
 
     private static final String PAGE_PARAM = "page";
     private static final String SIZE_PARAM = "size";
+    private static final String AFTER_PARAM = "after";
+    private static final String ORDER_BY_PARAM = "orderBy";
+    private static final String WITH_TOTAL_PARAM = "withTotal";
+    private static final String TOTAL_MODE_PARAM = "totalMode";
 
     private final MockMvc mockMvc;
     private final ObjectMapper objectMapper;
@@ -55,6 +67,115 @@ class UserControllerTest extends BaseIntegrationTest {
                 .andExpect(jsonPath("$.data.username").value(userDtoRequest.getUsername()));
     }
 
+    @Nested
+    public class SaveAllTest {
+        @Test
+        @DisplayName("Save Users batch")
+        void checkSaveAllShouldReturnBatchDtoResponse() throws Exception {
+            List<UserDtoRequest> userDtoRequests = List.of(
+                    userDtoRequest,
+                    UserDtoRequestTestBuilder.aUserDtoRequest().withEmail("incorrect").build(),
+                    userDtoRequest,
+                    UserDtoRequestTestBuilder.aUserDtoRequest().withUsername("cyjay96").withEmail("batch@example.com").build(),
+                    UserDtoRequestTestBuilder.aUserDtoRequest().withUsername("batch").withEmail("batch@example.com").build()
+            );
+
+            mockMvc.perform(post(USER_API_PATH + "/batch")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(userDtoRequests)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.received").value(5))
+                    .andExpect(jsonPath("$.data.saved").value(2))
+                    .andExpect(jsonPath("$.data.failed").value(3))
+                    .andExpect(jsonPath("$.data.errors[0].index").value(1))
+                    .andExpect(jsonPath("$.data.errors[0].message").value("email: Incorrect email address"))
+                    .andExpect(jsonPath("$.data.errors[1].index").value(2))
+                    .andExpect(jsonPath("$.data.errors[2].index").value(3));
+
+            assertThat(userRepository.findAll())
+                    .extracting(User::getUsername)
+                    .contains(userDtoRequest.getUsername(), "batch");
+        }
+
+        @Test
+        @DisplayName("Save Users batch; not a JSON array")
+        void checkSaveAllShouldReturnBadRequest() throws Exception {
+            mockMvc.perform(post(USER_API_PATH + "/batch")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(userDtoRequest)))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    @Nested
+    public class UpsertTest {
+        @Test
+        @DisplayName("Upsert User by username: created, updated")
+        void checkUpsertShouldReturnStatus() throws Exception {
+            UserDtoRequest updatedUserDtoRequest = UserDtoRequestTestBuilder.aUserDtoRequest()
+                    .withFirstName("upserted_first_name")
+                    .build();
+
+            mockMvc.perform(put(USER_API_PATH + "/upsert")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(userDtoRequest)))
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.data.version").value(0));
+            mockMvc.perform(put(USER_API_PATH + "/upsert")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(updatedUserDtoRequest)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.version").value(1))
+                    .andExpect(jsonPath("$.data.firstName").value("upserted_first_name"));
+        }
+
+        @Test
+        @DisplayName("Upsert Users batch by username")
+        void checkUpsertAllShouldReturnUpsertBatchDtoResponse() throws Exception {
+            List<UserDtoRequest> userDtoRequests = List.of(
+                    userDtoRequest,
+                    UserDtoRequestTestBuilder.aUserDtoRequest().withUsername("cyjay96").withEmail("cyjay96@example.com").build(),
+                    UserDtoRequestTestBuilder.aUserDtoRequest().withUsername("upserted").withEmail("sanya@example.com").build(),
+                    UserDtoRequestTestBuilder.aUserDtoRequest().withEmail("incorrect").build(),
+                    UserDtoRequestTestBuilder.aUserDtoRequest().withLastName("upserted_last_name").build()
+            );
+
+            mockMvc.perform(put(USER_API_PATH + "/upsert/batch")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(userDtoRequests)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.received").value(5))
+                    .andExpect(jsonPath("$.data.created").value(1))
+                    .andExpect(jsonPath("$.data.updated").value(2))
+                    .andExpect(jsonPath("$.data.failed").value(2))
+                    .andExpect(jsonPath("$.data.items[*].index").value(contains(0, 1, 4)))
+                    .andExpect(jsonPath("$.data.errors[*].index").value(contains(2, 3)));
+
+            assertThat(userRepository.findAll())
+                    .filteredOn(user -> user.getUsername().equals(userDtoRequest.getUsername()))
+                    .singleElement()
+                    .extracting(User::getLastName)
+                    .isEqualTo("upserted_last_name");
+        }
+    }
+
+    @Nested
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public class SaveDuplicateTest {
+        @Test
+        @DisplayName("Save User with a taken username; conflict")
+        void checkSaveWithTakenUsernameShouldReturnConflict() throws Exception {
+            UserDtoRequest duplicateUserDtoRequest = UserDtoRequestTestBuilder.aUserDtoRequest()
+                    .withUsername("cyjay96")
+                    .build();
+
+            mockMvc.perform(post(USER_API_PATH)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(duplicateUserDtoRequest)))
+                    .andExpect(status().isConflict());
+        }
+    }
+
     @Test
     @DisplayName("Find all Users")
     void checkFindAllShouldReturnUserDtoResponsePage() throws Exception {
@@ -68,6 +189,88 @@ class UserControllerTest extends BaseIntegrationTest {
                 .andExpect(jsonPath("$.data.content.size()").value(expectedUsersSize));
     }
 
+    @Test
+    @DisplayName("Find all Users with exact total")
+    void checkFindAllWithExactTotalShouldReturnTotalElements() throws Exception {
+        long expectedUsersCount = userRepository.count();
+        mockMvc.perform(get(USER_API_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .param(PAGE_PARAM, String.valueOf(TEST_PAGE))
+                        .param(SIZE_PARAM, String.valueOf(1))
+                        .param(WITH_TOTAL_PARAM, String.valueOf(true)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.content.size()").value(1))
+                .andExpect(jsonPath("$.data.hasNext").value(expectedUsersCount > 1))
+                .andExpect(jsonPath("$.data.totalElements").value(expectedUsersCount))
+                .andExpect(jsonPath("$.data.totalType").value("exact"));
+    }
+
+    @Test
+    @DisplayName("Find all Users with estimated total")
+    void checkFindAllWithEstimatedTotalShouldReturnTotalElements() throws Exception {
+        mockMvc.perform(get(USER_API_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .param(WITH_TOTAL_PARAM, String.valueOf(true))
+                        .param(TOTAL_MODE_PARAM, "estimate"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.totalElements").isNumber())
+                .andExpect(jsonPath("$.data.totalType").value("estimate"));
+    }
+
+    @Test
+    @DisplayName("Find all Users; unknown total mode")
+    void checkFindAllWithUnknownTotalModeShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get(USER_API_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .param(WITH_TOTAL_PARAM, String.valueOf(true))
+                        .param(TOTAL_MODE_PARAM, "unknown"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Find all Users without total")
+    void checkFindAllWithoutTotalShouldOmitTotalElements() throws Exception {
+        mockMvc.perform(get(USER_API_PATH)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.hasNext").isBoolean())
+                .andExpect(jsonPath("$.data.totalElements").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("Find all Users by cursor")
+    void checkFindAllAfterShouldReturnEveryUserOnce() throws Exception {
+        List<Long> actualUserIds = new ArrayList<>();
+        String after = "";
+        do {
+            String response = mockMvc.perform(get(USER_API_PATH)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .param(AFTER_PARAM, after)
+                            .param(ORDER_BY_PARAM, "id")
+                            .param(SIZE_PARAM, String.valueOf(1)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.content.size()").value(1))
+                    .andReturn().getResponse().getContentAsString();
+
+            JsonNode data = objectMapper.readTree(response).get("data");
+            actualUserIds.add(data.at("/content/0/id").asLong());
+            after = data.hasNonNull("nextCursor") ? data.get("nextCursor").asText() : null;
+        } while (after != null);
+
+        assertThat(actualUserIds)
+                .hasSize((int) userRepository.count())
+                .doesNotHaveDuplicates();
+    }
+
+    @Test
+    @DisplayName("Find all Users by cursor; invalid cursor")
+    void checkFindAllAfterShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get(USER_API_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .param(AFTER_PARAM, "%%%"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Nested
     public class FindByIdTest {
         @DisplayName("Find User by ID")
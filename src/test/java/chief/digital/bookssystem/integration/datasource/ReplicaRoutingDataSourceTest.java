@@ -0,0 +1,169 @@
+package chief.digital.bookssystem.integration.datasource;
+
+import chief.digital.bookssystem.builder.book.BookDtoRequestTestBuilder;
+import chief.digital.bookssystem.integration.BaseIntegrationTest;
+import chief.digital.bookssystem.repository.BookRepository;
+import chief.digital.bookssystem.util.EntityCache;
+import chief.digital.bookssystem.util.NegativeLookup;
+import chief.digital.bookssystem.util.ReadConsistency;
+import chief.digital.bookssystem.util.ReplicaRoutingDataSource;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.stream.IntStream;
+
+import static chief.digital.bookssystem.controller.BookController.BOOK_API_PATH;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@AutoConfigureMockMvc
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = "books-system.datasource.replica.enabled=true")
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+class ReplicaRoutingDataSourceTest extends BaseIntegrationTest {
+
+    private static final String CURRENT_DATABASE_SQL = "SELECT current_database()";
+    private static final String CURRENT_LSN_SQL = "SELECT CAST(pg_current_wal_lsn() AS text)";
+    private static final String UNREACHABLE_REPLICA_URL = "jdbc:postgresql://localhost:1/unreachable";
+    private static final String UNREACHED_LSN = "FFFFFFFF/FFFFFFFF";
+
+    private final ReplicaRoutingDataSource replicaRoutingDataSource;
+    private final PlatformTransactionManager transactionManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final MockMvc mockMvc;
+    private final ObjectMapper objectMapper;
+    private final BookRepository bookRepository;
+    private final CacheManager cacheManager;
+    private final NegativeLookup negativeLookup;
+
+    @DynamicPropertySource
+    static void setUpReplicas(DynamicPropertyRegistry registry) {
+        registry.add("books-system.datasource.replica.urls", () -> getReplicaJdbcUrl() + "," + UNREACHABLE_REPLICA_URL);
+    }
+
+    @BeforeEach
+    void checkReplicas() {
+        replicaRoutingDataSource.checkReplicas();
+    }
+
+    @Test
+    @DisplayName("Route read-only transactions to the available replica")
+    void checkReadOnlyTransactionShouldUseReplica() {
+        String primaryDatabase = jdbcTemplate.queryForObject(CURRENT_DATABASE_SQL, String.class);
+
+        IntStream.range(0, 4).forEach(i -> assertThat(currentDatabase(true)).isEqualTo(primaryDatabase + "_replica"));
+    }
+
+    @Test
+    @DisplayName("Route read-write transactions to the primary")
+    void checkReadWriteTransactionShouldUsePrimary() {
+        assertThat(currentDatabase(false)).doesNotEndWith("_replica");
+    }
+
+    @Test
+    @DisplayName("Route read with a replayed consistency token to the replica")
+    void checkReadWithReplayedTokenShouldUseReplica() {
+        String token = jdbcTemplate.queryForObject(CURRENT_LSN_SQL, String.class);
+
+        ReadConsistency.require(token);
+        try {
+            assertThat(currentDatabase(true)).endsWith("_replica");
+        } finally {
+            ReadConsistency.clear();
+        }
+    }
+
+    @Test
+    @DisplayName("Route read with a consistency token no replica has replayed to the primary")
+    void checkReadWithUnreplayedTokenShouldUsePrimary() {
+        ReadConsistency.require(UNREACHED_LSN);
+        try {
+            assertThat(currentDatabase(true)).doesNotEndWith("_replica");
+        } finally {
+            ReadConsistency.clear();
+        }
+    }
+
+    @Test
+    @Transactional
+    @DisplayName("Return consistency token on write")
+    void checkWriteShouldReturnConsistencyToken() throws Exception {
+        Long existsBookId = bookRepository.findFirstByOrderByIdDesc().get().getId();
+        mockMvc.perform(put(BOOK_API_PATH + "/{id}", existsBookId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(BookDtoRequestTestBuilder.aBookDtoRequest().build())))
+                .andExpect(status().isOk())
+                .andExpect(header().string(ReadConsistency.CONSISTENCY_TOKEN_HEADER, matchesPattern("[0-9A-F]+/[0-9A-F]+")));
+    }
+
+    @Test
+    @DisplayName("Serve read with consistency token no replica has replayed from the primary")
+    void checkReadWithUnreplayedTokenShouldReturnPrimaryData() throws Exception {
+        Long existsBookId = bookRepository.findFirstByOrderByIdDesc().get().getId();
+        mockMvc.perform(get(BOOK_API_PATH + "/{id}", existsBookId)
+                        .header(ReadConsistency.CONSISTENCY_TOKEN_HEADER, UNREACHED_LSN))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(ReadConsistency.CONSISTENCY_TOKEN_HEADER));
+    }
+
+    @Test
+    @DisplayName("Load recently evicted cache key from the primary")
+    void checkCacheLoadAfterEvictionShouldUsePrimary() {
+        Cache cache = cacheManager.getCache(EntityCache.BOOKS);
+        Long evictedBookId = bookRepository.findFirstByOrderByIdDesc().get().getId();
+
+        cache.evict(evictedBookId);
+        try {
+            assertThat(cache.get(evictedBookId, () -> currentDatabase(true))).doesNotEndWith("_replica");
+        } finally {
+            cache.evict(evictedBookId);
+        }
+    }
+
+    @Test
+    @DisplayName("Remember Book found missing on a replica only if missing on the primary")
+    void checkMissingOnReplicaShouldBeConfirmedOnPrimary() {
+        Long existsBookId = bookRepository.findFirstByOrderByIdDesc().get().getId();
+        Long missingBookId = existsBookId + 1_000_000;
+        TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+
+        readOnlyTransaction.executeWithoutResult(status -> {
+            negativeLookup.missing(EntityCache.BOOKS, existsBookId);
+            negativeLookup.missing(EntityCache.BOOKS, missingBookId);
+        });
+        try {
+            assertThat(negativeLookup.isKnownMissing(EntityCache.BOOKS, existsBookId)).isFalse();
+            assertThat(negativeLookup.isKnownMissing(EntityCache.BOOKS, missingBookId)).isTrue();
+        } finally {
+            negativeLookup.added(EntityCache.BOOKS, missingBookId);
+        }
+    }
+
+    private String currentDatabase(boolean readOnly) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status -> jdbcTemplate.queryForObject(CURRENT_DATABASE_SQL, String.class));
+    }
+}
@@ -0,0 +1,206 @@
+package chief.digital.bookssystem.integration.service;
+
+import chief.digital.bookssystem.exception.InvalidRequestException;
+import chief.digital.bookssystem.integration.BaseIntegrationTest;
+import chief.digital.bookssystem.model.dto.response.BatchItemErrorDtoResponse;
+import chief.digital.bookssystem.model.dto.response.BookImportDtoResponse;
+import chief.digital.bookssystem.model.enums.BookImportStatus;
+import chief.digital.bookssystem.repository.BookImportRepository;
+import chief.digital.bookssystem.service.BookImportService;
+import chief.digital.bookssystem.util.BookImportWorker;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "books-system.book-import.chunk-size=2",
+        "books-system.book-import.pause=0s"
+})
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+class BookImportTest extends BaseIntegrationTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    private static final String HEADER = "title,description,author,genre,publicationYear,libraryId\n";
+    private static final String INSERT_LIBRARY_SQL = """
+            INSERT INTO libraries(title, description, city, opening_time, closing_time)
+            VALUES ('Imported', 'Imported', 'Imported', '09:00', '18:00')
+            RETURNING id
+            """;
+    private static final String FIND_TAKEN_TITLE_SQL = "SELECT title FROM books ORDER BY id LIMIT 1";
+    private static final String COUNT_BOOKS_SQL = "SELECT count(*) FROM books WHERE library_id = ?";
+    private static final String DELETE_BOOKS_SQL = "DELETE FROM books WHERE library_id = ?";
+    private static final String DELETE_LIBRARY_SQL = "DELETE FROM libraries WHERE id = ?";
+    private static final String LOCK_IMPORT_SQL = "SELECT id FROM book_imports WHERE id = ? FOR UPDATE";
+
+    private final BookImportService bookImportService;
+    private final BookImportRepository bookImportRepository;
+    private final BookImportWorker bookImportWorker;
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+
+    private Long libraryId;
+
+    @BeforeEach
+    void insertLibrary() {
+        libraryId = jdbcTemplate.queryForObject(INSERT_LIBRARY_SQL, Long.class);
+    }
+
+    @AfterEach
+    void deleteLibrary() {
+        jdbcTemplate.update(DELETE_BOOKS_SQL, libraryId);
+        jdbcTemplate.update(DELETE_LIBRARY_SQL, libraryId);
+    }
+
+    @Test
+    @DisplayName("Import Books from CSV, rejecting invalid rows with their record numbers")
+    void checkImportCsvShouldMergeValidRows() throws InterruptedException {
+        String repeatedTitle = uniqueTitle();
+        String takenTitle = jdbcTemplate.queryForObject(FIND_TAKEN_TITLE_SQL, String.class);
+        String csv = HEADER
+                + row(uniqueTitle(), "2001", libraryId)
+                + row(repeatedTitle, "2002", libraryId)
+                + row("\"" + uniqueTitle() + ", with a comma\"", "2003", libraryId)
+                + row(uniqueTitle(), "-1", libraryId)
+                + row(uniqueTitle(), "2005", Long.MAX_VALUE / 2)
+                + row(repeatedTitle, "2006", libraryId)
+                + row(takenTitle, "2007", libraryId)
+                + row(uniqueTitle(), "year", libraryId);
+
+        BookImportDtoResponse bookImport = bookImportService.importCsv(toInputStream(csv));
+        BookImportDtoResponse finishedImport = awaitFinished(bookImport.getId());
+
+        assertAll(
+                () -> assertThat(bookImport.getRowsTotal()).isEqualTo(8),
+                () -> assertThat(finishedImport.getRowsMerged()).isEqualTo(3),
+                () -> assertThat(finishedImport.getRowsInvalid()).isEqualTo(5),
+                () -> assertThat(jdbcTemplate.queryForObject(COUNT_BOOKS_SQL, Long.class, libraryId)).isEqualTo(3),
+                () -> assertThat(finishedImport.getErrors())
+                        .extracting(BatchItemErrorDtoResponse::getIndex)
+                        .containsExactly(5, 6, 7, 8, 9),
+                () -> assertThat(finishedImport.getErrors().get(0).getMessage())
+                        .isEqualTo("Publication Year must be positive"),
+                () -> assertThat(finishedImport.getErrors().get(2).getMessage())
+                        .isEqualTo("Title is repeated in the import")
+        );
+    }
+
+    @Test
+    @DisplayName("Resume Book import from its checkpoint")
+    void checkResumedImportShouldMergeRemainingRowsOnce() throws InterruptedException {
+        String csv = HEADER
+                + row(uniqueTitle(), "2001", libraryId)
+                + row(uniqueTitle(), "2002", libraryId)
+                + row(uniqueTitle(), "2003", libraryId)
+                + row(uniqueTitle(), "2004", libraryId)
+                + row(uniqueTitle(), "2005", libraryId);
+        Long importId = bookImportRepository.load(toInputStream(csv));
+        bookImportRepository.validate(importId);
+        bookImportRepository.mergeChunk(importId, 2);
+
+        bookImportWorker.submit(importId);
+        BookImportDtoResponse finishedImport = awaitFinished(importId);
+
+        assertAll(
+                () -> assertThat(finishedImport.getRowsMerged()).isEqualTo(5),
+                () -> assertThat(finishedImport.getRowsInvalid()).isZero(),
+                () -> assertThat(jdbcTemplate.queryForObject(COUNT_BOOKS_SQL, Long.class, libraryId)).isEqualTo(5)
+        );
+    }
+
+    @Test
+    @DisplayName("Skip Book import claimed by another instance")
+    void checkClaimedImportShouldNotBeMerged() throws SQLException, InterruptedException {
+        String csv = HEADER
+                + row(uniqueTitle(), "2001", libraryId)
+                + row(uniqueTitle(), "2002", libraryId)
+                + row(uniqueTitle(), "2003", libraryId);
+        Long importId = bookImportRepository.load(toInputStream(csv));
+
+        try (Connection otherInstance = dataSource.getConnection()) {
+            otherInstance.setAutoCommit(false);
+            try (PreparedStatement statement = otherInstance.prepareStatement(LOCK_IMPORT_SQL)) {
+                statement.setLong(1, importId);
+                statement.executeQuery().close();
+            }
+
+            assertAll(
+                    () -> assertThat(bookImportRepository.validate(importId)).isFalse(),
+                    () -> assertThat(bookImportRepository.findById(importId).orElseThrow().getStatus())
+                            .isEqualTo(BookImportStatus.VALIDATING)
+            );
+            otherInstance.rollback();
+        }
+        assertThat(bookImportRepository.validate(importId)).isTrue();
+
+        try (Connection otherInstance = dataSource.getConnection()) {
+            otherInstance.setAutoCommit(false);
+            try (PreparedStatement statement = otherInstance.prepareStatement(LOCK_IMPORT_SQL)) {
+                statement.setLong(1, importId);
+                statement.executeQuery().close();
+            }
+
+            assertThat(bookImportRepository.mergeChunk(importId, 2)).isEmpty();
+            otherInstance.rollback();
+        }
+        assertThat(jdbcTemplate.queryForObject(COUNT_BOOKS_SQL, Long.class, libraryId)).isZero();
+
+        bookImportWorker.submit(importId);
+        BookImportDtoResponse finishedImport = awaitFinished(importId);
+
+        assertThat(finishedImport.getRowsMerged()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Import Books from malformed CSV; invalid request")
+    void checkImportCsvWithExtraColumnShouldThrowInvalidRequestException() {
+        String csv = HEADER + row(uniqueTitle(), "2001", libraryId).stripTrailing() + ",extra\n";
+
+        assertThrows(InvalidRequestException.class, () -> bookImportService.importCsv(toInputStream(csv)));
+    }
+
+    private BookImportDtoResponse awaitFinished(Long importId) throws InterruptedException {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        BookImportDtoResponse bookImport = bookImportService.findById(importId);
+        while (bookImport.getStatus() != BookImportStatus.FINISHED && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+            bookImport = bookImportService.findById(importId);
+        }
+        assertThat(bookImport.getStatus()).isEqualTo(BookImportStatus.FINISHED);
+        return bookImport;
+    }
+
+    private static String row(String title, String publicationYear, Long libraryId) {
+        return String.join(",", title, "Imported", "Imported", "Imported", publicationYear, String.valueOf(libraryId))
+                + "\n";
+    }
+
+    private static String uniqueTitle() {
+        return "Imported " + UUID.randomUUID();
+    }
+
+    private static InputStream toInputStream(String csv) {
+        return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,11 +1,16 @@
 package chief.digital.bookssystem.integration.service;
 
 import chief.digital.bookssystem.builder.book.BookDtoRequestTestBuilder;
+import chief.digital.bookssystem.builder.book.BookFilterDtoRequestTestBuilder;
 import chief.digital.bookssystem.exception.EntityNotFoundException;
+import chief.digital.bookssystem.exception.PreconditionFailedException;
 import chief.digital.bookssystem.integration.BaseIntegrationTest;
 import chief.digital.bookssystem.model.dto.request.BookDtoRequest;
+import chief.digital.bookssystem.model.dto.request.BookFilterDtoRequest;
 import chief.digital.bookssystem.model.dto.response.BookDtoResponse;
+import chief.digital.bookssystem.model.dto.response.FacetDtoResponse;
 import chief.digital.bookssystem.model.dto.response.PageResponse;
+import chief.digital.bookssystem.model.enums.TotalType;
 import chief.digital.bookssystem.repository.BookRepository;
 import chief.digital.bookssystem.repository.LibraryRepository;
 import chief.digital.bookssystem.service.BookService;
@@ -36,6 +41,7 @@ class BookServiceTest extends BaseIntegrationTest {
     private final EntityManager entityManager;
 
     private final BookDtoRequest bookDtoRequest = BookDtoRequestTestBuilder.aBookDtoRequest().build();
+    private final BookFilterDtoRequest emptyFilter = BookFilterDtoRequestTestBuilder.aBookFilterDtoRequest().build();
     private final Pageable pageable = PageRequest.of(TEST_PAGE, TEST_PAGE_SIZE);
 
     @Test
@@ -50,10 +56,54 @@ class BookServiceTest extends BaseIntegrationTest {
     @DisplayName("Find all Books")
     void checkFindAllShouldReturnBookDtoResponsePage() {
         int expectedBooksSize = (int) bookRepository.count();
-        PageResponse<BookDtoResponse> actualBooks = bookService.findAll(pageable);
+        PageResponse<BookDtoResponse> actualBooks = bookService.findAll(emptyFilter, pageable, null, false);
         assertThat(actualBooks.getContent()).hasSize(expectedBooksSize);
     }
 
+    @Test
+    @DisplayName("Find all Books by Library ID with facets")
+    void checkFindAllByFilterShouldReturnLibraryBooksAndFacets() {
+        Long expectedLibraryId = libraryRepository.findFirstByOrderByIdAsc().get().getId();
+        BookFilterDtoRequest filter = BookFilterDtoRequestTestBuilder.aBookFilterDtoRequest()
+                .withLibraryId(expectedLibraryId)
+                .build();
+
+        PageResponse<BookDtoResponse> actualBooks = bookService.findAll(filter, pageable, TotalType.EXACT, true);
+
+        assertThat(actualBooks.getContent())
+                .isNotEmpty()
+                .allSatisfy(book -> assertThat(book.getLibraryId()).isEqualTo(expectedLibraryId));
+        assertThat(actualBooks.getTotalElements()).isEqualTo(actualBooks.getContent().size());
+        assertThat(actualBooks.getFacets().get("libraryId"))
+                .containsExactly(FacetDtoResponse.builder()
+                        .value(String.valueOf(expectedLibraryId))
+                        .count(actualBooks.getTotalElements())
+                        .build());
+        assertThat(actualBooks.getFacets().get("genre"))
+                .extracting(FacetDtoResponse::getCount)
+                .containsOnly(1L);
+    }
+
+    @Test
+    @DisplayName("Search Books ordered by relevance")
+    void checkSearchShouldRankTitleMatchesFirst() {
+        Long libraryId = libraryRepository.findFirstByOrderByIdAsc().get().getId();
+        BookDtoResponse descriptionMatch = bookService.saveByLibraryId(libraryId, BookDtoRequestTestBuilder.aBookDtoRequest()
+                .withTitle("Travel notes")
+                .withDescription("A week in Zanzibar")
+                .build());
+        BookDtoResponse titleMatch = bookService.saveByLibraryId(libraryId, BookDtoRequestTestBuilder.aBookDtoRequest()
+                .withTitle("Zanzibar")
+                .build());
+        entityManager.flush();
+
+        PageResponse<BookDtoResponse> actualBooks = bookService.search("zanzibar", null, null, null, TEST_PAGE_SIZE);
+
+        assertThat(actualBooks.getContent())
+                .extracting(BookDtoResponse::getId)
+                .containsExactly(titleMatch.getId(), descriptionMatch.getId());
+    }
+
     @Nested
     public class FindByIdTest {
         @DisplayName("Find Book by ID")
@@ -79,17 +129,52 @@ class BookServiceTest extends BaseIntegrationTest {
         @ParameterizedTest
         @ValueSource(longs = {1L, 2L})
         void checkUpdateShouldReturnBookDtoResponse(Long id) {
-            BookDtoResponse actualBook = bookService.update(id, bookDtoRequest);
+            BookDtoResponse actualBook = bookService.update(id, bookDtoRequest, null);
             assertThat(actualBook.getId()).isEqualTo(id);
         }
 
+        @Test
+        @DisplayName("Update only the provided fields of Book by ID")
+        void checkUpdateWithSomeFieldsShouldKeepOtherFields() {
+            BookDtoResponse book = bookService.findById(1L);
+
+            BookDtoResponse actualBook = bookService.update(1L, BookDtoRequest.builder().genre("Updated").build(), null);
+
+            assertThat(actualBook)
+                    .usingRecursiveComparison()
+                    .ignoringFields("genre", "version")
+                    .isEqualTo(book);
+            assertThat(actualBook.getGenre()).isEqualTo("Updated");
+            assertThat(actualBook.getVersion()).isEqualTo(book.getVersion() + 1);
+        }
+
+        @Test
+        @DisplayName("Update Book by ID with unchanged fields keeps its version")
+        void checkUpdateWithUnchangedFieldsShouldKeepVersion() {
+            BookDtoResponse book = bookService.findById(1L);
+
+            BookDtoResponse actualBook = bookService.update(1L,
+                    BookDtoRequest.builder().title(book.getTitle()).build(), book.getVersion());
+
+            assertThat(actualBook.getVersion()).isEqualTo(book.getVersion());
+        }
+
+        @Test
+        @DisplayName("Update Book by ID; modified since the expected version")
+        void checkUpdateWithStaleVersionShouldThrowPreconditionFailedException() {
+            Long version = bookService.findById(1L).getVersion();
+
+            assertThrows(PreconditionFailedException.class,
+                    () -> bookService.update(1L, bookDtoRequest, version + 1));
+        }
+
         @Test
         @DisplayName("Update Book by ID; not found")
         void checkUpdateShouldThrowBookNotFoundException() {
             Long doesntExistBookId = new Random()
                     .nextLong(bookRepository.findFirstByOrderByIdDesc().get().getId() + 1, Long.MAX_VALUE);
             assertThrows(EntityNotFoundException.class,
-                    () -> bookService.update(doesntExistBookId, bookDtoRequest)
+                    () -> bookService.update(doesntExistBookId, bookDtoRequest, null)
             );
         }
     }
@@ -0,0 +1,144 @@
+package chief.digital.bookssystem.integration.service;
+
+import chief.digital.bookssystem.exception.EntityNotFoundException;
+import chief.digital.bookssystem.integration.BaseIntegrationTest;
+import chief.digital.bookssystem.model.dto.response.LibraryDeletionDtoResponse;
+import chief.digital.bookssystem.service.LibraryService;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "books-system.library-deletion.chunk-size=2",
+        "books-system.library-deletion.pause=0s"
+})
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+class LibraryDeletionTest extends BaseIntegrationTest {
+
+    private static final int BOOKS = 5;
+    private static final List<Long> USERS_IDS = List.of(1L, 2L, 3L);
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    private static final String INSERT_LIBRARY_SQL = """
+            INSERT INTO libraries(title, description, city, opening_time, closing_time)
+            VALUES ('Deleted', 'Deleted', 'Deleted', '09:00', '18:00')
+            RETURNING id
+            """;
+    private static final String INSERT_BOOK_SQL = """
+            INSERT INTO books(title, description, author, genre, publication_year, library_id)
+            VALUES (?, 'Deleted', 'Deleted', 'Deleted', 2000, ?)
+            """;
+    private static final String INSERT_LIBRARY_USER_SQL = "INSERT INTO library_users(library_id, user_id) VALUES (?, ?)";
+    private static final String COUNT_BOOKS_SQL = "SELECT count(*) FROM books WHERE library_id = ?";
+    private static final String COUNT_LIBRARIES_SQL = "SELECT count(*) FROM libraries WHERE id = ?";
+    private static final String LOCK_BOOK_SQL = "SELECT id FROM books WHERE library_id = ? LIMIT 1 FOR UPDATE";
+
+    private final LibraryService libraryService;
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+
+    private Long libraryId;
+
+    @BeforeEach
+    void insertLibrary() {
+        libraryId = jdbcTemplate.queryForObject(INSERT_LIBRARY_SQL, Long.class);
+        for (int i = 0; i < BOOKS; i++) {
+            jdbcTemplate.update(INSERT_BOOK_SQL, "Deleted " + UUID.randomUUID(), libraryId);
+        }
+        USERS_IDS.forEach(userId -> jdbcTemplate.update(INSERT_LIBRARY_USER_SQL, libraryId, userId));
+    }
+
+    @Test
+    @DisplayName("Delete Library by ID with its Books and memberships in one statement")
+    void checkDeleteByIdShouldDeleteBooks() {
+        libraryService.deleteById(libraryId);
+
+        assertAll(
+                () -> assertThat(jdbcTemplate.queryForObject(COUNT_BOOKS_SQL, Long.class, libraryId)).isZero(),
+                () -> assertThat(jdbcTemplate.queryForObject(COUNT_LIBRARIES_SQL, Long.class, libraryId)).isZero()
+        );
+    }
+
+    @Test
+    @DisplayName("Delete Library by ID in the background, hidden at once")
+    void checkDeleteByIdAsyncShouldDeleteLibraryInChunks() throws InterruptedException {
+        LibraryDeletionDtoResponse deletion = libraryService.deleteByIdAsync(libraryId);
+
+        assertAll(
+                () -> assertThat(deletion.getBooksTotal()).isEqualTo(BOOKS),
+                () -> assertThat(deletion.getMembershipsTotal()).isEqualTo(USERS_IDS.size()),
+                () -> assertThrows(EntityNotFoundException.class, () -> libraryService.findById(libraryId, false)),
+                () -> assertThrows(EntityNotFoundException.class, () -> libraryService.deleteByIdAsync(libraryId))
+        );
+
+        LibraryDeletionDtoResponse finishedDeletion = awaitFinished(libraryId);
+
+        assertAll(
+                () -> assertThat(finishedDeletion.getBooksDeleted()).isEqualTo(BOOKS),
+                () -> assertThat(finishedDeletion.getMembershipsDeleted()).isEqualTo(USERS_IDS.size()),
+                () -> assertThat(jdbcTemplate.queryForObject(COUNT_BOOKS_SQL, Long.class, libraryId)).isZero(),
+                () -> assertThat(jdbcTemplate.queryForObject(COUNT_LIBRARIES_SQL, Long.class, libraryId)).isZero()
+        );
+    }
+
+    @Test
+    @DisplayName("Delete Library by ID in the background again after a Book was left behind")
+    void checkDeleteByIdAsyncShouldRetryLeftBooks() throws SQLException, InterruptedException {
+        try (Connection otherTransaction = dataSource.getConnection()) {
+            otherTransaction.setAutoCommit(false);
+            try (PreparedStatement statement = otherTransaction.prepareStatement(LOCK_BOOK_SQL)) {
+                statement.setLong(1, libraryId);
+                statement.executeQuery().close();
+            }
+
+            libraryService.deleteByIdAsync(libraryId);
+            long deadline = System.nanoTime() + TIMEOUT.toNanos();
+            while (libraryService.findDeletionById(libraryId).getMembershipsDeleted() < USERS_IDS.size()
+                    && System.nanoTime() < deadline) {
+                Thread.sleep(50);
+            }
+            // the locked book is skipped, so the first attempt cannot finish
+            Thread.sleep(200);
+            assertThat(jdbcTemplate.queryForObject(COUNT_LIBRARIES_SQL, Long.class, libraryId)).isOne();
+
+            otherTransaction.rollback();
+        }
+
+        LibraryDeletionDtoResponse finishedDeletion = awaitFinished(libraryId);
+
+        assertAll(
+                () -> assertThat(finishedDeletion.getBooksDeleted()).isEqualTo(BOOKS),
+                () -> assertThat(jdbcTemplate.queryForObject(COUNT_LIBRARIES_SQL, Long.class, libraryId)).isZero()
+        );
+    }
+
+    private LibraryDeletionDtoResponse awaitFinished(Long libraryId) throws InterruptedException {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        LibraryDeletionDtoResponse deletion = libraryService.findDeletionById(libraryId);
+        while (Objects.isNull(deletion.getFinishedAt()) && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+            deletion = libraryService.findDeletionById(libraryId);
+        }
+        assertThat(deletion.getFinishedAt()).isNotNull();
+        return deletion;
+    }
+}
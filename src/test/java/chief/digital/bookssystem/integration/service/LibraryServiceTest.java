@@ -6,7 +6,12 @@ import chief.digital.bookssystem.integration.BaseIntegrationTest;
 import chief.digital.bookssystem.model.dto.request.LibraryDtoRequest;
 import chief.digital.bookssystem.model.dto.response.LibraryDtoResponse;
 import chief.digital.bookssystem.model.dto.response.PageResponse;
+import chief.digital.bookssystem.model.entity.Book;
+import chief.digital.bookssystem.model.entity.Library;
+import chief.digital.bookssystem.model.entity.LibraryUser;
+import chief.digital.bookssystem.model.entity.LibraryUserId;
 import chief.digital.bookssystem.repository.LibraryRepository;
+import chief.digital.bookssystem.repository.LibraryUserRepository;
 import chief.digital.bookssystem.repository.UserRepository;
 import chief.digital.bookssystem.service.LibraryService;
 import jakarta.persistence.EntityManager;
@@ -33,6 +38,7 @@ class LibraryServiceTest extends BaseIntegrationTest {
     private final LibraryService libraryService;
     private final LibraryRepository libraryRepository;
     private final UserRepository userRepository;
+    private final LibraryUserRepository libraryUserRepository;
     private final EntityManager entityManager;
 
     private final LibraryDtoRequest libraryDtoRequest = LibraryDtoRequestTestBuilder.aLibraryDtoRequest().build();
@@ -49,17 +55,34 @@ class LibraryServiceTest extends BaseIntegrationTest {
     @DisplayName("Find all Library")
     void checkFindAllShouldReturnLibraryDtoResponsePage() {
         int expectedLibrarySize = (int) libraryRepository.count();
-        PageResponse<LibraryDtoResponse> actualLibrary = libraryService.findAll(pageable);
+        PageResponse<LibraryDtoResponse> actualLibrary = libraryService.findAll(pageable, null, false);
         assertThat(actualLibrary.getContent()).hasSize(expectedLibrarySize);
     }
 
+    @Test
+    @DisplayName("Find all Library with Books and Users IDs")
+    void checkFindAllShouldReturnBooksAndUsersIds() {
+        PageResponse<LibraryDtoResponse> actualLibrary = libraryService.findAll(pageable, null, true);
+
+        assertThat(actualLibrary.getContent()).allSatisfy(actualLibraryDtoResponse -> {
+            Library expectedLibrary = libraryRepository.findById(actualLibraryDtoResponse.getId()).get();
+            assertThat(actualLibraryDtoResponse.getBooksIds())
+                    .containsExactlyInAnyOrderElementsOf(expectedLibrary.getBooks().stream().map(Book::getId).toList());
+            assertThat(actualLibraryDtoResponse.getUsersIds())
+                    .containsExactlyInAnyOrderElementsOf(libraryUserRepository.findAll().stream()
+                            .filter(libraryUser -> libraryUser.getLibraryId().equals(expectedLibrary.getId()))
+                            .map(LibraryUser::getUserId)
+                            .toList());
+        });
+    }
+
     @Nested
     public class FindByIdTest {
         @DisplayName("Find Library by ID")
         @ParameterizedTest
         @ValueSource(longs = {1L, 2L})
         void checkFindByIdShouldReturnLibraryDtoResponse(Long id) {
-            LibraryDtoResponse actualLibrary = libraryService.findById(id);
+            LibraryDtoResponse actualLibrary = libraryService.findById(id, false);
             assertThat(actualLibrary.getId()).isEqualTo(id);
         }
 
@@ -68,7 +91,7 @@ class LibraryServiceTest extends BaseIntegrationTest {
         void checkFindByIdShouldThrowLibraryNotFoundException() {
             Long doesntExistLibraryId = new Random()
                     .nextLong(libraryRepository.findFirstByOrderByIdDesc().get().getId() + 1, Long.MAX_VALUE);
-            assertThrows(EntityNotFoundException.class, () -> libraryService.findById(doesntExistLibraryId));
+            assertThrows(EntityNotFoundException.class, () -> libraryService.findById(doesntExistLibraryId, false));
         }
     }
 
@@ -78,7 +101,7 @@ class LibraryServiceTest extends BaseIntegrationTest {
         @ParameterizedTest
         @ValueSource(longs = {1L, 2L})
         void checkUpdateShouldReturnLibraryDtoResponse(Long id) {
-            LibraryDtoResponse actualLibrary = libraryService.update(id, libraryDtoRequest);
+            LibraryDtoResponse actualLibrary = libraryService.update(id, libraryDtoRequest, null);
             assertThat(actualLibrary.getId()).isEqualTo(id);
         }
 
@@ -88,7 +111,7 @@ class LibraryServiceTest extends BaseIntegrationTest {
             Long doesntExistLibraryId = new Random()
                     .nextLong(libraryRepository.findFirstByOrderByIdDesc().get().getId() + 1, Long.MAX_VALUE);
             assertThrows(EntityNotFoundException.class,
-                    () -> libraryService.update(doesntExistLibraryId, libraryDtoRequest)
+                    () -> libraryService.update(doesntExistLibraryId, libraryDtoRequest, null)
             );
         }
     }
@@ -99,7 +122,8 @@ class LibraryServiceTest extends BaseIntegrationTest {
         Long existsLibraryId = libraryRepository.findFirstByOrderByIdAsc().get().getId();
         Long existsUserId = userRepository.findFirstByOrderByIdDesc().get().getId();
         LibraryDtoResponse actualLibrary = libraryService.addUserByUserId(existsLibraryId, existsUserId);
-        assertThat(actualLibrary.getUsersIds().contains(existsUserId)).isTrue();
+        assertThat(actualLibrary.getId()).isEqualTo(existsLibraryId);
+        assertThat(libraryUserRepository.existsById(new LibraryUserId(existsLibraryId, existsUserId))).isTrue();
     }
 
     @Test
@@ -108,7 +132,8 @@ class LibraryServiceTest extends BaseIntegrationTest {
         Long existsLibraryId = libraryRepository.findFirstByOrderByIdAsc().get().getId();
         Long existsUserId = userRepository.findFirstByOrderByIdAsc().get().getId();
         LibraryDtoResponse actualLibrary = libraryService.deleteUserByUserId(existsLibraryId, existsUserId);
-        assertThat(actualLibrary.getUsersIds().contains(existsUserId)).isFalse();
+        assertThat(actualLibrary.getId()).isEqualTo(existsLibraryId);
+        assertThat(libraryUserRepository.existsById(new LibraryUserId(existsLibraryId, existsUserId))).isFalse();
     }
 
     @Nested
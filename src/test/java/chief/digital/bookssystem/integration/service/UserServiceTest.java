@@ -6,6 +6,8 @@ import chief.digital.bookssystem.integration.BaseIntegrationTest;
 import chief.digital.bookssystem.model.dto.request.UserDtoRequest;
 import chief.digital.bookssystem.model.dto.response.PageResponse;
 import chief.digital.bookssystem.model.dto.response.UserDtoResponse;
+import chief.digital.bookssystem.model.entity.LibraryUser;
+import chief.digital.bookssystem.repository.LibraryUserRepository;
 import chief.digital.bookssystem.repository.UserRepository;
 import chief.digital.bookssystem.service.UserService;
 import jakarta.persistence.EntityManager;
@@ -31,6 +33,7 @@ class UserServiceTest extends BaseIntegrationTest {
 
     private final UserService userService;
     private final UserRepository userRepository;
+    private final LibraryUserRepository libraryUserRepository;
     private final EntityManager entityManager;
 
     private final UserDtoRequest userDtoRequest = UserDtoRequestTestBuilder.aUserDtoRequest().build();
@@ -47,10 +50,24 @@ class UserServiceTest extends BaseIntegrationTest {
     @DisplayName("Find all Users")
     void checkFindAllShouldReturnUserDtoResponsePage() {
         int expectedUsersSize = (int) userRepository.count();
-        PageResponse<UserDtoResponse> actualUsers = userService.findAll(pageable);
+        PageResponse<UserDtoResponse> actualUsers = userService.findAll(pageable, null);
         assertThat(actualUsers.getContent()).hasSize(expectedUsersSize);
     }
 
+    @Test
+    @DisplayName("Find all Users with Libraries IDs")
+    void checkFindAllShouldReturnLibrariesIds() {
+        PageResponse<UserDtoResponse> actualUsers = userService.findAll(pageable, null);
+
+        assertThat(actualUsers.getContent()).allSatisfy(actualUserDtoResponse -> {
+            assertThat(actualUserDtoResponse.getLibrariesIds())
+                    .containsExactlyInAnyOrderElementsOf(libraryUserRepository.findAll().stream()
+                            .filter(libraryUser -> libraryUser.getUserId().equals(actualUserDtoResponse.getId()))
+                            .map(LibraryUser::getLibraryId)
+                            .toList());
+        });
+    }
+
     @Nested
     public class FindByIdTest {
         @DisplayName("Find User by ID")
@@ -76,7 +93,7 @@ class UserServiceTest extends BaseIntegrationTest {
         @ParameterizedTest
         @ValueSource(longs = {1L, 2L})
         void checkUpdateShouldReturnUserDtoResponse(Long id) {
-            UserDtoResponse actualUser = userService.update(id, userDtoRequest);
+            UserDtoResponse actualUser = userService.update(id, userDtoRequest, null);
             assertThat(actualUser.getId()).isEqualTo(id);
         }
 
@@ -86,7 +103,7 @@ class UserServiceTest extends BaseIntegrationTest {
             Long doesntExistUserId = new Random()
                     .nextLong(userRepository.findFirstByOrderByIdDesc().get().getId() + 1, Long.MAX_VALUE);
             assertThrows(EntityNotFoundException.class,
-                    () -> userService.update(doesntExistUserId, userDtoRequest)
+                    () -> userService.update(doesntExistUserId, userDtoRequest, null)
             );
         }
     }
@@ -2,18 +2,43 @@ package chief.digital.bookssystem.service;
 
 import chief.digital.bookssystem.builder.book.BookDtoRequestTestBuilder;
 import chief.digital.bookssystem.builder.book.BookDtoResponseTestBuilder;
+import chief.digital.bookssystem.builder.book.BookFilterDtoRequestTestBuilder;
 import chief.digital.bookssystem.builder.book.BookTestBuilder;
 import chief.digital.bookssystem.builder.library.LibraryTestBuilder;
+import chief.digital.bookssystem.config.BatchProperties;
+import chief.digital.bookssystem.config.PagingProperties;
 import chief.digital.bookssystem.exception.EntityNotFoundException;
+import chief.digital.bookssystem.exception.InvalidRequestException;
+import chief.digital.bookssystem.exception.PreconditionFailedException;
 import chief.digital.bookssystem.mapper.BookMapper;
 import chief.digital.bookssystem.model.dto.request.BookDtoRequest;
+import chief.digital.bookssystem.model.dto.request.BookFilterDtoRequest;
+import chief.digital.bookssystem.model.dto.response.BatchDtoResponse;
+import chief.digital.bookssystem.model.dto.response.BatchItemErrorDtoResponse;
 import chief.digital.bookssystem.model.dto.response.BookDtoResponse;
+import chief.digital.bookssystem.model.dto.response.FacetDtoResponse;
 import chief.digital.bookssystem.model.dto.response.PageResponse;
+import chief.digital.bookssystem.model.dto.response.UpsertBatchDtoResponse;
+import chief.digital.bookssystem.model.dto.response.UpsertItemDtoResponse;
 import chief.digital.bookssystem.model.entity.Book;
 import chief.digital.bookssystem.model.entity.Library;
+import chief.digital.bookssystem.model.enums.TotalType;
+import chief.digital.bookssystem.model.enums.UpsertStatus;
+import chief.digital.bookssystem.model.projection.Counted;
+import chief.digital.bookssystem.model.projection.FacetCount;
+import chief.digital.bookssystem.model.projection.RankedId;
+import chief.digital.bookssystem.model.projection.Upserted;
 import chief.digital.bookssystem.repository.BookRepository;
 import chief.digital.bookssystem.repository.LibraryRepository;
 import chief.digital.bookssystem.service.impl.BookServiceImpl;
+import chief.digital.bookssystem.util.EntityCache;
+import chief.digital.bookssystem.util.JsonArrayReader;
+import chief.digital.bookssystem.util.KeysetCursor;
+import chief.digital.bookssystem.util.NegativeLookup;
+import chief.digital.bookssystem.util.RowCountEstimator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -28,21 +53,32 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Optional;
 
+import static chief.digital.bookssystem.util.TestConstants.TEST_ESTIMATE;
 import static chief.digital.bookssystem.util.TestConstants.TEST_ID;
 import static chief.digital.bookssystem.util.TestConstants.TEST_PAGE;
 import static chief.digital.bookssystem.util.TestConstants.TEST_PAGE_SIZE;
+import static chief.digital.bookssystem.util.TestConstants.TEST_STRING;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
@@ -59,10 +95,28 @@ class BookServiceTest {
     @Mock
     private BookMapper bookMapper;
 
+    @Mock
+    private RowCountEstimator rowCountEstimator;
+
+    @Mock
+    private EntityCache entityCache;
+
+    @Mock
+    private NegativeLookup negativeLookup;
+
     @Captor
     ArgumentCaptor<Book> bookCaptor;
 
+    @Captor
+    ArgumentCaptor<List<Book>> booksCaptor;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+    private final BatchProperties batchProperties = new BatchProperties();
+    private final PagingProperties pagingProperties = new PagingProperties();
+
     private final BookDtoRequest bookDtoRequest = BookDtoRequestTestBuilder.aBookDtoRequest().build();
+    private final BookFilterDtoRequest emptyFilter = BookFilterDtoRequestTestBuilder.aBookFilterDtoRequest().build();
     private final BookDtoResponse expectedBookDtoResponse = BookDtoResponseTestBuilder.aBookDtoResponse().build();
     private final Book expectedBook = BookTestBuilder.aBook().build();
     private final Library library = LibraryTestBuilder.aLibrary().build();
@@ -70,7 +124,9 @@ class BookServiceTest {
 
     @BeforeEach
     void setUp() {
-        bookService = new BookServiceImpl(bookRepository, libraryRepository, bookMapper);
+        bookService = new BookServiceImpl(bookRepository, libraryRepository, bookMapper, rowCountEstimator,
+                new JsonArrayReader(objectMapper), validator, batchProperties, pagingProperties, entityCache,
+                negativeLookup);
     }
 
     @Nested
@@ -78,7 +134,8 @@ class BookServiceTest {
         @Test
         @DisplayName("Save Book by Library ID")
         void checkSaveByLibraryIdShouldReturnBookDtoResponse() {
-            doReturn(Optional.of(library)).when(libraryRepository).findById(TEST_ID);
+            doReturn(true).when(libraryRepository).existsById(TEST_ID);
+            doReturn(library).when(libraryRepository).getReferenceById(TEST_ID);
             doReturn(expectedBook).when(bookMapper).toBook(bookDtoRequest);
             doReturn(expectedBook).when(bookRepository).save(expectedBook);
             doReturn(expectedBookDtoResponse).when(bookMapper).toBookDtoResponse(expectedBook);
@@ -95,36 +152,419 @@ class BookServiceTest {
         @Test
         @DisplayName("Save Book by Library ID with Argument Captor")
         void checkSaveByLibraryIdWithArgumentCaptorShouldReturnBookDtoResponse() {
-            doReturn(Optional.of(library)).when(libraryRepository).findById(TEST_ID);
+            doReturn(true).when(libraryRepository).existsById(TEST_ID);
+            doReturn(library).when(libraryRepository).getReferenceById(TEST_ID);
             doReturn(expectedBook).when(bookMapper).toBook(bookDtoRequest);
             doReturn(expectedBook).when(bookRepository).save(expectedBook);
             doReturn(expectedBookDtoResponse).when(bookMapper).toBookDtoResponse(expectedBook);
 
             bookService.saveByLibraryId(TEST_ID, bookDtoRequest);
 
-            verify(libraryRepository).findById(anyLong());
+            verify(libraryRepository).existsById(anyLong());
+            verify(libraryRepository, never()).findById(anyLong());
             verify(bookMapper).toBook(any());
             verify(bookRepository).save(bookCaptor.capture());
             verify(bookMapper).toBookDtoResponse(any());
+            verify(entityCache).evict(EntityCache.LIBRARIES, TEST_ID);
 
             assertThat(bookCaptor.getValue()).isEqualTo(expectedBook);
         }
     }
 
-    @Test
-    @DisplayName("Find all Books")
-    void checkFindAllShouldReturnBookDtoResponsePage() {
-        doReturn(new PageImpl<>(List.of(expectedBook))).when(bookRepository).findAll(pageable);
-        doReturn(expectedBookDtoResponse).when(bookMapper).toBookDtoResponse(expectedBook);
+    @Nested
+    public class SaveAllByLibraryIdTest {
+        @Test
+        @DisplayName("Save Books batch by Library ID")
+        void checkSaveAllByLibraryIdShouldReturnBatchDtoResponse() throws Exception {
+            BookDtoRequest invalidBookDtoRequest = BookDtoRequestTestBuilder.aBookDtoRequest()
+                    .withTitle(null)
+                    .build();
+            InputStream bookDtoRequests = toInputStream(List.of(bookDtoRequest, invalidBookDtoRequest, bookDtoRequest));
+
+            doReturn(true).when(libraryRepository).existsById(TEST_ID);
+            doReturn(expectedBook).when(bookMapper).toBook(bookDtoRequest);
+            doReturn(new int[]{1, 0}).when(bookRepository).insertAllByLibraryId(eq(TEST_ID), any());
+
+            BatchDtoResponse actualBatch = bookService.saveAllByLibraryId(TEST_ID, bookDtoRequests);
+
+            verify(bookRepository).insertAllByLibraryId(eq(TEST_ID), booksCaptor.capture());
+
+            assertAll(
+                    () -> assertThat(booksCaptor.getValue()).hasSize(2),
+                    () -> assertThat(actualBatch.getReceived()).isEqualTo(3),
+                    () -> assertThat(actualBatch.getSaved()).isEqualTo(1),
+                    () -> assertThat(actualBatch.getFailed()).isEqualTo(2),
+                    () -> assertThat(actualBatch.getErrors())
+                            .extracting(BatchItemErrorDtoResponse::getIndex)
+                            .containsExactly(1, 2)
+            );
+        }
+
+        @Test
+        @DisplayName("Save Books batch by Library ID; writes by batch size")
+        void checkSaveAllByLibraryIdShouldWriteByBatchSize() throws Exception {
+            batchProperties.setSize(1);
+            InputStream bookDtoRequests = toInputStream(List.of(bookDtoRequest, bookDtoRequest));
+
+            doReturn(true).when(libraryRepository).existsById(TEST_ID);
+            doReturn(expectedBook).when(bookMapper).toBook(bookDtoRequest);
+            doReturn(new int[]{1}).when(bookRepository).insertAllByLibraryId(eq(TEST_ID), any());
+
+            BatchDtoResponse actualBatch = bookService.saveAllByLibraryId(TEST_ID, bookDtoRequests);
+
+            verify(bookRepository, times(2)).insertAllByLibraryId(eq(TEST_ID), any());
+
+            assertThat(actualBatch.getSaved()).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("Save Books batch by Library ID; body breaking off after a written batch")
+        void checkSaveAllByLibraryIdWithTruncatedBodyShouldReportWrittenBooks() throws Exception {
+            batchProperties.setSize(1);
+            byte[] body = objectMapper.writeValueAsBytes(List.of(bookDtoRequest, bookDtoRequest));
+            InputStream bookDtoRequests = new ByteArrayInputStream(body, 0, body.length - 1);
+
+            doReturn(true).when(libraryRepository).existsById(TEST_ID);
+            doReturn(expectedBook).when(bookMapper).toBook(bookDtoRequest);
+            doReturn(new int[]{1}).when(bookRepository).insertAllByLibraryId(eq(TEST_ID), any());
+
+            BatchDtoResponse actualBatch = bookService.saveAllByLibraryId(TEST_ID, bookDtoRequests);
+
+            verify(libraryRepository, times(2)).incrementVersions(List.of(TEST_ID));
+            verify(entityCache, times(2)).evict(EntityCache.LIBRARIES, TEST_ID);
+
+            assertAll(
+                    () -> assertThat(actualBatch.getSaved()).isEqualTo(2),
+                    () -> assertThat(actualBatch.getErrors())
+                            .extracting(BatchItemErrorDtoResponse::getIndex)
+                            .containsExactly(2)
+            );
+        }
+
+        @Test
+        @DisplayName("Save Books batch by Library ID; not found")
+        void checkSaveAllByLibraryIdShouldThrowLibraryNotFoundException() throws Exception {
+            InputStream bookDtoRequests = toInputStream(List.of(bookDtoRequest));
+
+            doReturn(false).when(libraryRepository).existsById(anyLong());
+
+            assertThrows(EntityNotFoundException.class,
+                    () -> bookService.saveAllByLibraryId(TEST_ID, bookDtoRequests)
+            );
+
+            verify(bookRepository, never()).insertAllByLibraryId(anyLong(), any());
+        }
+
+        private InputStream toInputStream(List<BookDtoRequest> bookDtoRequests) throws Exception {
+            return new ByteArrayInputStream(objectMapper.writeValueAsBytes(bookDtoRequests));
+        }
+    }
+
+    @Nested
+    public class UpsertByLibraryIdTest {
+        @Test
+        @DisplayName("Upsert Book by Library ID; updated")
+        void checkUpsertByLibraryIdShouldEvictUpdatedBook() {
+            doReturn(true).when(libraryRepository).existsById(TEST_ID);
+            doReturn(expectedBook).when(bookMapper).toBook(bookDtoRequest);
+            doReturn(List.of(new Upserted<>(expectedBook, UpsertStatus.UPDATED)))
+                    .when(bookRepository).upsertAllByLibraryId(TEST_ID, List.of(expectedBook));
+            doReturn(expectedBookDtoResponse).when(bookMapper).toBookDtoResponse(expectedBook);
+
+            Upserted<BookDtoResponse> actualBook = bookService.upsertByLibraryId(TEST_ID, bookDtoRequest);
+
+            verify(entityCache).evictAll(EntityCache.BOOKS, List.of(expectedBook.getId()));
+            verify(entityCache, never()).evict(eq(EntityCache.LIBRARIES), anyLong());
+
+            assertAll(
+                    () -> assertThat(actualBook.getEntity()).isEqualTo(expectedBookDtoResponse),
+                    () -> assertThat(actualBook.getStatus()).isEqualTo(UpsertStatus.UPDATED)
+            );
+        }
+
+        @Test
+        @DisplayName("Upsert Books batch by Library ID; repeated title written after the books before it")
+        void checkUpsertAllByLibraryIdShouldWriteRepeatedTitleLater() throws Exception {
+            InputStream bookDtoRequests = toInputStream(List.of(bookDtoRequest, bookDtoRequest));
+
+            doReturn(true).when(libraryRepository).existsById(TEST_ID);
+            doReturn(expectedBook).when(bookMapper).toBook(bookDtoRequest);
+            doReturn(List.of(new Upserted<>(expectedBook, UpsertStatus.CREATED)),
+                    List.of(new Upserted<>(expectedBook, UpsertStatus.UNCHANGED)))
+                    .when(bookRepository).upsertAllByLibraryId(eq(TEST_ID), any());
+
+            UpsertBatchDtoResponse actualBatch = bookService.upsertAllByLibraryId(TEST_ID, bookDtoRequests);
+
+            verify(bookRepository, times(2)).upsertAllByLibraryId(eq(TEST_ID), any());
+            verify(entityCache).evict(EntityCache.LIBRARIES, TEST_ID);
+            verify(negativeLookup).addedAll(EntityCache.BOOKS);
+
+            assertAll(
+                    () -> assertThat(actualBatch.getCreated()).isEqualTo(1),
+                    () -> assertThat(actualBatch.getUnchanged()).isEqualTo(1),
+                    () -> assertThat(actualBatch.getItems())
+                            .extracting(UpsertItemDtoResponse::getIndex)
+                            .containsExactly(0, 1)
+            );
+        }
+
+        @Test
+        @DisplayName("Upsert Book by Library ID; not found")
+        void checkUpsertByLibraryIdShouldThrowLibraryNotFoundException() {
+            doReturn(false).when(libraryRepository).existsById(anyLong());
+
+            assertThrows(EntityNotFoundException.class,
+                    () -> bookService.upsertByLibraryId(TEST_ID, bookDtoRequest)
+            );
+
+            verify(bookRepository, never()).upsertAllByLibraryId(anyLong(), any());
+        }
+
+        private InputStream toInputStream(List<BookDtoRequest> bookDtoRequests) throws Exception {
+            return new ByteArrayInputStream(objectMapper.writeValueAsBytes(bookDtoRequests));
+        }
+    }
+
+    @Nested
+    public class FindAllTest {
+        @Test
+        @DisplayName("Find all Books")
+        void checkFindAllShouldReturnBookDtoResponsePage() {
+            doReturn(new SliceImpl<>(List.of(expectedBook), pageable, true)).when(bookRepository).findSliceBy(pageable);
+            doReturn(List.of(expectedBookDtoResponse)).when(bookMapper).toBookDtoResponses(List.of(expectedBook));
+
+            PageResponse<BookDtoResponse> actualBooks = bookService.findAll(emptyFilter, pageable, null, false);
+
+            verify(bookRepository).findSliceBy(eq(pageable));
+            verify(bookRepository, never()).count();
+            verify(bookMapper).toBookDtoResponses(any());
+
+            assertAll(
+                    () -> assertThat(actualBooks.getContent()).containsExactly(expectedBookDtoResponse),
+                    () -> assertThat(actualBooks.getHasNext()).isTrue(),
+                    () -> assertThat(actualBooks.getTotalElements()).isNull()
+            );
+        }
+
+        @Test
+        @DisplayName("Find all Books with exact total")
+        void checkFindAllWithExactTotalShouldReturnTotalElements() {
+            doReturn(List.of(new Counted<>(expectedBook, 1L))).when(bookRepository).findCountedBy(pageable);
+            doReturn(List.of(expectedBookDtoResponse)).when(bookMapper).toBookDtoResponses(List.of(expectedBook));
 
-        PageResponse<BookDtoResponse> actualBooks = bookService.findAll(pageable);
+            PageResponse<BookDtoResponse> actualBooks = bookService.findAll(emptyFilter, pageable, TotalType.EXACT, false);
 
-        verify(bookRepository).findAll(eq(pageable));
-        verify(bookMapper).toBookDtoResponse(any());
+            verify(bookRepository).findCountedBy(eq(pageable));
+            verify(bookRepository, never()).count();
 
-        assertThat(actualBooks.getContent().stream()
-                .anyMatch(actualBookDtoResponse -> actualBookDtoResponse.equals(expectedBookDtoResponse))
-        ).isTrue();
+            assertAll(
+                    () -> assertThat(actualBooks.getContent()).containsExactly(expectedBookDtoResponse),
+                    () -> assertThat(actualBooks.getHasNext()).isFalse(),
+                    () -> assertThat(actualBooks.getTotalElements()).isEqualTo(1L),
+                    () -> assertThat(actualBooks.getTotalType()).isEqualTo(TotalType.EXACT)
+            );
+        }
+
+        @Test
+        @DisplayName("Find all Books with estimated total")
+        void checkFindAllWithEstimatedTotalShouldReturnTotalElements() {
+            doReturn(new SliceImpl<>(List.of(expectedBook), pageable, false)).when(bookRepository).findSliceBy(pageable);
+            doReturn(List.of(expectedBookDtoResponse)).when(bookMapper).toBookDtoResponses(List.of(expectedBook));
+            doReturn(TEST_ESTIMATE).when(rowCountEstimator).estimate(eq("books"), any());
+
+            PageResponse<BookDtoResponse> actualBooks = bookService.findAll(emptyFilter, pageable, TotalType.ESTIMATE, false);
+
+            verify(rowCountEstimator).estimate(eq("books"), any());
+
+            assertAll(
+                    () -> assertThat(actualBooks.getTotalElements()).isEqualTo(TEST_ESTIMATE),
+                    () -> assertThat(actualBooks.getTotalType()).isEqualTo(TotalType.ESTIMATE)
+            );
+        }
+    }
+
+    @Nested
+    public class FindAllByFilterTest {
+
+        private final BookFilterDtoRequest filter = BookFilterDtoRequestTestBuilder.aBookFilterDtoRequest()
+                .withGenre(List.of(TEST_STRING))
+                .build();
+
+        @Test
+        @DisplayName("Find all Books by filter")
+        void checkFindAllByFilterShouldReturnSliceWithoutTotal() {
+            doReturn(new SliceImpl<>(List.of(expectedBook), pageable, false)).when(bookRepository).findSlice(any(), eq(pageable));
+            doReturn(List.of(expectedBookDtoResponse)).when(bookMapper).toBookDtoResponses(List.of(expectedBook));
+
+            PageResponse<BookDtoResponse> actualBooks = bookService.findAll(filter, pageable, null, false);
+
+            verify(bookRepository, never()).findSliceBy(any());
+            verify(bookRepository, never()).countFacets(any(), anyInt());
+
+            assertAll(
+                    () -> assertThat(actualBooks.getContent()).containsExactly(expectedBookDtoResponse),
+                    () -> assertThat(actualBooks.getTotalElements()).isNull(),
+                    () -> assertThat(actualBooks.getFacets()).isNull()
+            );
+        }
+
+        @Test
+        @DisplayName("Find all Books by filter with estimated total; counted exactly")
+        void checkFindAllByFilterWithEstimatedTotalShouldReturnExactTotal() {
+            doReturn(new PageImpl<>(List.of(expectedBook), pageable, 1L)).when(bookRepository).findAll(anySpecification(), eq(pageable));
+            doReturn(List.of(expectedBookDtoResponse)).when(bookMapper).toBookDtoResponses(List.of(expectedBook));
+
+            PageResponse<BookDtoResponse> actualBooks = bookService.findAll(filter, pageable, TotalType.ESTIMATE, false);
+
+            verify(rowCountEstimator, never()).estimate(any(), any());
+
+            assertAll(
+                    () -> assertThat(actualBooks.getTotalElements()).isEqualTo(1L),
+                    () -> assertThat(actualBooks.getTotalType()).isEqualTo(TotalType.EXACT)
+            );
+        }
+
+        @Test
+        @DisplayName("Find all Books by filter with facets")
+        void checkFindAllByFilterWithFacetsShouldReturnFacets() {
+            doReturn(new SliceImpl<>(List.of(expectedBook), pageable, false)).when(bookRepository).findSlice(any(), eq(pageable));
+            doReturn(List.of(expectedBookDtoResponse)).when(bookMapper).toBookDtoResponses(List.of(expectedBook));
+            doReturn(List.of(new FacetCount("genre", TEST_STRING, 1L), new FacetCount("author", TEST_STRING, 1L)))
+                    .when(bookRepository).countFacets(filter, pagingProperties.getFacetSize());
+
+            PageResponse<BookDtoResponse> actualBooks = bookService.findAll(filter, pageable, null, true);
+
+            FacetDtoResponse expectedFacet = FacetDtoResponse.builder().value(TEST_STRING).count(1L).build();
+            assertThat(actualBooks.getFacets())
+                    .containsExactly(entry("genre", List.of(expectedFacet)), entry("author", List.of(expectedFacet)));
+        }
+
+        @SuppressWarnings("unchecked")
+        private Specification<Book> anySpecification() {
+            return any(Specification.class);
+        }
+    }
+
+    @Nested
+    public class FindAllAfterTest {
+        @Test
+        @DisplayName("Find all Books after cursor; first page")
+        void checkFindAllAfterShouldReturnFirstPageWithNextCursor() {
+            Book nextBook = BookTestBuilder.aBook().withId(TEST_ID + 1).build();
+
+            doReturn(List.of(expectedBook, nextBook)).when(bookRepository).findAllBy(any());
+            doReturn(List.of(expectedBookDtoResponse)).when(bookMapper).toBookDtoResponses(List.of(expectedBook));
+
+            PageResponse<BookDtoResponse> actualBooks = bookService.findAllAfter(null, null, 1);
+
+            verify(bookRepository).findAllBy(eq(PageRequest.of(0, 2, Sort.by("id"))));
+
+            assertAll(
+                    () -> assertThat(actualBooks.getContent()).containsExactly(expectedBookDtoResponse),
+                    () -> assertThat(actualBooks.getNextCursor())
+                            .isEqualTo(KeysetCursor.of("id", expectedBook.getId(), null).encode())
+            );
+        }
+
+        @Test
+        @DisplayName("Find all Books after cursor; last page")
+        void checkFindAllAfterShouldReturnLastPageWithoutNextCursor() {
+            String after = KeysetCursor.of("title", TEST_ID, TEST_STRING).encode();
+
+            doReturn(List.of(expectedBook)).when(bookRepository).findAfterTitle(TEST_STRING, TEST_ID, PageRequest.ofSize(2));
+            doReturn(List.of(expectedBookDtoResponse)).when(bookMapper).toBookDtoResponses(List.of(expectedBook));
+
+            PageResponse<BookDtoResponse> actualBooks = bookService.findAllAfter(after, null, 1);
+
+            verify(bookRepository).findAfterTitle(any(), anyLong(), any());
+
+            assertAll(
+                    () -> assertThat(actualBooks.getContent()).containsExactly(expectedBookDtoResponse),
+                    () -> assertThat(actualBooks.getNextCursor()).isNull()
+            );
+        }
+
+        @Test
+        @DisplayName("Find all Books after cursor; invalid cursor")
+        void checkFindAllAfterShouldThrowInvalidRequestException() {
+            assertThrows(InvalidRequestException.class, () -> bookService.findAllAfter("%%%", null, 1));
+        }
+
+        @Test
+        @DisplayName("Find all Books after cursor; unsupported order")
+        void checkFindAllAfterWithUnsupportedOrderShouldThrowInvalidRequestException() {
+            assertThrows(InvalidRequestException.class, () -> bookService.findAllAfter(null, "unknown", 1));
+        }
+    }
+
+    @Nested
+    public class SearchTest {
+        @Test
+        @DisplayName("Search Books; first page")
+        void checkSearchShouldReturnRankedPageWithNextCursor() {
+            Book nextBook = BookTestBuilder.aBook().withId(TEST_ID + 1).build();
+            List<RankedId> rankedIds = List.of(rankedId(TEST_ID, 0.5F), rankedId(nextBook.getId(), 0.25F));
+
+            doReturn(rankedIds).when(bookRepository)
+                    .search(TEST_STRING, null, null, null, null, PageRequest.ofSize(2));
+            doReturn(List.of(expectedBook)).when(bookRepository).findAllById(List.of(TEST_ID));
+            doReturn(List.of(expectedBookDtoResponse)).when(bookMapper).toBookDtoResponses(List.of(expectedBook));
+
+            PageResponse<BookDtoResponse> actualBooks = bookService.search(TEST_STRING, null, null, null, 1);
+
+            assertAll(
+                    () -> assertThat(actualBooks.getContent()).containsExactly(expectedBookDtoResponse),
+                    () -> assertThat(actualBooks.getNextCursor())
+                            .isEqualTo(KeysetCursor.of("rank", TEST_ID, 0.5F).encode())
+            );
+        }
+
+        @Test
+        @DisplayName("Search Books after cursor; last page")
+        void checkSearchAfterCursorShouldReturnLastPageWithoutNextCursor() {
+            String after = KeysetCursor.of("rank", TEST_ID + 1, 0.5F).encode();
+
+            doReturn(List.of(rankedId(TEST_ID, 0.25F))).when(bookRepository)
+                    .search(TEST_STRING, TEST_ID, TEST_STRING, 0.5F, TEST_ID + 1, PageRequest.ofSize(2));
+            doReturn(List.of(expectedBook)).when(bookRepository).findAllById(List.of(TEST_ID));
+            doReturn(List.of(expectedBookDtoResponse)).when(bookMapper).toBookDtoResponses(List.of(expectedBook));
+
+            PageResponse<BookDtoResponse> actualBooks = bookService.search(TEST_STRING, TEST_ID, TEST_STRING, after, 1);
+
+            verify(bookRepository).search(any(), anyLong(), any(), any(), anyLong(), any());
+
+            assertAll(
+                    () -> assertThat(actualBooks.getContent()).containsExactly(expectedBookDtoResponse),
+                    () -> assertThat(actualBooks.getNextCursor()).isNull()
+            );
+        }
+
+        @Test
+        @DisplayName("Search Books; blank query")
+        void checkSearchWithBlankQueryShouldThrowInvalidRequestException() {
+            assertThrows(InvalidRequestException.class, () -> bookService.search(" ", null, null, null, 1));
+        }
+
+        @Test
+        @DisplayName("Search Books; cursor of another order")
+        void checkSearchWithForeignCursorShouldThrowInvalidRequestException() {
+            String after = KeysetCursor.of("title", TEST_ID, TEST_STRING).encode();
+            assertThrows(InvalidRequestException.class, () -> bookService.search(TEST_STRING, null, null, after, 1));
+        }
+
+        private RankedId rankedId(Long id, Float rank) {
+            return new RankedId() {
+                @Override
+                public Long getId() {
+                    return id;
+                }
+
+                @Override
+                public Float getRank() {
+                    return rank;
+                }
+            };
+        }
     }
 
     @Nested
@@ -153,6 +593,57 @@ class BookServiceTest {
 
             verify(bookRepository).findById(anyLong());
         }
+
+        @Test
+        @DisplayName("Find Book by ID; not found is remembered")
+        void checkFindByIdNotFoundShouldRememberMissingId() {
+            doReturn(Optional.empty()).when(bookRepository).findById(anyLong());
+
+            assertThrows(EntityNotFoundException.class, () -> bookService.findById(TEST_ID));
+
+            verify(negativeLookup).missing(EntityCache.BOOKS, TEST_ID);
+        }
+
+        @Test
+        @DisplayName("Find Book by ID; known to be missing")
+        void checkFindByIdKnownMissingShouldThrowWithoutQuery() {
+            doReturn(true).when(negativeLookup).isKnownMissing(EntityCache.BOOKS, TEST_ID);
+
+            assertThrows(EntityNotFoundException.class, () -> bookService.findById(TEST_ID));
+
+            verify(bookRepository, never()).findById(anyLong());
+        }
+    }
+
+    @Nested
+    public class FindVersionByIdTest {
+        @Test
+        @DisplayName("Find Book version by ID from the cache")
+        void checkFindVersionByIdOfCachedBookShouldNotQuery() {
+            BookDtoResponse cachedBook = BookDtoResponseTestBuilder.aBookDtoResponse().build();
+            cachedBook.setVersion(3L);
+            doReturn(cachedBook).when(entityCache).getCached(EntityCache.BOOKS, TEST_ID, BookDtoResponse.class);
+
+            assertThat(bookService.findVersionById(TEST_ID)).isEqualTo(3L);
+
+            verify(bookRepository, never()).findVersionById(anyLong());
+        }
+
+        @Test
+        @DisplayName("Find Book version by ID")
+        void checkFindVersionByIdShouldReturnVersion() {
+            doReturn(Optional.of(3L)).when(bookRepository).findVersionById(TEST_ID);
+
+            assertThat(bookService.findVersionById(TEST_ID)).isEqualTo(3L);
+        }
+
+        @Test
+        @DisplayName("Find Book version by ID; not found")
+        void checkFindVersionByIdShouldThrowBookNotFoundException() {
+            doReturn(Optional.empty()).when(bookRepository).findVersionById(TEST_ID);
+
+            assertThrows(EntityNotFoundException.class, () -> bookService.findVersionById(TEST_ID));
+        }
     }
 
     @Nested
@@ -161,16 +652,13 @@ class BookServiceTest {
         @ParameterizedTest
         @ValueSource(longs = {1L, 2L, 3L})
         void checkUpdateShouldReturnBookDtoResponse(Long id) {
-            doReturn(Optional.of(expectedBook)).when(bookRepository).findById(id);
-            doNothing().when(bookMapper).updateBook(bookDtoRequest, expectedBook);
-            doReturn(expectedBook).when(bookRepository).save(expectedBook);
+            doReturn(Optional.of(expectedBook)).when(bookRepository).updateById(id, bookDtoRequest, null);
             doReturn(expectedBookDtoResponse).when(bookMapper).toBookDtoResponse(expectedBook);
 
-            BookDtoResponse actualBook = bookService.update(id, bookDtoRequest);
+            BookDtoResponse actualBook = bookService.update(id, bookDtoRequest, null);
 
-            verify(bookRepository).findById(anyLong());
-            verify(bookMapper).updateBook(any(), any());
-            verify(bookRepository).save(any());
+            verify(bookRepository).updateById(anyLong(), any(), any());
+            verify(bookRepository, never()).findById(anyLong());
             verify(bookMapper).toBookDtoResponse(any());
 
             assertThat(actualBook).isEqualTo(expectedBookDtoResponse);
@@ -180,17 +668,13 @@ class BookServiceTest {
         @ParameterizedTest
         @ValueSource(longs = {1L, 2L, 3L})
         void checkUpdateWithArgumentCaptorShouldReturnBookDtoResponse(Long id) {
-            doReturn(Optional.of(expectedBook)).when(bookRepository).findById(id);
-            doNothing().when(bookMapper).updateBook(bookDtoRequest, expectedBook);
-            doReturn(expectedBook).when(bookRepository).save(expectedBook);
+            doReturn(Optional.of(expectedBook)).when(bookRepository).updateById(id, bookDtoRequest, null);
             doReturn(expectedBookDtoResponse).when(bookMapper).toBookDtoResponse(expectedBook);
 
-            bookService.update(id, bookDtoRequest);
+            bookService.update(id, bookDtoRequest, null);
 
-            verify(bookRepository).findById(anyLong());
-            verify(bookMapper).updateBook(any(), any());
-            verify(bookRepository).save(bookCaptor.capture());
-            verify(bookMapper).toBookDtoResponse(any());
+            verify(bookRepository).updateById(anyLong(), any(), any());
+            verify(bookMapper).toBookDtoResponse(bookCaptor.capture());
 
             assertThat(bookCaptor.getValue()).isEqualTo(expectedBook);
         }
@@ -198,13 +682,29 @@ class BookServiceTest {
         @Test
         @DisplayName("Update Book by ID; not found")
         void checkUpdateShouldThrowBookNotFoundException() {
-            doThrow(EntityNotFoundException.class).when(bookRepository).findById(anyLong());
+            doReturn(Optional.empty()).when(bookRepository).updateById(TEST_ID, bookDtoRequest, null);
 
-            assertThrows(EntityNotFoundException.class,
-                    () -> bookService.update(TEST_ID, bookDtoRequest)
-            );
+            assertThrows(EntityNotFoundException.class, () -> bookService.update(TEST_ID, bookDtoRequest, null));
 
-            verify(bookRepository).findById(anyLong());
+            verify(bookRepository, never()).findVersionById(anyLong());
+        }
+
+        @Test
+        @DisplayName("Update Book by ID with an expected version; not found")
+        void checkUpdateWithExpectedVersionShouldThrowBookNotFoundException() {
+            doReturn(Optional.empty()).when(bookRepository).updateById(TEST_ID, bookDtoRequest, 5L);
+            doReturn(Optional.empty()).when(bookRepository).findVersionById(TEST_ID);
+
+            assertThrows(EntityNotFoundException.class, () -> bookService.update(TEST_ID, bookDtoRequest, 5L));
+        }
+
+        @Test
+        @DisplayName("Update Book by ID; modified since the expected version")
+        void checkUpdateWithOtherExpectedVersionShouldThrowPreconditionFailedException() {
+            doReturn(Optional.empty()).when(bookRepository).updateById(TEST_ID, bookDtoRequest, 5L);
+            doReturn(Optional.of(6L)).when(bookRepository).findVersionById(TEST_ID);
+
+            assertThrows(PreconditionFailedException.class, () -> bookService.update(TEST_ID, bookDtoRequest, 5L));
         }
     }
 
@@ -214,23 +714,23 @@ class BookServiceTest {
         @ParameterizedTest
         @ValueSource(longs = {1L, 2L, 3L})
         void checkDeleteByIdShouldReturnBookDtoResponse(Long id) {
-            doReturn(true).when(bookRepository).existsById(id);
-            doNothing().when(bookRepository).deleteById(id);
+            doReturn(Optional.of(TEST_ID)).when(bookRepository).removeByIdReturningLibraryId(id);
 
             bookService.deleteById(id);
 
-            verify(bookRepository).existsById(anyLong());
-            verify(bookRepository).deleteById(anyLong());
+            verify(bookRepository, never()).findById(anyLong());
+            verify(entityCache).evict(EntityCache.BOOKS, id);
+            verify(entityCache).evict(EntityCache.LIBRARIES, TEST_ID);
         }
 
         @Test
         @DisplayName("Delete Book by ID; not found")
         void checkDeleteByIdShouldThrowBookNotFoundException() {
-            doReturn(false).when(bookRepository).existsById(anyLong());
+            doReturn(Optional.empty()).when(bookRepository).removeByIdReturningLibraryId(anyLong());
 
             assertThrows(EntityNotFoundException.class, () -> bookService.deleteById(TEST_ID));
 
-            verify(bookRepository).existsById(anyLong());
+            verify(entityCache, never()).evict(any(), any());
         }
     }
 }
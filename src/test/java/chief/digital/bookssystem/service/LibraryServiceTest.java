@@ -3,17 +3,37 @@ package chief.digital.bookssystem.service;
 import chief.digital.bookssystem.builder.library.LibraryDtoRequestTestBuilder;
 import chief.digital.bookssystem.builder.library.LibraryDtoResponseTestBuilder;
 import chief.digital.bookssystem.builder.library.LibraryTestBuilder;
+import chief.digital.bookssystem.builder.library.LibraryUsersDtoRequestTestBuilder;
+import chief.digital.bookssystem.builder.library.LibraryUsersDtoResponseTestBuilder;
 import chief.digital.bookssystem.builder.user.UserTestBuilder;
 import chief.digital.bookssystem.exception.EntityNotFoundException;
+import chief.digital.bookssystem.exception.InvalidRequestException;
+import chief.digital.bookssystem.exception.PreconditionFailedException;
 import chief.digital.bookssystem.mapper.LibraryMapper;
 import chief.digital.bookssystem.model.dto.request.LibraryDtoRequest;
+import chief.digital.bookssystem.model.dto.request.LibraryUsersDtoRequest;
+import chief.digital.bookssystem.model.dto.response.LibraryDeletionDtoResponse;
 import chief.digital.bookssystem.model.dto.response.LibraryDtoResponse;
+import chief.digital.bookssystem.model.dto.response.LibraryUsersDtoResponse;
 import chief.digital.bookssystem.model.dto.response.PageResponse;
 import chief.digital.bookssystem.model.entity.Library;
+import chief.digital.bookssystem.model.entity.LibraryDeletion;
 import chief.digital.bookssystem.model.entity.User;
+import chief.digital.bookssystem.model.enums.TotalType;
+import chief.digital.bookssystem.model.projection.Counted;
+import chief.digital.bookssystem.model.projection.MembershipChange;
+import chief.digital.bookssystem.model.projection.LibraryCascade;
+import chief.digital.bookssystem.model.projection.WithRelatedIds;
+import chief.digital.bookssystem.repository.LibraryDeletionRepository;
 import chief.digital.bookssystem.repository.LibraryRepository;
+import chief.digital.bookssystem.repository.LibraryUserRepository;
 import chief.digital.bookssystem.repository.UserRepository;
 import chief.digital.bookssystem.service.impl.LibraryServiceImpl;
+import chief.digital.bookssystem.util.EntityCache;
+import chief.digital.bookssystem.util.KeysetCursor;
+import chief.digital.bookssystem.util.LibraryDeletionWorker;
+import chief.digital.bookssystem.util.NegativeLookup;
+import chief.digital.bookssystem.util.RowCountEstimator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -25,24 +45,28 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 
 import java.util.List;
 import java.util.Optional;
 
+import static chief.digital.bookssystem.util.TestConstants.TEST_ESTIMATE;
 import static chief.digital.bookssystem.util.TestConstants.TEST_ID;
 import static chief.digital.bookssystem.util.TestConstants.TEST_PAGE;
 import static chief.digital.bookssystem.util.TestConstants.TEST_PAGE_SIZE;
+import static chief.digital.bookssystem.util.TestConstants.TEST_STRING;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
@@ -56,21 +80,42 @@ class LibraryServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private LibraryUserRepository libraryUserRepository;
+
+    @Mock
+    private LibraryDeletionRepository libraryDeletionRepository;
+
     @Mock
     private LibraryMapper libraryMapper;
 
+    @Mock
+    private RowCountEstimator rowCountEstimator;
+
+    @Mock
+    private EntityCache entityCache;
+
+    @Mock
+    private NegativeLookup negativeLookup;
+
+    @Mock
+    private LibraryDeletionWorker libraryDeletionWorker;
+
     @Captor
     ArgumentCaptor<Library> libraryCaptor;
 
     private final LibraryDtoRequest libraryDtoRequest = LibraryDtoRequestTestBuilder.aLibraryDtoRequest().build();
     private final LibraryDtoResponse expectedLibraryDtoResponse = LibraryDtoResponseTestBuilder.aLibraryDtoResponse().build();
     private final Library expectedLibrary = LibraryTestBuilder.aLibrary().build();
+    private final LibraryUsersDtoRequest libraryUsersDtoRequest = LibraryUsersDtoRequestTestBuilder.aLibraryUsersDtoRequest().build();
     private final User expectedUser = UserTestBuilder.aUser().build();
     private final Pageable pageable = PageRequest.of(TEST_PAGE, TEST_PAGE_SIZE);
 
     @BeforeEach
     void setUp() {
-        libraryService = new LibraryServiceImpl(libraryRepository, userRepository, libraryMapper);
+        libraryService = new LibraryServiceImpl(libraryRepository, userRepository, libraryUserRepository,
+                libraryDeletionRepository, libraryMapper, rowCountEstimator, entityCache, negativeLookup,
+                libraryDeletionWorker);
     }
 
     @Nested
@@ -80,13 +125,13 @@ class LibraryServiceTest {
         void checkSaveShouldReturnLibraryDtoResponse() {
             doReturn(expectedLibrary).when(libraryMapper).toLibrary(libraryDtoRequest);
             doReturn(expectedLibrary).when(libraryRepository).save(expectedLibrary);
-            doReturn(expectedLibraryDtoResponse).when(libraryMapper).toLibraryDtoResponse(expectedLibrary);
+            doReturn(expectedLibraryDtoResponse).when(libraryMapper).toLibraryDtoResponse(expectedLibrary, List.of(), null);
 
             LibraryDtoResponse actualLibrary = libraryService.save(libraryDtoRequest);
 
             verify(libraryMapper).toLibrary(any());
             verify(libraryRepository).save(any());
-            verify(libraryMapper).toLibraryDtoResponse(any());
+            verify(libraryMapper).toLibraryDtoResponse(any(), any(), any());
 
             assertThat(actualLibrary).isEqualTo(expectedLibraryDtoResponse);
         }
@@ -96,32 +141,126 @@ class LibraryServiceTest {
         void checkSaveWithArgumentCaptorShouldReturnLibraryDtoResponse() {
             doReturn(expectedLibrary).when(libraryMapper).toLibrary(libraryDtoRequest);
             doReturn(expectedLibrary).when(libraryRepository).save(expectedLibrary);
-            doReturn(expectedLibraryDtoResponse).when(libraryMapper).toLibraryDtoResponse(expectedLibrary);
+            doReturn(expectedLibraryDtoResponse).when(libraryMapper).toLibraryDtoResponse(expectedLibrary, List.of(), null);
 
             libraryService.save(libraryDtoRequest);
 
             verify(libraryMapper).toLibrary(any());
             verify(libraryRepository).save(libraryCaptor.capture());
-            verify(libraryMapper).toLibraryDtoResponse(any());
+            verify(libraryMapper).toLibraryDtoResponse(any(), any(), any());
 
             assertThat(libraryCaptor.getValue()).isEqualTo(expectedLibrary);
         }
     }
 
-    @Test
-    @DisplayName("Find all Library")
-    void checkFindAllShouldReturnLibraryDtoResponsePage() {
-        doReturn(new PageImpl<>(List.of(expectedLibrary))).when(libraryRepository).findAll(pageable);
-        doReturn(expectedLibraryDtoResponse).when(libraryMapper).toLibraryDtoResponse(expectedLibrary);
+    @Nested
+    public class FindAllTest {
+        @Test
+        @DisplayName("Find all Library")
+        void checkFindAllShouldReturnLibraryDtoResponsePage() {
+            doReturn(new SliceImpl<>(List.of(expectedLibrary), pageable, true)).when(libraryRepository).findSliceBy(pageable);
+            doReturn(expectedLibraryDtoResponse).when(libraryMapper).toLibraryDtoResponse(expectedLibrary, List.of(), null);
+
+            PageResponse<LibraryDtoResponse> actualLibrary = libraryService.findAll(pageable, null, false);
+
+            verify(libraryRepository).findSliceBy(eq(pageable));
+            verify(libraryRepository, never()).count();
+            verify(libraryMapper).toLibraryDtoResponse(any(), any(), any());
+
+            assertAll(
+                    () -> assertThat(actualLibrary.getContent()).containsExactly(expectedLibraryDtoResponse),
+                    () -> assertThat(actualLibrary.getHasNext()).isTrue(),
+                    () -> assertThat(actualLibrary.getTotalElements()).isNull()
+            );
+        }
+
+        @Test
+        @DisplayName("Find all Libraries with exact total")
+        void checkFindAllWithExactTotalShouldReturnTotalElements() {
+            doReturn(List.of(new Counted<>(expectedLibrary, 1L))).when(libraryRepository).findCountedBy(pageable);
+            doReturn(expectedLibraryDtoResponse).when(libraryMapper).toLibraryDtoResponse(expectedLibrary, List.of(), null);
+
+            PageResponse<LibraryDtoResponse> actualLibrary = libraryService.findAll(pageable, TotalType.EXACT, false);
+
+            verify(libraryRepository).findCountedBy(eq(pageable));
+            verify(libraryRepository, never()).count();
+
+            assertAll(
+                    () -> assertThat(actualLibrary.getContent()).containsExactly(expectedLibraryDtoResponse),
+                    () -> assertThat(actualLibrary.getHasNext()).isFalse(),
+                    () -> assertThat(actualLibrary.getTotalElements()).isEqualTo(1L),
+                    () -> assertThat(actualLibrary.getTotalType()).isEqualTo(TotalType.EXACT)
+            );
+        }
+
+        @Test
+        @DisplayName("Find all Libraries with estimated total")
+        void checkFindAllWithEstimatedTotalShouldReturnTotalElements() {
+            doReturn(new SliceImpl<>(List.of(expectedLibrary), pageable, false)).when(libraryRepository).findSliceBy(pageable);
+            doReturn(expectedLibraryDtoResponse).when(libraryMapper).toLibraryDtoResponse(expectedLibrary, List.of(), null);
+            doReturn(TEST_ESTIMATE).when(rowCountEstimator).estimate(eq("libraries"), any());
+
+            PageResponse<LibraryDtoResponse> actualLibrary = libraryService.findAll(pageable, TotalType.ESTIMATE, false);
+
+            verify(rowCountEstimator).estimate(eq("libraries"), any());
+
+            assertAll(
+                    () -> assertThat(actualLibrary.getTotalElements()).isEqualTo(TEST_ESTIMATE),
+                    () -> assertThat(actualLibrary.getTotalType()).isEqualTo(TotalType.ESTIMATE)
+            );
+        }
+    }
+
+    @Nested
+    public class FindAllAfterTest {
+        @Test
+        @DisplayName("Find all Libraries after cursor; first page")
+        void checkFindAllAfterShouldReturnFirstPageWithNextCursor() {
+            Library nextLibrary = LibraryTestBuilder.aLibrary().withId(TEST_ID + 1).build();
+
+            doReturn(List.of(expectedLibrary, nextLibrary)).when(libraryRepository).findAllBy(any());
+            doReturn(expectedLibraryDtoResponse).when(libraryMapper).toLibraryDtoResponse(expectedLibrary, List.of(), null);
+
+            PageResponse<LibraryDtoResponse> actualLibraries = libraryService.findAllAfter(null, null, 1, false);
+
+            verify(libraryRepository).findAllBy(eq(PageRequest.of(0, 2, Sort.by("id"))));
+
+            assertAll(
+                    () -> assertThat(actualLibraries.getContent()).containsExactly(expectedLibraryDtoResponse),
+                    () -> assertThat(actualLibraries.getNextCursor())
+                            .isEqualTo(KeysetCursor.of("id", expectedLibrary.getId(), null).encode())
+            );
+        }
 
-        PageResponse<LibraryDtoResponse> actualLibrary = libraryService.findAll(pageable);
+        @Test
+        @DisplayName("Find all Libraries after cursor; last page")
+        void checkFindAllAfterShouldReturnLastPageWithoutNextCursor() {
+            String after = KeysetCursor.of("title", TEST_ID, TEST_STRING).encode();
+
+            doReturn(List.of(expectedLibrary)).when(libraryRepository).findAfterTitle(TEST_STRING, TEST_ID, PageRequest.ofSize(2));
+            doReturn(expectedLibraryDtoResponse).when(libraryMapper).toLibraryDtoResponse(expectedLibrary, List.of(), null);
+
+            PageResponse<LibraryDtoResponse> actualLibraries = libraryService.findAllAfter(after, null, 1, false);
+
+            verify(libraryRepository).findAfterTitle(any(), anyLong(), any());
+
+            assertAll(
+                    () -> assertThat(actualLibraries.getContent()).containsExactly(expectedLibraryDtoResponse),
+                    () -> assertThat(actualLibraries.getNextCursor()).isNull()
+            );
+        }
 
-        verify(libraryRepository).findAll(eq(pageable));
-        verify(libraryMapper).toLibraryDtoResponse(any());
+        @Test
+        @DisplayName("Find all Libraries after cursor; invalid cursor")
+        void checkFindAllAfterShouldThrowInvalidRequestException() {
+            assertThrows(InvalidRequestException.class, () -> libraryService.findAllAfter("%%%", null, 1, false));
+        }
 
-        assertThat(actualLibrary.getContent().stream()
-                .anyMatch(actualLibraryDtoResponse -> actualLibraryDtoResponse.equals(expectedLibraryDtoResponse))
-        ).isTrue();
+        @Test
+        @DisplayName("Find all Libraries after cursor; unsupported order")
+        void checkFindAllAfterWithUnsupportedOrderShouldThrowInvalidRequestException() {
+            assertThrows(InvalidRequestException.class, () -> libraryService.findAllAfter(null, "unknown", 1, false));
+        }
     }
 
     @Nested
@@ -131,12 +270,12 @@ class LibraryServiceTest {
         @ValueSource(longs = {1L, 2L, 3L})
         void checkFindByIdShouldReturnLibraryDtoResponse(Long id) {
             doReturn(Optional.of(expectedLibrary)).when(libraryRepository).findById(id);
-            doReturn(expectedLibraryDtoResponse).when(libraryMapper).toLibraryDtoResponse(expectedLibrary);
+            doReturn(expectedLibraryDtoResponse).when(libraryMapper).toLibraryDtoResponse(expectedLibrary, List.of(), null);
 
-            LibraryDtoResponse actualLibrary = libraryService.findById(id);
+            LibraryDtoResponse actualLibrary = libraryService.findById(id, false);
 
             verify(libraryRepository).findById(anyLong());
-            verify(libraryMapper).toLibraryDtoResponse(any());
+            verify(libraryMapper).toLibraryDtoResponse(any(), any(), any());
 
             assertThat(actualLibrary).isEqualTo(expectedLibraryDtoResponse);
         }
@@ -146,10 +285,30 @@ class LibraryServiceTest {
         void checkFindByIdShouldThrowLibraryNotFoundException() {
             doThrow(EntityNotFoundException.class).when(libraryRepository).findById(anyLong());
 
-            assertThrows(EntityNotFoundException.class, () -> libraryService.findById(TEST_ID));
+            assertThrows(EntityNotFoundException.class, () -> libraryService.findById(TEST_ID, false));
 
             verify(libraryRepository).findById(anyLong());
         }
+
+        @Test
+        @DisplayName("Find Library by ID; not found is remembered")
+        void checkFindByIdNotFoundShouldRememberMissingId() {
+            doReturn(Optional.empty()).when(libraryRepository).findById(anyLong());
+
+            assertThrows(EntityNotFoundException.class, () -> libraryService.findById(TEST_ID, false));
+
+            verify(negativeLookup).missing(EntityCache.LIBRARIES, TEST_ID);
+        }
+
+        @Test
+        @DisplayName("Find Library by ID; known to be missing")
+        void checkFindByIdKnownMissingShouldThrowWithoutQuery() {
+            doReturn(true).when(negativeLookup).isKnownMissing(EntityCache.LIBRARIES, TEST_ID);
+
+            assertThrows(EntityNotFoundException.class, () -> libraryService.findById(TEST_ID, false));
+
+            verify(libraryRepository, never()).findById(anyLong());
+        }
     }
 
     @Nested
@@ -158,17 +317,14 @@ class LibraryServiceTest {
         @ParameterizedTest
         @ValueSource(longs = {1L, 2L, 3L})
         void checkUpdateShouldReturnLibraryDtoResponse(Long id) {
-            doReturn(Optional.of(expectedLibrary)).when(libraryRepository).findById(id);
-            doNothing().when(libraryMapper).updateLibrary(libraryDtoRequest, expectedLibrary);
-            doReturn(expectedLibrary).when(libraryRepository).save(expectedLibrary);
-            doReturn(expectedLibraryDtoResponse).when(libraryMapper).toLibraryDtoResponse(expectedLibrary);
+            doReturn(Optional.of(new WithRelatedIds<>(expectedLibrary, List.of()))).when(libraryRepository).updateById(id, libraryDtoRequest, null);
+            doReturn(expectedLibraryDtoResponse).when(libraryMapper).toLibraryDtoResponse(expectedLibrary, List.of(), null);
 
-            LibraryDtoResponse actualLibrary = libraryService.update(id, libraryDtoRequest);
+            LibraryDtoResponse actualLibrary = libraryService.update(id, libraryDtoRequest, null);
 
-            verify(libraryRepository).findById(anyLong());
-            verify(libraryMapper).updateLibrary(any(), any());
-            verify(libraryRepository).save(any());
-            verify(libraryMapper).toLibraryDtoResponse(any());
+            verify(libraryRepository).updateById(anyLong(), any(), any());
+            verify(libraryRepository, never()).findById(anyLong());
+            verify(libraryMapper).toLibraryDtoResponse(any(), any(), any());
 
             assertThat(actualLibrary).isEqualTo(expectedLibraryDtoResponse);
         }
@@ -177,17 +333,13 @@ class LibraryServiceTest {
         @ParameterizedTest
         @ValueSource(longs = {1L, 2L, 3L})
         void checkUpdateWithArgumentCaptorShouldReturnLibraryDtoResponse(Long id) {
-            doReturn(Optional.of(expectedLibrary)).when(libraryRepository).findById(id);
-            doNothing().when(libraryMapper).updateLibrary(libraryDtoRequest, expectedLibrary);
-            doReturn(expectedLibrary).when(libraryRepository).save(expectedLibrary);
-            doReturn(expectedLibraryDtoResponse).when(libraryMapper).toLibraryDtoResponse(expectedLibrary);
+            doReturn(Optional.of(new WithRelatedIds<>(expectedLibrary, List.of()))).when(libraryRepository).updateById(id, libraryDtoRequest, null);
+            doReturn(expectedLibraryDtoResponse).when(libraryMapper).toLibraryDtoResponse(expectedLibrary, List.of(), null);
 
-            libraryService.update(id, libraryDtoRequest);
+            libraryService.update(id, libraryDtoRequest, null);
 
-            verify(libraryRepository).findById(anyLong());
-            verify(libraryMapper).updateLibrary(any(), any());
-            verify(libraryRepository).save(libraryCaptor.capture());
-            verify(libraryMapper).toLibraryDtoResponse(any());
+            verify(libraryRepository).updateById(anyLong(), any(), any());
+            verify(libraryMapper).toLibraryDtoResponse(libraryCaptor.capture(), any(), any());
 
             assertThat(libraryCaptor.getValue()).isEqualTo(expectedLibrary);
         }
@@ -195,48 +347,90 @@ class LibraryServiceTest {
         @Test
         @DisplayName("Update Library by ID; not found")
         void checkUpdateShouldThrowLibraryNotFoundException() {
-            doThrow(EntityNotFoundException.class).when(libraryRepository).findById(anyLong());
+            doReturn(Optional.empty()).when(libraryRepository).updateById(TEST_ID, libraryDtoRequest, null);
 
-            assertThrows(EntityNotFoundException.class, () -> libraryService.update(TEST_ID, libraryDtoRequest));
+            assertThrows(EntityNotFoundException.class, () -> libraryService.update(TEST_ID, libraryDtoRequest, null));
 
-            verify(libraryRepository).findById(anyLong());
+            verify(libraryRepository, never()).findVersionById(anyLong());
         }
-    }
 
-    @Test
-    @DisplayName("Add User to Library by User ID")
-    void checkAddUserByUserIdShouldReturnLibraryDtoResponse() {
-        doReturn(Optional.of(expectedLibrary)).when(libraryRepository).findById(TEST_ID);
-        doReturn(Optional.of(expectedUser)).when(userRepository).findById(TEST_ID);
-        doReturn(expectedLibrary).when(libraryRepository).save(expectedLibrary);
-        doReturn(expectedLibraryDtoResponse).when(libraryMapper).toLibraryDtoResponse(expectedLibrary);
+        @Test
+        @DisplayName("Update Library by ID with an expected version; not found")
+        void checkUpdateWithExpectedVersionShouldThrowLibraryNotFoundException() {
+            doReturn(Optional.empty()).when(libraryRepository).updateById(TEST_ID, libraryDtoRequest, 5L);
+            doReturn(Optional.empty()).when(libraryRepository).findVersionById(TEST_ID);
 
-        LibraryDtoResponse actualLibrary = libraryService.addUserByUserId(TEST_ID, TEST_ID);
+            assertThrows(EntityNotFoundException.class, () -> libraryService.update(TEST_ID, libraryDtoRequest, 5L));
+        }
 
-        verify(libraryRepository).findById(anyLong());
-        verify(userRepository).findById(anyLong());
-        verify(libraryRepository).save(any());
-        verify(libraryMapper).toLibraryDtoResponse(any());
+        @Test
+        @DisplayName("Update Library by ID; modified since the expected version")
+        void checkUpdateWithOtherExpectedVersionShouldThrowPreconditionFailedException() {
+            doReturn(Optional.empty()).when(libraryRepository).updateById(TEST_ID, libraryDtoRequest, 5L);
+            doReturn(Optional.of(6L)).when(libraryRepository).findVersionById(TEST_ID);
 
-        assertThat(actualLibrary).isEqualTo(expectedLibraryDtoResponse);
+            assertThrows(PreconditionFailedException.class, () -> libraryService.update(TEST_ID, libraryDtoRequest, 5L));
+        }
     }
 
-    @Test
-    @DisplayName("Delete User from Library by User ID")
-    void checkDeleteUserByUserIdShouldReturnLibraryDtoResponse() {
-        doReturn(Optional.of(expectedLibrary)).when(libraryRepository).findById(TEST_ID);
-        doReturn(Optional.of(expectedUser)).when(userRepository).findById(TEST_ID);
-        doReturn(expectedLibrary).when(libraryRepository).save(expectedLibrary);
-        doReturn(expectedLibraryDtoResponse).when(libraryMapper).toLibraryDtoResponse(expectedLibrary);
+    @Nested
+    public class LibraryUsersTest {
+        @Test
+        @DisplayName("Add Users to Library by Users IDs")
+        void checkAddUsersByLibraryIdShouldReturnLibraryUsersDtoResponse() {
+            doReturn(true).when(libraryRepository).existsById(TEST_ID);
+            doReturn(List.of(TEST_ID)).when(libraryUserRepository)
+                    .insertAllByLibraryId(TEST_ID, libraryUsersDtoRequest.getUsersIds());
+
+            LibraryUsersDtoResponse actualLibraryUsers = libraryService.addUsersByLibraryId(TEST_ID, libraryUsersDtoRequest);
 
-        LibraryDtoResponse actualLibrary = libraryService.deleteUserByUserId(TEST_ID, TEST_ID);
+            verify(libraryUserRepository).insertAllByLibraryId(anyLong(), any());
+            verify(entityCache).evictAll(EntityCache.USERS, List.of(TEST_ID));
 
-        verify(libraryRepository).findById(anyLong());
-        verify(userRepository).findById(anyLong());
-        verify(libraryRepository).save(any());
-        verify(libraryMapper).toLibraryDtoResponse(any());
+            assertThat(actualLibraryUsers).isEqualTo(LibraryUsersDtoResponseTestBuilder.aLibraryUsersDtoResponse().withRemoved(0).build());
+        }
+
+        @Test
+        @DisplayName("Delete Users from Library by Users IDs")
+        void checkDeleteUsersByLibraryIdShouldReturnLibraryUsersDtoResponse() {
+            doReturn(true).when(libraryRepository).existsById(TEST_ID);
+            doReturn(List.of(TEST_ID)).when(libraryUserRepository)
+                    .deleteAllByLibraryId(TEST_ID, libraryUsersDtoRequest.getUsersIds());
+
+            LibraryUsersDtoResponse actualLibraryUsers = libraryService.deleteUsersByLibraryId(TEST_ID, libraryUsersDtoRequest);
+
+            verify(libraryUserRepository).deleteAllByLibraryId(anyLong(), any());
+            verify(entityCache).evictAll(EntityCache.USERS, List.of(TEST_ID));
+
+            assertThat(actualLibraryUsers).isEqualTo(LibraryUsersDtoResponseTestBuilder.aLibraryUsersDtoResponse().withAdded(0).build());
+        }
 
-        assertThat(actualLibrary).isEqualTo(expectedLibraryDtoResponse);
+        @Test
+        @DisplayName("Sync Users of Library to Users IDs")
+        void checkSyncUsersByLibraryIdShouldReturnLibraryUsersDtoResponse() {
+            doReturn(true).when(libraryRepository).existsById(TEST_ID);
+            doReturn(new MembershipChange(List.of(TEST_ID), List.of(TEST_ID + 1))).when(libraryUserRepository)
+                    .syncAllByLibraryId(TEST_ID, libraryUsersDtoRequest.getUsersIds());
+
+            LibraryUsersDtoResponse actualLibraryUsers = libraryService.syncUsersByLibraryId(TEST_ID, libraryUsersDtoRequest);
+
+            verify(libraryUserRepository).syncAllByLibraryId(anyLong(), any());
+            verify(entityCache).evictAll(EntityCache.USERS, List.of(TEST_ID));
+            verify(entityCache).evictAll(EntityCache.USERS, List.of(TEST_ID + 1));
+
+            assertThat(actualLibraryUsers).isEqualTo(LibraryUsersDtoResponseTestBuilder.aLibraryUsersDtoResponse().build());
+        }
+
+        @Test
+        @DisplayName("Sync Users of Library to Users IDs; not found")
+        void checkSyncUsersByLibraryIdShouldThrowLibraryNotFoundException() {
+            doReturn(false).when(libraryRepository).existsById(anyLong());
+
+            assertThrows(EntityNotFoundException.class,
+                    () -> libraryService.syncUsersByLibraryId(TEST_ID, libraryUsersDtoRequest));
+
+            verify(libraryUserRepository, never()).syncAllByLibraryId(anyLong(), any());
+        }
     }
 
     @Nested
@@ -245,23 +439,55 @@ class LibraryServiceTest {
         @ParameterizedTest
         @ValueSource(longs = {1L, 2L, 3L})
         void checkDeleteByIdShouldReturnLibraryDtoResponse(Long id) {
-            doReturn(true).when(libraryRepository).existsById(id);
-            doNothing().when(libraryRepository).deleteById(id);
+            doReturn(Optional.of(new LibraryCascade(List.of(TEST_ID), List.of(TEST_ID))))
+                    .when(libraryRepository).removeById(id);
 
             libraryService.deleteById(id);
 
-            verify(libraryRepository).existsById(anyLong());
-            verify(libraryRepository).deleteById(anyLong());
+            verify(libraryRepository).removeById(anyLong());
+            verify(libraryRepository, never()).deleteById(anyLong());
+            verify(entityCache).evict(EntityCache.LIBRARIES, id);
+            verify(entityCache).evictAll(EntityCache.BOOKS, List.of(TEST_ID));
+            verify(entityCache).evictAll(EntityCache.USERS, List.of(TEST_ID));
         }
 
         @Test
         @DisplayName("Delete Library by ID; not found")
         void checkDeleteByIdShouldThrowLibraryNotFoundException() {
-            doReturn(false).when(libraryRepository).existsById(anyLong());
+            doReturn(Optional.empty()).when(libraryRepository).removeById(anyLong());
 
             assertThrows(EntityNotFoundException.class, () -> libraryService.deleteById(TEST_ID));
 
-            verify(libraryRepository).existsById(anyLong());
+            verify(entityCache, never()).evict(any(), any());
+        }
+    }
+
+    @Nested
+    public class DeleteByIdAsyncTest {
+        @Test
+        @DisplayName("Delete Library by ID in the background")
+        void checkDeleteByIdAsyncShouldReturnLibraryDeletionDtoResponse() {
+            LibraryDeletion deletion = LibraryDeletion.builder().libraryId(TEST_ID).build();
+            LibraryDeletionDtoResponse expectedDeletion = LibraryDeletionDtoResponse.builder().libraryId(TEST_ID).build();
+            doReturn(Optional.of(deletion)).when(libraryDeletionRepository).start(TEST_ID);
+            doReturn(expectedDeletion).when(libraryMapper).toLibraryDeletionDtoResponse(deletion);
+
+            LibraryDeletionDtoResponse actualDeletion = libraryService.deleteByIdAsync(TEST_ID);
+
+            verify(entityCache).evict(EntityCache.LIBRARIES, TEST_ID);
+            verify(libraryDeletionWorker).submit(TEST_ID);
+
+            assertThat(actualDeletion).isEqualTo(expectedDeletion);
+        }
+
+        @Test
+        @DisplayName("Delete Library by ID in the background; not found")
+        void checkDeleteByIdAsyncShouldThrowLibraryNotFoundException() {
+            doReturn(Optional.empty()).when(libraryDeletionRepository).start(anyLong());
+
+            assertThrows(EntityNotFoundException.class, () -> libraryService.deleteByIdAsync(TEST_ID));
+
+            verify(libraryDeletionWorker, never()).submit(anyLong());
         }
     }
 }
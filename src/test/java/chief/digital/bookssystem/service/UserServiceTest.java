@@ -1,16 +1,37 @@
 package chief.digital.bookssystem.service;
 
+import chief.digital.bookssystem.config.BatchProperties;
 import chief.digital.bookssystem.builder.user.UserDtoRequestTestBuilder;
 import chief.digital.bookssystem.builder.user.UserDtoResponseTestBuilder;
 import chief.digital.bookssystem.builder.user.UserTestBuilder;
 import chief.digital.bookssystem.exception.EntityNotFoundException;
+import chief.digital.bookssystem.exception.InvalidRequestException;
+import chief.digital.bookssystem.exception.PreconditionFailedException;
 import chief.digital.bookssystem.mapper.UserMapper;
 import chief.digital.bookssystem.model.dto.request.UserDtoRequest;
+import chief.digital.bookssystem.model.dto.response.BatchDtoResponse;
+import chief.digital.bookssystem.model.dto.response.BatchItemErrorDtoResponse;
 import chief.digital.bookssystem.model.dto.response.PageResponse;
+import chief.digital.bookssystem.model.dto.response.UpsertBatchDtoResponse;
 import chief.digital.bookssystem.model.dto.response.UserDtoResponse;
 import chief.digital.bookssystem.model.entity.User;
+import chief.digital.bookssystem.model.enums.TotalType;
+import chief.digital.bookssystem.model.enums.UpsertStatus;
+import chief.digital.bookssystem.model.projection.Counted;
+import chief.digital.bookssystem.model.projection.Upserted;
+import chief.digital.bookssystem.model.projection.UserKey;
+import chief.digital.bookssystem.model.projection.WithRelatedIds;
+import chief.digital.bookssystem.repository.LibraryRepository;
 import chief.digital.bookssystem.repository.UserRepository;
 import chief.digital.bookssystem.service.impl.UserServiceImpl;
+import chief.digital.bookssystem.util.KeysetCursor;
+import chief.digital.bookssystem.util.EntityCache;
+import chief.digital.bookssystem.util.JsonArrayReader;
+import chief.digital.bookssystem.util.NegativeLookup;
+import chief.digital.bookssystem.util.RowCountEstimator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -22,24 +43,31 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Optional;
 
+import static chief.digital.bookssystem.util.TestConstants.TEST_ESTIMATE;
 import static chief.digital.bookssystem.util.TestConstants.TEST_ID;
 import static chief.digital.bookssystem.util.TestConstants.TEST_PAGE;
 import static chief.digital.bookssystem.util.TestConstants.TEST_PAGE_SIZE;
+import static chief.digital.bookssystem.util.TestConstants.TEST_STRING;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
@@ -50,12 +78,30 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private LibraryRepository libraryRepository;
+
     @Mock
     private UserMapper userMapper;
 
+    @Mock
+    private RowCountEstimator rowCountEstimator;
+
+    @Mock
+    private EntityCache entityCache;
+
+    @Mock
+    private NegativeLookup negativeLookup;
+
     @Captor
     ArgumentCaptor<User> userCaptor;
 
+    @Captor
+    ArgumentCaptor<List<User>> usersCaptor;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+    private final BatchProperties batchProperties = new BatchProperties();
     private final UserDtoRequest userDtoRequest = UserDtoRequestTestBuilder.aUserDtoRequest().build();
     private final UserDtoResponse expectedUserDtoResponse = UserDtoResponseTestBuilder.aUserDtoResponse().build();
     private final User expectedUser = UserTestBuilder.aUser().build();
@@ -63,7 +109,8 @@ class UserServiceTest {
 
     @BeforeEach
     void setUp() {
-        userService = new UserServiceImpl(userRepository, userMapper);
+        userService = new UserServiceImpl(userRepository, libraryRepository, userMapper, rowCountEstimator,
+                new JsonArrayReader(objectMapper), validator, batchProperties, entityCache, negativeLookup);
     }
 
     @Nested
@@ -73,13 +120,13 @@ class UserServiceTest {
         void checkSaveShouldReturnUserDtoResponse() {
             doReturn(expectedUser).when(userMapper).toUser(userDtoRequest);
             doReturn(expectedUser).when(userRepository).save(expectedUser);
-            doReturn(expectedUserDtoResponse).when(userMapper).toUserDtoResponse(expectedUser);
+            doReturn(expectedUserDtoResponse).when(userMapper).toUserDtoResponse(expectedUser, List.of());
 
             UserDtoResponse actualUser = userService.save(userDtoRequest);
 
             verify(userMapper).toUser(any());
             verify(userRepository).save(any());
-            verify(userMapper).toUserDtoResponse(any());
+            verify(userMapper).toUserDtoResponse(any(), any());
 
             assertThat(actualUser).isEqualTo(expectedUserDtoResponse);
         }
@@ -89,32 +136,305 @@ class UserServiceTest {
         void checkSaveWithArgumentCaptorShouldReturnUserDtoResponse() {
             doReturn(expectedUser).when(userMapper).toUser(userDtoRequest);
             doReturn(expectedUser).when(userRepository).save(expectedUser);
-            doReturn(expectedUserDtoResponse).when(userMapper).toUserDtoResponse(expectedUser);
+            doReturn(expectedUserDtoResponse).when(userMapper).toUserDtoResponse(expectedUser, List.of());
 
             userService.save(userDtoRequest);
 
             verify(userMapper).toUser(any());
             verify(userRepository).save(userCaptor.capture());
-            verify(userMapper).toUserDtoResponse(any());
+            verify(userMapper).toUserDtoResponse(any(), any());
 
             assertThat(userCaptor.getValue()).isEqualTo(expectedUser);
         }
     }
 
-    @Test
-    @DisplayName("Find all Users")
-    void checkFindAllShouldReturnUserDtoResponsePage() {
-        doReturn(new PageImpl<>(List.of(expectedUser))).when(userRepository).findAll(pageable);
-        doReturn(expectedUserDtoResponse).when(userMapper).toUserDtoResponse(expectedUser);
+    @Nested
+    public class SaveAllTest {
+        @Test
+        @DisplayName("Save Users batch")
+        void checkSaveAllShouldReturnBatchDtoResponse() throws Exception {
+            UserDtoRequest invalidUserDtoRequest = UserDtoRequestTestBuilder.aUserDtoRequest()
+                    .withUsername(null)
+                    .build();
+            UserDtoRequest takenUserDtoRequest = UserDtoRequestTestBuilder.aUserDtoRequest()
+                    .withUsername("taken")
+                    .withEmail("taken@example.com")
+                    .build();
+            InputStream userDtoRequests = toInputStream(
+                    List.of(userDtoRequest, invalidUserDtoRequest, userDtoRequest, takenUserDtoRequest));
+
+            doReturn(List.of(new UserKey("taken", "other@example.com")))
+                    .when(userRepository).findKeysByUsernamesOrEmails(any(), any());
+            doReturn(expectedUser).when(userMapper).toUser(userDtoRequest);
+            doReturn(new int[]{1}).when(userRepository).insertAll(any());
+
+            BatchDtoResponse actualBatch = userService.saveAll(userDtoRequests);
+
+            verify(userRepository).insertAll(usersCaptor.capture());
+            verify(negativeLookup).addedAll(EntityCache.USERS);
+
+            assertAll(
+                    () -> assertThat(usersCaptor.getValue()).containsExactly(expectedUser),
+                    () -> assertThat(actualBatch.getReceived()).isEqualTo(4),
+                    () -> assertThat(actualBatch.getSaved()).isEqualTo(1),
+                    () -> assertThat(actualBatch.getFailed()).isEqualTo(3),
+                    () -> assertThat(actualBatch.getErrors())
+                            .extracting(BatchItemErrorDtoResponse::getIndex)
+                            .containsExactly(1, 2, 3)
+            );
+        }
+
+        @Test
+        @DisplayName("Save Users batch; repeated email")
+        void checkSaveAllWithRepeatedEmailShouldReturnError() throws Exception {
+            UserDtoRequest sameEmailUserDtoRequest = UserDtoRequestTestBuilder.aUserDtoRequest()
+                    .withUsername("other")
+                    .build();
+            InputStream userDtoRequests = toInputStream(List.of(userDtoRequest, sameEmailUserDtoRequest));
+
+            doReturn(expectedUser).when(userMapper).toUser(userDtoRequest);
+            doReturn(new int[]{1}).when(userRepository).insertAll(any());
+
+            BatchDtoResponse actualBatch = userService.saveAll(userDtoRequests);
+
+            assertAll(
+                    () -> assertThat(actualBatch.getSaved()).isEqualTo(1),
+                    () -> assertThat(actualBatch.getErrors())
+                            .extracting(BatchItemErrorDtoResponse::getMessage)
+                            .singleElement().asString().startsWith("email:")
+            );
+        }
+
+        @Test
+        @DisplayName("Save Users batch; writes by batch size")
+        void checkSaveAllShouldWriteByBatchSize() throws Exception {
+            batchProperties.setSize(1);
+            UserDtoRequest otherUserDtoRequest = UserDtoRequestTestBuilder.aUserDtoRequest()
+                    .withUsername("other")
+                    .withEmail("other@example.com")
+                    .build();
+            InputStream userDtoRequests = toInputStream(List.of(userDtoRequest, otherUserDtoRequest));
+
+            doReturn(expectedUser).when(userMapper).toUser(any());
+            doReturn(new int[]{1}).when(userRepository).insertAll(any());
+
+            BatchDtoResponse actualBatch = userService.saveAll(userDtoRequests);
+
+            verify(userRepository, times(2)).findKeysByUsernamesOrEmails(any(), any());
+            verify(userRepository, times(2)).insertAll(any());
+
+            assertThat(actualBatch.getSaved()).isEqualTo(2);
+        }
+
+        private InputStream toInputStream(List<UserDtoRequest> userDtoRequests) throws Exception {
+            return new ByteArrayInputStream(objectMapper.writeValueAsBytes(userDtoRequests));
+        }
+    }
+
+    @Nested
+    public class UpsertTest {
+        @Test
+        @DisplayName("Upsert User; created")
+        void checkUpsertShouldReturnCreatedUser() {
+            doReturn(expectedUser).when(userMapper).toUser(userDtoRequest);
+            doReturn(List.of(new Upserted<>(expectedUser, UpsertStatus.CREATED)))
+                    .when(userRepository).upsertAll(List.of(expectedUser));
+            doReturn(expectedUserDtoResponse).when(userMapper).toUserDtoResponse(expectedUser, List.of());
+
+            Upserted<UserDtoResponse> actualUser = userService.upsert(userDtoRequest);
+
+            verify(negativeLookup).added(EntityCache.USERS, expectedUser.getId());
+
+            assertAll(
+                    () -> assertThat(actualUser.getEntity()).isEqualTo(expectedUserDtoResponse),
+                    () -> assertThat(actualUser.getStatus()).isEqualTo(UpsertStatus.CREATED)
+            );
+        }
+
+        @Test
+        @DisplayName("Upsert Users batch; email taken by another User")
+        void checkUpsertAllWithTakenEmailShouldReturnError() throws Exception {
+            UserDtoRequest takenEmailUserDtoRequest = UserDtoRequestTestBuilder.aUserDtoRequest()
+                    .withUsername("other")
+                    .withEmail("taken@example.com")
+                    .build();
+            InputStream userDtoRequests = toInputStream(List.of(userDtoRequest, takenEmailUserDtoRequest));
+
+            doReturn(List.of(new UserKey("taken", "taken@example.com")))
+                    .when(userRepository).findKeysByUsernamesOrEmails(any(), any());
+            doReturn(expectedUser).when(userMapper).toUser(userDtoRequest);
+            doReturn(List.of(new Upserted<>(expectedUser, UpsertStatus.UPDATED)))
+                    .when(userRepository).upsertAll(List.of(expectedUser));
+
+            UpsertBatchDtoResponse actualBatch = userService.upsertAll(userDtoRequests);
+
+            verify(entityCache).evictAll(EntityCache.USERS, List.of(expectedUser.getId()));
+            verify(negativeLookup, never()).addedAll(any());
+
+            assertAll(
+                    () -> assertThat(actualBatch.getUpdated()).isEqualTo(1),
+                    () -> assertThat(actualBatch.getErrors())
+                            .extracting(BatchItemErrorDtoResponse::getIndex)
+                            .containsExactly(1)
+            );
+        }
+
+        private InputStream toInputStream(List<UserDtoRequest> userDtoRequests) throws Exception {
+            return new ByteArrayInputStream(objectMapper.writeValueAsBytes(userDtoRequests));
+        }
+    }
+
+    @Nested
+    public class FindAllTest {
+        @Test
+        @DisplayName("Find all Users")
+        void checkFindAllShouldReturnUserDtoResponsePage() {
+            doReturn(new SliceImpl<>(List.of(expectedUser), pageable, true)).when(userRepository).findSliceBy(pageable);
+            doReturn(expectedUserDtoResponse).when(userMapper).toUserDtoResponse(expectedUser, List.of());
+
+            PageResponse<UserDtoResponse> actualUsers = userService.findAll(pageable, null);
+
+            verify(userRepository).findSliceBy(eq(pageable));
+            verify(userRepository, never()).count();
+            verify(userMapper).toUserDtoResponse(any(), any());
+
+            assertAll(
+                    () -> assertThat(actualUsers.getContent()).containsExactly(expectedUserDtoResponse),
+                    () -> assertThat(actualUsers.getHasNext()).isTrue(),
+                    () -> assertThat(actualUsers.getTotalElements()).isNull()
+            );
+        }
+
+        @Test
+        @DisplayName("Find all Users with exact total")
+        void checkFindAllWithExactTotalShouldReturnTotalElements() {
+            doReturn(List.of(new Counted<>(expectedUser, 1L))).when(userRepository).findCountedBy(pageable);
+            doReturn(expectedUserDtoResponse).when(userMapper).toUserDtoResponse(expectedUser, List.of());
+
+            PageResponse<UserDtoResponse> actualUsers = userService.findAll(pageable, TotalType.EXACT);
+
+            verify(userRepository).findCountedBy(eq(pageable));
+            verify(userRepository, never()).count();
+
+            assertAll(
+                    () -> assertThat(actualUsers.getContent()).containsExactly(expectedUserDtoResponse),
+                    () -> assertThat(actualUsers.getHasNext()).isFalse(),
+                    () -> assertThat(actualUsers.getTotalElements()).isEqualTo(1L),
+                    () -> assertThat(actualUsers.getTotalType()).isEqualTo(TotalType.EXACT)
+            );
+        }
+
+        @Test
+        @DisplayName("Find all Users with estimated total")
+        void checkFindAllWithEstimatedTotalShouldReturnTotalElements() {
+            doReturn(new SliceImpl<>(List.of(expectedUser), pageable, false)).when(userRepository).findSliceBy(pageable);
+            doReturn(expectedUserDtoResponse).when(userMapper).toUserDtoResponse(expectedUser, List.of());
+            doReturn(TEST_ESTIMATE).when(rowCountEstimator).estimate(eq("users"), any());
+
+            PageResponse<UserDtoResponse> actualUsers = userService.findAll(pageable, TotalType.ESTIMATE);
+
+            verify(rowCountEstimator).estimate(eq("users"), any());
+
+            assertAll(
+                    () -> assertThat(actualUsers.getTotalElements()).isEqualTo(TEST_ESTIMATE),
+                    () -> assertThat(actualUsers.getTotalType()).isEqualTo(TotalType.ESTIMATE)
+            );
+        }
+    }
+
+    @Nested
+    public class FindAllAfterTest {
+        @Test
+        @DisplayName("Find all Users after cursor; first page")
+        void checkFindAllAfterShouldReturnFirstPageWithNextCursor() {
+            User nextUser = UserTestBuilder.aUser().withId(TEST_ID + 1).build();
+
+            doReturn(List.of(expectedUser, nextUser)).when(userRepository).findAllBy(any());
+            doReturn(expectedUserDtoResponse).when(userMapper).toUserDtoResponse(expectedUser, List.of());
+
+            PageResponse<UserDtoResponse> actualUsers = userService.findAllAfter(null, null, 1);
+
+            verify(userRepository).findAllBy(eq(PageRequest.of(0, 2, Sort.by("id"))));
 
-        PageResponse<UserDtoResponse> actualUsers = userService.findAll(pageable);
+            assertAll(
+                    () -> assertThat(actualUsers.getContent()).containsExactly(expectedUserDtoResponse),
+                    () -> assertThat(actualUsers.getNextCursor())
+                            .isEqualTo(KeysetCursor.of("id", expectedUser.getId(), null).encode())
+            );
+        }
+
+        @Test
+        @DisplayName("Find all Users after cursor; last page")
+        void checkFindAllAfterShouldReturnLastPageWithoutNextCursor() {
+            String after = KeysetCursor.of("username", TEST_ID, TEST_STRING).encode();
+
+            doReturn(List.of(expectedUser)).when(userRepository).findAfterUsername(TEST_STRING, TEST_ID, PageRequest.ofSize(2));
+            doReturn(expectedUserDtoResponse).when(userMapper).toUserDtoResponse(expectedUser, List.of());
+
+            PageResponse<UserDtoResponse> actualUsers = userService.findAllAfter(after, null, 1);
+
+            verify(userRepository).findAfterUsername(any(), anyLong(), any());
+
+            assertAll(
+                    () -> assertThat(actualUsers.getContent()).containsExactly(expectedUserDtoResponse),
+                    () -> assertThat(actualUsers.getNextCursor()).isNull()
+            );
+        }
 
-        verify(userRepository).findAll(eq(pageable));
-        verify(userMapper).toUserDtoResponse(any());
+        @Test
+        @DisplayName("Find all Users after cursor; invalid cursor")
+        void checkFindAllAfterShouldThrowInvalidRequestException() {
+            assertThrows(InvalidRequestException.class, () -> userService.findAllAfter("%%%", null, 1));
+        }
 
-        assertThat(actualUsers.getContent().stream()
-                .anyMatch(actualUserDtoResponse -> actualUserDtoResponse.equals(expectedUserDtoResponse))
-        ).isTrue();
+        @Test
+        @DisplayName("Find all Users after cursor; unsupported order")
+        void checkFindAllAfterWithUnsupportedOrderShouldThrowInvalidRequestException() {
+            assertThrows(InvalidRequestException.class, () -> userService.findAllAfter(null, "unknown", 1));
+        }
+    }
+
+    @Nested
+    public class FindAllByLibraryIdTest {
+        @Test
+        @DisplayName("Find all Users by Library ID")
+        void checkFindAllByLibraryIdShouldReturnUserDtoResponsePage() {
+            String after = KeysetCursor.of("id", TEST_ID, null).encode();
+
+            doReturn(true).when(libraryRepository).existsById(TEST_ID);
+            doReturn(List.of(expectedUser)).when(userRepository)
+                    .findByLibraryIdAndIdGreaterThan(TEST_ID, TEST_ID, PageRequest.ofSize(2));
+            doReturn(expectedUserDtoResponse).when(userMapper).toUserDtoResponse(expectedUser, List.of());
+
+            PageResponse<UserDtoResponse> actualUsers = userService.findAllByLibraryId(TEST_ID, after, 1);
+
+            verify(userRepository).findByLibraryIdAndIdGreaterThan(anyLong(), anyLong(), any());
+
+            assertAll(
+                    () -> assertThat(actualUsers.getContent()).containsExactly(expectedUserDtoResponse),
+                    () -> assertThat(actualUsers.getNextCursor()).isNull()
+            );
+        }
+
+        @Test
+        @DisplayName("Find all Users by Library ID; not found")
+        void checkFindAllByLibraryIdShouldThrowLibraryNotFoundException() {
+            doReturn(false).when(libraryRepository).existsById(anyLong());
+
+            assertThrows(EntityNotFoundException.class, () -> userService.findAllByLibraryId(TEST_ID, null, 1));
+
+            verify(userRepository, never()).findByLibraryIdAndIdGreaterThan(anyLong(), anyLong(), any());
+        }
+
+        @Test
+        @DisplayName("Find all Users by Library ID; unsupported order")
+        void checkFindAllByLibraryIdWithUnsupportedOrderShouldThrowInvalidRequestException() {
+            String after = KeysetCursor.of("username", TEST_ID, TEST_STRING).encode();
+
+            doReturn(true).when(libraryRepository).existsById(TEST_ID);
+
+            assertThrows(InvalidRequestException.class, () -> userService.findAllByLibraryId(TEST_ID, after, 1));
+        }
     }
 
     @Nested
@@ -124,12 +444,12 @@ class UserServiceTest {
         @ValueSource(longs = {1L, 2L, 3L})
         void checkFindByIdShouldReturnUserDtoResponse(Long id) {
             doReturn(Optional.of(expectedUser)).when(userRepository).findById(id);
-            doReturn(expectedUserDtoResponse).when(userMapper).toUserDtoResponse(expectedUser);
+            doReturn(expectedUserDtoResponse).when(userMapper).toUserDtoResponse(expectedUser, List.of());
 
             UserDtoResponse actualUser = userService.findById(id);
 
             verify(userRepository).findById(anyLong());
-            verify(userMapper).toUserDtoResponse(any());
+            verify(userMapper).toUserDtoResponse(any(), any());
 
             assertThat(actualUser).isEqualTo(expectedUserDtoResponse);
         }
@@ -143,6 +463,26 @@ class UserServiceTest {
 
             verify(userRepository).findById(anyLong());
         }
+
+        @Test
+        @DisplayName("Find User by ID; not found is remembered")
+        void checkFindByIdNotFoundShouldRememberMissingId() {
+            doReturn(Optional.empty()).when(userRepository).findById(anyLong());
+
+            assertThrows(EntityNotFoundException.class, () -> userService.findById(TEST_ID));
+
+            verify(negativeLookup).missing(EntityCache.USERS, TEST_ID);
+        }
+
+        @Test
+        @DisplayName("Find User by ID; known to be missing")
+        void checkFindByIdKnownMissingShouldThrowWithoutQuery() {
+            doReturn(true).when(negativeLookup).isKnownMissing(EntityCache.USERS, TEST_ID);
+
+            assertThrows(EntityNotFoundException.class, () -> userService.findById(TEST_ID));
+
+            verify(userRepository, never()).findById(anyLong());
+        }
     }
 
     @Nested
@@ -151,17 +491,14 @@ class UserServiceTest {
         @ParameterizedTest
         @ValueSource(longs = {1L, 2L, 3L})
         void checkUpdateShouldReturnUserDtoResponse(Long id) {
-            doReturn(Optional.of(expectedUser)).when(userRepository).findById(id);
-            doNothing().when(userMapper).updateUser(userDtoRequest, expectedUser);
-            doReturn(expectedUser).when(userRepository).save(expectedUser);
-            doReturn(expectedUserDtoResponse).when(userMapper).toUserDtoResponse(expectedUser);
+            doReturn(Optional.of(new WithRelatedIds<>(expectedUser, List.of()))).when(userRepository).updateById(id, userDtoRequest, null);
+            doReturn(expectedUserDtoResponse).when(userMapper).toUserDtoResponse(expectedUser, List.of());
 
-            UserDtoResponse actualUser = userService.update(id, userDtoRequest);
+            UserDtoResponse actualUser = userService.update(id, userDtoRequest, null);
 
-            verify(userRepository).findById(anyLong());
-            verify(userMapper).updateUser(any(), any());
-            verify(userRepository).save(any());
-            verify(userMapper).toUserDtoResponse(any());
+            verify(userRepository).updateById(anyLong(), any(), any());
+            verify(userRepository, never()).findById(anyLong());
+            verify(userMapper).toUserDtoResponse(any(), any());
 
             assertThat(actualUser).isEqualTo(expectedUserDtoResponse);
         }
@@ -170,17 +507,13 @@ class UserServiceTest {
         @ParameterizedTest
         @ValueSource(longs = {1L, 2L, 3L})
         void checkUpdateWithArgumentCaptorShouldReturnUserDtoResponse(Long id) {
-            doReturn(Optional.of(expectedUser)).when(userRepository).findById(id);
-            doNothing().when(userMapper).updateUser(userDtoRequest, expectedUser);
-            doReturn(expectedUser).when(userRepository).save(expectedUser);
-            doReturn(expectedUserDtoResponse).when(userMapper).toUserDtoResponse(expectedUser);
+            doReturn(Optional.of(new WithRelatedIds<>(expectedUser, List.of()))).when(userRepository).updateById(id, userDtoRequest, null);
+            doReturn(expectedUserDtoResponse).when(userMapper).toUserDtoResponse(expectedUser, List.of());
 
-            userService.update(id, userDtoRequest);
+            userService.update(id, userDtoRequest, null);
 
-            verify(userRepository).findById(anyLong());
-            verify(userMapper).updateUser(any(), any());
-            verify(userRepository).save(userCaptor.capture());
-            verify(userMapper).toUserDtoResponse(any());
+            verify(userRepository).updateById(anyLong(), any(), any());
+            verify(userMapper).toUserDtoResponse(userCaptor.capture(), any());
 
             assertThat(userCaptor.getValue()).isEqualTo(expectedUser);
         }
@@ -188,13 +521,29 @@ class UserServiceTest {
         @Test
         @DisplayName("Update User by ID; not found")
         void checkUpdateShouldThrowUserNotFoundException() {
-            doThrow(EntityNotFoundException.class).when(userRepository).findById(anyLong());
+            doReturn(Optional.empty()).when(userRepository).updateById(TEST_ID, userDtoRequest, null);
 
-            assertThrows(EntityNotFoundException.class,
-                    () -> userService.update(TEST_ID, userDtoRequest)
-            );
+            assertThrows(EntityNotFoundException.class, () -> userService.update(TEST_ID, userDtoRequest, null));
 
-            verify(userRepository).findById(anyLong());
+            verify(userRepository, never()).findVersionById(anyLong());
+        }
+
+        @Test
+        @DisplayName("Update User by ID with an expected version; not found")
+        void checkUpdateWithExpectedVersionShouldThrowUserNotFoundException() {
+            doReturn(Optional.empty()).when(userRepository).updateById(TEST_ID, userDtoRequest, 5L);
+            doReturn(Optional.empty()).when(userRepository).findVersionById(TEST_ID);
+
+            assertThrows(EntityNotFoundException.class, () -> userService.update(TEST_ID, userDtoRequest, 5L));
+        }
+
+        @Test
+        @DisplayName("Update User by ID; modified since the expected version")
+        void checkUpdateWithOtherExpectedVersionShouldThrowPreconditionFailedException() {
+            doReturn(Optional.empty()).when(userRepository).updateById(TEST_ID, userDtoRequest, 5L);
+            doReturn(Optional.of(6L)).when(userRepository).findVersionById(TEST_ID);
+
+            assertThrows(PreconditionFailedException.class, () -> userService.update(TEST_ID, userDtoRequest, 5L));
         }
     }
 
@@ -204,23 +553,22 @@ class UserServiceTest {
         @ParameterizedTest
         @ValueSource(longs = {1L, 2L, 3L})
         void checkDeleteByIdShouldReturnUserDtoResponse(Long id) {
-            doReturn(true).when(userRepository).existsById(id);
-            doNothing().when(userRepository).deleteById(id);
+            doReturn(true).when(userRepository).removeById(id);
 
             userService.deleteById(id);
 
-            verify(userRepository).existsById(anyLong());
-            verify(userRepository).deleteById(anyLong());
+            verify(userRepository).removeById(anyLong());
+            verify(userRepository, never()).existsById(anyLong());
         }
 
         @Test
         @DisplayName("Delete User by ID; not found")
         void checkDeleteByIdShouldThrowUserNotFoundException() {
-            doReturn(false).when(userRepository).existsById(anyLong());
+            doReturn(false).when(userRepository).removeById(anyLong());
 
             assertThrows(EntityNotFoundException.class, () -> userService.deleteById(TEST_ID));
 
-            verify(userRepository).existsById(anyLong());
+            verify(userRepository).removeById(anyLong());
         }
     }
 }
@@ -0,0 +1,83 @@
+package chief.digital.bookssystem.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+
+import java.time.Duration;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class RateLimitedLoggerTest {
+
+    private static final int LIMIT = 2;
+    private static final Duration INTERVAL = Duration.ofMillis(200);
+    private static final String KEY = "EntityNotFoundException";
+    private static final String MESSAGE = "Book with ID 1 was not found";
+
+    @Mock
+    private Logger logger;
+
+    private RateLimitedLogger rateLimitedLogger;
+
+    @BeforeEach
+    void setUp() {
+        lenient().doReturn(true).when(logger).isWarnEnabled();
+        rateLimitedLogger = new RateLimitedLogger(logger, LIMIT, INTERVAL, 1.0);
+    }
+
+    @Test
+    @DisplayName("Log at most the limit of messages per interval")
+    void checkWarnAboveLimitShouldSuppressMessages() {
+        for (int i = 0; i < 5; i++) {
+            rateLimitedLogger.warn(KEY, MESSAGE);
+        }
+
+        verify(logger, times(LIMIT)).warn(MESSAGE);
+    }
+
+    @Test
+    @DisplayName("Report suppressed messages with the next logged one")
+    void checkWarnAfterIntervalShouldReportSuppressedMessages() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            rateLimitedLogger.warn(KEY, MESSAGE);
+        }
+        Thread.sleep(INTERVAL.toMillis() + 50);
+
+        rateLimitedLogger.warn(KEY, MESSAGE);
+
+        verify(logger).warn("{} ({} similar messages suppressed)", MESSAGE, 3L);
+    }
+
+    @Test
+    @DisplayName("Limit messages of each key separately")
+    void checkWarnWithOtherKeyShouldNotBeSuppressed() {
+        for (int i = 0; i < 5; i++) {
+            rateLimitedLogger.warn(KEY, MESSAGE);
+        }
+
+        rateLimitedLogger.warn("InvalidRequestException", "Invalid");
+
+        verify(logger).warn("Invalid");
+    }
+
+    @Test
+    @DisplayName("Log nothing when warnings are disabled")
+    void checkWarnWhenDisabledShouldNotLog() {
+        doReturn(false).when(logger).isWarnEnabled();
+
+        rateLimitedLogger.warn(KEY, MESSAGE);
+
+        verify(logger, never()).warn(anyString());
+    }
+}
@@ -6,6 +6,7 @@ public class TestConstants {
 
     public static final Integer TEST_PAGE = 0;
     public static final Integer TEST_PAGE_SIZE = 100;
+    public static final Long TEST_ESTIMATE = 1000L;
 
     public static final Long TEST_ID = 1L;
     public static final Integer TEST_INT = 1;
@@ -0,0 +1 @@
+CREATE DATABASE test_replica;